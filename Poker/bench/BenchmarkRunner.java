@@ -0,0 +1,218 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Small benchmark harness in the spirit of JMH. Each benchmark is warmed up, then timed over
+ * several fixed length iterations, and the average time per operation is recorded. Results
+ * are printed as they complete and can be written to a JSON file so runs can be compared
+ * over time.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+
+    /** Number of operations run between clock reads */
+    public static final int BATCH = 256;
+
+    /** Number of warmup iterations per benchmark */
+    private int warmupIterations;
+
+    /** Number of measured iterations per benchmark */
+    private int measurementIterations;
+
+    /** Length of each iteration in milliseconds */
+    private int iterationMillis;
+
+    /** Pattern a benchmark name must contain to be run */
+    private Pattern filter;
+
+    /** Results of the benchmarks run so far */
+    private List<Result> results = new ArrayList<Result>();
+
+    /** Combined results of all operations, kept so the work cannot be optimized away */
+    private long sink;
+
+    /**
+     * Constructor for the runner
+     * @param warmupIterations for the number of warmup iterations per benchmark
+     * @param measurementIterations for the number of measured iterations per benchmark
+     * @param iterationMillis for the length of each iteration in milliseconds
+     * @param filter for a regular expression a benchmark name must contain to be run
+     * @throws IllegalArgumentException if any count is not positive or filter is null
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations,
+                           int iterationMillis, String filter) {
+        if (warmupIterations < 0 || measurementIterations < 1 || iterationMillis < 1) {
+            throw new IllegalArgumentException("Invalid iteration settings");
+        } else if (filter == null) {
+            throw new IllegalArgumentException("Null filter");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+        this.filter = Pattern.compile(filter);
+    }
+
+    /**
+     * Runs a benchmark if its name matches the filter
+     * @param benchmark for the name of the benchmark
+     * @param distribution for the name of the input distribution, or "" if there is none
+     * @param operation for a single operation, returning a value that depends on its work
+     */
+    public void run(String benchmark, String distribution, LongSupplier operation) {
+        String fullName = distribution.isEmpty() ? benchmark : benchmark + ":" + distribution;
+        if (!filter.matcher(fullName).find()) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = iteration(operation);
+        }
+        Result result = new Result(benchmark, distribution, scores);
+        results.add(result);
+        System.out.printf("%-48s %10.2f ns/op  +- %.2f%n", fullName, result.getScore(),
+                          result.getError());
+    }
+
+    /**
+     * Runs one timed iteration
+     * @param operation for the operation to be timed
+     * @return the average time per operation in nanoseconds
+     */
+    private double iteration(LongSupplier operation) {
+        long deadline = System.nanoTime() + iterationMillis * 1000000L;
+        long operations = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                sink += operation.getAsLong();
+            }
+            operations += BATCH;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return (now - start) / (double) operations;
+    }
+
+    /**
+     * Returns the results of the benchmarks run so far
+     * @return the results in the order they were run
+     */
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Writes the results to a JSON file, one object per benchmark
+     * @param file for the file to be written
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.write("  {\"benchmark\": \"" + result.getBenchmark() + "\", "
+                          + "\"distribution\": \"" + result.getDistribution() + "\", "
+                          + "\"mode\": \"avgt\", \"unit\": \"ns/op\", "
+                          + String.format(Locale.ROOT, "\"score\": %.3f, \"error\": %.3f, ",
+                                          result.getScore(), result.getError())
+                          + "\"iterations\": " + result.getIterations() + "}");
+                out.write(i == results.size() - 1 ? "\n" : ",\n");
+            }
+            out.write("]\n");
+        }
+    }
+
+    /**
+     * Returns the combined results of every operation run. Printing it keeps the JIT from
+     * treating the benchmarked work as dead code.
+     * @return the checksum of all operation results
+     */
+    public long getChecksum() {
+        return sink;
+    }
+
+    /**
+     * The measured time per operation of one benchmark
+     */
+    public static class Result {
+
+        /** Name of the benchmark */
+        private String benchmark;
+
+        /** Name of the input distribution */
+        private String distribution;
+
+        /** Average time per operation in each measured iteration */
+        private double[] scores;
+
+        /**
+         * Constructor for a result
+         * @param benchmark for the name of the benchmark
+         * @param distribution for the name of the input distribution
+         * @param scores for the time per operation in each measured iteration
+         */
+        public Result(String benchmark, String distribution, double[] scores) {
+            this.benchmark = benchmark;
+            this.distribution = distribution;
+            this.scores = scores;
+        }
+
+        /**
+         * Returns the name of the benchmark
+         * @return the benchmark name
+         */
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        /**
+         * Returns the name of the input distribution
+         * @return the distribution name, or "" if there is none
+         */
+        public String getDistribution() {
+            return distribution;
+        }
+
+        /**
+         * Returns the number of measured iterations
+         * @return the number of iterations
+         */
+        public int getIterations() {
+            return scores.length;
+        }
+
+        /**
+         * Returns the mean time per operation across iterations
+         * @return the mean in nanoseconds
+         */
+        public double getScore() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * Returns the standard deviation of the time per operation across iterations
+         * @return the standard deviation in nanoseconds
+         */
+        public double getError() {
+            double mean = getScore();
+            double sum = 0;
+            for (double score : scores) {
+                sum += (score - mean) * (score - mean);
+            }
+            return scores.length > 1 ? Math.sqrt(sum / (scores.length - 1)) : 0;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs the benchmarks for the hot paths of Card, Deck, Hand, the seven card evaluator,
+ * VideoPoker and the card table renderer and writes the results to a JSON file.
+ *
+ * Usage: java -cp bin BenchmarkSuite [-f filter] [-o file] [-wi warmups] [-i iterations]
+ * [-t millis], where filter is a regular expression matched against benchmark names.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class BenchmarkSuite {
+
+    /** File results are written to unless another is given */
+    public static final String DEFAULT_OUTPUT = "benchmark-results.json";
+
+    /** Seed used to build the sample hands, so every run measures the same hands */
+    public static final long SEED = 1;
+
+    /** Mask used to cycle through the sample hands of a distribution */
+    private static final int HAND_MASK = HandDistributions.SIZE - 1;
+
+    /**
+     * Runs the benchmarks
+     * @param args the options described in the class comment
+     * @throws IOException if the results cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String filter = "";
+        String output = DEFAULT_OUTPUT;
+        int warmups = 3;
+        int iterations = 5;
+        int millis = 200;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "-f":
+                        filter = args[i + 1];
+                        break;
+                    case "-o":
+                        output = args[i + 1];
+                        break;
+                    case "-wi":
+                        warmups = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "-i":
+                        iterations = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "-t":
+                        millis = Integer.parseInt(args[i + 1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Usage: java -cp bin BenchmarkSuite [-f filter] [-o file] "
+                               + "[-wi warmups] [-i iterations] [-t millis]");
+            return;
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(warmups, iterations, millis, filter);
+        deckBenchmarks(runner);
+        handBenchmarks(runner);
+        sevenCardBenchmarks(runner);
+        videoPokerBenchmarks(runner);
+        tableBenchmarks(runner);
+        runner.writeJson(Paths.get(output));
+        System.out.println("Wrote " + runner.getResults().size() + " results to " + output
+                           + " (checksum " + runner.getChecksum() + ")");
+    }
+
+    /**
+     * Benchmarks shuffling and dealing
+     * @param runner for the runner the benchmarks are run with
+     */
+    private static void deckBenchmarks(BenchmarkRunner runner) {
+        for (ShuffleAlgorithm algorithm : ShuffleAlgorithm.values()) {
+            Deck seeded = new Deck((int) SEED, algorithm);
+            runner.run("Deck.shuffle", algorithm.name(), () -> {
+                seeded.shuffle();
+                return seeded.nextCardCode();
+            });
+        }
+        for (boolean lazy : new boolean[] {false, true}) {
+            Deck game = new Deck((int) SEED, ShuffleAlgorithm.DEFAULT, lazy);
+            runner.run("Deck.deal10", lazy ? "lazy" : "full", () -> {
+                game.shuffle();
+                long dealt = 0;
+                for (int i = 0; i < 2 * Hand.CARDS_IN_HAND; i++) {
+                    dealt |= 1L << game.nextCardCode();
+                }
+                return dealt;
+            });
+        }
+        Deck deck = new Deck(VideoPoker.RANDOM_GAME);
+        int[] dealt = {Deck.CARDS_IN_DECK};
+        runner.run("Deck.nextCard", "", () -> {
+            if (dealt[0] == Deck.CARDS_IN_DECK) {
+                deck.shuffle();
+                dealt[0] = 0;
+            }
+            dealt[0]++;
+            return deck.nextCard().getValue();
+        });
+        runner.run("Deck.nextCardCode", "", () -> {
+            if (dealt[0] == Deck.CARDS_IN_DECK) {
+                deck.shuffle();
+                dealt[0] = 0;
+            }
+            dealt[0]++;
+            return deck.nextCardCode();
+        });
+    }
+
+    /**
+     * Benchmarks each Hand predicate, sorting, counting and whole hand scoring over every
+     * sample distribution
+     * @param runner for the runner the benchmarks are run with
+     * @throws IOException if the hand rank table cannot be written to a temporary file
+     */
+    private static void handBenchmarks(BenchmarkRunner runner) throws IOException {
+        Path tableFile = Files.createTempFile("handranks", ".dat");
+        tableFile.toFile().deleteOnExit();
+        HandRankTable.generate(tableFile);
+        HandRankTable table = HandRankTable.load(tableFile);
+
+        Map<String, ToLongFunction<Hand>> operations =
+            new LinkedHashMap<String, ToLongFunction<Hand>>();
+        operations.put("Hand.isRoyalFlush", h -> h.isRoyalFlush() ? 1 : 0);
+        operations.put("Hand.isStraightFlush", h -> h.isStraightFlush() ? 1 : 0);
+        operations.put("Hand.hasFourOfAKind", h -> h.hasFourOfAKind() ? 1 : 0);
+        operations.put("Hand.isFullHouse", h -> h.isFullHouse() ? 1 : 0);
+        operations.put("Hand.isFlush", h -> h.isFlush() ? 1 : 0);
+        operations.put("Hand.isStraight", h -> h.isStraight() ? 1 : 0);
+        operations.put("Hand.hasThreeOfAKind", h -> h.hasThreeOfAKind() ? 1 : 0);
+        operations.put("Hand.hasTwoPairs", h -> h.hasTwoPairs() ? 1 : 0);
+        operations.put("Hand.hasOnePair", h -> h.hasOnePair() ? 1 : 0);
+        operations.put("Hand.getSortedHand", h -> h.getSortedHand()[0].getValue());
+        operations.put("Hand.getCounts", h -> h.getCounts()[Card.HIGHEST_VALUE]);
+        operations.put("Hand.getCategory", h -> h.getCategory().getCode());
+        operations.put("Hand.getStrength", h -> h.getStrength());
+        operations.put("HandEvaluator.evaluate", h -> HandEvaluator.evaluate(h));
+        operations.put("Hand.evaluateTable", h -> h.evaluate(table));
+
+        int[][][] distributions = HandDistributions.build(SEED);
+        for (int d = 0; d < distributions.length; d++) {
+            int[][] codes = distributions[d];
+            Hand[] hands = new Hand[codes.length];
+            for (int i = 0; i < hands.length; i++) {
+                hands[i] = Hand.fromCodes(codes[i]);
+            }
+            int[] next = {0};
+            for (Map.Entry<String, ToLongFunction<Hand>> entry : operations.entrySet()) {
+                ToLongFunction<Hand> operation = entry.getValue();
+                runner.run(entry.getKey(), HandDistributions.NAMES[d],
+                    () -> operation.applyAsLong(hands[next[0]++ & HAND_MASK]));
+            }
+            runner.run("Hand.scoreLoopPredicates", HandDistributions.NAMES[d],
+                () -> LoopPredicates.score(codes[next[0]++ & HAND_MASK]));
+            // One operation scores the whole distribution, HandDistributions.SIZE hands
+            int[] packed = new int[codes.length * Hand.CARDS_IN_HAND];
+            long[] masks = new long[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                System.arraycopy(codes[i], 0, packed, i * Hand.CARDS_IN_HAND, Hand.CARDS_IN_HAND);
+                masks[i] = hands[i].getMask();
+            }
+            int[] categories = new int[codes.length];
+            runner.run("HandBatchEvaluator.categorize", HandDistributions.NAMES[d], () -> {
+                HandBatchEvaluator.categorize(packed, categories);
+                return categories[next[0]++ & HAND_MASK];
+            });
+            runner.run("HandBatchEvaluator.categorizeMasks", HandDistributions.NAMES[d], () -> {
+                HandBatchEvaluator.categorizeMasks(masks, categories);
+                return categories[next[0]++ & HAND_MASK];
+            });
+        }
+    }
+
+    /**
+     * Benchmarks evaluating random seven card holdings directly, by mask, and as the best of
+     * their 21 five card hands
+     * @param runner for the runner the benchmarks are run with
+     */
+    private static void sevenCardBenchmarks(BenchmarkRunner runner) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] codes = new int[HandDistributions.SIZE * SevenCardEvaluator.CARDS];
+        long[] masks = new long[HandDistributions.SIZE];
+        for (int h = 0; h < masks.length; h++) {
+            for (int i = 0; i < SevenCardEvaluator.CARDS; ) {
+                int code = random.nextInt(Card.CODES);
+                if ((masks[h] >>> code & 1) == 0) {
+                    masks[h] |= 1L << code;
+                    codes[h * SevenCardEvaluator.CARDS + i++] = code;
+                }
+            }
+        }
+        int[] next = {0};
+        runner.run("SevenCardEvaluator.evaluate", "random", () -> {
+            int c = (next[0]++ & HAND_MASK) * SevenCardEvaluator.CARDS;
+            return SevenCardEvaluator.evaluate(codes[c], codes[c + 1], codes[c + 2],
+                codes[c + 3], codes[c + 4], codes[c + 5], codes[c + 6]);
+        });
+        runner.run("SevenCardEvaluator.evaluateMask", "random",
+            () -> SevenCardEvaluator.evaluateMask(masks[next[0]++ & HAND_MASK]));
+        int[] chosen = new int[Hand.CARDS_IN_HAND];
+        runner.run("HandEvaluator.bestOf21", "random", () -> {
+            int c = (next[0]++ & HAND_MASK) * SevenCardEvaluator.CARDS;
+            int best = 0;
+            for (int i = 0; i < SevenCardEvaluator.CARDS; i++) {
+                for (int j = i + 1; j < SevenCardEvaluator.CARDS; j++) {
+                    for (int k = 0, n = 0; k < SevenCardEvaluator.CARDS; k++) {
+                        if (k != i && k != j) {
+                            chosen[n++] = codes[c + k];
+                        }
+                    }
+                    best = Math.max(best, HandEvaluator.evaluate(chosen[0], chosen[1],
+                        chosen[2], chosen[3], chosen[4]));
+                }
+            }
+            return best;
+        });
+        EquityCalculator calculator = new EquityCalculator();
+        long[] holes = {EquityCalculator.cards("AhKh"), EquityCalculator.cards("QsQd")};
+        long flop = EquityCalculator.cards("2h7h9c");
+        runner.run("EquityCalculator.calculate", "flop",
+            () -> calculator.calculate(holes, flop, 0).getWins(0));
+    }
+
+    /**
+     * Benchmarks a full round of video poker: a new game, replacing every card that is not
+     * part of a pair or better, and scoring the hand. Multi-hand rounds are timed for
+     * Triple, Five and Hundred Play.
+     * @param runner for the runner the benchmarks are run with
+     */
+    private static void videoPokerBenchmarks(BenchmarkRunner runner) {
+        VideoPoker game = new VideoPoker(VideoPoker.RANDOM_GAME);
+        runner.run("VideoPoker.round", "", () -> {
+            game.newGame();
+            int[] values = new int[VideoPoker.CARDS_IN_HAND];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = game.getCard(i).getValue();
+            }
+            for (int i = 0; i < values.length; i++) {
+                boolean matched = false;
+                for (int j = 0; j < values.length; j++) {
+                    matched |= i != j && values[i] == values[j];
+                }
+                if (!matched) {
+                    game.replaceCard(i);
+                }
+            }
+            return game.scoreHand().length();
+        });
+        HoldPolicy policy = HoldPolicy.holdMatches();
+        int[] dealt = new int[VideoPoker.CARDS_IN_HAND];
+        for (int hands : new int[] {MultiHandVideoPoker.TRIPLE_PLAY,
+                                    MultiHandVideoPoker.FIVE_PLAY,
+                                    MultiHandVideoPoker.HUNDRED_PLAY}) {
+            MultiHandVideoPoker multiHand = new MultiHandVideoPoker(VideoPoker.RANDOM_GAME, hands);
+            runner.run("MultiHandVideoPoker.round", hands + "hands", () -> {
+                multiHand.newGame();
+                for (int i = 0; i < dealt.length; i++) {
+                    dealt[i] = multiHand.getDealtCode(i);
+                }
+                return multiHand.draw(policy.hold(dealt));
+            });
+        }
+    }
+
+    /**
+     * Benchmarks frame times of the card table, rendered offscreen so no display is needed:
+     * a whole frame of still cards, a whole frame with every card flipping, and a painted
+     * frame in which one card flips and only its slot is drawn again
+     * @param runner for the runner the benchmarks are run with
+     * @throws IOException if the card images cannot be read
+     */
+    private static void tableBenchmarks(BenchmarkRunner runner) throws IOException {
+        if (!Files.isDirectory(CardImages.DEFAULT_DIRECTORY)) {
+            System.out.println("Skipping CardTablePanel: no " + CardImages.DEFAULT_DIRECTORY
+                               + " directory");
+            return;
+        }
+        CardImages images = CardImages.load(CardImages.DEFAULT_DIRECTORY);
+        long[] now = {0};
+        CardTablePanel table = new CardTablePanel(VideoPoker.CARDS_IN_HAND, () -> now[0]);
+        table.setImages(images);
+        table.setSize(table.getPreferredSize());
+        BufferedImage frame = new BufferedImage(table.getWidth(), table.getHeight(),
+                                                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Card.code(i + 10, Card.SPADES);
+        }
+        table.deal(codes);
+        long still = 2 * (CardTablePanel.FLIP_NANOS
+                          + codes.length * CardTablePanel.DEAL_STAGGER_NANOS);
+        long[] n = {0};
+        runner.run("CardTablePanel.render", "still", () -> {
+            table.render(g, still);
+            return frame.getRGB(CardTablePanel.GAP, CardTablePanel.GAP);
+        });
+        long flipping = codes.length * CardTablePanel.DEAL_STAGGER_NANOS;
+        runner.run("CardTablePanel.render", "flipping", () -> {
+            table.render(g, flipping + n[0]++ % CardTablePanel.DEAL_STAGGER_NANOS);
+            return frame.getRGB(CardTablePanel.GAP, CardTablePanel.GAP);
+        });
+        now[0] = still;
+        table.tick(now[0]);
+        table.setCard(2, Card.code(2, Card.CLUBS));
+        long start = now[0];
+        runner.run("CardTablePanel.paint", "oneSlot", () -> {
+            // Cycle within the flip, so it never finishes and its slot is always dirty
+            table.tick(start + n[0]++ * 1000003 % (CardTablePanel.FLIP_NANOS - 1));
+            table.paint(g);
+            return frame.getRGB(CardTablePanel.GAP, CardTablePanel.GAP);
+        });
+        g.dispose();
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many sessions and rounds a GameSessionManager handles on one machine. The
+ * sessions are created first and timed, then client threads play rounds for a fixed time.
+ * Each client owns an equal share of the sessions, as a session belongs to one player, and
+ * plays rounds in randomly chosen sessions of its share: each round deals, chooses holds
+ * with HoldPolicy.holdMatches() and draws, waiting for each reply before sending the next
+ * request, as a remote player would.
+ *
+ * Usage: java -cp bin GameLoadGenerator [sessions] [clients] [seconds] [lanes]
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameLoadGenerator {
+
+    /**
+     * Runs the load
+     * @param args the options described in the class comment
+     * @throws Exception if a client fails or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4 * processors;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int lanes = args.length > 3 ? Integer.parseInt(args[3]) : processors;
+        if (clients < 1 || sessionCount < clients) {
+            System.out.println("Usage: java -cp bin GameLoadGenerator [sessions] [clients] "
+                               + "[seconds] [lanes], with at least one session per client");
+            return;
+        }
+
+        try (GameSessionManager manager = new GameSessionManager(lanes, 1)) {
+            long start = System.nanoTime();
+            long[] ids = new long[sessionCount];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = manager.createSession();
+            }
+            double createSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "Created %d sessions in %.3f s, %.0f sessions/s%n",
+                              sessionCount, createSeconds, sessionCount / createSeconds);
+
+            LongAdder rounds = new LongAdder();
+            long deadline = System.nanoTime() + seconds * 1000000000L;
+            HoldPolicy policy = HoldPolicy.holdMatches();
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            int share = sessionCount / clients;
+            start = System.nanoTime();
+            try {
+                for (int c = 0; c < clients; c++) {
+                    int first = c * share;
+                    futures.add(executor.submit(() -> {
+                        SplittableRandom random = new SplittableRandom(first);
+                        while (System.nanoTime() < deadline) {
+                            long id = ids[first + random.nextInt(share)];
+                            int[] codes = manager.deal(id).join();
+                            manager.draw(id, policy.hold(codes)).join();
+                            rounds.increment();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            double playSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT,
+                              "%d clients on %d lanes played %d rounds in %.1f s, "
+                              + "%.0f rounds/s%n", clients, lanes, rounds.sum(), playSeconds,
+                              rounds.sum() / playSeconds);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.*;
+
+/**
+ * Builds sample hands for benchmarks. Hand predicates return early for some hands and not
+ * others, so each distribution draws hands with a different mix of categories: hands as they
+ * are dealt, hands with no pair, hands with one or two pairs, and hands of three of a kind
+ * or better.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class HandDistributions {
+
+    /** Number of hands in each distribution, a power of two so indexes can be masked */
+    public static final int SIZE = 4096;
+
+    /** Names of the distributions, in the order returned by build() */
+    public static final String[] NAMES = {"dealt", "noPair", "pairs", "tripsOrBetter"};
+
+    /**
+     * Private constructor as the class only holds static methods
+     */
+    private HandDistributions() {
+    }
+
+    /**
+     * Builds the card codes of the hands in every distribution
+     * @param seed for the seed of the random deals
+     * @return the hands of each distribution, in the order of NAMES, as arrays of five codes
+     */
+    public static int[][][] build(long seed) {
+        Random rand = new Random(seed);
+        int[] deck = new int[Deck.CARDS_IN_DECK];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        int[][][] distributions = new int[NAMES.length][SIZE][];
+        int[] filled = new int[NAMES.length];
+        while (!isFull(filled)) {
+            for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+                int swap = i + rand.nextInt(deck.length - i);
+                int temp = deck[i];
+                deck[i] = deck[swap];
+                deck[swap] = temp;
+            }
+            int[] hand = Arrays.copyOf(deck, Hand.CARDS_IN_HAND);
+            int category = HandEvaluator.getCategory(
+                HandEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]));
+            add(distributions, filled, 0, hand);
+            if (category == HandEvaluator.NO_PAIR) {
+                add(distributions, filled, 1, hand);
+            } else if (category <= HandEvaluator.TWO_PAIRS) {
+                add(distributions, filled, 2, hand);
+            } else {
+                add(distributions, filled, 3, hand);
+            }
+        }
+        return distributions;
+    }
+
+    /**
+     * Checks whether every distribution is full
+     * @param filled for the number of hands in each distribution
+     * @return true if every distribution holds SIZE hands
+     */
+    private static boolean isFull(int[] filled) {
+        for (int i = 0; i < filled.length; i++) {
+            if (filled[i] < SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a hand to a distribution unless it is already full
+     * @param distributions for the distributions being filled
+     * @param filled for the number of hands in each distribution
+     * @param index for the index of the distribution
+     * @param hand for the hand to be added
+     */
+    private static void add(int[][][] distributions, int[] filled, int index, int[] hand) {
+        if (filled[index] < SIZE) {
+            distributions[index][filled[index]++] = hand;
+        }
+    }
+}
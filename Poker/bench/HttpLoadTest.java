@@ -0,0 +1,220 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures the latency of GameHttpServer under many concurrent sessions. A server is started
+ * in this process on a free port and the sessions are created through it. Client threads then
+ * play rounds for a fixed time, each round a new-game request followed by a draw request
+ * holding every card. Each client owns an equal share of the sessions and plays them in turn
+ * over one keep-alive connection, waiting for each reply before sending the next request.
+ * The latency of every request is recorded and the median, 99th percentile and worst
+ * latencies are reported with the throughput.
+ *
+ * Clients write prepared HTTP/1.1 requests straight to sockets rather than using
+ * java.net.http.HttpClient, whose own cost would otherwise dominate what is measured.
+ *
+ * Usage: java -cp bin HttpLoadTest [sessions] [clients] [seconds] [lanes]
+ * @author William Morgan
+ * @version 1.0
+ */
+public class HttpLoadTest {
+
+    /**
+     * Runs the load
+     * @param args the options described in the class comment
+     * @throws Exception if the server cannot start, a client fails or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int lanes = args.length > 3 ? Integer.parseInt(args[3]) : processors;
+        if (clients < 1 || sessionCount < clients) {
+            System.out.println("Usage: java -cp bin HttpLoadTest [sessions] [clients] "
+                               + "[seconds] [lanes], with at least one session per client");
+            return;
+        }
+
+        GameHttpServer.useNoDelay();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try (GameSessionManager manager = new GameSessionManager(lanes, 1);
+             GameHttpServer server = new GameHttpServer(manager, 0)) {
+            server.start();
+            int port = server.getPort();
+
+            long start = System.nanoTime();
+            try (Client client = new Client(port)) {
+                byte[] create = request("/sessions");
+                for (int i = 0; i < sessionCount; i++) {
+                    client.send(create, 201);
+                }
+            }
+            double createSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "Created %d sessions in %.3f s, %.0f sessions/s%n",
+                              manager.getSessionCount(), createSeconds,
+                              manager.getSessionCount() / createSeconds);
+
+            long deadline = System.nanoTime() + seconds * 1000000000L;
+            int share = sessionCount / clients;
+            List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+            start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                int first = c * share + 1;
+                futures.add(executor.submit(() -> play(port, first, share, deadline)));
+            }
+            long[] latencies = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] client = future.get();
+                int length = latencies.length;
+                latencies = Arrays.copyOf(latencies, length + client.length);
+                System.arraycopy(client, 0, latencies, length, client.length);
+            }
+            double playSeconds = (System.nanoTime() - start) / 1e9;
+
+            int count = latencies.length;
+            Arrays.sort(latencies);
+            System.out.printf(Locale.ROOT, "%d requests in %.1f s from %d clients over %d "
+                              + "sessions, %.0f requests/s%n", count, playSeconds, clients,
+                              sessionCount, count / playSeconds);
+            if (count > 0) {
+                System.out.printf(Locale.ROOT, "Latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                                  latencies[count / 2] / 1e6,
+                                  latencies[(int) (count * 0.99)] / 1e6,
+                                  latencies[count - 1] / 1e6);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays rounds in a client's share of the sessions until the deadline
+     * @param port for the port of the server
+     * @param first for the identifier of the client's first session
+     * @param share for the number of sessions the client owns
+     * @param deadline for the time to stop at
+     * @return the latency of every request in nanoseconds
+     * @throws IOException if a request fails
+     */
+    private static long[] play(int port, int first, int share, long deadline)
+            throws IOException {
+        byte[][] newGames = new byte[share][];
+        byte[][] draws = new byte[share][];
+        for (int i = 0; i < share; i++) {
+            newGames[i] = request("/sessions/" + (first + i) + "/new-game");
+            draws[i] = request("/sessions/" + (first + i) + "/draw?hold=31");
+        }
+        long[] latencies = new long[1024];
+        int count = 0;
+        try (Client client = new Client(port)) {
+            for (int i = 0; System.nanoTime() < deadline; i = (i + 1) % share) {
+                if (count + 2 > latencies.length) {
+                    latencies = Arrays.copyOf(latencies, 2 * latencies.length);
+                }
+                long sent = System.nanoTime();
+                client.send(newGames[i], 200);
+                long drawn = System.nanoTime();
+                client.send(draws[i], 200);
+                latencies[count++] = drawn - sent;
+                latencies[count++] = System.nanoTime() - drawn;
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * Encodes a POST request with no body
+     * @param path for the path and query
+     * @return the bytes of the request
+     */
+    private static byte[] request(String path) {
+        return ("POST " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * One keep-alive connection to the server
+     */
+    private static class Client implements Closeable {
+
+        /** The connection */
+        private final Socket socket;
+
+        /** Stream requests are written to */
+        private final OutputStream out;
+
+        /** Stream replies are read from */
+        private final InputStream in;
+
+        /**
+         * Constructor for a connection
+         * @param port for the port of the server
+         * @throws IOException if the connection cannot be made
+         */
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        /**
+         * Sends a request and reads its reply
+         * @param request for the bytes of the request
+         * @param expected for the status the reply should have
+         * @throws IOException if the connection fails or the reply has another status
+         */
+        void send(byte[] request, int expected) throws IOException {
+            out.write(request);
+            out.flush();
+            // Status line: "HTTP/1.1 200 ...", then headers up to an empty line
+            int status = 0;
+            int length = 0;
+            int column = 0;
+            boolean contentLength = false;
+            for (int line = 0; ; ) {
+                int c = in.read();
+                if (c < 0) {
+                    throw new EOFException("Connection closed");
+                } else if (c == '\n') {
+                    if (column <= 1) {
+                        break;
+                    }
+                    line++;
+                    column = 0;
+                    contentLength = false;
+                    continue;
+                }
+                if (line == 0 && column >= 9 && column < 12) {
+                    status = status * 10 + c - '0';
+                } else if (line > 0 && column == 0) {
+                    contentLength = c == 'C' || c == 'c';
+                } else if (contentLength && column < 15) {
+                    contentLength = Character.toLowerCase(c) == "content-length:".charAt(column);
+                } else if (contentLength && c >= '0' && c <= '9') {
+                    length = length * 10 + c - '0';
+                }
+                column++;
+            }
+            for (int i = 0; i < length; i++) {
+                in.read();
+            }
+            if (status != expected) {
+                throw new IOException("Unexpected status " + status);
+            }
+        }
+
+        /**
+         * Closes the connection
+         * @throws IOException if it cannot be closed
+         */
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
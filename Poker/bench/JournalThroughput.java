@@ -0,0 +1,96 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Measures what journaling costs a game and how fast a journal is read back. Rounds of
+ * video poker are played with and without a GameJournal, replacing every card that is not
+ * part of a pair or better. The journal is then read back with JournalReader and every game
+ * in it is verified with GameReplayer. The segments are written to a temporary directory that
+ * is deleted afterwards.
+ *
+ * Usage: java -cp bin JournalThroughput [rounds]
+ * @author William Morgan
+ * @version 1.0
+ */
+public class JournalThroughput {
+
+    /**
+     * Runs the measurements
+     * @param args args[0] optional number of rounds, 1000000 by default
+     * @throws IOException if the journal cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            // Warm up both paths before timing them
+            play(new VideoPoker(1), null, rounds / 10);
+            long plain = play(new VideoPoker(1), null, rounds);
+            long journaled;
+            long records;
+            try (GameJournal journal = new GameJournal(directory)) {
+                journaled = play(new VideoPoker(1), journal, rounds);
+                records = journal.getAppended();
+            }
+            System.out.printf(Locale.ROOT, "Round without journal %.1f ns, with journal %.1f ns,"
+                              + " %d records%n", (double) plain / rounds,
+                              (double) journaled / rounds, records);
+
+            long start = System.nanoTime();
+            long read = 0;
+            long delta = 0;
+            try (JournalReader reader = new JournalReader(directory)) {
+                while (reader.next()) {
+                    delta += reader.getDelta();
+                    read++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "Read %d records in %.3f s, %.0f records/s, "
+                              + "%.1f MB/s (points delta %d)%n", read, seconds, read / seconds,
+                              read * GameJournal.RECORD_BYTES / seconds / 1e6, delta);
+
+            start = System.nanoTime();
+            ReplayReport report = new GameReplayer().verify(directory);
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "Replayed %s in %.3f s, %.0f games/minute%n", report,
+                              seconds, report.getVerifiedGames() / seconds * 60);
+        } finally {
+            for (Path file : JournalReader.segments(directory)) {
+                Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Plays rounds and times them
+     * @param game for the game
+     * @param journal for the journal the game records to, or null
+     * @param rounds for the number of rounds
+     * @return the time taken in nanoseconds
+     */
+    private static long play(VideoPoker game, GameJournal journal, int rounds) {
+        game.setJournal(journal, 1);
+        int[] values = new int[VideoPoker.CARDS_IN_HAND];
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            game.newGame();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = game.getCard(i).getValue();
+            }
+            for (int i = 0; i < values.length; i++) {
+                boolean matched = false;
+                for (int j = 0; j < values.length; j++) {
+                    matched |= i != j && values[i] == values[j];
+                }
+                if (!matched) {
+                    game.replaceCard(i);
+                }
+            }
+            game.scoreHand();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.*;
+
+/**
+ * The nested loop predicates Hand used before it switched to card masks, kept as the
+ * baseline the mask predicates and HandEvaluator are benchmarked against
+ * @author William Morgan
+ * @version 1.0
+ */
+final class LoopPredicates {
+
+    /**
+     * Private constructor as the class only holds static methods
+     */
+    private LoopPredicates() {
+    }
+
+    /**
+     * Scores a hand with the loop predicates
+     * @param hand for the codes of the cards in the hand
+     * @return the category of the hand
+     */
+    static int score(int[] hand) {
+        boolean flush = isFlush(hand);
+        boolean straight = isStraight(hand);
+        if (flush && straight && sortedValues(hand)[0] == 10) {
+            return HandEvaluator.ROYAL_FLUSH;
+        } else if (flush && straight) {
+            return HandEvaluator.STRAIGHT_FLUSH;
+        } else if (hasOfAKind(hand, 4)) {
+            return HandEvaluator.FOUR_OF_A_KIND;
+        } else if (hasOfAKind(hand, 3) && hasOfAKind(hand, 2)) {
+            return HandEvaluator.FULL_HOUSE;
+        } else if (flush) {
+            return HandEvaluator.FLUSH;
+        } else if (straight) {
+            return HandEvaluator.STRAIGHT;
+        } else if (hasOfAKind(hand, 3)) {
+            return HandEvaluator.THREE_OF_A_KIND;
+        } else if (pairs(hand) == 2) {
+            return HandEvaluator.TWO_PAIRS;
+        } else if (hasOfAKind(hand, 2)) {
+            return HandEvaluator.ONE_PAIR;
+        } else {
+            return HandEvaluator.NO_PAIR;
+        }
+    }
+
+    /**
+     * Checks whether all cards share a suit
+     * @param hand for the codes of the cards in the hand
+     * @return true if the hand is a flush
+     */
+    static boolean isFlush(int[] hand) {
+        for (int i = 0; i < hand.length - 1; i++) {
+            if (Card.codeSuitIndex(hand[i]) != Card.codeSuitIndex(hand[i + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the sorted values are consecutive
+     * @param hand for the codes of the cards in the hand
+     * @return true if the hand is a straight
+     */
+    static boolean isStraight(int[] hand) {
+        int[] values = sortedValues(hand);
+        for (int i = values.length - 1; i > 0; i--) {
+            if (values[i] - values[i - 1] != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether some value appears exactly the given number of times
+     * @param hand for the codes of the cards in the hand
+     * @param count for the number of times
+     * @return true if a value appears that many times
+     */
+    static boolean hasOfAKind(int[] hand, int count) {
+        for (int i = 0; i < hand.length; i++) {
+            int counter = 0;
+            for (int j = 0; j < hand.length; j++) {
+                if (Card.codeValue(hand[i]) == Card.codeValue(hand[j])) {
+                    counter++;
+                }
+            }
+            if (counter == count) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the values that appear exactly twice
+     * @param hand for the codes of the cards in the hand
+     * @return the number of pairs
+     */
+    static int pairs(int[] hand) {
+        int cardsInPairs = 0;
+        for (int i = 0; i < hand.length; i++) {
+            int counter = 0;
+            for (int j = 0; j < hand.length; j++) {
+                if (Card.codeValue(hand[i]) == Card.codeValue(hand[j])) {
+                    counter++;
+                }
+            }
+            if (counter == 2) {
+                cardsInPairs++;
+            }
+        }
+        return cardsInPairs / 2;
+    }
+
+    /**
+     * Returns a sorted copy of the card values
+     * @param hand for the codes of the cards in the hand
+     * @return the sorted values
+     */
+    static int[] sortedValues(int[] hand) {
+        int[] values = new int[hand.length];
+        for (int i = 0; i < hand.length; i++) {
+            values[i] = Card.codeValue(hand[i]);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.*;
+
+/**
+ * Checks the statistical quality of shuffles for each ShuffleAlgorithm. For every algorithm
+ * the deck is shuffled many times while counting how often each card lands at each position,
+ * and a chi-square statistic is computed over all 52 x 52 cells. A fair shuffle gives a
+ * z score, from the Wilson-Hilferty approximation, that is usually between -3 and 3.
+ *
+ * Usage: java -cp bin ShuffleQuality [shuffles]
+ * @author William Morgan
+ * @version 1.0
+ */
+public class ShuffleQuality {
+
+    /** Number of shuffles per algorithm unless another is given */
+    public static final int DEFAULT_SHUFFLES = 1000000;
+
+    /**
+     * Runs the check for every algorithm
+     * @param args args[0] optional number of shuffles per algorithm
+     */
+    public static void main(String[] args) {
+        int shuffles = args.length == 1 ? Integer.parseInt(args[0]) : DEFAULT_SHUFFLES;
+        int cells = Deck.CARDS_IN_DECK * Deck.CARDS_IN_DECK;
+        double expected = shuffles / (double) Deck.CARDS_IN_DECK;
+        for (ShuffleAlgorithm algorithm : ShuffleAlgorithm.values()) {
+            Deck deck = new Deck(1, algorithm);
+            long[] counts = new long[cells];
+            long start = System.nanoTime();
+            for (int i = 0; i < shuffles; i++) {
+                deck.shuffle();
+                for (int position = 0; position < Deck.CARDS_IN_DECK; position++) {
+                    counts[position * Deck.CARDS_IN_DECK + deck.nextCardCode()]++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double chiSquare = 0;
+            for (long count : counts) {
+                chiSquare += (count - expected) * (count - expected) / expected;
+            }
+            // Positions and cards are each constrained to sum to the number of shuffles
+            int freedom = (Deck.CARDS_IN_DECK - 1) * (Deck.CARDS_IN_DECK - 1);
+            double term = 2.0 / (9 * freedom);
+            double z = (Math.cbrt(chiSquare / freedom) - (1 - term)) / Math.sqrt(term);
+            System.out.printf(Locale.ROOT,
+                              "%-10s chi-square %10.1f (df %d)  z %6.2f  %6.1f ns/shuffle%n",
+                              algorithm, chiSquare, freedom, z, seconds * 1e9 / shuffles);
+        }
+    }
+}
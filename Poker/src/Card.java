@@ -18,12 +18,33 @@ public class Card implements Comparable<Card> {
     /** char value representing hearts suit */
     public static final char HEARTS = 'h';
 
+    /** Number of suits in a deck */
+    public static final int SUITS = 4;
+
     /** lowest numeric value for a card */
     public static final int LOWEST_VALUE = 2;
 
     /** highest numeric value for a card */
     public static final int HIGHEST_VALUE = 14;
 
+    /** Number of distinct values within each suit */
+    public static final int VALUES = HIGHEST_VALUE - LOWEST_VALUE + 1;
+
+    /** Number of distinct card codes */
+    public static final int CODES = SUITS * VALUES;
+
+    /** Suits in the order used by card codes */
+    private static final char[] SUIT_ORDER = {CLUBS, DIAMONDS, HEARTS, SPADES};
+
+    /** Shared card instance for each card code */
+    private static final Card[] BY_CODE = new Card[CODES];
+
+    static {
+        for (int code = 0; code < CODES; code++) {
+            BY_CODE[code] = new Card(codeValue(code), codeSuit(code));
+        }
+    }
+
     /** Value of the card object */
     private int value;
 
@@ -63,6 +84,76 @@ public class Card implements Comparable<Card> {
         return this.suit;
     }
 
+    /**
+     * Returns the code packing this card's suit and value into a single int. Codes run from
+     * 0 to 51 in the order a new deck is built: clubs, diamonds, hearts then spades, each
+     * from the lowest to the highest value.
+     * @return the card code
+     */
+    public int getCode() {
+        return code(this.value, this.suit);
+    }
+
+    /**
+     * Returns the code for a card with the given value and suit
+     * @param value for the value of the card
+     * @param suit for the suit of the card
+     * @return the card code
+     * @throws IllegalArgumentException if value or suit is invalid
+     */
+    public static int code(int value, char suit) {
+        if (value < LOWEST_VALUE || value > HIGHEST_VALUE) {
+            throw new IllegalArgumentException("Invalid value");
+        }
+        for (int i = 0; i < SUITS; i++) {
+            if (SUIT_ORDER[i] == suit) {
+                return i * VALUES + value - LOWEST_VALUE;
+            }
+        }
+        throw new IllegalArgumentException("Invalid suit");
+    }
+
+    /**
+     * Returns the shared card instance for a card code. No card is created by this method.
+     * @param code for the card code
+     * @return the card with the given code
+     * @throws IllegalArgumentException if code is invalid
+     */
+    public static Card fromCode(int code) {
+        if (code < 0 || code >= CODES) {
+            throw new IllegalArgumentException("Invalid code");
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Returns the value of the card with the given code. The code is not checked.
+     * @param code for the card code
+     * @return the value of the card
+     */
+    public static int codeValue(int code) {
+        return code % VALUES + LOWEST_VALUE;
+    }
+
+    /**
+     * Returns the index of the suit of the card with the given code, from 0 for clubs
+     * to 3 for spades. The code is not checked.
+     * @param code for the card code
+     * @return the suit index of the card
+     */
+    public static int codeSuitIndex(int code) {
+        return code / VALUES;
+    }
+
+    /**
+     * Returns the suit of the card with the given code. The code is not checked.
+     * @param code for the card code
+     * @return the suit of the card
+     */
+    public static char codeSuit(int code) {
+        return SUIT_ORDER[code / VALUES];
+    }
+
     /**
      * Test whether card objects is equal to the input object
      * @param o the other object to be compared
@@ -0,0 +1,130 @@
+import java.awt.MediaTracker;
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.ImageIcon;
+
+/**
+ * Icons for every card and the blank card, decoded once and indexed by card code, with the
+ * blank card after the last code. Creating an ImageIcon from a file name reads and decodes
+ * the file each time, so a GUI that looks icons up here does no I/O while it plays.
+ *
+ * The images are read on a background thread with preload(), so the window can be built
+ * while they decode. Once loaded, the icons never change and can be shared by any thread.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class CardImages {
+
+    /** Directory the images are read from unless another is given */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("cards");
+
+    /** Index of the blank card, after every card code */
+    public static final int BLANK = Card.CODES;
+
+    /** Number of images, one per card code and the blank card */
+    public static final int IMAGES = BLANK + 1;
+
+    /** Icon for each card code, then the blank card */
+    private final ImageIcon[] icons;
+
+    /**
+     * Constructor for the cache
+     * @param icons for the icon of each card code, then the blank card
+     */
+    private CardImages(ImageIcon[] icons) {
+        this.icons = icons;
+    }
+
+    /**
+     * Returns the file name of an image, such as "h14.gif" for the ace of hearts
+     * @param index for the card code, or BLANK
+     * @return the file name
+     */
+    private static String fileName(int index) {
+        return (index == BLANK ? "blank" : Card.fromCode(index).toString()) + ".gif";
+    }
+
+    /**
+     * Reads and decodes every image on the calling thread
+     * @param directory for the directory holding the images
+     * @return the cache
+     * @throws IOException if an image cannot be read or decoded
+     * @throws IllegalArgumentException if directory is null
+     */
+    public static CardImages load(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        }
+        ImageIcon[] icons = new ImageIcon[IMAGES];
+        for (int i = 0; i < IMAGES; i++) {
+            Path file = directory.resolve(fileName(i));
+            // The icon waits until its image is fully decoded
+            icons[i] = new ImageIcon(Files.readAllBytes(file));
+            if (icons[i].getImageLoadStatus() != MediaTracker.COMPLETE) {
+                throw new IOException("Unreadable image " + file);
+            }
+        }
+        return new CardImages(icons);
+    }
+
+    /**
+     * Starts reading and decoding every image on a daemon thread
+     * @param directory for the directory holding the images
+     * @return a future completed with the cache, or exceptionally with an
+     * UncheckedIOException if an image cannot be read or decoded
+     * @throws IllegalArgumentException if directory is null
+     */
+    public static CompletableFuture<CardImages> preload(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        }
+        CompletableFuture<CardImages> future = new CompletableFuture<CardImages>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(load(directory));
+            } catch (IOException e) {
+                future.completeExceptionally(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "card-images");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Returns the icon of a card code
+     * @param code for the card code
+     * @return the icon
+     * @throws IllegalArgumentException if code is invalid
+     */
+    public ImageIcon getIcon(int code) {
+        if (code < 0 || code >= Card.CODES) {
+            throw new IllegalArgumentException("Invalid code");
+        }
+        return icons[code];
+    }
+
+    /**
+     * Returns the icon of a card
+     * @param card for the card
+     * @return the icon
+     * @throws IllegalArgumentException if card is null
+     */
+    public ImageIcon getIcon(Card card) {
+        if (card == null) {
+            throw new IllegalArgumentException("Null card");
+        }
+        return icons[card.getCode()];
+    }
+
+    /**
+     * Returns the icon of the blank card
+     * @return the icon
+     */
+    public ImageIcon getBlank() {
+        return icons[BLANK];
+    }
+}
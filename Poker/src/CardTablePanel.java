@@ -0,0 +1,420 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import javax.swing.*;
+
+/**
+ * A row of card slots painted by hand rather than laid out from labels. Cards are drawn into
+ * a back buffer the size of the component, and only the slots that changed since the last
+ * paint are drawn again, so showing a new card repaints one card and never lays anything
+ * out. Swing's own double buffering is turned off, as the back buffer already does its job.
+ *
+ * A new card flips over: the old face narrows to an edge and the new face widens from it,
+ * timed by the clock rather than by frames, so a slow frame never slows the flip. A Swing
+ * timer ticks at FRAME_RATE while a flip is running and stops when none is. Cards set again
+ * before a flip reaches its edge simply change the face it turns to, so rapid events still
+ * give one flip, and repaint requests for several slots in one tick are merged by Swing.
+ *
+ * The timer only runs while the component is displayable. Otherwise, as when rendering
+ * headlessly for tests and benchmarks, tick() and render() are called directly.
+ * Like any Swing component, the panel is only used from the event dispatch thread.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class CardTablePanel extends JComponent {
+
+    /** Serial version, as Swing components are serializable */
+    private static final long serialVersionUID = 1L;
+
+    /** Frames per second while a flip is running */
+    public static final int FRAME_RATE = 60;
+
+    /** Length of a flip in nanoseconds */
+    public static final long FLIP_NANOS = 240000000L;
+
+    /** Delay in nanoseconds between the flips of neighbouring slots when dealing */
+    public static final long DEAL_STAGGER_NANOS = 60000000L;
+
+    /** Width of a card slot in pixels */
+    public static final int CARD_WIDTH = 71;
+
+    /** Height of a card slot in pixels */
+    public static final int CARD_HEIGHT = 96;
+
+    /** Space around and between the slots in pixels */
+    public static final int GAP = 10;
+
+    /** Code shown by a slot holding no card */
+    public static final int EMPTY = -1;
+
+    /** Colour of the table */
+    public static final Color TABLE_COLOR = new Color(0, 100, 50);
+
+    /** Colour of the outline of a slot holding no card */
+    private static final Color SLOT_COLOR = new Color(0, 70, 35);
+
+    /** Source of time in nanoseconds */
+    private final transient LongSupplier clock;
+
+    /** Timer ticking while a flip is running */
+    private final Timer timer;
+
+    /** Face of each card code, then the blank card, or null while none are set */
+    private transient BufferedImage[] faces;
+
+    /** Card code, CardImages.BLANK or EMPTY shown by each slot before its flip */
+    private final int[] shown;
+
+    /** Card code, CardImages.BLANK or EMPTY each slot shows after its flip */
+    private final int[] target;
+
+    /** Time each slot's flip starts */
+    private final long[] start;
+
+    /** Whether each slot has a flip waiting or running */
+    private final boolean[] flipping;
+
+    /** Whether each slot must be drawn into the back buffer again */
+    private final boolean[] dirty;
+
+    /** Back buffer, or null until the first paint */
+    private transient BufferedImage buffer;
+
+    /** Time of the latest tick, at which slots are drawn */
+    private long frameTime;
+
+    /**
+     * Constructor for a table timed by System.nanoTime()
+     * @param slots for the number of card slots
+     * @throws IllegalArgumentException if slots is not positive
+     */
+    public CardTablePanel(int slots) {
+        this(slots, System::nanoTime);
+    }
+
+    /**
+     * Constructor for the table
+     * @param slots for the number of card slots
+     * @param clock for the source of time in nanoseconds
+     * @throws IllegalArgumentException if slots is not positive or clock is null
+     */
+    public CardTablePanel(int slots, LongSupplier clock) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Invalid slots");
+        } else if (clock == null) {
+            throw new IllegalArgumentException("Null clock");
+        }
+        this.clock = clock;
+        shown = new int[slots];
+        target = new int[slots];
+        start = new long[slots];
+        flipping = new boolean[slots];
+        dirty = new boolean[slots];
+        Arrays.fill(shown, EMPTY);
+        Arrays.fill(target, EMPTY);
+        Arrays.fill(dirty, true);
+        frameTime = clock.getAsLong();
+        timer = new Timer(1000 / FRAME_RATE, event -> tick(this.clock.getAsLong()));
+        timer.setCoalesce(true);
+        setDoubleBuffered(false);
+        setOpaque(true);
+        setPreferredSize(new Dimension(slots * (CARD_WIDTH + GAP) + GAP,
+                                       CARD_HEIGHT + 2 * GAP));
+    }
+
+    /**
+     * Sets the card images and redraws every slot. Each image is copied once into a face
+     * of the back buffer's pixel format, which draws far faster than the decoded image.
+     * @param images for the card images
+     * @throws IllegalArgumentException if images is null
+     */
+    public void setImages(CardImages images) {
+        if (images == null) {
+            throw new IllegalArgumentException("Null images");
+        }
+        BufferedImage[] copies = new BufferedImage[CardImages.IMAGES];
+        for (int i = 0; i < copies.length; i++) {
+            ImageIcon icon = i == CardImages.BLANK ? images.getBlank() : images.getIcon(i);
+            copies[i] = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = copies[i].createGraphics();
+            g.drawImage(icon.getImage(), 0, 0, CARD_WIDTH, CARD_HEIGHT, null);
+            g.dispose();
+        }
+        faces = copies;
+        invalidateSlots();
+    }
+
+    /**
+     * Returns the number of card slots
+     * @return the number of slots
+     */
+    public int getSlots() {
+        return shown.length;
+    }
+
+    /**
+     * Returns the card a slot shows once any flip has finished
+     * @param slot for the index of the slot
+     * @return the card code, CardImages.BLANK or EMPTY
+     * @throws IllegalArgumentException if slot is invalid
+     */
+    public int getCard(int slot) {
+        checkSlot(slot);
+        return target[slot];
+    }
+
+    /**
+     * Flips a slot over to a card now
+     * @param slot for the index of the slot
+     * @param code for the card code, CardImages.BLANK or EMPTY
+     * @throws IllegalArgumentException if slot or code is invalid
+     */
+    public void setCard(int slot, int code) {
+        flip(slot, code, clock.getAsLong(), false);
+    }
+
+    /**
+     * Flips every slot over to a new card, one slot after another from the left
+     * @param codes for the card code, CardImages.BLANK or EMPTY of each slot
+     * @throws IllegalArgumentException if codes is null, is not one per slot or holds an
+     * invalid code
+     */
+    public void deal(int[] codes) {
+        if (codes == null) {
+            throw new IllegalArgumentException("Null codes");
+        } else if (codes.length != shown.length) {
+            throw new IllegalArgumentException("Invalid codes length");
+        }
+        for (int code : codes) {
+            checkCode(code);
+        }
+        long now = clock.getAsLong();
+        for (int slot = 0; slot < codes.length; slot++) {
+            flip(slot, codes[slot], now + slot * DEAL_STAGGER_NANOS, true);
+        }
+    }
+
+    /**
+     * Starts a flip or changes the card a waiting or narrowing flip turns to
+     * @param slot for the index of the slot
+     * @param code for the card to flip to
+     * @param at for the time the flip starts
+     * @param always for true to flip even to the card already shown, as a deal does
+     */
+    private void flip(int slot, int code, long at, boolean always) {
+        checkSlot(slot);
+        checkCode(code);
+        if (flipping[slot]) {
+            if (code == target[slot] && !always) {
+                return;
+            } else if (clock.getAsLong() - start[slot] < FLIP_NANOS / 2) {
+                // The new face is not showing yet, so the same flip can turn to this card
+                target[slot] = code;
+                return;
+            }
+            shown[slot] = target[slot];
+        } else if (code == shown[slot] && !always) {
+            return;
+        }
+        target[slot] = code;
+        start[slot] = at;
+        flipping[slot] = true;
+        if (isDisplayable()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Advances the flips to a time and asks Swing to repaint the slots they changed. The
+     * timer calls this while the component is displayable.
+     * @param now for the time in nanoseconds
+     */
+    public void tick(long now) {
+        frameTime = now;
+        boolean running = false;
+        for (int slot = 0; slot < shown.length; slot++) {
+            if (!flipping[slot] || now < start[slot]) {
+                running |= flipping[slot];
+                continue;
+            }
+            if (now - start[slot] >= FLIP_NANOS) {
+                shown[slot] = target[slot];
+                flipping[slot] = false;
+            } else {
+                running = true;
+            }
+            dirty[slot] = true;
+            repaint(getSlotBounds(slot));
+        }
+        if (!running) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Returns whether any slot has a flip waiting or running
+     * @return true if a flip is waiting or running
+     */
+    public boolean isAnimating() {
+        for (boolean slot : flipping) {
+            if (slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a slot must be drawn into the back buffer again
+     * @param slot for the index of the slot
+     * @return true if the slot changed since it was last drawn
+     */
+    boolean isDirty(int slot) {
+        return dirty[slot];
+    }
+
+    /**
+     * Returns the area of a slot, with the slots centred across the component when it is
+     * wider than they need
+     * @param slot for the index of the slot
+     * @return the bounds of the slot
+     * @throws IllegalArgumentException if slot is invalid
+     */
+    public Rectangle getSlotBounds(int slot) {
+        checkSlot(slot);
+        int margin = Math.max(0, (getWidth() - getPreferredSize().width) / 2);
+        return new Rectangle(margin + GAP + slot * (CARD_WIDTH + GAP), GAP, CARD_WIDTH,
+                             CARD_HEIGHT);
+    }
+
+    /**
+     * Draws every slot as it is at a time, without touching the back buffer
+     * @param g for the graphics to draw with
+     * @param now for the time in nanoseconds
+     * @throws IllegalArgumentException if g is null
+     */
+    public void render(Graphics2D g, long now) {
+        if (g == null) {
+            throw new IllegalArgumentException("Null graphics");
+        }
+        Dimension size = getPreferredSize();
+        g.setColor(TABLE_COLOR);
+        g.fillRect(0, 0, size.width, size.height);
+        for (int slot = 0; slot < shown.length; slot++) {
+            drawSlot(g, slot, now);
+        }
+    }
+
+    /**
+     * Draws the slots that changed into the back buffer and copies the area to be painted
+     * @param g for the graphics to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = Math.max(getWidth(), 1);
+        int height = Math.max(getHeight(), 1);
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D all = buffer.createGraphics();
+            all.setColor(TABLE_COLOR);
+            all.fillRect(0, 0, width, height);
+            all.dispose();
+            Arrays.fill(dirty, true);
+        }
+        Graphics2D back = buffer.createGraphics();
+        for (int slot = 0; slot < shown.length; slot++) {
+            if (dirty[slot]) {
+                drawSlot(back, slot, frameTime);
+                dirty[slot] = false;
+            }
+        }
+        back.dispose();
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    /**
+     * Draws a slot, clearing it first
+     * @param g for the graphics to draw with
+     * @param slot for the index of the slot
+     * @param now for the time in nanoseconds
+     */
+    private void drawSlot(Graphics2D g, int slot, long now) {
+        Rectangle bounds = getSlotBounds(slot);
+        g.setColor(TABLE_COLOR);
+        g.fill(bounds);
+        int code = shown[slot];
+        int width = bounds.width;
+        if (flipping[slot] && now >= start[slot]) {
+            // The width follows a cosine, so the card turns at an even angular speed
+            double progress = Math.min(1.0, (double) (now - start[slot]) / FLIP_NANOS);
+            width = (int) Math.round(bounds.width * Math.abs(Math.cos(Math.PI * progress)));
+            if (progress >= 0.5) {
+                code = target[slot];
+            }
+        }
+        if (width == 0) {
+            return;
+        }
+        int x = bounds.x + (bounds.width - width) / 2;
+        if (code == EMPTY || faces == null) {
+            g.setColor(SLOT_COLOR);
+            g.drawRect(x, bounds.y, width - 1, bounds.height - 1);
+        } else if (width == bounds.width) {
+            g.drawImage(faces[code], x, bounds.y, null);
+        } else {
+            g.drawImage(faces[code], x, bounds.y, width, bounds.height, null);
+        }
+    }
+
+    /**
+     * Marks every slot to be drawn again and asks Swing to repaint the component
+     */
+    private void invalidateSlots() {
+        Arrays.fill(dirty, true);
+        repaint();
+    }
+
+    /**
+     * Starts the timer if a flip is waiting, once the component can be shown
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        invalidateSlots();
+        if (isAnimating()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Stops the timer once the component can no longer be shown
+     */
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Checks the index of a slot
+     * @param slot for the index of the slot
+     * @throws IllegalArgumentException if slot is invalid
+     */
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= shown.length) {
+            throw new IllegalArgumentException("Invalid slot");
+        }
+    }
+
+    /**
+     * Checks a code a slot can show
+     * @param code for the card code, CardImages.BLANK or EMPTY
+     * @throws IllegalArgumentException if code is invalid
+     */
+    private static void checkCode(int code) {
+        if (code < EMPTY || code > CardImages.BLANK) {
+            throw new IllegalArgumentException("Invalid code");
+        }
+    }
+}
@@ -1,4 +1,4 @@
-import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Program to represent the deck of cards as a whole
@@ -10,8 +10,11 @@ public class Deck {
     /** Final representing number of cards in deck */
     public static final int CARDS_IN_DECK = 52;
 
-    /** Array of card objects used to manage cards in deck */
-    private Card[] cards;
+    /** Codes of the cards of an unshuffled deck */
+    private static final int[] ORDERED_CODES = orderedCodes();
+
+    /** Codes of the cards in the deck, in dealing order */
+    private int[] cards;
 
     /** holds index of next card to be dealt */
     private int next = 0;
@@ -19,40 +22,121 @@ public class Deck {
     /** maintains random seed provided for testing */
     private int seed;
 
+    /** Random number generator advanced by every shuffle */
+    private RandomGenerator random;
+
+    /** true if cards are chosen as they are dealt rather than by shuffle() */
+    private boolean lazy;
+
+    /** Algorithm of the generator, or null if the generator was given to the constructor */
+    private ShuffleAlgorithm algorithm;
+
     /**
      * Constructor of the deck class
-     * @param seed for random seed for testing
+     * @param seed for random seed for testing, or -1 for a random game
      */
     public Deck(int seed) {
-        int counter = Card.LOWEST_VALUE;
-        char[] suit =  {Card.CLUBS, Card.DIAMONDS, Card.HEARTS, Card.SPADES};
-        int suitCounter = 0;
-        this.cards = new Card[CARDS_IN_DECK];
-        for (int i = 0; i < cards.length; i++) {
-            cards[i] = new Card(counter, suit[suitCounter]);
-            counter++;
-            if (counter > Card.HIGHEST_VALUE) {
-                counter = Card.LOWEST_VALUE;
-                suitCounter++;
-            }
+        this(seed, ShuffleAlgorithm.DEFAULT);
+    }
+
+    /**
+     * Constructor for a deck shuffled with the given algorithm. A seeded deck creates its
+     * generator once, so each shuffle deals a new game and the sequence of games repeats
+     * whenever the seed is the same.
+     * @param seed for random seed for testing, or -1 for a random game
+     * @param algorithm for the random number generator algorithm
+     * @throws IllegalArgumentException if algorithm is null
+     */
+    public Deck(int seed, ShuffleAlgorithm algorithm) {
+        this(seed, algorithm, false);
+    }
+
+    /**
+     * Constructor for a deck shuffled with the given algorithm, either fully by shuffle() or
+     * lazily as cards are dealt. A lazy deck draws one random number per card dealt instead of
+     * 51 per shuffle, and deals every sequence of cards with the same probability as a fully
+     * shuffled deck.
+     * @param seed for random seed for testing, or -1 for a random game
+     * @param algorithm for the random number generator algorithm
+     * @param lazy for true to choose each card as it is dealt
+     * @throws IllegalArgumentException if algorithm is null
+     */
+    public Deck(int seed, ShuffleAlgorithm algorithm, boolean lazy) {
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Null algorithm");
         }
+        this.cards = orderedCodes();
         this.seed = seed;
+        if (seed != VideoPoker.RANDOM_GAME) {
+            this.random = algorithm.create(seed);
+        } else {
+            this.random = algorithm.create();
+        }
+        this.lazy = lazy;
+        this.algorithm = algorithm;
     }
 
     /**
-     * This method shuffles the deck for a new hand to be played using the random class
+     * Constructor for a deck shuffled with the given random number generator. The generator
+     * is used by every shuffle, so it should not be shared with other threads.
+     * @param random for the random number generator
+     * @throws IllegalArgumentException if random is null
+     */
+    public Deck(RandomGenerator random) {
+        this(random, false);
+    }
+
+    /**
+     * Constructor for a deck shuffled with the given random number generator, either fully by
+     * shuffle() or lazily as cards are dealt
+     * @param random for the random number generator
+     * @param lazy for true to choose each card as it is dealt
+     * @throws IllegalArgumentException if random is null
+     */
+    public Deck(RandomGenerator random, boolean lazy) {
+        if (random == null) {
+            throw new IllegalArgumentException("Null random");
+        }
+        this.cards = orderedCodes();
+        this.seed = VideoPoker.RANDOM_GAME;
+        this.random = random;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Returns the codes of a new, unshuffled deck
+     * @return the codes from clubs 2 to spades 14
+     */
+    private static int[] orderedCodes() {
+        int[] codes = new int[CARDS_IN_DECK];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = i;
+        }
+        return codes;
+    }
+
+    /**
+     * Returns whether cards are chosen as they are dealt
+     * @return true if the deck is lazy
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * This method shuffles the deck for a new hand to be played, continuing the deck's
+     * random number stream. A lazy deck only starts dealing from the top again, as its cards
+     * are chosen when they are dealt.
      */
     public void shuffle() {
-        Random rand;
-        if (this.seed != -1) {
-            rand = new Random(this.seed);
-        } else {
-            rand = new Random();
+        if (lazy) {
+            this.next = 0;
+            return;
         }
-        Card temp;
+        int temp;
         int randomIndexSelection;
         for (int i = CARDS_IN_DECK - 1; i >= 1; i--) {
-            randomIndexSelection = rand.nextInt(i + 1);
+            randomIndexSelection = random.nextInt(i + 1);
             temp = cards[i];
             cards[i] = cards[randomIndexSelection];
             cards[randomIndexSelection] = temp;
@@ -60,18 +144,50 @@ public class Deck {
         this.next = 0;
     }
 
+    /**
+     * Shuffles the deck for a game dealt entirely from its own seed. The deck is put back in
+     * its unshuffled order and given a new generator of its algorithm seeded with gameSeed,
+     * so the cards dealt depend on nothing but the seed and the algorithm, and any game can be
+     * dealt again later from its seed alone.
+     * @param gameSeed for the seed of the game
+     * @throws IllegalStateException if the deck was given its generator rather than an
+     * algorithm
+     */
+    public void shuffle(long gameSeed) {
+        if (algorithm == null) {
+            throw new IllegalStateException("No algorithm");
+        }
+        System.arraycopy(ORDERED_CODES, 0, cards, 0, CARDS_IN_DECK);
+        this.random = algorithm.create(gameSeed);
+        shuffle();
+    }
+
     /**
      * This method returns the next card in the deck based on the next instance field
      * @return the card which is the next card in the deck
      * @throws IllegalStateException if the end of the deck is reached
      */
     public Card nextCard() {
+        return Card.fromCode(nextCardCode());
+    }
+
+    /**
+     * This method returns the code of the next card in the deck without creating any objects
+     * @return the code of the next card in the deck
+     * @throws IllegalStateException if the end of the deck is reached
+     */
+    public int nextCardCode() {
         if (this.next >= CARDS_IN_DECK) {
             throw new IllegalStateException("No more cards");
         }
-        int tempIndex = this.next;
-        this.next++;
-        return cards[tempIndex];
+        if (lazy) {
+            // One forward Fisher-Yates step: any order of the undealt cards stays uniform
+            int swap = this.next + random.nextInt(CARDS_IN_DECK - this.next);
+            int code = cards[swap];
+            cards[swap] = cards[this.next];
+            cards[this.next] = code;
+        }
+        return cards[this.next++];
     }
 
     /**
@@ -84,8 +200,6 @@ public class Deck {
             return false;
         }
         Deck other = (Deck)o;
-        Card thisCard;
-        Card otherCard;
         // Check for same object instance
         if (this == other) {
             return true;
@@ -93,9 +207,7 @@ public class Deck {
             return false;
         }
         for (int i = 0; i < CARDS_IN_DECK - 1; i++) {
-            thisCard = this.nextCard();
-            otherCard = other.nextCard();
-            if (!thisCard.equals(otherCard)) {
+            if (this.nextCardCode() != other.nextCardCode()) {
                 return false;
             }
         }
@@ -103,13 +215,14 @@ public class Deck {
     }
 
     /**
-     * Converts the given deck to a string that orders all the cards into a string
+     * Converts the given deck to a string that orders all the cards into a string. The cards
+     * of a lazy deck past those dealt are not yet in dealing order.
      * @return deckString the string with information
      */
     public String toString() {
         String deckString = "";
         for (int i = 0; i < CARDS_IN_DECK; i++) {
-            deckString += "card " + i + ": " + cards[i].toString() + "\n";
+            deckString += "card " + i + ": " + Card.fromCode(cards[i]).toString() + "\n";
         }
         return deckString;
     }
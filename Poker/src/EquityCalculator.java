@@ -0,0 +1,651 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes how often each player's Texas Hold'em hole cards win, tie and lose against the
+ * others by the river, given the board cards already dealt and any cards known to be out of
+ * play. Each player holds either fixed hole cards or a range, a list of holdings it may have.
+ *
+ * Cards are handled as card masks throughout, with bit n set for the card with code n, so
+ * removing the board, the dead cards and the other players' cards is a single mask test.
+ * When the matchups of hole cards times the boards that complete them number no more than
+ * the exhaustive limit, every board of every matchup is dealt and the result is exact.
+ * Otherwise boards and matchups are sampled at random.
+ *
+ * Work is split with the fork/join common pool. Exhaustive work is cut into units of one
+ * matchup and the lowest new board card, and sampling into fixed blocks, each with its own
+ * random number stream split from a seeded root, so a calculation with the same seed always
+ * gives the same result. A board's keys are added once and shared by every player's
+ * evaluation, as SevenCardEvaluator allows.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class EquityCalculator {
+
+    /** Number of hole cards each player holds */
+    public static final int HOLE_CARDS = 2;
+
+    /** Number of cards on a complete board */
+    public static final int BOARD_CARDS = Hand.CARDS_IN_HAND;
+
+    /** Most boards dealt exhaustively unless another limit is given */
+    public static final long DEFAULT_EXHAUSTIVE_LIMIT = 4000000;
+
+    /** Number of boards sampled unless another number is given */
+    public static final int DEFAULT_SAMPLES = 1000000;
+
+    /** Characters naming the card values, lowest first */
+    private static final String VALUE_NAMES = "23456789TJQKA";
+
+    /** Mask of every card code */
+    private static final long ALL_CARDS = (1L << Card.CODES) - 1;
+
+    /** Boards dealt by a single exhaustive task */
+    private static final long TASK_BOARDS = 65536;
+
+    /** Boards sampled by a single sampling task */
+    private static final int TASK_SAMPLES = 65536;
+
+    /** Matchups drawn in a row with overlapping cards before sampling gives up */
+    private static final int MAX_REJECTIONS = 100000;
+
+    /** Most boards dealt exhaustively */
+    private long exhaustiveLimit;
+
+    /** Number of boards sampled when not every board is dealt */
+    private int samples;
+
+    /** Seed the sampling streams are split from */
+    private long seed;
+
+    /**
+     * Constructor for a calculator with the default limit and samples and a random seed
+     */
+    public EquityCalculator() {
+        this(DEFAULT_EXHAUSTIVE_LIMIT, DEFAULT_SAMPLES, System.nanoTime());
+    }
+
+    /**
+     * Constructor for the calculator
+     * @param exhaustiveLimit for the most boards dealt exhaustively, 0 to always sample
+     * @param samples for the number of boards sampled otherwise
+     * @param seed for the seed the sampling streams are split from
+     * @throws IllegalArgumentException if exhaustiveLimit is negative or samples is not
+     * positive
+     */
+    public EquityCalculator(long exhaustiveLimit, int samples, long seed) {
+        if (exhaustiveLimit < 0) {
+            throw new IllegalArgumentException("Invalid exhaustive limit");
+        } else if (samples <= 0) {
+            throw new IllegalArgumentException("Invalid samples");
+        }
+        this.exhaustiveLimit = exhaustiveLimit;
+        this.samples = samples;
+        this.seed = seed;
+    }
+
+    /**
+     * Parses cards written as a value, one of 23456789TJQKA, followed by a suit, one of cdhs,
+     * such as "AsKd". Spaces between cards are ignored.
+     * @param text for the cards
+     * @return the card mask of the cards
+     * @throws IllegalArgumentException if text is null, is not made of cards, or names a card
+     * twice
+     */
+    public static long cards(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null cards");
+        }
+        String compact = text.replace(" ", "");
+        if (compact.length() % 2 != 0) {
+            throw new IllegalArgumentException("Invalid cards");
+        }
+        long mask = 0;
+        for (int i = 0; i < compact.length(); i += 2) {
+            int value = VALUE_NAMES.indexOf(Character.toUpperCase(compact.charAt(i)));
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid cards");
+            }
+            long card = 1L << Card.code(value + Card.LOWEST_VALUE,
+                                         Character.toLowerCase(compact.charAt(i + 1)));
+            if ((mask & card) != 0) {
+                throw new IllegalArgumentException("Invalid cards");
+            }
+            mask |= card;
+        }
+        return mask;
+    }
+
+    /**
+     * Parses a range, holdings of two cards separated by commas, such as "AsAh,AsAd,AhAd"
+     * @param text for the range
+     * @return the card mask of each holding
+     * @throws IllegalArgumentException if text is null or a holding is not two cards
+     */
+    public static long[] range(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null range");
+        }
+        String[] holdings = text.split(",");
+        long[] range = new long[holdings.length];
+        for (int i = 0; i < holdings.length; i++) {
+            range[i] = cards(holdings[i]);
+            if (Long.bitCount(range[i]) != HOLE_CARDS) {
+                throw new IllegalArgumentException("Invalid hole cards");
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Calculates the equity of players holding fixed hole cards
+     * @param holes for the card mask of each player's hole cards
+     * @param board for the card mask of the board dealt so far, of 0, 3, 4 or 5 cards
+     * @param dead for the card mask of cards known to be out of play
+     * @return the result, with players in the order of holes
+     * @throws IllegalArgumentException if holes is null, has fewer than two players or holds
+     * an invalid holding, if board or dead is invalid, or if any card is used twice
+     */
+    public EquityResult calculate(long[] holes, long board, long dead) {
+        if (holes == null) {
+            throw new IllegalArgumentException("Null holes");
+        }
+        long[][] ranges = new long[holes.length][];
+        long used = board | dead;
+        for (int i = 0; i < holes.length; i++) {
+            if ((holes[i] & used) != 0) {
+                throw new IllegalArgumentException("Duplicate card");
+            }
+            used |= holes[i];
+            ranges[i] = new long[] {holes[i]};
+        }
+        return calculate(ranges, board, dead);
+    }
+
+    /**
+     * Calculates the equity of players holding ranges. Holdings that share a card with the
+     * board or the dead cards are dropped, and matchups in which two players share a card
+     * are never dealt; every other matchup is equally likely.
+     * @param ranges for the card masks of the holdings in each player's range
+     * @param board for the card mask of the board dealt so far, of 0, 3, 4 or 5 cards
+     * @param dead for the card mask of cards known to be out of play
+     * @return the result, with players in the order of ranges
+     * @throws IllegalArgumentException if ranges is null, has fewer than two players, or
+     * holds a null range or an invalid holding, if board or dead is invalid or they share a
+     * card, if a range has no holding left, or if no matchup can be dealt
+     */
+    public EquityResult calculate(long[][] ranges, long board, long dead) {
+        if (ranges == null) {
+            throw new IllegalArgumentException("Null ranges");
+        } else if (ranges.length < 2) {
+            throw new IllegalArgumentException("Invalid players");
+        }
+        int boardCards = Long.bitCount(board);
+        if ((board & ~ALL_CARDS) != 0 || boardCards == 1 || boardCards == 2
+            || boardCards > BOARD_CARDS) {
+            throw new IllegalArgumentException("Invalid board");
+        } else if ((dead & ~ALL_CARDS) != 0) {
+            throw new IllegalArgumentException("Invalid dead cards");
+        } else if ((board & dead) != 0) {
+            throw new IllegalArgumentException("Duplicate card");
+        }
+        long[][] live = new long[ranges.length][];
+        long matchups = 1;
+        for (int i = 0; i < ranges.length; i++) {
+            live[i] = liveHoldings(ranges[i], board | dead);
+            matchups = multiply(matchups, live[i].length);
+        }
+        int left = Card.CODES - boardCards - Long.bitCount(dead) - HOLE_CARDS * ranges.length;
+        int need = BOARD_CARDS - boardCards;
+        if (left < need) {
+            throw new IllegalArgumentException("No matchups");
+        }
+        long boards = multiply(matchups, binomial(left, need));
+        int units = need == 0 ? 1 : left - need + 1;
+        Table table = new Table(live, board, dead, need);
+        // Units are counted with an int, so a huge limit still falls back to sampling
+        if (boards <= exhaustiveLimit && multiply(matchups, units) <= Integer.MAX_VALUE) {
+            long[] dealt = table.matchups();
+            if (dealt.length == 0) {
+                throw new IllegalArgumentException("No matchups");
+            }
+            return ForkJoinPool.commonPool().invoke(
+                new DealTask(table, dealt, units, binomial(left, need), 0,
+                             dealt.length / ranges.length * units));
+        }
+        SampleTask sampler = new SampleTask(table, new SplittableRandom(seed), samples);
+        // Seat one matchup here, so a failure is thrown as is rather than from the pool
+        sampler.seat(new long[ranges.length], new long[ranges.length]);
+        return ForkJoinPool.commonPool().invoke(sampler);
+    }
+
+    /**
+     * Checks a range and drops the holdings that share a card with the given cards
+     * @param range for the card masks of the holdings
+     * @param used for the card mask of the board and dead cards
+     * @return the holdings left
+     * @throws IllegalArgumentException if range is null or holds an invalid holding, or if
+     * no holding is left
+     */
+    private static long[] liveHoldings(long[] range, long used) {
+        if (range == null) {
+            throw new IllegalArgumentException("Null range");
+        }
+        long[] live = new long[range.length];
+        int count = 0;
+        for (long holding : range) {
+            if (Long.bitCount(holding) != HOLE_CARDS || (holding & ~ALL_CARDS) != 0) {
+                throw new IllegalArgumentException("Invalid hole cards");
+            } else if ((holding & used) == 0) {
+                live[count++] = holding;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Empty range");
+        }
+        return Arrays.copyOf(live, count);
+    }
+
+    /**
+     * Returns the number of ways to choose cards
+     * @param n for the number of cards to choose from
+     * @param k for the number of cards chosen, up to five
+     * @return the number of ways
+     */
+    private static long binomial(int n, int k) {
+        long ways = 1;
+        for (int i = 0; i < k; i++) {
+            ways = ways * (n - i) / (i + 1);
+        }
+        return ways;
+    }
+
+    /**
+     * Multiplies two counts, saturating rather than overflowing
+     * @param a for the first count
+     * @param b for the second count
+     * @return the product, or Long.MAX_VALUE if it does not fit
+     */
+    private static long multiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    /**
+     * Calculates and prints the equity of players' hole cards or ranges
+     * @param args each player's hole cards, such as "AsKd", or range, such as "AsAh,KsKh",
+     * then optionally "-b" and the board and "-d" and the dead cards
+     */
+    public static void main(String[] args) {
+        List<long[]> ranges = new ArrayList<long[]>();
+        long board = 0;
+        long dead = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ((args[i].equals("-b") || args[i].equals("-d")) && i + 1 < args.length) {
+                if (args[i].equals("-b")) {
+                    board = cards(args[++i]);
+                } else {
+                    dead = cards(args[++i]);
+                }
+            } else {
+                ranges.add(range(args[i]));
+            }
+        }
+        if (ranges.size() < 2) {
+            System.out.println("Usage: java -cp bin EquityCalculator <holding|range> "
+                               + "<holding|range>... [-b board] [-d dead]");
+            return;
+        }
+        long start = System.nanoTime();
+        EquityResult result = new EquityCalculator().calculate(
+            ranges.toArray(new long[ranges.size()][]), board, dead);
+        System.out.println(result);
+        System.out.printf(Locale.ROOT, "%.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * The players' live holdings and the board, shared by every task of a calculation
+     */
+    private static class Table {
+
+        /** Card masks of the live holdings in each player's range */
+        private final long[][] ranges;
+
+        /** Sum of the keys of each live holding, indexed as ranges */
+        private final long[][] rangeKeys;
+
+        /** Card mask of the board dealt so far */
+        private final long board;
+
+        /** Card mask of the cards out of play */
+        private final long dead;
+
+        /** Sum of the keys of the board dealt so far */
+        private final long boardKeys;
+
+        /** Number of board cards still to be dealt */
+        private final int need;
+
+        /**
+         * Constructor for the table
+         * @param ranges for the live holdings in each player's range
+         * @param board for the card mask of the board dealt so far
+         * @param dead for the card mask of the cards out of play
+         * @param need for the number of board cards still to be dealt
+         */
+        Table(long[][] ranges, long board, long dead, int need) {
+            this.ranges = ranges;
+            this.rangeKeys = new long[ranges.length][];
+            for (int p = 0; p < ranges.length; p++) {
+                rangeKeys[p] = new long[ranges[p].length];
+                for (int i = 0; i < ranges[p].length; i++) {
+                    rangeKeys[p][i] = keys(ranges[p][i]);
+                }
+            }
+            this.board = board;
+            this.dead = dead;
+            this.boardKeys = keys(board);
+            this.need = need;
+        }
+
+        /**
+         * Returns the sum of the keys of the cards in a mask
+         * @param mask for the card mask
+         * @return the sum of their keys
+         */
+        static long keys(long mask) {
+            long sum = 0;
+            for (long cards = mask; cards != 0; cards &= cards - 1) {
+                sum += SevenCardEvaluator.cardKey(Long.numberOfTrailingZeros(cards));
+            }
+            return sum;
+        }
+
+        /**
+         * Lists every matchup in which no two players share a card
+         * @return the holdings of each matchup, one per player in turn
+         */
+        long[] matchups() {
+            int players = ranges.length;
+            long[] dealt = new long[players * 16];
+            int count = 0;
+            int[] index = new int[players];
+            while (true) {
+                long used = 0;
+                boolean valid = true;
+                for (int p = 0; p < players && valid; p++) {
+                    long holding = ranges[p][index[p]];
+                    valid = (used & holding) == 0;
+                    used |= holding;
+                }
+                if (valid) {
+                    if (count + players > dealt.length) {
+                        dealt = Arrays.copyOf(dealt, dealt.length * 2);
+                    }
+                    for (int p = 0; p < players; p++) {
+                        dealt[count++] = ranges[p][index[p]];
+                    }
+                }
+                int p = players - 1;
+                while (p >= 0 && ++index[p] == ranges[p].length) {
+                    index[p--] = 0;
+                }
+                if (p < 0) {
+                    return Arrays.copyOf(dealt, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deals every board of a range of units, each one matchup and the lowest new board card
+     */
+    private static class DealTask extends RecursiveTask<EquityResult> {
+
+        /** Serial version, as fork/join tasks are serializable */
+        private static final long serialVersionUID = 1L;
+
+        /** Players' holdings and the board */
+        private final Table table;
+
+        /** Holdings of each matchup, one per player in turn */
+        private final long[] matchups;
+
+        /** Number of units of each matchup */
+        private final int units;
+
+        /** Number of boards dealt for each matchup */
+        private final long boards;
+
+        /** Index of the first unit in the range */
+        private final int from;
+
+        /** Index after the last unit in the range */
+        private final int to;
+
+        /** Card mask of each player's holding in the current matchup */
+        private long[] holes;
+
+        /** Sum of the keys of each player's holding in the current matchup */
+        private long[] holeKeys;
+
+        /** Codes of the cards left to deal in the current matchup, in increasing order */
+        private int[] left;
+
+        /** Key of each card left to deal */
+        private long[] leftKeys;
+
+        /** Evaluated value of each player's holding on the current board */
+        private int[] values;
+
+        /** Tallies of the boards dealt */
+        private EquityResult result;
+
+        /**
+         * Constructor for the task
+         * @param table for the players' holdings and the board
+         * @param matchups for the holdings of each matchup
+         * @param units for the number of units of each matchup
+         * @param boards for the number of boards dealt for each matchup
+         * @param from for the first unit in the range
+         * @param to for the index after the last unit in the range
+         */
+        DealTask(Table table, long[] matchups, int units, long boards, int from, int to) {
+            this.table = table;
+            this.matchups = matchups;
+            this.units = units;
+            this.boards = boards;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Deals the boards of the range or splits it
+         * @return the tallies of the boards dealt
+         */
+        @Override
+        protected EquityResult compute() {
+            if (to - from > 1 && (to - from) * boards / units > TASK_BOARDS) {
+                int middle = (from + to) >>> 1;
+                DealTask low = new DealTask(table, matchups, units, boards, from, middle);
+                DealTask high = new DealTask(table, matchups, units, boards, middle, to);
+                invokeAll(low, high);
+                EquityResult merged = low.join();
+                merged.merge(high.join());
+                return merged;
+            }
+            int players = table.ranges.length;
+            holes = new long[players];
+            holeKeys = new long[players];
+            values = new int[players];
+            result = new EquityResult(players, true);
+            int matchup = -1;
+            for (int unit = from; unit < to; unit++) {
+                if (unit / units != matchup) {
+                    matchup = unit / units;
+                    seat(matchup);
+                }
+                if (table.need == 0) {
+                    score(table.boardKeys, table.board);
+                } else {
+                    int first = unit % units;
+                    deal(first, table.need - 1, table.boardKeys + leftKeys[first],
+                         table.board | 1L << left[first]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Takes the holdings of a matchup and lists the cards left to deal
+         * @param matchup for the index of the matchup
+         */
+        private void seat(int matchup) {
+            long used = table.board;
+            for (int p = 0; p < holes.length; p++) {
+                holes[p] = matchups[matchup * holes.length + p];
+                holeKeys[p] = Table.keys(holes[p]);
+                used |= holes[p];
+            }
+            long free = ALL_CARDS & ~used & ~table.dead;
+            left = new int[Long.bitCount(free)];
+            leftKeys = new long[left.length];
+            for (int i = 0; i < left.length; i++) {
+                left[i] = Long.numberOfTrailingZeros(free);
+                leftKeys[i] = SevenCardEvaluator.cardKey(left[i]);
+                free &= free - 1;
+            }
+        }
+
+        /**
+         * Deals the rest of the board from cards after the last one dealt
+         * @param last for the index in left of the last card dealt
+         * @param more for the number of cards still to deal
+         * @param keys for the sum of the keys of the board so far
+         * @param board for the card mask of the board so far
+         */
+        private void deal(int last, int more, long keys, long board) {
+            if (more == 0) {
+                score(keys, board);
+                return;
+            }
+            for (int i = last + 1; i <= left.length - more; i++) {
+                deal(i, more - 1, keys + leftKeys[i], board | 1L << left[i]);
+            }
+        }
+
+        /**
+         * Evaluates every player's holding on a complete board and records the outcome
+         * @param keys for the sum of the keys of the board
+         * @param board for the card mask of the board
+         */
+        private void score(long keys, long board) {
+            for (int p = 0; p < holes.length; p++) {
+                values[p] = SevenCardEvaluator.evaluateKeys(holeKeys[p] + keys,
+                                                            holes[p] | board);
+            }
+            result.record(values);
+        }
+    }
+
+    /**
+     * Samples random matchups and boards
+     */
+    private static class SampleTask extends RecursiveTask<EquityResult> {
+
+        /** Serial version, as fork/join tasks are serializable */
+        private static final long serialVersionUID = 1L;
+
+        /** Players' holdings and the board */
+        private final Table table;
+
+        /** Random number stream of the task */
+        private final SplittableRandom random;
+
+        /** Number of boards to sample */
+        private final int count;
+
+        /**
+         * Constructor for the task
+         * @param table for the players' holdings and the board
+         * @param random for the random number stream of the task
+         * @param count for the number of boards to sample
+         */
+        SampleTask(Table table, SplittableRandom random, int count) {
+            this.table = table;
+            this.random = random;
+            this.count = count;
+        }
+
+        /**
+         * Samples the boards or splits them between two tasks
+         * @return the tallies of the boards sampled
+         * @throws IllegalArgumentException if matchups keep sharing cards, as when no
+         * matchup can be dealt
+         */
+        @Override
+        protected EquityResult compute() {
+            if (count > TASK_SAMPLES) {
+                // Split before forking, so each task's stream does not depend on scheduling
+                SampleTask low = new SampleTask(table, random.split(), count / 2);
+                SampleTask high = new SampleTask(table, random, count - count / 2);
+                invokeAll(low, high);
+                EquityResult merged = low.join();
+                merged.merge(high.join());
+                return merged;
+            }
+            long[][] ranges = table.ranges;
+            int players = ranges.length;
+            long[] holes = new long[players];
+            long[] holeKeys = new long[players];
+            int[] values = new int[players];
+            EquityResult result = new EquityResult(players, false);
+            for (int sample = 0; sample < count; sample++) {
+                long used = seat(holes, holeKeys);
+                long board = table.board;
+                long keys = table.boardKeys;
+                for (int dealt = 0; dealt < table.need; ) {
+                    int code = random.nextInt(Card.CODES);
+                    if ((used >>> code & 1) == 0) {
+                        used |= 1L << code;
+                        board |= 1L << code;
+                        keys += SevenCardEvaluator.cardKey(code);
+                        dealt++;
+                    }
+                }
+                for (int p = 0; p < players; p++) {
+                    values[p] = SevenCardEvaluator.evaluateKeys(holeKeys[p] + keys,
+                                                                holes[p] | board);
+                }
+                result.record(values);
+            }
+            return result;
+        }
+
+        /**
+         * Draws a holding from each player's range until no two players share a card
+         * @param holes for the card mask of each player's holding, filled in
+         * @param holeKeys for the sum of the keys of each player's holding, filled in
+         * @return the card mask of every card out of the deck
+         * @throws IllegalArgumentException if too many matchups in a row share cards
+         */
+        private long seat(long[] holes, long[] holeKeys) {
+            for (int rejections = 0; rejections < MAX_REJECTIONS; rejections++) {
+                long used = table.board | table.dead;
+                int p = 0;
+                for (; p < holes.length; p++) {
+                    int index = random.nextInt(table.ranges[p].length);
+                    holes[p] = table.ranges[p][index];
+                    if ((used & holes[p]) != 0) {
+                        break;
+                    }
+                    holeKeys[p] = table.rangeKeys[p][index];
+                    used |= holes[p];
+                }
+                if (p == holes.length) {
+                    return used;
+                }
+            }
+            throw new IllegalArgumentException("No matchups");
+        }
+    }
+}
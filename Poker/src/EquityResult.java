@@ -0,0 +1,217 @@
+import java.util.*;
+
+/**
+ * Outcome of an equity calculation with EquityCalculator: for each player, how many of the
+ * boards dealt it won outright, how many it tied for the best holding, and its equity, the
+ * share of the pot it takes on average when ties split the pot evenly. A result is filled in
+ * by a single fork/join task and merged with the results of other tasks once they finish.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class EquityResult {
+
+    /** Number of boards dealt, across every matchup of hole cards */
+    private long outcomes;
+
+    /** Number of boards each player won outright */
+    private long[] wins;
+
+    /** Number of boards each player tied for the best holding */
+    private long[] ties;
+
+    /** Share of the pot each player took, summed over the boards */
+    private double[] shares;
+
+    /** true if every board was dealt, false if boards were sampled */
+    private boolean exhaustive;
+
+    /**
+     * Constructor for an empty result
+     * @param players for the number of players
+     * @param exhaustive for true if every board is dealt, false if boards are sampled
+     */
+    EquityResult(int players, boolean exhaustive) {
+        this.wins = new long[players];
+        this.ties = new long[players];
+        this.shares = new double[players];
+        this.exhaustive = exhaustive;
+    }
+
+    /**
+     * Records one board
+     * @param values for the evaluated value of each player's holding
+     */
+    void record(int[] values) {
+        int best = 0;
+        int count = 0;
+        for (int value : values) {
+            if (value > best) {
+                best = value;
+                count = 1;
+            } else if (value == best) {
+                count++;
+            }
+        }
+        outcomes++;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == best) {
+                if (count == 1) {
+                    wins[i]++;
+                    shares[i]++;
+                } else {
+                    ties[i]++;
+                    shares[i] += 1.0 / count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the tallies of another result to this one
+     * @param other for the result to be added
+     */
+    void merge(EquityResult other) {
+        outcomes += other.outcomes;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+            ties[i] += other.ties[i];
+            shares[i] += other.shares[i];
+        }
+    }
+
+    /**
+     * Returns the number of players
+     * @return the number of players
+     */
+    public int getPlayers() {
+        return wins.length;
+    }
+
+    /**
+     * Returns the number of boards dealt, across every matchup of hole cards
+     * @return the number of boards
+     */
+    public long getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * Returns whether every board was dealt
+     * @return true if every board was dealt, false if boards were sampled
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    /**
+     * Returns the number of boards a player won outright
+     * @param player for the index of the player
+     * @return the number of boards
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public long getWins(int player) {
+        checkPlayer(player);
+        return wins[player];
+    }
+
+    /**
+     * Returns the number of boards a player tied for the best holding
+     * @param player for the index of the player
+     * @return the number of boards
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public long getTies(int player) {
+        checkPlayer(player);
+        return ties[player];
+    }
+
+    /**
+     * Returns the number of boards a player lost
+     * @param player for the index of the player
+     * @return the number of boards
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public long getLosses(int player) {
+        checkPlayer(player);
+        return outcomes - wins[player] - ties[player];
+    }
+
+    /**
+     * Returns the percentage of boards a player won outright
+     * @param player for the index of the player
+     * @return the percentage, or 0 if no board was dealt
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public double getWinPercentage(int player) {
+        return percentage(getWins(player));
+    }
+
+    /**
+     * Returns the percentage of boards a player tied for the best holding
+     * @param player for the index of the player
+     * @return the percentage, or 0 if no board was dealt
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public double getTiePercentage(int player) {
+        return percentage(getTies(player));
+    }
+
+    /**
+     * Returns the percentage of boards a player lost
+     * @param player for the index of the player
+     * @return the percentage, or 0 if no board was dealt
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public double getLossPercentage(int player) {
+        return percentage(getLosses(player));
+    }
+
+    /**
+     * Returns a player's equity, the percentage of the pot it takes on average when ties
+     * split the pot evenly
+     * @param player for the index of the player
+     * @return the equity, or 0 if no board was dealt
+     * @throws IllegalArgumentException if player is invalid
+     */
+    public double getEquity(int player) {
+        checkPlayer(player);
+        return outcomes == 0 ? 0 : 100 * shares[player] / outcomes;
+    }
+
+    /**
+     * Returns a count as a percentage of the boards dealt
+     * @param count for the count
+     * @return the percentage, or 0 if no board was dealt
+     */
+    private double percentage(long count) {
+        return outcomes == 0 ? 0 : 100.0 * count / outcomes;
+    }
+
+    /**
+     * Checks the index of a player
+     * @param player for the index of the player
+     * @throws IllegalArgumentException if player is invalid
+     */
+    private void checkPlayer(int player) {
+        if (player < 0 || player >= wins.length) {
+            throw new IllegalArgumentException("Invalid player");
+        }
+    }
+
+    /**
+     * Returns a summary of the result, one line per player
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(outcomes).append(exhaustive ? " boards dealt" : " boards sampled");
+        for (int i = 0; i < wins.length; i++) {
+            text.append(String.format(Locale.ROOT,
+                                      "%nPlayer %d: equity %.3f%%, win %.3f%%, tie %.3f%%",
+                                      i, getEquity(i), getWinPercentage(i),
+                                      getTiePercentage(i)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,408 @@
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import javax.management.JMException;
+
+/**
+ * A local HTTP endpoint for playing GameSessions of a GameSessionManager, built on the JDK's
+ * own HTTP server. Every reply is the session's state as JSON:
+ *
+ * POST   /sessions                        creates a session (201)
+ * GET    /sessions/{id}                   returns the session
+ * DELETE /sessions/{id}                   removes the session (204)
+ * POST   /sessions/{id}/new-game          deals a game
+ * POST   /sessions/{id}/replace?card=i    replaces card i
+ * POST   /sessions/{id}/score             scores the hand
+ * POST   /sessions/{id}/draw?hold=mask    replaces the cards not held and scores the hand
+ *
+ * GET /metrics replies with the manager's GameMetrics as text instead.
+ *
+ * Errors reply {"error": message} with 404 for an unknown session or path, 405 for a wrong
+ * method, 400 for an invalid argument and 409 for an action the game does not allow now.
+ *
+ * Requests are handled on virtual threads when the runtime has them, and otherwise on a fixed
+ * pool of platform threads, since handlers only wait for the session's lane to do the work.
+ * The reply is written on the lane into a JsonWriter taken from a pool, so a request creates
+ * no strings or arrays for its reply: card names are made once, and writers keep their
+ * buffers.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameHttpServer implements AutoCloseable {
+
+    /** Port used when none is given */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** Path of the sessions */
+    public static final String SESSIONS = "/sessions";
+
+    /** Path of the metrics */
+    public static final String METRICS = "/metrics";
+
+    /** Number of connections waiting to be accepted that the server queues */
+    private static final int BACKLOG = 1024;
+
+    /** Name of every card, indexed by code */
+    private static final String[] CARD_NAMES = new String[Card.CODES];
+
+    /** System property that turns Nagle's algorithm off in the JDK's HTTP server */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        for (int code = 0; code < Card.CODES; code++) {
+            CARD_NAMES[code] = Card.fromCode(code).toString();
+        }
+    }
+
+    /** Sessions played through the server */
+    private final GameSessionManager manager;
+
+    /** The HTTP server */
+    private final HttpServer server;
+
+    /** Executor handling requests */
+    private final ExecutorService executor;
+
+    /** Writers not in use */
+    private final ConcurrentLinkedQueue<JsonWriter> writers =
+        new ConcurrentLinkedQueue<JsonWriter>();
+
+    /**
+     * Constructor for a server on the loopback address, which is not started
+     * @param manager for the sessions played through the server
+     * @param port for the port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if manager is null
+     */
+    public GameHttpServer(GameSessionManager manager, int port) throws IOException {
+        if (manager == null) {
+            throw new IllegalArgumentException("Null manager");
+        }
+        this.manager = manager;
+        this.server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext(SESSIONS, this::handle);
+        server.createContext(METRICS, this::handleMetrics);
+    }
+
+    /**
+     * Creates a virtual thread per task executor if the runtime has one, or else a fixed
+     * pool of daemon threads
+     * @return the executor
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = 4 * Runtime.getRuntime().availableProcessors();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "http-handler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is bound to
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting for no exchanges, and its executor. The manager is left open.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles a request
+     * @param exchange for the request and its reply
+     * @throws IOException if the reply cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonWriter json = writers.poll();
+        if (json == null) {
+            json = new JsonWriter();
+        }
+        try {
+            reply(exchange, route(exchange, json.reset()), json);
+        } finally {
+            exchange.close();
+            writers.offer(json);
+        }
+    }
+
+    /**
+     * Replies to a request for the metrics with their text dump
+     * @param exchange for the request and its reply
+     * @throws IOException if the reply cannot be sent
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                JsonWriter json = new JsonWriter();
+                reply(exchange, error(json, 405, "Method not allowed"), json);
+                return;
+            }
+            byte[] body = manager.getMetrics().dump().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Writes a reply whose body, unless the status is 204, is JSON
+     * @param exchange for the request and its reply
+     * @param status for the status of the reply
+     * @param json for the writer holding the body
+     * @throws IOException if the reply cannot be sent
+     */
+    private static void reply(HttpExchange exchange, int status, JsonWriter json)
+            throws IOException {
+        if (status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, json.size());
+            json.writeTo(exchange.getResponseBody());
+        }
+    }
+
+    /**
+     * Carries out a request and writes its reply
+     * @param exchange for the request
+     * @param json for the writer of the reply
+     * @return the status of the reply
+     */
+    private int route(HttpExchange exchange, JsonWriter json) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        int start = SESSIONS.length();
+        if (path.length() == start || path.length() == start + 1 && path.charAt(start) == '/') {
+            if (!method.equals("POST")) {
+                return error(json, 405, "Method not allowed");
+            }
+            int status = run(json, manager.createSession(), session -> null);
+            return status == 200 ? 201 : status;
+        } else if (path.charAt(start) != '/') {
+            return error(json, 404, "Not found");
+        }
+        int end = path.indexOf('/', start + 1);
+        long id = parse(path, start + 1, end < 0 ? path.length() : end);
+        if (id < 0) {
+            return error(json, 404, "Not found");
+        } else if (!manager.hasSession(id)) {
+            return error(json, 404, "Unknown session");
+        }
+        if (end < 0) {
+            if (method.equals("GET")) {
+                return run(json, id, session -> null);
+            } else if (method.equals("DELETE")) {
+                manager.removeSession(id);
+                return 204;
+            }
+            return error(json, 405, "Method not allowed");
+        } else if (!method.equals("POST")) {
+            return error(json, 405, "Method not allowed");
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        if (isAction(path, end, "new-game")) {
+            PayTable table = manager.getPayTable();
+            return run(json, id, session -> {
+                session.deal(table);
+                return null;
+            });
+        } else if (isAction(path, end, "replace")) {
+            int index = parameter(query, "card=");
+            return run(json, id, session -> {
+                session.replaceCard(index);
+                return null;
+            });
+        } else if (isAction(path, end, "score")) {
+            return run(json, id, GameSession::scoreHand);
+        } else if (isAction(path, end, "draw")) {
+            int holdMask = parameter(query, "hold=");
+            return run(json, id, session -> session.draw(holdMask));
+        }
+        return error(json, 404, "Not found");
+    }
+
+    /**
+     * Runs an action on a session's lane and writes the session's state afterwards
+     * @param json for the writer of the reply
+     * @param id for the identifier of the session
+     * @param action for the action
+     * @return the status of the reply
+     */
+    private int run(JsonWriter json, long id, Function<GameSession, ?> action) {
+        try {
+            manager.submit(id, session -> {
+                action.apply(session);
+                write(json, session);
+                return null;
+            }).join();
+            return 200;
+        } catch (CompletionException e) {
+            json.reset();
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException) {
+                return error(json, 400, cause.getMessage());
+            } else if (cause instanceof IllegalStateException) {
+                return error(json, 409, cause.getMessage());
+            }
+            return error(json, 500, String.valueOf(cause));
+        } catch (RejectedExecutionException e) {
+            return error(json, 503, "Closed");
+        }
+    }
+
+    /**
+     * Writes the state of a session
+     * @param json for the writer
+     * @param session for the session
+     */
+    private static void write(JsonWriter json, GameSession session) {
+        json.beginObject()
+            .name("id").value(session.getId())
+            .name("points").value(session.getPoints())
+            .name("inGame").value(session.isInGame());
+        HandCategory category = session.getLastCategory();
+        if (session.isInGame() || category != null) {
+            json.name("codes").beginArray();
+            for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+                json.value(session.getCardCode(i));
+            }
+            json.endArray().name("cards").beginArray();
+            for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+                json.value(CARD_NAMES[session.getCardCode(i)]);
+            }
+            json.endArray();
+        }
+        if (category != null) {
+            json.name("category").value(category.getDisplayName())
+                .name("paid").value(session.getLastPaid());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Writes an error reply
+     * @param json for the writer
+     * @param status for the status of the reply
+     * @param message for the message
+     * @return the status
+     */
+    private static int error(JsonWriter json, int status, String message) {
+        json.beginObject().name("error").value(message).endObject();
+        return status;
+    }
+
+    /**
+     * Returns whether a path ends with an action
+     * @param path for the path
+     * @param slash for the position of the slash before the action
+     * @param action for the name of the action
+     * @return true if the rest of the path is the action
+     */
+    private static boolean isAction(String path, int slash, String action) {
+        return path.length() == slash + 1 + action.length() && path.startsWith(action, slash + 1);
+    }
+
+    /**
+     * Reads a whole number parameter from a query
+     * @param query for the raw query, or null
+     * @param key for the name of the parameter followed by '='
+     * @return the value, or -1 if it is missing or not a number
+     */
+    private static int parameter(String query, String key) {
+        if (query == null) {
+            return -1;
+        }
+        for (int start = 0; start < query.length(); ) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (query.startsWith(key, start)) {
+                long value = parse(query, start + key.length(), end);
+                return value > Integer.MAX_VALUE ? -1 : (int) value;
+            }
+            start = end + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the digits between two positions of a string without creating a substring
+     * @param text for the string
+     * @param start for the position of the first digit
+     * @param end for the position after the last digit
+     * @return the number, or -1 if the text there is empty, not digits or too long
+     */
+    private static long parse(String text, int start, int end) {
+        if (start >= end || end - start > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Turns Nagle's algorithm off for every JDK HTTP server in the process, unless
+     * NODELAY_PROPERTY was already set, for example on the command line. Without it a reply
+     * whose headers and body are written separately waits for a delayed acknowledgement.
+     * The JDK reads the property once, when its server classes are first loaded, so this is a
+     * startup option: call it before the first server is created or it has no effect.
+     */
+    public static void useNoDelay() {
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Serves sessions until the process is stopped, with the metrics registered as an MBean
+     * @param args the port, DEFAULT_PORT if none is given
+     * @throws IOException if the port cannot be bound
+     * @throws JMException if the metrics cannot be registered
+     */
+    public static void main(String[] args) throws IOException, JMException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        useNoDelay();
+        GameSessionManager manager = new GameSessionManager();
+        GameHttpServer server = new GameHttpServer(manager, port);
+        manager.getMetrics().register("GameHttpServer-" + server.getPort());
+        server.start();
+        System.out.println("Serving video poker sessions at http://localhost:"
+                           + server.getPort() + SESSIONS);
+    }
+}
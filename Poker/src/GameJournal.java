@@ -0,0 +1,363 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of game events for audit and replay. Every deal, replacement and score
+ * is one fixed size record, written to memory mapped segment files in a directory. A segment
+ * holds a fixed number of records, and a new one is started when it is full, so no file grows
+ * while it is mapped. A journal opened on a directory that already holds segments starts a
+ * new segment after the last one, leaving the old records as they are.
+ *
+ * Games do not write to the files themselves. append() copies a record into a ring buffer
+ * and returns, and a single writer thread moves records from the ring into the mapped
+ * segment, so a game never waits for the disk. Any number of threads may append: each claims
+ * a slot with one compare-and-set and publishes it when the record is copied. A game only
+ * waits if the writer falls a whole ring behind. Closing sets a bit in the same word slots
+ * are claimed from, so a record is either claimed before the close, and written, or refused.
+ * If the writer fails, appending, flushing and closing all throw rather than lose records.
+ *
+ * Each segment has a header of four ints, magic "GJNL", format version, RECORD_BYTES and
+ * records per segment, followed by the records, all big endian:
+ *
+ * session (long), seed (long), game number (int), hand (int, five codes of CODE_BITS bits
+ * with card 0 in the lowest bits), points delta (int), type (byte), argument (byte, the card
+ * index of a REPLACE), category (byte, the category code of a SCORE or -1) and pay table
+ * (byte, the PayTable tag of a DEAL, or 0 if not known). Unused records after the last one
+ * written are zero, whose type is none of the types.
+ *
+ * Records are read back with JournalReader.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameJournal implements Closeable {
+
+    /** First four bytes of every segment */
+    public static final int MAGIC = 0x474A4E4C;
+
+    /** Version of the segment format */
+    public static final int VERSION = 1;
+
+    /** Number of bytes in a segment header */
+    public static final int HEADER_BYTES = 16;
+
+    /** Number of bytes in a record */
+    public static final int RECORD_BYTES = 32;
+
+    /** Number of bits each card code takes in a record's hand */
+    public static final int CODE_BITS = 6;
+
+    /** Record type of a new game being dealt */
+    public static final int DEAL = 1;
+
+    /** Record type of a card being replaced */
+    public static final int REPLACE = 2;
+
+    /** Record type of a hand being scored */
+    public static final int SCORE = 3;
+
+    /** Records per segment unless another number is given, 32 MB segments */
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+
+    /** Records the ring holds unless another number is given */
+    public static final int DEFAULT_RING_RECORDS = 1 << 14;
+
+    /** Start of the name of every segment file */
+    public static final String SEGMENT_PREFIX = "journal-";
+
+    /** End of the name of every segment file */
+    public static final String SEGMENT_SUFFIX = ".dat";
+
+    /** Time the writer sleeps when the ring is empty */
+    private static final long IDLE_NANOS = 100000;
+
+    /** Bit of the claim word set once the journal is closed */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /** Number of longs each record takes in the ring */
+    private static final int RECORD_LONGS = RECORD_BYTES / Long.BYTES;
+
+    /** Directory holding the segments */
+    private final Path directory;
+
+    /** Number of records in each segment */
+    private final int segmentRecords;
+
+    /** Records copied in by appending threads, RECORD_LONGS longs each */
+    private final long[] ring;
+
+    /** Mask giving a record's slot in the ring from its sequence number */
+    private final int slotMask;
+
+    /** Sequence number of the record in each slot, set when the record has been copied */
+    private final AtomicLongArray published;
+
+    /** Sequence number the next appended record will take, with CLOSED set once closed */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Number of records the writer has moved into segments */
+    private final AtomicLong written = new AtomicLong();
+
+    /** Thread moving records from the ring into segments */
+    private final Thread writer;
+
+    /** Index of the segment being written */
+    private int segmentIndex;
+
+    /** Segment being written */
+    private MappedByteBuffer segment;
+
+    /** Why the writer stopped early, or null */
+    private volatile IOException error;
+
+    /**
+     * Constructor for a journal with the default segment and ring sizes
+     * @param directory for the directory holding the segments, created if needed
+     * @throws IOException if the directory or first segment cannot be created
+     * @throws IllegalArgumentException if directory is null
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_RING_RECORDS);
+    }
+
+    /**
+     * Constructor for a journal, which starts its writer thread
+     * @param directory for the directory holding the segments, created if needed
+     * @param segmentRecords for the number of records in each segment
+     * @param ringRecords for the number of records the ring holds, a power of two
+     * @throws IOException if the directory or first segment cannot be created
+     * @throws IllegalArgumentException if directory is null, segmentRecords is not positive
+     * or ringRecords is not a positive power of two
+     */
+    public GameJournal(Path directory, int segmentRecords, int ringRecords)
+            throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        } else if (segmentRecords <= 0
+                   || segmentRecords > (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES) {
+            throw new IllegalArgumentException("Invalid segment records");
+        } else if (ringRecords <= 0 || Integer.bitCount(ringRecords) != 1
+                   || ringRecords > Integer.MAX_VALUE / RECORD_LONGS) {
+            throw new IllegalArgumentException("Invalid ring records");
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.ring = new long[ringRecords * RECORD_LONGS];
+        this.slotMask = ringRecords - 1;
+        this.published = new AtomicLongArray(ringRecords);
+        for (int i = 0; i < ringRecords; i++) {
+            published.set(i, -1);
+        }
+        Files.createDirectories(directory);
+        Path[] existing = JournalReader.segments(directory);
+        if (existing.length > 0) {
+            segmentIndex = segmentNumber(existing[existing.length - 1]) + 1;
+        }
+        openSegment();
+        writer = new Thread(this::drain, "game-journal");
+        writer.setDaemon(true);
+        // A fault in a mapped segment is thrown asynchronously, so it can escape drain()
+        writer.setUncaughtExceptionHandler((thread, e) -> {
+            if (error == null) {
+                error = new IOException("Journal writer failed", e);
+            }
+        });
+        writer.start();
+    }
+
+    /**
+     * Returns the file name of a segment
+     * @param index for the index of the segment
+     * @return the file name
+     */
+    public static String segmentName(int index) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the index of a segment from its file name
+     * @param file for the segment file
+     * @return the index
+     */
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                               name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Packs five card codes into a record's hand
+     * @param c1 for the code of card 0
+     * @param c2 for the code of card 1
+     * @param c3 for the code of card 2
+     * @param c4 for the code of card 3
+     * @param c5 for the code of card 4
+     * @return the packed hand
+     */
+    public static int packHand(int c1, int c2, int c3, int c4, int c5) {
+        return c1 | c2 << CODE_BITS | c3 << (2 * CODE_BITS) | c4 << (3 * CODE_BITS)
+            | c5 << (4 * CODE_BITS);
+    }
+
+    /**
+     * Returns the directory holding the segments
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Appends a record. Only the ring is touched, unless the writer is a whole ring behind,
+     * when this waits for it to catch up.
+     * @param session for the identifier of the game or session
+     * @param seed for the seed the game was dealt from
+     * @param game for the number of the game in the session
+     * @param type for the type of the record, DEAL, REPLACE or SCORE
+     * @param argument for the card index of a REPLACE, or 0
+     * @param hand for the hand after the event, packed as by packHand()
+     * @param category for the category code of a SCORE, or -1
+     * @param delta for the change to the points
+     * @param table for the tag of the pay table a DEAL was played with, or 0
+     * @throws IllegalStateException if the journal is closed or its writer has failed
+     */
+    public void append(long session, long seed, int game, int type, int argument, int hand,
+                       int category, int delta, int table) {
+        if (error != null) {
+            throw new IllegalStateException("Journal failed", error);
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                throw new IllegalStateException("Closed");
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        while (sequence - written.get() >= published.length()) {
+            if (error != null || !writer.isAlive()) {
+                throw new IllegalStateException("Journal failed", error);
+            }
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+        int slot = (int) sequence & slotMask;
+        int base = slot * RECORD_LONGS;
+        ring[base] = session;
+        ring[base + 1] = seed;
+        ring[base + 2] = (long) game << 32 | hand & 0xFFFFFFFFL;
+        ring[base + 3] = (long) delta << 32 | (type & 0xFF) << 24 | (argument & 0xFF) << 16
+            | (category & 0xFF) << 8 | table & 0xFF;
+        published.lazySet(slot, sequence);
+    }
+
+    /**
+     * Returns the number of records appended
+     * @return the number of records
+     */
+    public long getAppended() {
+        return claimed.get() & ~CLOSED;
+    }
+
+    /**
+     * Returns the number of records the writer has moved into segments
+     * @return the number of records
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Waits until every record appended before this call is in a segment. The records are
+     * then safe if the process dies, though not yet forced to the disk.
+     * @throws IOException if the writer has failed or stopped with records still to write
+     */
+    public void flush() throws IOException {
+        long target = getAppended();
+        while (written.get() < target && error == null && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+        if (error != null) {
+            throw error;
+        } else if (written.get() < target) {
+            throw new IOException("Journal writer stopped");
+        }
+    }
+
+    /**
+     * Stops accepting records, waits for the writer to move every record appended into the
+     * segments, and forces the last segment to the disk
+     * @throws IOException if the writer has failed or stopped with records still to write
+     */
+    @Override
+    public void close() throws IOException {
+        claimed.getAndUpdate(sequence -> sequence | CLOSED);
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing");
+        }
+        if (error != null) {
+            throw error;
+        } else if (written.get() < getAppended()) {
+            throw new IOException("Journal writer stopped");
+        }
+    }
+
+    /**
+     * Moves records from the ring into segments until the journal is closed and every
+     * record claimed has been moved. Anything the writer throws is kept as the failure, as
+     * forcing a segment reports disk errors unchecked and writing to a mapped segment the
+     * disk cannot back throws an InternalError.
+     */
+    private void drain() {
+        long next = 0;
+        try {
+            while (true) {
+                int slot = (int) next & slotMask;
+                if (published.get(slot) == next) {
+                    if (!segment.hasRemaining()) {
+                        segment.force();
+                        segmentIndex++;
+                        openSegment();
+                    }
+                    int base = slot * RECORD_LONGS;
+                    for (int i = 0; i < RECORD_LONGS; i++) {
+                        segment.putLong(ring[base + i]);
+                    }
+                    written.lazySet(++next);
+                } else if (claimed.get() == (next | CLOSED)) {
+                    break;
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+            segment.force();
+        } catch (IOException e) {
+            error = e;
+        } catch (UncheckedIOException e) {
+            error = e.getCause();
+        } catch (Throwable e) {
+            error = new IOException("Journal writer failed", e);
+        }
+    }
+
+    /**
+     * Creates and maps the segment with the current index and writes its header
+     * @throws IOException if the segment cannot be created
+     */
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(segmentName(segmentIndex));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                                  HEADER_BYTES + (long) segmentRecords * RECORD_BYTES);
+        }
+        segment.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(segmentRecords);
+    }
+}
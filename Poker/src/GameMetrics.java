@@ -0,0 +1,329 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * Counters and latency histograms for video poker games, shared by every game that records
+ * to it. Counters are LongAdders and histograms are LatencyHistograms, so games on many
+ * threads record without contending, and every value can be read at any time: through the
+ * getters, as a JMX MBean once register() has been called, or as the text of dump().
+ *
+ * The dump uses the Prometheus text format, one metric per line, so it can be scraped as it
+ * is or read by eye.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameMetrics implements GameMetricsMBean {
+
+    /** Domain of the MBean names */
+    public static final String DOMAIN = "Poker";
+
+    /** Percentiles written by dump() */
+    private static final double[] DUMP_PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Number of games dealt */
+    private final LongAdder games = new LongAdder();
+
+    /** Number of cards replaced */
+    private final LongAdder replacements = new LongAdder();
+
+    /** Points paid to play */
+    private final LongAdder pointsWagered = new LongAdder();
+
+    /** Points paid for scored hands */
+    private final LongAdder pointsPaid = new LongAdder();
+
+    /** Number of hands scored in each category */
+    private final LongAdder[] categoryCounts = new LongAdder[HandEvaluator.CATEGORIES];
+
+    /** Latencies of dealing new games */
+    private final LatencyHistogram newGameLatency = new LatencyHistogram();
+
+    /** Latencies of replacing cards */
+    private final LatencyHistogram replaceCardLatency = new LatencyHistogram();
+
+    /** Latencies of scoring hands */
+    private final LatencyHistogram scoreHandLatency = new LatencyHistogram();
+
+    /**
+     * Constructor for metrics with nothing recorded
+     */
+    public GameMetrics() {
+        for (int i = 0; i < categoryCounts.length; i++) {
+            categoryCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a game being dealt
+     * @param cost for the points paid to play
+     * @param nanos for how long dealing took
+     */
+    public void recordNewGame(int cost, long nanos) {
+        games.increment();
+        pointsWagered.add(cost);
+        newGameLatency.record(nanos);
+    }
+
+    /**
+     * Records a card being replaced
+     * @param nanos for how long replacing it took
+     */
+    public void recordReplaceCard(long nanos) {
+        replacements.increment();
+        replaceCardLatency.record(nanos);
+    }
+
+    /**
+     * Records a hand being scored
+     * @param category for the category code of the hand
+     * @param paid for the points paid for it
+     * @param nanos for how long scoring took
+     */
+    public void recordScoreHand(int category, int paid, long nanos) {
+        categoryCounts[category].increment();
+        pointsPaid.add(paid);
+        scoreHandLatency.record(nanos);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server
+     * @param name for the name of the metrics, such as the name of a server
+     * @return the object name they were registered under
+     * @throws JMException if they cannot be registered, for instance because the name is
+     * already taken
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=GameMetrics,name="
+                                               + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Returns the histogram of the latencies of dealing new games
+     * @return the histogram
+     */
+    public LatencyHistogram getNewGameLatency() {
+        return newGameLatency;
+    }
+
+    /**
+     * Returns the histogram of the latencies of replacing cards
+     * @return the histogram
+     */
+    public LatencyHistogram getReplaceCardLatency() {
+        return replaceCardLatency;
+    }
+
+    /**
+     * Returns the histogram of the latencies of scoring hands
+     * @return the histogram
+     */
+    public LatencyHistogram getScoreHandLatency() {
+        return scoreHandLatency;
+    }
+
+    /**
+     * Returns the number of games dealt
+     * @return the number of games
+     */
+    @Override
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * Returns the number of cards replaced
+     * @return the number of replacements
+     */
+    @Override
+    public long getReplacements() {
+        return replacements.sum();
+    }
+
+    /**
+     * Returns the number of hands scored
+     * @return the number of hands
+     */
+    @Override
+    public long getHandsScored() {
+        long hands = 0;
+        for (LongAdder categoryCount : categoryCounts) {
+            hands += categoryCount.sum();
+        }
+        return hands;
+    }
+
+    /**
+     * Returns the points paid to play
+     * @return the points wagered
+     */
+    @Override
+    public long getPointsWagered() {
+        return pointsWagered.sum();
+    }
+
+    /**
+     * Returns the points paid for scored hands
+     * @return the points paid
+     */
+    @Override
+    public long getPointsPaid() {
+        return pointsPaid.sum();
+    }
+
+    /**
+     * Returns the share of the points wagered that has been paid back
+     * @return the return to player, or 0 if nothing has been wagered
+     */
+    @Override
+    public double getReturnToPlayer() {
+        long wagered = pointsWagered.sum();
+        return wagered == 0 ? 0 : (double) pointsPaid.sum() / wagered;
+    }
+
+    /**
+     * Returns the number of hands scored in each category
+     * @return the counts, indexed by HandCategory ordinal
+     */
+    @Override
+    public long[] getCategoryCounts() {
+        long[] counts = new long[categoryCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = categoryCounts[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the share of scored hands in each category
+     * @return the hit rates, indexed by HandCategory ordinal
+     */
+    @Override
+    public double[] getHitRates() {
+        long[] counts = getCategoryCounts();
+        long hands = 0;
+        for (long count : counts) {
+            hands += count;
+        }
+        double[] rates = new double[counts.length];
+        for (int i = 0; i < rates.length && hands > 0; i++) {
+            rates[i] = (double) counts[i] / hands;
+        }
+        return rates;
+    }
+
+    /**
+     * Returns the median latency of dealing a new game
+     * @return the latency
+     */
+    @Override
+    public long getNewGameP50() {
+        return newGameLatency.getPercentile(50);
+    }
+
+    /**
+     * Returns the 99th percentile latency of dealing a new game
+     * @return the latency
+     */
+    @Override
+    public long getNewGameP99() {
+        return newGameLatency.getPercentile(99);
+    }
+
+    /**
+     * Returns the median latency of replacing a card
+     * @return the latency
+     */
+    @Override
+    public long getReplaceCardP50() {
+        return replaceCardLatency.getPercentile(50);
+    }
+
+    /**
+     * Returns the 99th percentile latency of replacing a card
+     * @return the latency
+     */
+    @Override
+    public long getReplaceCardP99() {
+        return replaceCardLatency.getPercentile(99);
+    }
+
+    /**
+     * Returns the median latency of scoring a hand
+     * @return the latency
+     */
+    @Override
+    public long getScoreHandP50() {
+        return scoreHandLatency.getPercentile(50);
+    }
+
+    /**
+     * Returns the 99th percentile latency of scoring a hand
+     * @return the latency
+     */
+    @Override
+    public long getScoreHandP99() {
+        return scoreHandLatency.getPercentile(99);
+    }
+
+    /**
+     * Returns every metric as text
+     * @return the text dump
+     */
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        line(text, "poker_games_total", "", getGames());
+        line(text, "poker_replacements_total", "", getReplacements());
+        line(text, "poker_points_wagered_total", "", getPointsWagered());
+        line(text, "poker_points_paid_total", "", getPointsPaid());
+        text.append(String.format(Locale.ROOT, "poker_return_to_player %.6f%n",
+                                  getReturnToPlayer()));
+        long[] counts = getCategoryCounts();
+        double[] rates = getHitRates();
+        for (HandCategory category : HandCategory.values()) {
+            String label = "{category=\"" + category.name() + "\"}";
+            line(text, "poker_hands_total", label, counts[category.getCode()]);
+            text.append(String.format(Locale.ROOT, "poker_hit_rate%s %.6f%n", label,
+                                      rates[category.getCode()]));
+        }
+        histogram(text, "newGame", newGameLatency);
+        histogram(text, "replaceCard", replaceCardLatency);
+        histogram(text, "scoreHand", scoreHandLatency);
+        return text.toString();
+    }
+
+    /**
+     * Writes one metric line
+     * @param text for the text being written
+     * @param name for the metric name
+     * @param labels for the labels, or an empty string
+     * @param value for the value
+     */
+    private static void line(StringBuilder text, String name, String labels, long value) {
+        text.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Writes the lines of a latency histogram
+     * @param text for the text being written
+     * @param operation for the name of the operation timed
+     * @param histogram for the histogram
+     */
+    private static void histogram(StringBuilder text, String operation,
+                                  LatencyHistogram histogram) {
+        String name = "poker_latency_nanos";
+        String label = "{operation=\"" + operation + "\"";
+        for (double percentile : DUMP_PERCENTILES) {
+            line(text, name, label + ",quantile=\"" + percentile / 100 + "\"}",
+                 histogram.getPercentile(percentile));
+        }
+        line(text, name + "_max", label + "}", histogram.getMax());
+        line(text, name + "_count", label + "}", histogram.getCount());
+        text.append(String.format(Locale.ROOT, "%s_mean%s} %.1f%n", name, label,
+                                  histogram.getMean()));
+    }
+}
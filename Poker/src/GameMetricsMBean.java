@@ -0,0 +1,98 @@
+/**
+ * Management interface of GameMetrics, through which JMX clients such as JConsole poll the
+ * metrics of running games. Latencies are in nanoseconds.
+ * @author William Morgan
+ * @version 1.0
+ */
+public interface GameMetricsMBean {
+
+    /**
+     * Returns the number of games dealt
+     * @return the number of games
+     */
+    long getGames();
+
+    /**
+     * Returns the number of cards replaced
+     * @return the number of replacements
+     */
+    long getReplacements();
+
+    /**
+     * Returns the number of hands scored
+     * @return the number of hands
+     */
+    long getHandsScored();
+
+    /**
+     * Returns the points paid to play
+     * @return the points wagered
+     */
+    long getPointsWagered();
+
+    /**
+     * Returns the points paid for scored hands
+     * @return the points paid
+     */
+    long getPointsPaid();
+
+    /**
+     * Returns the share of the points wagered that has been paid back
+     * @return the return to player, or 0 if nothing has been wagered
+     */
+    double getReturnToPlayer();
+
+    /**
+     * Returns the number of hands scored in each category
+     * @return the counts, indexed by HandCategory ordinal
+     */
+    long[] getCategoryCounts();
+
+    /**
+     * Returns the share of scored hands in each category
+     * @return the hit rates, indexed by HandCategory ordinal
+     */
+    double[] getHitRates();
+
+    /**
+     * Returns the median latency of dealing a new game
+     * @return the latency
+     */
+    long getNewGameP50();
+
+    /**
+     * Returns the 99th percentile latency of dealing a new game
+     * @return the latency
+     */
+    long getNewGameP99();
+
+    /**
+     * Returns the median latency of replacing a card
+     * @return the latency
+     */
+    long getReplaceCardP50();
+
+    /**
+     * Returns the 99th percentile latency of replacing a card
+     * @return the latency
+     */
+    long getReplaceCardP99();
+
+    /**
+     * Returns the median latency of scoring a hand
+     * @return the latency
+     */
+    long getScoreHandP50();
+
+    /**
+     * Returns the 99th percentile latency of scoring a hand
+     * @return the latency
+     */
+    long getScoreHandP99();
+
+    /**
+     * Returns every metric as text
+     * @return the text dump
+     */
+    String dump();
+}
@@ -0,0 +1,536 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Deals journaled games again from their seeds and checks every record against the replay,
+ * to detect journals that were tampered with and changes to how hands are dealt, evaluated
+ * or paid. Each game VideoPoker plays is dealt from its own seed, so a game is rebuilt from
+ * the seed in its DEAL record and the cards replaced in its REPLACE records alone: the deal,
+ * every replacement, the category and the points of each record must match exactly.
+ *
+ * A game may switch pay tables between games, so each DEAL records the tag of the table it
+ * was played with, and the replayer is given every table the journal may have used. A deal is
+ * checked against the known tables with its tag and the cost it paid, and its score against
+ * the payouts of those tables. Deals without a tag, from older journals, may match any table.
+ *
+ * A REPLACE or SCORE with no game open in its session is a mismatch, and so is a DEAL whose
+ * game number does not follow the session's previous one.
+ *
+ * Verification runs in parallel. The segments are split into one contiguous range per
+ * worker, and each worker replays the games dealt in its range, reading on past the end of
+ * the range only to finish the games still open there. Records at the head of a range, before
+ * their session's first deal in it, are left to the earlier workers that read on into it,
+ * and any none of them finished a game with are reported as mismatches. Workers share nothing
+ * while they run, and their reports, stray records and game numbers are merged in range
+ * order once all have finished.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameReplayer {
+
+    /** Mask of the bits of one card code in a packed hand */
+    private static final int CODE_MASK = (1 << GameJournal.CODE_BITS) - 1;
+
+    /** Pay tables the games may have been played with */
+    private PayTable[] payTables;
+
+    /** Number of worker threads */
+    private int workers;
+
+    /**
+     * Constructor for a replayer of games played with the default pay table, with one worker
+     * per available processor
+     */
+    public GameReplayer() {
+        this(PayTable.DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for a replayer of games all played with one pay table
+     * @param payTable for the pay table the games were played with
+     * @param workers for the number of worker threads
+     * @throws IllegalArgumentException if payTable is null or workers is not positive
+     */
+    public GameReplayer(PayTable payTable, int workers) {
+        this(new PayTable[] {payTable}, workers);
+    }
+
+    /**
+     * Constructor for a replayer of games played with any of several pay tables
+     * @param payTables for every pay table the games may have been played with, at most
+     * Long.SIZE
+     * @param workers for the number of worker threads
+     * @throws IllegalArgumentException if payTables or any table is null, payTables is empty
+     * or too long, or workers is not positive
+     */
+    public GameReplayer(PayTable[] payTables, int workers) {
+        if (payTables == null) {
+            throw new IllegalArgumentException("Null pay tables");
+        } else if (payTables.length == 0 || payTables.length > Long.SIZE) {
+            throw new IllegalArgumentException("Invalid pay tables");
+        } else if (workers <= 0) {
+            throw new IllegalArgumentException("Invalid workers");
+        }
+        for (PayTable payTable : payTables) {
+            if (payTable == null) {
+                throw new IllegalArgumentException("Null pay table");
+            }
+        }
+        this.payTables = Arrays.copyOf(payTables, payTables.length);
+        this.workers = workers;
+    }
+
+    /**
+     * Rebuilds the final hand of a game from its seed and the cards replaced
+     * @param gameSeed for the seed the game was dealt from
+     * @param replacements for the positions of the cards replaced, in the order they were
+     * replaced
+     * @return the final hand
+     * @throws IllegalArgumentException if replacements is null or holds an invalid position
+     */
+    public static Hand replay(long gameSeed, int[] replacements) {
+        if (replacements == null) {
+            throw new IllegalArgumentException("Null replacements");
+        }
+        Deck deck = new Deck(0, ShuffleAlgorithm.DEFAULT, true);
+        deck.shuffle(gameSeed);
+        int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = deck.nextCardCode();
+        }
+        for (int index : replacements) {
+            if (index < 0 || index >= codes.length) {
+                throw new IllegalArgumentException("Invalid index");
+            }
+            codes[index] = deck.nextCardCode();
+        }
+        return Hand.fromCodes(codes);
+    }
+
+    /**
+     * Verifies every game in a journal
+     * @param directory for the directory holding the journal's segments
+     * @return the merged reports of all workers
+     * @throws IOException if the journal cannot be read
+     * @throws IllegalArgumentException if directory is null
+     * @throws IllegalStateException if the verification is interrupted
+     */
+    public ReplayReport verify(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        }
+        Path[] files = JournalReader.segments(directory);
+        int ranges = Math.max(1, Math.min(workers, files.length));
+        ExecutorService executor = Executors.newFixedThreadPool(ranges, runnable -> {
+            Thread thread = new Thread(runnable, "replay-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Worker> tasks = new ArrayList<Worker>();
+            List<Future<ReplayReport>> futures = new ArrayList<Future<ReplayReport>>();
+            for (int i = 0, first = 0; i < ranges; i++) {
+                int count = files.length / ranges + (i < files.length % ranges ? 1 : 0);
+                tasks.add(new Worker(payTables, files, first, count));
+                futures.add(executor.submit(tasks.get(i)));
+                first += count;
+            }
+            ReplayReport report = new ReplayReport();
+            Set<Long> claimed = new HashSet<Long>();
+            Map<Long, Integer> lastGames = new HashMap<Long, Integer>();
+            for (int i = 0; i < ranges; i++) {
+                report.merge(futures.get(i).get());
+                Worker worker = tasks.get(i);
+                for (Stray stray : worker.strays) {
+                    if (!claimed.contains(stray.record)) {
+                        report.recordChecked();
+                        report.recordMismatch(stray.session, stray.game,
+                                              "type " + stray.type + " without a deal");
+                    }
+                }
+                for (Map.Entry<Long, Integer> firstGame : worker.firstGames.entrySet()) {
+                    Integer last = lastGames.get(firstGame.getKey());
+                    if (last != null && firstGame.getValue() != last + 1) {
+                        report.recordMismatch(firstGame.getKey(), firstGame.getValue(),
+                                              "type " + GameJournal.DEAL
+                                              + " game number differs");
+                    }
+                }
+                claimed.addAll(worker.claimed);
+                lastGames.putAll(worker.lastGames);
+            }
+            return report;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Worker failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the code of a card of a packed hand
+     * @param hand for the packed hand
+     * @param index for the position of the card
+     * @return the code of the card
+     */
+    private static int code(int hand, int index) {
+        return hand >>> (index * GameJournal.CODE_BITS) & CODE_MASK;
+    }
+
+    /**
+     * A game being replayed
+     */
+    private static class Game {
+
+        /** Deck the game is dealt from again */
+        private final Deck deck = new Deck(0, ShuffleAlgorithm.DEFAULT, true);
+
+        /** Codes of the hand, packed as in the journal */
+        private int hand;
+
+        /** Number of the game in its session */
+        private int number;
+
+        /** Bits of the pay tables the deal matched, by index */
+        private long tables;
+
+        /** true if any record of the game did not match */
+        private boolean failed;
+    }
+
+    /**
+     * A REPLACE or SCORE at the head of a range with no game open for it
+     */
+    private static class Stray {
+
+        /** Segment index in the high 32 bits and record index in the low 32 bits */
+        private final long record;
+
+        /** Session of the record */
+        private final long session;
+
+        /** Game number of the record */
+        private final int game;
+
+        /** Type of the record */
+        private final int type;
+
+        /**
+         * Constructor for a stray record
+         * @param record for the segment and record index, as Worker.position() packs them
+         * @param session for the session of the record
+         * @param game for the game number of the record
+         * @param type for the type of the record
+         */
+        Stray(long record, long session, int game, int type) {
+            this.record = record;
+            this.session = session;
+            this.game = game;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Replays the games dealt in a range of segments
+     */
+    private static class Worker implements Callable<ReplayReport> {
+
+        /** Pay tables the games may have been played with */
+        private final PayTable[] payTables;
+
+        /** Segments from the first of the range to the end of the journal */
+        private final Path[] files;
+
+        /** Index of the first segment of the range in the journal */
+        private final int first;
+
+        /** Number of segments in the range */
+        private final int count;
+
+        /** Games dealt in the range and not yet scored, by session */
+        private final Map<Long, Game> open = new HashMap<Long, Game>();
+
+        /** Finished games kept for reuse */
+        private final ArrayDeque<Game> spare = new ArrayDeque<Game>();
+
+        /** Tallies of the games replayed */
+        private final ReplayReport report = new ReplayReport();
+
+        /** Game number of the first deal of each session in the range */
+        private final Map<Long, Integer> firstGames = new HashMap<Long, Integer>();
+
+        /** Game number of the last deal of each session in the range */
+        private final Map<Long, Integer> lastGames = new HashMap<Long, Integer>();
+
+        /** Records at the head of the range left to earlier workers */
+        private final List<Stray> strays = new ArrayList<Stray>();
+
+        /** Positions of the records past the range that finished games of the range */
+        private final Set<Long> claimed = new HashSet<Long>();
+
+        /**
+         * Constructor for the worker
+         * @param payTables for the pay tables the games may have been played with
+         * @param files for every segment of the journal
+         * @param first for the index of the first segment of the range
+         * @param count for the number of segments in the range
+         */
+        Worker(PayTable[] payTables, Path[] files, int first, int count) {
+            this.payTables = payTables;
+            this.files = Arrays.copyOfRange(files, first, files.length);
+            this.first = first;
+            this.count = count;
+        }
+
+        /**
+         * Replays the games
+         * @return the tallies of the games replayed
+         * @throws IOException if the journal cannot be read
+         */
+        @Override
+        public ReplayReport call() throws IOException {
+            try (JournalReader reader = new JournalReader(files)) {
+                while (reader.next()) {
+                    if (reader.getSegment() >= count) {
+                        if (open.isEmpty()) {
+                            break;
+                        } else if (reader.getType() == GameJournal.DEAL) {
+                            // Deals past the range belong to the next worker
+                            finish(reader.getSession(), false);
+                        } else if (open.containsKey(reader.getSession())) {
+                            claimed.add(position(reader));
+                            check(reader);
+                        }
+                        continue;
+                    }
+                    check(reader);
+                }
+            }
+            for (int i = open.size(); i > 0; i--) {
+                report.recordUnfinished();
+            }
+            return report;
+        }
+
+        /**
+         * Checks one record against the replay of its game
+         * @param reader for the reader positioned at the record
+         */
+        private void check(JournalReader reader) {
+            long session = reader.getSession();
+            Game game = open.get(session);
+            if (reader.getType() == GameJournal.DEAL) {
+                Integer last = lastGames.put(session, reader.getGame());
+                if (last == null) {
+                    firstGames.put(session, reader.getGame());
+                }
+                if (game != null) {
+                    report.recordUnfinished();
+                } else {
+                    game = spare.isEmpty() ? new Game() : spare.pop();
+                    open.put(session, game);
+                }
+                game.number = reader.getGame();
+                game.failed = false;
+                game.deck.shuffle(reader.getSeed());
+                game.hand = 0;
+                for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+                    game.hand |= game.deck.nextCardCode() << (i * GameJournal.CODE_BITS);
+                }
+                report.recordChecked();
+                matchHand(reader, game);
+                deal(reader, game);
+                if (last != null) {
+                    match(reader, game, reader.getGame() == last + 1, "game number");
+                }
+            } else if (game != null) {
+                report.recordChecked();
+                if (reader.getType() == GameJournal.REPLACE) {
+                    replace(reader, game);
+                } else {
+                    score(reader, game);
+                }
+            } else if (first > 0 && !lastGames.containsKey(session)) {
+                // An earlier worker may be reading on to finish this session's game
+                strays.add(new Stray(position(reader), session, reader.getGame(),
+                                     reader.getType()));
+            } else {
+                report.recordChecked();
+                report.recordMismatch(session, reader.getGame(),
+                                      "type " + reader.getType() + " without a deal");
+            }
+        }
+
+        /**
+         * Returns where a record is in the journal
+         * @param reader for the reader positioned at the record
+         * @return the segment index in the high 32 bits and the record index in the low 32
+         */
+        private long position(JournalReader reader) {
+            return (long) (first + reader.getSegment()) << Integer.SIZE | reader.getRecord();
+        }
+
+        /**
+         * Finds the pay tables a DEAL record's tag and cost match
+         * @param reader for the reader positioned at the record
+         * @param game for the game
+         */
+        private void deal(JournalReader reader, Game game) {
+            int tag = reader.getTable();
+            long tagged = 0;
+            long costing = 0;
+            for (int i = 0; i < payTables.length; i++) {
+                if (tag == 0 || payTables[i].getTag() == tag) {
+                    tagged |= 1L << i;
+                    if (reader.getDelta() == -payTables[i].getCost()) {
+                        costing |= 1L << i;
+                    }
+                }
+            }
+            game.tables = costing;
+            if (match(reader, game, tagged != 0, "pay table")) {
+                match(reader, game, costing != 0, "cost");
+            }
+        }
+
+        /**
+         * Replaces a card as a REPLACE record says and checks the new hand
+         * @param reader for the reader positioned at the record
+         * @param game for the game
+         */
+        private void replace(JournalReader reader, Game game) {
+            int index = reader.getArgument();
+            if (!match(reader, game, index >= 0 && index < VideoPoker.CARDS_IN_HAND, "index")) {
+                return;
+            }
+            int code;
+            try {
+                code = game.deck.nextCardCode();
+            } catch (IllegalStateException e) {
+                match(reader, game, false, "no more cards");
+                return;
+            }
+            int shift = index * GameJournal.CODE_BITS;
+            game.hand = game.hand & ~(CODE_MASK << shift) | code << shift;
+            matchHand(reader, game);
+            match(reader, game, reader.getDelta() == 0, "points");
+        }
+
+        /**
+         * Scores the hand, checks the category and payout of a SCORE record and ends the game
+         * @param reader for the reader positioned at the record
+         * @param game for the game
+         */
+        private void score(JournalReader reader, Game game) {
+            int category = HandEvaluator.getCategory(HandEvaluator.evaluate(
+                code(game.hand, 0), code(game.hand, 1), code(game.hand, 2), code(game.hand, 3),
+                code(game.hand, 4)));
+            matchHand(reader, game);
+            match(reader, game, reader.getCategory() == category, "category");
+            match(reader, game, pays(game, category, reader.getDelta()), "payout");
+            finish(reader.getSession(), true);
+        }
+
+        /**
+         * Checks whether any pay table the deal matched pays a category as scored
+         * @param game for the game
+         * @param category for the category code of the hand
+         * @param delta for the points the record paid
+         * @return true if one of the game's pay tables pays delta for category
+         */
+        private boolean pays(Game game, int category, int delta) {
+            for (long rest = game.tables; rest != 0; rest &= rest - 1) {
+                if (payTables[Long.numberOfTrailingZeros(rest)].getPayout(category) == delta) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Ends an open game
+         * @param session for the session of the game
+         * @param scored for true if the game was scored, false if it was left unfinished
+         */
+        private void finish(long session, boolean scored) {
+            Game game = open.remove(session);
+            if (game == null) {
+                return;
+            } else if (scored) {
+                report.recordGame(game.failed);
+            } else {
+                report.recordUnfinished();
+            }
+            spare.push(game);
+        }
+
+        /**
+         * Checks that a record's hand is the replayed hand
+         * @param reader for the reader positioned at the record
+         * @param game for the game
+         */
+        private void matchHand(JournalReader reader, Game game) {
+            match(reader, game, reader.getHand() == game.hand, "hand");
+        }
+
+        /**
+         * Records a mismatch if a check failed
+         * @param reader for the reader positioned at the record
+         * @param game for the game
+         * @param matched for the outcome of the check
+         * @param field for what was checked
+         * @return matched
+         */
+        private boolean match(JournalReader reader, Game game, boolean matched, String field) {
+            if (!matched) {
+                game.failed = true;
+                report.recordMismatch(reader.getSession(), game.number,
+                                      "type " + reader.getType() + " " + field + " differs");
+            }
+            return matched;
+        }
+    }
+
+    /**
+     * Verifies a journal and reports the games checked and how fast
+     * @param args args[0] the directory holding the segments, args[1] optional number of
+     * workers, then optional pay table files the games may have been played with, the
+     * default pay table if there are none
+     * @throws IOException if the journal or a pay table cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java -cp bin GameReplayer directory "
+                               + "[workers [paytable...]]");
+            return;
+        }
+        int workers = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+        PayTable[] payTables = {PayTable.DEFAULT};
+        if (args.length > 2) {
+            payTables = new PayTable[args.length - 2];
+            for (int i = 0; i < payTables.length; i++) {
+                payTables[i] = PayTable.load(Paths.get(args[i + 2]));
+            }
+        }
+        long start = System.nanoTime();
+        ReplayReport report = new GameReplayer(payTables, workers)
+            .verify(Paths.get(args[0]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(report);
+        for (String message : report.getMessages()) {
+            System.out.println("  " + message);
+        }
+        long games = report.getVerifiedGames() + report.getFailedGames();
+        System.out.printf("Verified in %.3f s, %.0f games/minute%n", seconds,
+                          games / seconds * 60);
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.SplittableRandom;
+
+/**
+ * One player's video poker game, kept in a few primitive fields so a server can hold many
+ * thousands of them. The five cards of the hand are packed six bits each into one int, and
+ * the cards already dealt in the current game into one long mask, so a card is drawn by
+ * picking random codes until one has not been dealt. Rounds follow VideoPoker: deal() takes
+ * the cost of a game and deals five cards, replaceCard() replaces single cards and
+ * scoreHand() scores the hand and pays for it. draw() does a whole draw in one call,
+ * replacing every card that is not held and scoring the hand.
+ *
+ * A session is not thread-safe. GameSessionManager confines each session to a single thread.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameSession {
+
+    /** Number of bits each card code takes in the packed hand */
+    public static final int CODE_BITS = 6;
+
+    /** Mask of the bits of one card code in the packed hand */
+    private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+
+    /** Hold mask that keeps every card */
+    private static final int HOLD_ALL = (1 << VideoPoker.CARDS_IN_HAND) - 1;
+
+    /** Mask with every card dealt */
+    private static final long ALL_CARDS = (1L << Card.CODES) - 1;
+
+    /** Identifier of the session */
+    private final long id;
+
+    /** Random number generator owned by this session */
+    private final SplittableRandom random;
+
+    /** The current number of points */
+    private int points;
+
+    /** Codes of the hand, CODE_BITS each, with card 0 in the lowest bits */
+    private int hand;
+
+    /** Mask of the cards dealt in the current game */
+    private long dealt;
+
+    /** Pay table of the game in progress, or null if no game is in progress */
+    private PayTable gameTable;
+
+    /** Category code of the last hand scored, or -1 if none has been */
+    private int lastCategory = -1;
+
+    /** Points paid for the last hand scored */
+    private int lastPaid;
+
+    /** Metrics every deal, replacement and score is recorded in, or null */
+    private final GameMetrics metrics;
+
+    /**
+     * Constructor for a session
+     * @param id for the identifier of the session
+     * @param seed for the seed of the session's random number generator
+     */
+    public GameSession(long id, long seed) {
+        this(id, seed, null);
+    }
+
+    /**
+     * Constructor for a session recording to shared metrics
+     * @param id for the identifier of the session
+     * @param seed for the seed of the session's random number generator
+     * @param metrics for the metrics, or null to record none
+     */
+    public GameSession(long id, long seed, GameMetrics metrics) {
+        this.id = id;
+        this.random = new SplittableRandom(seed);
+        this.points = VideoPoker.STARTING_POINTS;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the identifier of the session
+     * @return the identifier
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the current number of points
+     * @return the number of points
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns whether a game has been dealt and not yet drawn
+     * @return true if a game is in progress
+     */
+    public boolean isInGame() {
+        return gameTable != null;
+    }
+
+    /**
+     * Returns the code of a card in the hand
+     * @param index for the position of the card
+     * @return the code of the card
+     * @throws IllegalArgumentException if index is invalid
+     * @throws IllegalStateException if no hand has been dealt
+     */
+    public int getCardCode(int index) {
+        if (index < 0 || index >= VideoPoker.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        } else if (dealt == 0) {
+            throw new IllegalStateException("No hand");
+        }
+        return (hand >>> (index * CODE_BITS)) & CODE_MASK;
+    }
+
+    /**
+     * Returns the codes of the hand
+     * @return a new array of the five codes
+     * @throws IllegalStateException if no hand has been dealt
+     */
+    public int[] getCardCodes() {
+        int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = getCardCode(i);
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the category of the last hand scored
+     * @return the category, or null if no hand has been scored
+     */
+    public HandCategory getLastCategory() {
+        return lastCategory < 0 ? null : HandCategory.fromCode(lastCategory);
+    }
+
+    /**
+     * Returns the points paid for the last hand scored
+     * @return the points paid
+     */
+    public int getLastPaid() {
+        return lastPaid;
+    }
+
+    /**
+     * Starts a game: takes its cost from the points and deals five cards
+     * @param payTable for the pay table the game is played with
+     * @throws IllegalArgumentException if payTable is null
+     * @throws IllegalStateException if a game is already in progress
+     */
+    public void deal(PayTable payTable) {
+        if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        } else if (gameTable != null) {
+            throw new IllegalStateException("Game in progress");
+        }
+        long start = metrics != null ? System.nanoTime() : 0;
+        gameTable = payTable;
+        points -= payTable.getCost();
+        dealt = 0;
+        hand = 0;
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            hand |= nextCode() << (i * CODE_BITS);
+        }
+        if (metrics != null) {
+            metrics.recordNewGame(payTable.getCost(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Replaces one card of the hand with a card not yet dealt in this game
+     * @param index for the position of the card to be replaced
+     * @throws IllegalArgumentException if index is invalid
+     * @throws IllegalStateException if no game is in progress, or every card has been dealt
+     */
+    public void replaceCard(int index) {
+        if (gameTable == null) {
+            throw new IllegalStateException("No game");
+        } else if (index < 0 || index >= VideoPoker.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        } else if (dealt == ALL_CARDS) {
+            throw new IllegalStateException("No more cards");
+        }
+        long start = metrics != null ? System.nanoTime() : 0;
+        int shift = index * CODE_BITS;
+        hand = (hand & ~(CODE_MASK << shift)) | (nextCode() << shift);
+        if (metrics != null) {
+            metrics.recordReplaceCard(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Scores the hand and pays for it, ending the game
+     * @return the category of the hand
+     * @throws IllegalStateException if no game is in progress
+     */
+    public HandCategory scoreHand() {
+        if (gameTable == null) {
+            throw new IllegalStateException("No game");
+        }
+        long start = metrics != null ? System.nanoTime() : 0;
+        lastCategory = HandEvaluator.getCategory(HandEvaluator.evaluate(
+            hand & CODE_MASK, (hand >>> CODE_BITS) & CODE_MASK,
+            (hand >>> (2 * CODE_BITS)) & CODE_MASK, (hand >>> (3 * CODE_BITS)) & CODE_MASK,
+            (hand >>> (4 * CODE_BITS)) & CODE_MASK));
+        lastPaid = gameTable.getPayout(lastCategory);
+        points += lastPaid;
+        gameTable = null;
+        if (metrics != null) {
+            metrics.recordScoreHand(lastCategory, lastPaid, System.nanoTime() - start);
+        }
+        return HandCategory.fromCode(lastCategory);
+    }
+
+    /**
+     * Replaces the cards that are not held, then scores the hand and pays for it
+     * @param holdMask for the held cards, with bit i set when card i is held
+     * @return the category of the final hand
+     * @throws IllegalArgumentException if holdMask is invalid
+     * @throws IllegalStateException if no game is in progress
+     */
+    public HandCategory draw(int holdMask) {
+        if (gameTable == null) {
+            throw new IllegalStateException("No game");
+        } else if (holdMask < 0 || holdMask > HOLD_ALL) {
+            throw new IllegalArgumentException("Invalid hold mask");
+        }
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            if ((holdMask & (1 << i)) == 0) {
+                replaceCard(i);
+            }
+        }
+        return scoreHand();
+    }
+
+    /**
+     * Picks a card that has not been dealt in this game and marks it dealt. At most ten of
+     * the 52 cards are dealt in a game, so few picks are rejected.
+     * @return the code of the card
+     */
+    private int nextCode() {
+        int code;
+        do {
+            code = random.nextInt(Card.CODES);
+        } while ((dealt & (1L << code)) != 0);
+        dealt |= 1L << code;
+        return code;
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hosts many independent GameSessions for a headless server. Sessions are kept in a
+ * concurrent map, and each is pinned to one of a fixed set of single thread lanes chosen by
+ * its identifier. Every action on a session runs on its lane, so a session is only ever
+ * touched by one thread and needs no locks, while sessions on different lanes run in
+ * parallel. Actions are submitted from any thread and complete a CompletableFuture.
+ *
+ * Lanes are used rather than a thread per session because virtual threads are not available
+ * on the Java 17 runtime this targets, and thousands of platform threads would cost far more
+ * than the sessions themselves.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class GameSessionManager implements AutoCloseable {
+
+    /** Sessions by identifier */
+    private final ConcurrentHashMap<Long, GameSession> sessions =
+        new ConcurrentHashMap<Long, GameSession>();
+
+    /** Single thread executors that sessions are confined to */
+    private final ExecutorService[] lanes;
+
+    /** Identifier of the next session */
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /** Seed that session seeds are derived from */
+    private final long seed;
+
+    /** Metrics every session records to */
+    private final GameMetrics metrics = new GameMetrics();
+
+    /** Pay table used by games dealt from now on */
+    private volatile PayTable payTable = PayTable.DEFAULT;
+
+    /**
+     * Constructor for a manager with one lane per available processor and random sessions
+     */
+    public GameSessionManager() {
+        this(Runtime.getRuntime().availableProcessors(), System.nanoTime());
+    }
+
+    /**
+     * Constructor for the manager
+     * @param lanes for the number of threads sessions are spread across
+     * @param seed for the seed that every session's seed is derived from
+     * @throws IllegalArgumentException if lanes is not positive
+     */
+    public GameSessionManager(int lanes, long seed) {
+        if (lanes <= 0) {
+            throw new IllegalArgumentException("Invalid lanes");
+        }
+        this.seed = seed;
+        this.lanes = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String name = "session-lane-" + i;
+            this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Creates a session
+     * @return the identifier of the new session
+     */
+    public long createSession() {
+        long id = nextId.getAndIncrement();
+        // Golden ratio increments give well spread seeds for consecutive identifiers
+        sessions.put(id, new GameSession(id, seed + id * 0x9E3779B97F4A7C15L, metrics));
+        return id;
+    }
+
+    /**
+     * Removes a session. Actions already submitted for it fail.
+     * @param id for the identifier of the session
+     * @return true if the session existed
+     */
+    public boolean removeSession(long id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Returns whether a session exists
+     * @param id for the identifier of the session
+     * @return true if the session exists
+     */
+    public boolean hasSession(long id) {
+        return sessions.containsKey(id);
+    }
+
+    /**
+     * Returns the number of sessions
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the metrics every session records to
+     * @return the metrics
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the pay table used by games dealt from now on
+     * @return the pay table
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+
+    /**
+     * Replaces the pay table for games dealt from now on. Games in progress are paid by the
+     * table they were dealt with.
+     * @param payTable for the new pay table
+     * @throws IllegalArgumentException if payTable is null
+     */
+    public void setPayTable(PayTable payTable) {
+        if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        }
+        this.payTable = payTable;
+    }
+
+    /**
+     * Runs an action on a session's lane
+     * @param <T> for the type of the action's result
+     * @param id for the identifier of the session
+     * @param action for the action, which must not keep the session after it returns
+     * @return a future completed with the action's result, or exceptionally with an
+     * IllegalArgumentException if the session does not exist when the action runs, or with
+     * whatever the action throws
+     * @throws IllegalArgumentException if action is null
+     * @throws RejectedExecutionException if the manager has been closed
+     */
+    public <T> CompletableFuture<T> submit(long id, Function<GameSession, T> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Null action");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            GameSession session = sessions.get(id);
+            if (session == null) {
+                throw new IllegalArgumentException("Unknown session");
+            }
+            return action.apply(session);
+        }, lanes[Math.floorMod(id, lanes.length)]);
+    }
+
+    /**
+     * Deals a game in a session with the current pay table
+     * @param id for the identifier of the session
+     * @return a future completed with the codes of the dealt cards
+     */
+    public CompletableFuture<int[]> deal(long id) {
+        PayTable table = payTable;
+        return submit(id, session -> {
+            session.deal(table);
+            return session.getCardCodes();
+        });
+    }
+
+    /**
+     * Draws and scores the game in progress in a session
+     * @param id for the identifier of the session
+     * @param holdMask for the held cards, with bit i set when card i is held
+     * @return a future completed with the category of the final hand
+     */
+    public CompletableFuture<HandCategory> draw(long id, int holdMask) {
+        return submit(id, session -> session.draw(holdMask));
+    }
+
+    /**
+     * Stops the lanes once the actions already submitted have run
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
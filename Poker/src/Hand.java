@@ -1,24 +1,69 @@
 import java.util.*;
 
 /**
- * Represents hand of cards
+ * Represents hand of cards. Hands are ordered by strength, the value HandEvaluator gives
+ * them, so the stronger of two hands compares greater. This ordering is inconsistent with
+ * equals(): hands of different suits can be equally strong.
  * @author Dan Longo
  * @author Suzanne Balik
  * @author William Morgan
  */
-public class Hand {
+public class Hand implements Comparable<Hand> {
 
     /** Class constant to represent the number of cards a hand holds */
     public static final int CARDS_IN_HAND = 5;
 
-    /** Contains cards in hand */
-    private Card[] hand;
+    /** Contains codes of the cards in hand */
+    private int[] hand;
 
-    /** Holds value for the pair to compare to three of kind*/
-    private int pairValue;
+    /**
+     * Mask of the cards in hand, with bit n set when the card with code n is held. It does
+     * not depend on the order of the cards, so it is the hand's canonical key.
+     */
+    private long mask;
+
+    /** Evaluated value of the hand, or 0 until it is first needed after a change */
+    private int strength;
+
+    /** Number of cards with each value, indexed by value, kept up to date as cards change */
+    private final int[] counts = new int[Card.HIGHEST_VALUE + 1];
+
+    /** Number of cards of each suit, indexed by suit index */
+    private final int[] suitCounts = new int[Card.SUITS];
+
+    /** Mask of the values held, with bit 0 for the lowest value */
+    private int valueMask;
+
+    /**
+     * Sum of the squares of the value counts, which tells the groups of a hand apart: 5 for
+     * five different values, then each of the constants below
+     */
+    private int squares;
+
+    /** Mask of the bits used by one suit within a card mask */
+    private static final int SUIT_MASK = (1 << Card.VALUES) - 1;
+
+    /** Value mask of a ten to ace straight */
+    private static final int ROYAL_VALUES =
+        SUIT_MASK & ~((1 << (Card.VALUES - CARDS_IN_HAND)) - 1);
+
+    /** Value mask of five consecutive values starting with the lowest value */
+    private static final int LOWEST_STRAIGHT = (1 << CARDS_IN_HAND) - 1;
 
-    /** Holds value for triple to compare to the pair */
-    private int tripleValue;
+    /** Sum of the squares of the value counts of one pair, 4 + 1 + 1 + 1 */
+    private static final int ONE_PAIR_SQUARES = 7;
+
+    /** Sum of the squares of the value counts of two pairs, 4 + 4 + 1 */
+    private static final int TWO_PAIRS_SQUARES = 9;
+
+    /** Sum of the squares of the value counts of three of a kind, 9 + 1 + 1 */
+    private static final int THREE_OF_A_KIND_SQUARES = 11;
+
+    /** Sum of the squares of the value counts of a full house, 9 + 4 */
+    private static final int FULL_HOUSE_SQUARES = 13;
+
+    /** Sum of the squares of the value counts of four of a kind, 16 + 1 */
+    private static final int FOUR_OF_A_KIND_SQUARES = 17;
 
     /**
      * Constructor for the hand class
@@ -37,7 +82,41 @@ public class Hand {
                 }
             }
         }
-        this.hand = hand;
+        this.hand = new int[CARDS_IN_HAND];
+        for (int i = 0; i < CARDS_IN_HAND; i++) {
+            this.hand[i] = hand[i].getCode();
+        }
+        tally();
+    }
+
+    /**
+     * Creates a hand from card codes
+     * @param codes for the codes of the cards in the hand
+     * @return the hand holding the given cards
+     * @throws IllegalArgumentException if the array is null, has the wrong length or holds
+     * an invalid code
+     */
+    public static Hand fromCodes(int[] codes) {
+        if (codes == null) {
+            throw new IllegalArgumentException("Null array");
+        } else if (codes.length != CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid array length");
+        }
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] < 0 || codes[i] >= Card.CODES) {
+                throw new IllegalArgumentException("Invalid code");
+            }
+        }
+        Hand hand = new Hand();
+        hand.hand = Arrays.copyOf(codes, CARDS_IN_HAND);
+        hand.tally();
+        return hand;
+    }
+
+    /**
+     * Constructor used by the factory methods, which fill in the cards themselves
+     */
+    private Hand() {
     }
 
     /**
@@ -47,6 +126,19 @@ public class Hand {
      * @throws IllegalArgumentException if index is invalid
      */
     public Card getCard(int index) {
+        if (index < 0 || index >= CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        return Card.fromCode(hand[index]);
+    }
+
+    /**
+     * Method to find the code of the card at a given index
+     * @param index for index of card
+     * @return the code of the card at specified index
+     * @throws IllegalArgumentException if index is invalid
+     */
+    public int getCardCode(int index) {
         if (index < 0 || index >= CARDS_IN_HAND) {
             throw new IllegalArgumentException("Invalid index");
         }
@@ -65,7 +157,106 @@ public class Hand {
         } else if (card == null) {
             throw new IllegalArgumentException("Null card");
         }
-        hand[index] = card;
+        replaceCode(index, card.getCode());
+    }
+
+    /**
+     * Method to replace the card at a given index with the card having the given code. The
+     * value and suit tallies are updated for the two cards alone rather than rebuilt.
+     * @param index for index of replaced card
+     * @param code for the code of the replacement card
+     * @throws IllegalArgumentException if index or code is invalid
+     */
+    public void replaceCode(int index, int code) {
+        if (index < 0 || index >= CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        } else if (code < 0 || code >= Card.CODES) {
+            throw new IllegalArgumentException("Invalid code");
+        }
+        remove(hand[index]);
+        add(code);
+        hand[index] = code;
+        updateMask();
+        strength = 0;
+    }
+
+    /**
+     * Rebuilds the value and suit tallies from the cards in the hand
+     */
+    private void tally() {
+        for (int i = 0; i < CARDS_IN_HAND; i++) {
+            add(hand[i]);
+        }
+        updateMask();
+    }
+
+    /**
+     * Rebuilds the card mask from the cards in hand. It is rebuilt rather than changed by
+     * one bit so that a hand holding the same card twice keeps the right mask.
+     */
+    private void updateMask() {
+        long cards = 0;
+        for (int i = 0; i < CARDS_IN_HAND; i++) {
+            cards |= 1L << hand[i];
+        }
+        mask = cards;
+    }
+
+    /**
+     * Adds a card to the value and suit tallies
+     * @param code for the code of the card
+     */
+    private void add(int code) {
+        int value = Card.codeValue(code);
+        squares += 2 * counts[value] + 1;
+        if (counts[value]++ == 0) {
+            valueMask |= 1 << (value - Card.LOWEST_VALUE);
+        }
+        suitCounts[Card.codeSuitIndex(code)]++;
+    }
+
+    /**
+     * Removes a card from the value and suit tallies
+     * @param code for the code of the card
+     */
+    private void remove(int code) {
+        int value = Card.codeValue(code);
+        squares -= 2 * counts[value] - 1;
+        if (--counts[value] == 0) {
+            valueMask &= ~(1 << (value - Card.LOWEST_VALUE));
+        }
+        suitCounts[Card.codeSuitIndex(code)]--;
+    }
+
+    /**
+     * Returns the category of this hand from its value and suit tallies, without looking at
+     * the cards, so it costs the same however the hand was reached
+     * @return the category of the hand, the same as VideoPoker.evaluate(this)
+     */
+    public HandCategory getCategory() {
+        switch (squares) {
+            case ONE_PAIR_SQUARES:
+                return HandCategory.ONE_PAIR;
+            case TWO_PAIRS_SQUARES:
+                return HandCategory.TWO_PAIRS;
+            case THREE_OF_A_KIND_SQUARES:
+                return HandCategory.THREE_OF_A_KIND;
+            case FULL_HOUSE_SQUARES:
+                return HandCategory.FULL_HOUSE;
+            case FOUR_OF_A_KIND_SQUARES:
+                return HandCategory.FOUR_OF_A_KIND;
+            default:
+                break;
+        }
+        boolean flush = isFlush();
+        if (isStraight()) {
+            if (!flush) {
+                return HandCategory.STRAIGHT;
+            }
+            return valueMask == ROYAL_VALUES ? HandCategory.ROYAL_FLUSH
+                : HandCategory.STRAIGHT_FLUSH;
+        }
+        return flush ? HandCategory.FLUSH : HandCategory.NO_PAIR;
     }
 
     /**
@@ -76,40 +267,177 @@ public class Hand {
         String handString = "[";
         for (int i = 0;  i < CARDS_IN_HAND; i++) {
             if (i == CARDS_IN_HAND - 1) {
-                handString += hand[i].toString() + "]";
+                handString += Card.fromCode(hand[i]).toString() + "]";
             } else {
-                handString += hand[i].toString() + ", ";
+                handString += Card.fromCode(hand[i]).toString() + ", ";
             }
         }
         return handString;
     }
 
     /**
-     * Tests equality of two hand objects
+     * Tests equality of two hand objects, which hold the same cards in any order. Only the
+     * card masks are compared, unless a hand holds the same card twice, which no deck deals.
      * @param o the other object to be tested
      * @return true or false if objects are equal or not
      */
+    @Override
     public boolean equals(Object o) {
-        if (!(o instanceof Hand)) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof Hand)) {
             return false;
         }
-        Hand other = (Hand)o;
-        Hand otherHand = new Hand(other.getSortedHand());
-        Hand thisHand = new Hand(this.getSortedHand());
-        Card thisCard;
-        Card otherCard;
-        // Check for same object instance
-        if (this == other) {
+        Hand other = (Hand) o;
+        if (mask != other.mask) {
+            return false;
+        } else if (Long.bitCount(mask) == CARDS_IN_HAND) {
             return true;
         }
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            thisCard = thisHand.getCard(i);
-            otherCard = otherHand.getCard(i);
-            if (!thisCard.equals(otherCard)) {
-                return false;
+        int[] these = Arrays.copyOf(hand, CARDS_IN_HAND);
+        int[] those = Arrays.copyOf(other.hand, CARDS_IN_HAND);
+        Arrays.sort(these);
+        Arrays.sort(those);
+        return Arrays.equals(these, those);
+    }
+
+    /**
+     * Returns a hash code from the card mask, consistent with equals(). A hand used as a key
+     * in a hash map must not have its cards replaced while it is in the map.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask);
+    }
+
+    /**
+     * Returns the strength of this hand, evaluated once and kept until a card is replaced
+     * @return the same value as HandEvaluator.evaluate(this), greater for stronger hands
+     */
+    public int getStrength() {
+        if (strength == 0) {
+            // No hand evaluates to 0, as even the weakest holds its five values
+            strength = HandEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]);
+        }
+        return strength;
+    }
+
+    /**
+     * Compares the strength of this hand with another
+     * @param other for the other hand
+     * @return a negative number, zero or a positive number as this hand is weaker than,
+     * as strong as or stronger than the other
+     * @throws NullPointerException if other is null
+     */
+    @Override
+    public int compareTo(Hand other) {
+        return Integer.compare(getStrength(), other.getStrength());
+    }
+
+    /**
+     * Finds the winners of a showdown, every hand as strong as the strongest
+     * @param hands for the hands in the showdown
+     * @return the indexes of the winning hands in increasing order, more than one when the
+     * pot is split
+     * @throws IllegalArgumentException if the array is null or empty, or holds a null hand
+     */
+    public static int[] winners(Hand[] hands) {
+        if (hands == null) {
+            throw new IllegalArgumentException("Null array");
+        } else if (hands.length == 0) {
+            throw new IllegalArgumentException("Invalid array length");
+        }
+        int best = 0;
+        int count = 0;
+        for (int i = 0; i < hands.length; i++) {
+            if (hands[i] == null) {
+                throw new IllegalArgumentException("Null element");
+            }
+            int value = hands[i].getStrength();
+            if (value > best) {
+                best = value;
+                count = 1;
+            } else if (value == best) {
+                count++;
+            }
+        }
+        int[] winners = new int[count];
+        for (int i = 0, n = 0; n < count; i++) {
+            if (hands[i].strength == best) {
+                winners[n++] = i;
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * Sorts hands from weakest to strongest. Each hand's strength and index are packed into
+     * a long and the longs are sorted as primitives, so no comparator is called; equally
+     * strong hands keep their order.
+     * @param hands for the hands to be sorted in place
+     * @throws IllegalArgumentException if the array is null or holds a null hand
+     */
+    public static void sortByStrength(Hand[] hands) {
+        if (hands == null) {
+            throw new IllegalArgumentException("Null array");
+        }
+        long[] keys = new long[hands.length];
+        for (int i = 0; i < hands.length; i++) {
+            if (hands[i] == null) {
+                throw new IllegalArgumentException("Null element");
             }
+            keys[i] = (long) hands[i].getStrength() << Integer.SIZE | i;
+        }
+        Arrays.sort(keys);
+        Hand[] sorted = new Hand[hands.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = hands[(int) keys[i]];
+        }
+        System.arraycopy(sorted, 0, hands, 0, hands.length);
+    }
+
+    /**
+     * Returns the mask of this hand's cards, with bit n set when the card with code n is in
+     * the hand. Each suit occupies 13 consecutive bits, one for each value. The mask is kept
+     * up to date as cards are replaced.
+     * @return the card mask of the hand
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Evaluates this hand by looking it up in a precomputed table
+     * @param table for the table of every hand's strength
+     * @return the same value as HandEvaluator.evaluate(this)
+     * @throws IllegalArgumentException if table is null
+     */
+    public int evaluate(HandRankTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Null table");
+        }
+        return table.evaluateMask(getMask());
+    }
+
+    /**
+     * Creates a hand from a card mask, with the cards ordered by code
+     * @param mask for the card mask, with bit n set when the card with code n is in the hand
+     * @return the hand holding the cards in the mask
+     * @throws IllegalArgumentException if the mask does not hold exactly five valid cards
+     */
+    public static Hand fromMask(long mask) {
+        if (Long.bitCount(mask) != CARDS_IN_HAND || (mask >>> Card.CODES) != 0) {
+            throw new IllegalArgumentException("Invalid mask");
+        }
+        Hand hand = new Hand();
+        hand.hand = new int[CARDS_IN_HAND];
+        for (int i = 0; i < CARDS_IN_HAND; i++) {
+            hand.hand[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
         }
-        return true;
+        hand.tally();
+        return hand;
     }
 
     /**
@@ -117,12 +445,7 @@ public class Hand {
      * @return true or false if hand is flush or not
      */
     public boolean isFlush() {
-        for (int i = 0; i < CARDS_IN_HAND - 1; i++) {
-            if (hand[i].getSuit() != hand[i + 1].getSuit()) {
-                return false;
-            }
-        }
-        return true;
+        return suitCounts[Card.codeSuitIndex(hand[0])] == CARDS_IN_HAND;
     }
 
     /**
@@ -130,14 +453,7 @@ public class Hand {
      * @return true or false if hand is stright or not
      */
     public boolean isStraight() {
-        Card[] handCopy = Arrays.copyOf(hand, hand.length);
-        Arrays.sort(handCopy);
-        for (int i = CARDS_IN_HAND - 1; i > 1; i--) {
-            if ((handCopy[i].getValue() - handCopy[i - 1].getValue()) != 1) {
-                return false;
-            }
-        }
-        return true;
+        return valueMask >>> Integer.numberOfTrailingZeros(valueMask) == LOWEST_STRAIGHT;
     }
 
     /**
@@ -145,11 +461,7 @@ public class Hand {
      * @return true or false if hand is straight flush or not
      */
     public boolean isStraightFlush() {
-        if (this.isFlush() && this.isStraight()) {
-            return true;
-        } else {
-            return false;
-        }
+        return this.isFlush() && this.isStraight();
     }
 
     /**
@@ -157,12 +469,7 @@ public class Hand {
      * @return true or false if hand is royal flush or not
      */
     public boolean isRoyalFlush() {
-        final int TEN_VALUE = 10;
-        if (this.isFlush() && this.isStraight() && hand[0].getValue() == TEN_VALUE) {
-            return true;
-        } else {
-            return false;
-        }
+        return this.isFlush() && valueMask == ROYAL_VALUES;
     }
 
     /**
@@ -170,40 +477,15 @@ public class Hand {
      * @return true or false if the hand has a four of kind
      */
     public boolean hasFourOfAKind() {
-        final int FOUR = 4;
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            int counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if (hand[i].getValue() == hand[j].getValue()) {
-                    counter++;
-                }
-            }
-            if (counter == FOUR) {
-                return true;
-            }
-        }
-        return false;
+        return squares == FOUR_OF_A_KIND_SQUARES;
     }
 
     /**
-     * Method to check if given hand has four of a kind
-     * @return true or false if the hand has a four of kind
+     * Method to check if given hand has three of a kind
+     * @return true or false if the hand has a three of kind
      */
     public boolean hasThreeOfAKind() {
-        final int THREE = 3;
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            int counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if (hand[i].getValue() == hand[j].getValue()) {
-                    counter++;
-                    tripleValue = hand[i].getValue();
-                }
-            }
-            if (counter == THREE) {
-                return true;
-            }
-        }
-        return false;
+        return squares == THREE_OF_A_KIND_SQUARES || squares == FULL_HOUSE_SQUARES;
     }
 
     /**
@@ -211,41 +493,7 @@ public class Hand {
      * @return true or false if condition is true
      */
     public boolean hasTwoPairs() {
-        Card[] handCopy = Arrays.copyOf(hand, hand.length);
-        boolean flagOne = false;
-        boolean flagTwo = false;
-        int counter = 0;
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if (handCopy[i].getValue() == handCopy[j].getValue()) {
-                    counter++;
-                    pairValue = handCopy[i].getValue();
-                }
-            }
-            if (counter == 2) {
-                flagOne = true;
-                break;
-            }
-        }
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if ((handCopy[i].getValue() == handCopy[j].getValue()) &&
-                        (handCopy[i].getValue() != pairValue)) {
-                    counter++;
-                }
-            }
-            if (counter == 2) {
-                flagTwo = true;
-                break;
-            }
-        }
-        if (flagOne && flagTwo) {
-            return true;
-        } else {
-            return false;
-        }
+        return squares == TWO_PAIRS_SQUARES;
     }
 
     /**
@@ -253,41 +501,8 @@ public class Hand {
      * @return true or false if hand has one pair
      */
     public boolean hasOnePair() {
-        Card[] handCopy = Arrays.copyOf(hand, hand.length);
-        boolean flagOne = false;
-        boolean flagTwo = false;
-        int counter = 0;
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if (handCopy[i].getValue() == handCopy[j].getValue()) {
-                    counter++;
-                    pairValue = handCopy[i].getValue();
-                }
-            }
-            if (counter == 2) {
-                flagOne = true;
-                break;
-            }
-        }
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            counter = 0;
-            for (int j = 0; j < CARDS_IN_HAND; j++) {
-                if ((handCopy[i].getValue() == handCopy[j].getValue()) &&
-                        handCopy[i].getValue() != pairValue) {
-                    counter++;
-                }
-            }
-            if (counter != 2) {
-                flagTwo = true;
-                break;
-            }
-        }
-        if (flagOne && flagTwo) {
-            return true;
-        } else {
-            return false;
-        }
+        return squares == ONE_PAIR_SQUARES || squares == TWO_PAIRS_SQUARES
+            || squares == FULL_HOUSE_SQUARES;
     }
 
     /**
@@ -295,11 +510,7 @@ public class Hand {
      * @return true or false if full house is found
      */
     public boolean isFullHouse() {
-        if (this.hasOnePair() && this.hasThreeOfAKind() && (pairValue != tripleValue)) {
-            return true;
-        } else {
-            return false;
-        }
+        return this.hasThreeOfAKind() && this.hasOnePair();
     }
 
     /**
@@ -307,11 +518,7 @@ public class Hand {
      * @return tally array containing number of cards of each value from 2 to 14.
      */
     public int[] getCounts() {
-        int[] counts = new int[Card.HIGHEST_VALUE + 1];
-        for (int i = 0; i < hand.length; i++) {
-            counts[hand[i].getValue()]++;
-        }
-        return counts;
+        return Arrays.copyOf(counts, counts.length);
     }
 
     /**
@@ -319,7 +526,10 @@ public class Hand {
      * @return copy of the hand sorted first by value, then by suit
      */
     public Card[] getSortedHand() {
-        Card[] sortedHand = Arrays.copyOf(hand, hand.length);
+        Card[] sortedHand = new Card[CARDS_IN_HAND];
+        for (int i = 0; i < CARDS_IN_HAND; i++) {
+            sortedHand[i] = Card.fromCode(hand[i]);
+        }
         Arrays.sort(sortedHand);
         return sortedHand;
     }
@@ -0,0 +1,100 @@
+/**
+ * Categories of a scored video poker hand, from weakest to strongest. The ordinal of each
+ * category is the category code HandEvaluator gives it, so arrays such as pay tables and
+ * tallies can be indexed by either.
+ * @author William Morgan
+ * @version 1.0
+ */
+public enum HandCategory {
+
+    /** No winning combination */
+    NO_PAIR("No Pair"),
+
+    /** A single pair */
+    ONE_PAIR("One Pair"),
+
+    /** Two pairs */
+    TWO_PAIRS("Two Pairs"),
+
+    /** Three cards of one value */
+    THREE_OF_A_KIND("Three of a Kind"),
+
+    /** Five values in a row */
+    STRAIGHT("Straight"),
+
+    /** Five cards of one suit */
+    FLUSH("Flush"),
+
+    /** Three of a kind and a pair */
+    FULL_HOUSE("Full House"),
+
+    /** Four cards of one value */
+    FOUR_OF_A_KIND("Four of a Kind"),
+
+    /** A straight in one suit */
+    STRAIGHT_FLUSH("Straight Flush"),
+
+    /** A straight flush from ten to ace */
+    ROYAL_FLUSH("Royal Flush");
+
+    /** Every category, indexed by code */
+    private static final HandCategory[] BY_CODE = values();
+
+    /** Name shown to the player */
+    private final String displayName;
+
+    /**
+     * Constructor for a category
+     * @param displayName for the name shown to the player
+     */
+    HandCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the category with the given code
+     * @param code for the code, from HandEvaluator.NO_PAIR to HandEvaluator.ROYAL_FLUSH
+     * @return the category
+     * @throws IllegalArgumentException if code is invalid
+     */
+    public static HandCategory fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Invalid category");
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Returns the category of a value returned by HandEvaluator. The value is not checked.
+     * @param value for the evaluated value
+     * @return the category of the value
+     */
+    public static HandCategory ofValue(int value) {
+        return BY_CODE[HandEvaluator.getCategory(value)];
+    }
+
+    /**
+     * Returns the code of this category
+     * @return the code, the same as HandEvaluator uses
+     */
+    public int getCode() {
+        return ordinal();
+    }
+
+    /**
+     * Returns the name shown to the player
+     * @return the display name, such as "Full House"
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Returns the name shown to the player
+     * @return the display name
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
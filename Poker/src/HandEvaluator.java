@@ -0,0 +1,258 @@
+/**
+ * Evaluates five card poker hands in a single pass using precomputed lookup tables.
+ * Every card value is given a rank key chosen so that the sum of the keys of any five
+ * values is unique, which makes that sum a perfect hash of the hand's values. Hands that
+ * are not flushes are scored with one lookup of the key sum, and flushes are scored with
+ * one lookup of the 13 bit mask of their values.
+ *
+ * The result of an evaluation is an int that holds the hand category in its high bits and
+ * the values of the cards, ordered by how many times they appear and then by value, in
+ * four bit groups below it. A greater result is always a stronger hand.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class HandEvaluator {
+
+    /** Category of a hand with no winning combination */
+    public static final int NO_PAIR = 0;
+
+    /** Category of a hand with a single pair */
+    public static final int ONE_PAIR = 1;
+
+    /** Category of a hand with two pairs */
+    public static final int TWO_PAIRS = 2;
+
+    /** Category of a hand with three of a kind */
+    public static final int THREE_OF_A_KIND = 3;
+
+    /** Category of a hand with a straight */
+    public static final int STRAIGHT = 4;
+
+    /** Category of a hand with a flush */
+    public static final int FLUSH = 5;
+
+    /** Category of a hand with a full house */
+    public static final int FULL_HOUSE = 6;
+
+    /** Category of a hand with four of a kind */
+    public static final int FOUR_OF_A_KIND = 7;
+
+    /** Category of a hand with a straight flush */
+    public static final int STRAIGHT_FLUSH = 8;
+
+    /** Category of a hand with a royal flush */
+    public static final int ROYAL_FLUSH = 9;
+
+    /** Number of hand categories */
+    public static final int CATEGORIES = 10;
+
+    /** Number of bits the category is shifted by within an evaluated value */
+    public static final int CATEGORY_SHIFT = 20;
+
+    /**
+     * Rank key for each card value, indexed by value minus the lowest value. The sums of
+     * the keys of every combination of up to five values are distinct.
+     */
+    private static final int[] RANK_KEYS = {0, 1, 5, 22, 94, 312, 992, 2422, 5624, 12522,
+                                            19998, 43258, 79415};
+
+    /** Evaluated value of each hand that is not a flush, indexed by rank key sum */
+    private static final int[] RANK_VALUES = new int[(Hand.CARDS_IN_HAND - 1)
+        * RANK_KEYS[Card.VALUES - 1] + RANK_KEYS[Card.VALUES - 2] + 1];
+
+    /** Evaluated value of each flush, indexed by the mask of its card values */
+    private static final int[] FLUSH_VALUES = new int[1 << Card.VALUES];
+
+    /** Rank key of each card code */
+    private static final int[] CODE_KEYS = new int[Card.CODES];
+
+    /** Bit for the value of each card code */
+    private static final int[] CODE_VALUE_BITS = new int[Card.CODES];
+
+    /** Bit for the suit of each card code */
+    private static final int[] CODE_SUIT_BITS = new int[Card.CODES];
+
+    static {
+        for (int code = 0; code < Card.CODES; code++) {
+            int index = Card.codeValue(code) - Card.LOWEST_VALUE;
+            CODE_KEYS[code] = RANK_KEYS[index];
+            CODE_VALUE_BITS[code] = 1 << index;
+            CODE_SUIT_BITS[code] = 1 << Card.codeSuitIndex(code);
+        }
+        buildRankValues(new int[Card.VALUES], 0, Hand.CARDS_IN_HAND);
+        for (int mask = 0; mask < FLUSH_VALUES.length; mask++) {
+            if (Integer.bitCount(mask) == Hand.CARDS_IN_HAND) {
+                int[] counts = new int[Card.VALUES];
+                for (int i = 0; i < Card.VALUES; i++) {
+                    counts[i] = (mask >>> i) & 1;
+                }
+                FLUSH_VALUES[mask] = score(counts, true);
+            }
+        }
+    }
+
+    /**
+     * Private constructor as the class only holds static lookup tables
+     */
+    private HandEvaluator() {
+    }
+
+    /**
+     * Evaluates the given hand
+     * @param hand for the hand to be evaluated
+     * @return the evaluated value of the hand
+     * @throws IllegalArgumentException if hand is null
+     */
+    public static int evaluate(Hand hand) {
+        if (hand == null) {
+            throw new IllegalArgumentException("Null hand");
+        }
+        return evaluate(hand.getCardCode(0), hand.getCardCode(1), hand.getCardCode(2),
+                        hand.getCardCode(3), hand.getCardCode(4));
+    }
+
+    /**
+     * Evaluates the given five cards
+     * @param cards for the cards to be evaluated
+     * @return the evaluated value of the cards
+     * @throws IllegalArgumentException if the array or any card is null, or if the array
+     * does not hold five cards
+     */
+    public static int evaluate(Card[] cards) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Null array");
+        } else if (cards.length != Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid array length");
+        }
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] == null) {
+                throw new IllegalArgumentException("Null element");
+            }
+        }
+        return evaluate(cards[0].getCode(), cards[1].getCode(), cards[2].getCode(),
+                        cards[3].getCode(), cards[4].getCode());
+    }
+
+    /**
+     * Evaluates the five cards with the given codes. The codes are not checked, and no
+     * objects are created.
+     * @param c1 for the code of the first card
+     * @param c2 for the code of the second card
+     * @param c3 for the code of the third card
+     * @param c4 for the code of the fourth card
+     * @param c5 for the code of the fifth card
+     * @return the evaluated value of the cards
+     */
+    public static int evaluate(int c1, int c2, int c3, int c4, int c5) {
+        if ((CODE_SUIT_BITS[c1] & CODE_SUIT_BITS[c2] & CODE_SUIT_BITS[c3]
+                & CODE_SUIT_BITS[c4] & CODE_SUIT_BITS[c5]) != 0) {
+            int valueMask = CODE_VALUE_BITS[c1] | CODE_VALUE_BITS[c2] | CODE_VALUE_BITS[c3]
+                | CODE_VALUE_BITS[c4] | CODE_VALUE_BITS[c5];
+            if (Integer.bitCount(valueMask) == Hand.CARDS_IN_HAND) {
+                return FLUSH_VALUES[valueMask];
+            }
+        }
+        return RANK_VALUES[CODE_KEYS[c1] + CODE_KEYS[c2] + CODE_KEYS[c3] + CODE_KEYS[c4]
+                           + CODE_KEYS[c5]];
+    }
+
+    /**
+     * Evaluates the five cards in a card mask, as returned by Hand.getMask(). The mask is
+     * not checked.
+     * @param mask for the card mask, with bit n set when the card with code n is in the hand
+     * @return the evaluated value of the cards
+     */
+    public static int evaluateMask(long mask) {
+        int c1 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c2 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c3 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c4 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        return evaluate(c1, c2, c3, c4, Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * Returns the category held in an evaluated value
+     * @param value for the evaluated value
+     * @return the category of the value, from NO_PAIR to ROYAL_FLUSH
+     */
+    public static int getCategory(int value) {
+        return value >>> CATEGORY_SHIFT;
+    }
+
+    /**
+     * Fills the rank value table by visiting every combination of five card values
+     * @param counts for the number of cards with each value chosen so far
+     * @param index for the first value that may still be chosen
+     * @param remaining for the number of cards still to be chosen
+     */
+    private static void buildRankValues(int[] counts, int index, int remaining) {
+        if (remaining == 0) {
+            int keySum = 0;
+            for (int i = 0; i < Card.VALUES; i++) {
+                keySum += counts[i] * RANK_KEYS[i];
+            }
+            if (RANK_VALUES[keySum] != 0) {
+                throw new IllegalStateException("Rank key collision");
+            }
+            RANK_VALUES[keySum] = score(counts, false);
+            return;
+        }
+        if (index == Card.VALUES) {
+            return;
+        }
+        int most = Math.min(remaining, Card.SUITS);
+        for (int count = 0; count <= most; count++) {
+            counts[index] = count;
+            buildRankValues(counts, index + 1, remaining - count);
+        }
+        counts[index] = 0;
+    }
+
+    /**
+     * Scores a combination of five card values. This is only used while the tables are
+     * built so it favors clarity over speed.
+     * @param counts for the number of cards with each value
+     * @param flush for whether all cards share a suit
+     * @return the evaluated value of the combination
+     */
+    private static int score(int[] counts, boolean flush) {
+        int kickers = 0;
+        int largestGroup = 0;
+        int groups = 0;
+        for (int count = Card.SUITS; count >= 1; count--) {
+            for (int i = Card.VALUES - 1; i >= 0; i--) {
+                if (counts[i] == count) {
+                    kickers = (kickers << 4) | (i + Card.LOWEST_VALUE);
+                    largestGroup = Math.max(largestGroup, count);
+                    groups++;
+                }
+            }
+        }
+        int category;
+        if (groups == Hand.CARDS_IN_HAND) {
+            int highest = kickers >>> (4 * (Hand.CARDS_IN_HAND - 1));
+            int lowest = kickers & 0xF;
+            boolean straight = highest - lowest == Hand.CARDS_IN_HAND - 1;
+            if (flush && straight) {
+                category = highest == Card.HIGHEST_VALUE ? ROYAL_FLUSH : STRAIGHT_FLUSH;
+            } else if (flush) {
+                category = FLUSH;
+            } else if (straight) {
+                category = STRAIGHT;
+            } else {
+                category = NO_PAIR;
+            }
+        } else if (largestGroup == 4) {
+            category = FOUR_OF_A_KIND;
+        } else if (largestGroup == 3) {
+            category = groups == 2 ? FULL_HOUSE : THREE_OF_A_KIND;
+        } else {
+            category = groups == 3 ? TWO_PAIRS : ONE_PAIR;
+        }
+        return (category << CATEGORY_SHIFT) | kickers;
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Lookup table of the strength of every five card hand, generated once and stored in a
+ * binary file that is memory mapped when loaded. Loading costs no evaluation work, and
+ * processes that map the same file share its pages through the operating system's cache.
+ *
+ * Each hand is indexed by its combinatorial rank: with its codes sorted so that
+ * c1 &lt; c2 &lt; c3 &lt; c4 &lt; c5, the rank is C(c1,1) + C(c2,2) + C(c3,3) + C(c4,4)
+ * + C(c5,5), which numbers the hands from 0 to 2598959. The file holds a header, the
+ * distinct evaluated values in increasing order, and then one unsigned 16 bit strength per
+ * hand, which is the index of the hand's evaluated value among the distinct values. All
+ * numbers are big endian.
+ *
+ * Header: magic "HRNK", format version, number of hands, number of distinct values and the
+ * CRC-32 of everything after the header, each as a 32 bit int.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class HandRankTable {
+
+    /** File the table is written to and read from unless another is given */
+    public static final String DEFAULT_FILE = "handranks.dat";
+
+    /** First four bytes of every table file */
+    public static final int MAGIC = 0x48524E4B;
+
+    /** Version of the file format written by generate() */
+    public static final int VERSION = 1;
+
+    /** Number of five card hands */
+    public static final int HANDS = 2598960;
+
+    /** Number of bytes in the file header */
+    public static final int HEADER_BYTES = 20;
+
+    /** Binomial coefficients C(n, k) for n up to 52 and k up to 5 */
+    private static final int[][] BINOMIAL = new int[Card.CODES + 1][Hand.CARDS_IN_HAND + 1];
+
+    static {
+        for (int n = 0; n <= Card.CODES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, Hand.CARDS_IN_HAND); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    /** Distinct evaluated values in increasing order, indexed by strength */
+    private int[] values;
+
+    /** Mapped file contents */
+    private ByteBuffer buffer;
+
+    /** Position of the first strength in the buffer */
+    private int strengthsOffset;
+
+    /**
+     * Private constructor, tables are created by load()
+     * @param values for the distinct evaluated values
+     * @param buffer for the mapped file contents
+     * @param strengthsOffset for the position of the first strength
+     */
+    private HandRankTable(int[] values, ByteBuffer buffer, int strengthsOffset) {
+        this.values = values;
+        this.buffer = buffer;
+        this.strengthsOffset = strengthsOffset;
+    }
+
+    /**
+     * Returns the combinatorial rank of the five cards in a card mask. The mask is not
+     * checked.
+     * @param mask for the card mask, with bit n set when the card with code n is in the hand
+     * @return the rank of the hand, from 0 to HANDS - 1
+     */
+    public static int rank(long mask) {
+        int rank = 0;
+        for (int k = 1; k <= Hand.CARDS_IN_HAND; k++) {
+            rank += BINOMIAL[Long.numberOfTrailingZeros(mask)][k];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * Evaluates every hand and writes the table to a file, replacing any file already there
+     * @param file for the file to be written
+     * @throws IOException if the file cannot be written
+     */
+    public static void generate(Path file) throws IOException {
+        int[] handValues = new int[HANDS];
+        int rank = 0;
+        for (int e = 4; e < Card.CODES; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            handValues[rank++] = HandEvaluator.evaluate(a, b, c, d, e);
+                        }
+                    }
+                }
+            }
+        }
+        int[] distinct = Arrays.stream(handValues).distinct().sorted().toArray();
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + distinct.length * Integer.BYTES
+                                             + HANDS * Character.BYTES);
+        out.position(HEADER_BYTES);
+        for (int value : distinct) {
+            out.putInt(value);
+        }
+        for (int value : handValues) {
+            out.putChar((char) Arrays.binarySearch(distinct, value));
+        }
+        out.flip();
+        out.putInt(MAGIC).putInt(VERSION).putInt(HANDS).putInt(distinct.length)
+            .putInt(checksum(out.duplicate().position(HEADER_BYTES)));
+        out.rewind();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Maps a table file into memory and checks its header and checksum
+     * @param file for the file written by generate()
+     * @return the table
+     * @throws IOException if the file cannot be read, or is not a valid table
+     */
+    public static HandRankTable load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Invalid table size");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Invalid table header");
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported table version");
+        }
+        int distinct = buffer.getInt(12);
+        if (buffer.getInt(8) != HANDS || distinct < 1 || distinct > Character.MAX_VALUE + 1
+                || buffer.capacity() != HEADER_BYTES + distinct * Integer.BYTES
+                                        + HANDS * Character.BYTES) {
+            throw new IOException("Invalid table size");
+        } else if (buffer.getInt(16) != checksum(buffer.duplicate().position(HEADER_BYTES))) {
+            throw new IOException("Table checksum mismatch");
+        }
+        int[] values = new int[distinct];
+        for (int i = 0; i < distinct; i++) {
+            values[i] = buffer.getInt(HEADER_BYTES + i * Integer.BYTES);
+        }
+        return new HandRankTable(values, buffer, HEADER_BYTES + distinct * Integer.BYTES);
+    }
+
+    /**
+     * Computes the CRC-32 of the remaining bytes of a buffer
+     * @param buffer for the bytes to be checked
+     * @return the checksum
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the number of distinct strengths in the table
+     * @return one more than the greatest strength
+     */
+    public int getStrengths() {
+        return values.length;
+    }
+
+    /**
+     * Returns the strength of the five cards in a card mask, the index of their evaluated
+     * value among all distinct values. The mask is not checked.
+     * @param mask for the card mask, with bit n set when the card with code n is in the hand
+     * @return the strength, from 0 to getStrengths() - 1, greater for stronger hands
+     */
+    public int getStrength(long mask) {
+        return buffer.getChar(strengthsOffset + rank(mask) * Character.BYTES);
+    }
+
+    /**
+     * Evaluates the five cards in a card mask by table lookup. The mask is not checked.
+     * @param mask for the card mask, with bit n set when the card with code n is in the hand
+     * @return the same value as HandEvaluator.evaluateMask()
+     */
+    public int evaluateMask(long mask) {
+        return values[getStrength(mask)];
+    }
+
+    /**
+     * Evaluates the five cards with the given codes by table lookup. The codes are not
+     * checked.
+     * @param c1 for the code of the first card
+     * @param c2 for the code of the second card
+     * @param c3 for the code of the third card
+     * @param c4 for the code of the fourth card
+     * @param c5 for the code of the fifth card
+     * @return the same value as HandEvaluator.evaluate()
+     */
+    public int evaluate(int c1, int c2, int c3, int c4, int c5) {
+        return evaluateMask(1L << c1 | 1L << c2 | 1L << c3 | 1L << c4 | 1L << c5);
+    }
+
+    /**
+     * Generates the table file and reports how long loading it takes
+     * @param args args[0] optional path of the file to write, DEFAULT_FILE by default
+     * @throws IOException if the file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        generate(file);
+        long generated = System.nanoTime();
+        HandRankTable table = load(file);
+        long loaded = System.nanoTime();
+        System.out.printf("Wrote %s: %d hands, %d strengths, %d bytes%n", file, HANDS,
+                          table.getStrengths(), Files.size(file));
+        System.out.printf("Generated in %.1f ms, loaded in %.1f ms%n",
+                          (generated - start) / 1e6, (loaded - generated) / 1e6);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Decides which cards of a dealt hand to hold before the draw. Policies are called from
+ * simulation worker threads, so they must be safe to use from several threads at once.
+ * @author William Morgan
+ * @version 1.0
+ */
+public interface HoldPolicy {
+
+    /** Hold mask that keeps every card */
+    int HOLD_ALL = (1 << Hand.CARDS_IN_HAND) - 1;
+
+    /**
+     * Chooses the cards to hold
+     * @param codes for the codes of the five dealt cards, which must not be changed
+     * @return the hold mask, with bit i set when codes[i] is held
+     */
+    int hold(int[] codes);
+
+    /**
+     * Returns a policy that never draws
+     * @return the policy
+     */
+    static HoldPolicy holdAll() {
+        return codes -> HOLD_ALL;
+    }
+
+    /**
+     * Returns a policy that keeps any hand of a straight or better and otherwise holds every
+     * card whose value appears more than once
+     * @return the policy
+     */
+    static HoldPolicy holdMatches() {
+        return codes -> {
+            int category = HandEvaluator.getCategory(
+                HandEvaluator.evaluate(codes[0], codes[1], codes[2], codes[3], codes[4]));
+            if (category >= HandEvaluator.STRAIGHT) {
+                return HOLD_ALL;
+            }
+            int holdMask = 0;
+            for (int i = 0; i < codes.length; i++) {
+                for (int j = 0; j < codes.length; j++) {
+                    if (i != j && Card.codeValue(codes[i]) == Card.codeValue(codes[j])) {
+                        holdMask |= 1 << i;
+                    }
+                }
+            }
+            return holdMask;
+        };
+    }
+
+    /**
+     * Returns a policy that holds the cards with the greatest expected payout
+     * @param solver for a solver whose solve() method has been called
+     * @return the policy
+     * @throws IllegalArgumentException if solver is null
+     */
+    static HoldPolicy optimal(StrategySolver solver) {
+        if (solver == null) {
+            throw new IllegalArgumentException("Null solver");
+        }
+        return solver::getBestHold;
+    }
+}
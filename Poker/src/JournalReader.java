@@ -0,0 +1,351 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads the records of a GameJournal in the order they were written. The segments are mapped
+ * one at a time and the reader is a cursor over them: next() moves to the next record and
+ * the getters read its fields straight from the mapped segment, so reading allocates nothing
+ * per record and runs at the speed the files can be paged in.
+ *
+ * A journal may be read while it is being written, but the reader stops at the last record
+ * written when the reader reaches it. A segment ends at the first record with no type only if
+ * everything after it is zero too, so a record lost in the middle of a segment is reported
+ * rather than hiding the records after it.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class JournalReader implements Closeable {
+
+    /** Position of the session within a record */
+    private static final int SESSION_OFFSET = 0;
+
+    /** Position of the seed within a record */
+    private static final int SEED_OFFSET = 8;
+
+    /** Position of the game number within a record */
+    private static final int GAME_OFFSET = 16;
+
+    /** Position of the hand within a record */
+    private static final int HAND_OFFSET = 20;
+
+    /** Position of the points delta within a record */
+    private static final int DELTA_OFFSET = 24;
+
+    /** Position of the type within a record */
+    private static final int TYPE_OFFSET = 28;
+
+    /** Position of the argument within a record */
+    private static final int ARGUMENT_OFFSET = 29;
+
+    /** Position of the category within a record */
+    private static final int CATEGORY_OFFSET = 30;
+
+    /** Position of the pay table tag within a record */
+    private static final int TABLE_OFFSET = 31;
+
+    /** Segment files in the order they were written */
+    private final Path[] files;
+
+    /** Index of the next segment to be mapped */
+    private int nextFile;
+
+    /** Segment being read, or null before the first or after the last */
+    private ByteBuffer segment;
+
+    /** Position of the current record in the segment, or -1 if there is none */
+    private int record = -1;
+
+    /**
+     * Constructor for a reader of every segment in a directory
+     * @param directory for the directory holding the segments
+     * @throws IOException if the directory cannot be listed
+     * @throws IllegalArgumentException if directory is null
+     */
+    public JournalReader(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Null directory");
+        }
+        this.files = segments(directory);
+    }
+
+    /**
+     * Constructor for a reader of the given segments
+     * @param files for the segment files, in the order they were written
+     * @throws IllegalArgumentException if files or any of its elements is null
+     */
+    public JournalReader(Path[] files) {
+        if (files == null) {
+            throw new IllegalArgumentException("Null files");
+        }
+        for (Path file : files) {
+            if (file == null) {
+                throw new IllegalArgumentException("Null files");
+            }
+        }
+        this.files = files.clone();
+    }
+
+    /**
+     * Lists the segments in a directory in the order they were written
+     * @param directory for the directory
+     * @return the segment files
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Path[] segments(Path directory) throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                GameJournal.SEGMENT_PREFIX + "*" + GameJournal.SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Names hold zero padded indexes, so they sort in the order they were written
+        Collections.sort(files);
+        return files.toArray(new Path[files.size()]);
+    }
+
+    /**
+     * Moves to the next record
+     * @return true if there is one, false at the end of the journal
+     * @throws IOException if a segment cannot be read, is not a valid segment, or holds a
+     * record with no type before the last record written
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null) {
+                int position = record < 0 ? GameJournal.HEADER_BYTES
+                    : record + GameJournal.RECORD_BYTES;
+                int type = position + GameJournal.RECORD_BYTES <= segment.capacity()
+                    ? segment.get(position + TYPE_OFFSET) : 0;
+                if (type < 0 || type > GameJournal.SCORE) {
+                    throw new IOException("Invalid journal record");
+                } else if (type != 0) {
+                    record = position;
+                    return true;
+                } else if (!isEmpty(segment, position)) {
+                    throw new IOException("Invalid journal record");
+                }
+            }
+            if (nextFile == files.length) {
+                record = -1;
+                segment = null;
+                return false;
+            }
+            segment = map(files[nextFile++]);
+            record = -1;
+        }
+    }
+
+    /**
+     * Returns whether the rest of a segment is zero, as it is after the last record written
+     * @param segment for the segment
+     * @param from for the position of the first record to be checked
+     * @return true if every byte from the position to the end of the segment is zero
+     */
+    private static boolean isEmpty(ByteBuffer segment, int from) {
+        for (int position = from; position < segment.capacity(); position += Long.BYTES) {
+            if (segment.getLong(position) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps a segment and checks its header
+     * @param file for the segment
+     * @return the mapped segment
+     * @throws IOException if the segment cannot be read or is not a valid segment
+     */
+    private static ByteBuffer map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < GameJournal.HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Invalid journal size");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != GameJournal.MAGIC) {
+            throw new IOException("Invalid journal header");
+        } else if (buffer.getInt(4) != GameJournal.VERSION
+                   || buffer.getInt(8) != GameJournal.RECORD_BYTES) {
+            throw new IOException("Unsupported journal version");
+        } else if (buffer.capacity() != GameJournal.HEADER_BYTES
+                   + (long) buffer.getInt(12) * GameJournal.RECORD_BYTES) {
+            throw new IOException("Invalid journal size");
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns which of the reader's segments holds the current record
+     * @return the index of the segment among those being read
+     * @throws IllegalStateException if there is no current record
+     */
+    public int getSegment() {
+        current();
+        return nextFile - 1;
+    }
+
+    /**
+     * Returns where the current record is within its segment
+     * @return the index of the record, 0 for the first record of the segment
+     * @throws IllegalStateException if there is no current record
+     */
+    public int getRecord() {
+        current();
+        return (record - GameJournal.HEADER_BYTES) / GameJournal.RECORD_BYTES;
+    }
+
+    /**
+     * Returns the identifier of the game or session of the current record
+     * @return the identifier
+     */
+    public long getSession() {
+        return current().getLong(record + SESSION_OFFSET);
+    }
+
+    /**
+     * Returns the seed the game of the current record was dealt from
+     * @return the seed
+     */
+    public long getSeed() {
+        return current().getLong(record + SEED_OFFSET);
+    }
+
+    /**
+     * Returns the number of the game in its session
+     * @return the game number
+     */
+    public int getGame() {
+        return current().getInt(record + GAME_OFFSET);
+    }
+
+    /**
+     * Returns the hand after the event, packed as by GameJournal.packHand()
+     * @return the packed hand
+     */
+    public int getHand() {
+        return current().getInt(record + HAND_OFFSET);
+    }
+
+    /**
+     * Returns the code of a card of the hand after the event
+     * @param index for the position of the card
+     * @return the code of the card
+     * @throws IllegalArgumentException if index is invalid
+     */
+    public int getCardCode(int index) {
+        if (index < 0 || index >= Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        return getHand() >>> (index * GameJournal.CODE_BITS)
+            & (1 << GameJournal.CODE_BITS) - 1;
+    }
+
+    /**
+     * Returns the change to the points
+     * @return the points delta
+     */
+    public int getDelta() {
+        return current().getInt(record + DELTA_OFFSET);
+    }
+
+    /**
+     * Returns the type of the current record
+     * @return GameJournal.DEAL, GameJournal.REPLACE or GameJournal.SCORE
+     */
+    public int getType() {
+        return current().get(record + TYPE_OFFSET);
+    }
+
+    /**
+     * Returns the argument of the current record
+     * @return the card index of a REPLACE, or 0
+     */
+    public int getArgument() {
+        return current().get(record + ARGUMENT_OFFSET);
+    }
+
+    /**
+     * Returns the category of the current record
+     * @return the category code of a SCORE, or -1
+     */
+    public int getCategory() {
+        return current().get(record + CATEGORY_OFFSET);
+    }
+
+    /**
+     * Returns the pay table tag of the current record
+     * @return the PayTable tag of a DEAL, or 0 if not known
+     */
+    public int getTable() {
+        return current().get(record + TABLE_OFFSET) & 0xFF;
+    }
+
+    /**
+     * Returns the segment holding the current record
+     * @return the segment
+     * @throws IllegalStateException if there is no current record
+     */
+    private ByteBuffer current() {
+        if (record < 0) {
+            throw new IllegalStateException("No record");
+        }
+        return segment;
+    }
+
+    /**
+     * Releases the current segment
+     */
+    @Override
+    public void close() {
+        segment = null;
+        record = -1;
+        nextFile = files.length;
+    }
+
+    /**
+     * Reads a journal and reports its records by type, the points paid and how fast it was
+     * read. Every SCORE is checked against the category of its hand.
+     * @param args args[0] the directory holding the segments
+     * @throws IOException if the journal cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java -cp bin JournalReader directory");
+            return;
+        }
+        long[] types = new long[GameJournal.SCORE + 1];
+        long delta = 0;
+        long mismatches = 0;
+        long start = System.nanoTime();
+        try (JournalReader reader = new JournalReader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                types[reader.getType()]++;
+                delta += reader.getDelta();
+                if (reader.getType() == GameJournal.SCORE) {
+                    int category = HandEvaluator.getCategory(HandEvaluator.evaluate(
+                        reader.getCardCode(0), reader.getCardCode(1), reader.getCardCode(2),
+                        reader.getCardCode(3), reader.getCardCode(4)));
+                    if (category != reader.getCategory()) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long records = types[GameJournal.DEAL] + types[GameJournal.REPLACE]
+            + types[GameJournal.SCORE];
+        System.out.printf("%d records: %d deals, %d replacements, %d scores%n", records,
+                          types[GameJournal.DEAL], types[GameJournal.REPLACE],
+                          types[GameJournal.SCORE]);
+        System.out.printf("Points delta %d, %d scores not matching their hands%n", delta,
+                          mismatches);
+        System.out.printf("Read in %.3f s, %.0f records/s, %.1f MB/s%n", seconds,
+                          records / seconds, records * GameJournal.RECORD_BYTES / seconds / 1e6);
+    }
+}
@@ -0,0 +1,309 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes JSON into a byte buffer that is kept and reused between documents, so writing a
+ * response allocates nothing once the buffer has grown to fit. Commas between members and
+ * elements are added automatically. Only what the game API needs is supported: objects,
+ * arrays, strings, whole numbers and booleans.
+ *
+ * A writer is not thread-safe. Use one per thread, or take writers from a pool.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class JsonWriter {
+
+    /** Deepest nesting of objects and arrays allowed */
+    public static final int MAX_DEPTH = 16;
+
+    /** Hexadecimal digits for escaped characters */
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a',
+                                       'b', 'c', 'd', 'e', 'f'};
+
+    /** Bytes written so far */
+    private byte[] buffer;
+
+    /** Number of bytes written */
+    private int length;
+
+    /** Depth of the object or array being written, 0 at the top level */
+    private int depth;
+
+    /** Whether the object or array at each depth already has a member or element */
+    private boolean[] started = new boolean[MAX_DEPTH + 1];
+
+    /** true if a member name has been written and its value has not */
+    private boolean afterName;
+
+    /**
+     * Constructor for a writer with a small initial buffer
+     */
+    public JsonWriter() {
+        this(256);
+    }
+
+    /**
+     * Constructor for a writer
+     * @param capacity for the initial size of the buffer in bytes
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public JsonWriter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Discards what has been written so the buffer can be reused
+     * @return this writer
+     */
+    public JsonWriter reset() {
+        length = 0;
+        depth = 0;
+        started[0] = false;
+        afterName = false;
+        return this;
+    }
+
+    /**
+     * Starts an object
+     * @return this writer
+     * @throws IllegalStateException if the nesting is too deep
+     */
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    /**
+     * Ends the current object
+     * @return this writer
+     * @throws IllegalStateException if no object or array is open
+     */
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    /**
+     * Starts an array
+     * @return this writer
+     * @throws IllegalStateException if the nesting is too deep
+     */
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    /**
+     * Ends the current array
+     * @return this writer
+     * @throws IllegalStateException if no object or array is open
+     */
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of an object member, to be followed by its value
+     * @param name for the member name
+     * @return this writer
+     */
+    public JsonWriter name(String name) {
+        separate();
+        string(name);
+        put((byte) ':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value
+     * @param value for the value, or null
+     * @return this writer
+     */
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a whole number value
+     * @param value for the value
+     * @return this writer
+     */
+    public JsonWriter value(long value) {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return this;
+        } else if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Writes a boolean value
+     * @param value for the value
+     * @return this writer
+     */
+    public JsonWriter value(boolean value) {
+        separate();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes written
+     * @return the length of the document
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Writes the document to a stream
+     * @param out for the stream
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    /**
+     * Returns the document as a string, for tests and logging
+     * @return the document
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens an object or array
+     * @param bracket for the opening bracket
+     * @return this writer
+     * @throws IllegalStateException if the nesting is too deep
+     */
+    private JsonWriter open(char bracket) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Too deep");
+        }
+        separate();
+        put((byte) bracket);
+        started[++depth] = false;
+        return this;
+    }
+
+    /**
+     * Closes an object or array
+     * @param bracket for the closing bracket
+     * @return this writer
+     * @throws IllegalStateException if no object or array is open
+     */
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing open");
+        }
+        depth--;
+        put((byte) bracket);
+        return this;
+    }
+
+    /**
+     * Writes a comma if the current object or array already has a member or element, unless
+     * a value follows its member name
+     */
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            if (started[depth]) {
+                put((byte) ',');
+            }
+            started[depth] = true;
+        }
+    }
+
+    /**
+     * Writes a quoted, escaped string
+     * @param value for the string
+     */
+    private void string(String value) {
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20) {
+                ascii("\\u00");
+                put(HEX[c >>> 4]);
+                put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | c >>> 6));
+                put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int point = Character.toCodePoint(c, value.charAt(++i));
+                put((byte) (0xF0 | point >>> 18));
+                put((byte) (0x80 | point >>> 12 & 0x3F));
+                put((byte) (0x80 | point >>> 6 & 0x3F));
+                put((byte) (0x80 | point & 0x3F));
+            } else {
+                put((byte) (0xE0 | c >>> 12));
+                put((byte) (0x80 | c >>> 6 & 0x3F));
+                put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        put((byte) '"');
+    }
+
+    /**
+     * Writes text known to be ASCII
+     * @param text for the text
+     */
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Writes one byte
+     * @param b for the byte
+     */
+    private void put(byte b) {
+        ensure(1);
+        buffer[length++] = b;
+    }
+
+    /**
+     * Grows the buffer if it has less than the given room left
+     * @param room for the number of bytes about to be written
+     */
+    private void ensure(int room) {
+        if (length + room > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + room));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.concurrent.atomic.*;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, in the style of
+ * HdrHistogram. Values below SUB_BUCKETS have a bucket each, and every power of two above
+ * is split into SUB_BUCKETS / 2 equal buckets, so any recorded value is known to within
+ * about 6% from 1 ns to the largest long while the whole range takes under a thousand
+ * buckets. Each bucket is a LongAdder, so threads recording at once do not contend.
+ *
+ * Percentiles are read while values are still being recorded, so they are a close
+ * snapshot rather than an exact one.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /** Number of bits of a value kept by its bucket */
+    public static final int SUB_BUCKET_BITS = 5;
+
+    /** Number of buckets below the first power of two that is split */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets each power of two from SUB_BUCKETS up is split into */
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    /** Number of buckets */
+    public static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+    /** Count of values in each bucket */
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    /** Number of values recorded */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the values recorded */
+    private final LongAdder sum = new LongAdder();
+
+    /** Largest value recorded */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor for an empty histogram
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the bucket of a value
+     * @param value for the value, not negative
+     * @return the index of its bucket
+     */
+    public static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the top SUB_BUCKET_BITS bits of the value, whose leading bit is always set
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /**
+     * Returns the largest value that falls in a bucket
+     * @param bucket for the index of the bucket
+     * @return the largest value of the bucket
+     */
+    public static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        long top = (bucket - SUB_BUCKETS) % HALF + HALF;
+        return (top + 1 << shift) - 1;
+    }
+
+    /**
+     * Records a value
+     * @param nanos for the latency in nanoseconds, counted as 0 if negative
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[bucket(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of values recorded
+     * @return the number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded
+     * @return the mean in nanoseconds, or 0 if none has been recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the largest value recorded
+     * @return the largest value in nanoseconds, or 0 if none has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which a given percentage of the values recorded fall, to the
+     * precision of its bucket
+     * @param percentile for the percentage, from 0 to 100
+     * @return the largest value of the bucket holding the percentile, no more than the
+     * largest value recorded, or 0 if none has been recorded
+     * @throws IllegalArgumentException if percentile is not from 0 to 100
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Invalid percentile");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+}
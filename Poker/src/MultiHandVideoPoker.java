@@ -0,0 +1,264 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Multi-hand video poker, as in Triple Play, Five Play and Hundred Play. One hand is dealt
+ * and the player chooses the cards to hold once. The held cards are then copied into every
+ * hand, and each hand draws its replacements from its own copy of the 47 cards left in the
+ * deck.
+ *
+ * No deck or hand objects are created per hand. The deck is one array of codes whose first
+ * five entries are the dealt hand and whose other 47 are shared by every hand. Each hand
+ * draws with forward Fisher-Yates steps over those 47 entries, which picks the replacements
+ * uniformly whatever order earlier hands left the entries in, so each hand draws as if from
+ * its own freshly shuffled copy. The final hands are packed into one array of codes and
+ * scored in a single pass by HandBatchEvaluator.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class MultiHandVideoPoker {
+
+    /** Number of hands in Triple Play */
+    public static final int TRIPLE_PLAY = 3;
+
+    /** Number of hands in Five Play */
+    public static final int FIVE_PLAY = 5;
+
+    /** Number of hands in Hundred Play, the most allowed */
+    public static final int HUNDRED_PLAY = 100;
+
+    /** Hold mask that holds every card */
+    public static final int HOLD_ALL = (1 << VideoPoker.CARDS_IN_HAND) - 1;
+
+    /** Number of hands played each game */
+    private final int hands;
+
+    /** Random number generator choosing every card */
+    private final RandomGenerator random;
+
+    /** Codes of the deck: the dealt hand followed by the cards left to draw from */
+    private final int[] cards = new int[Deck.CARDS_IN_DECK];
+
+    /** Codes of every final hand, five per hand */
+    private final int[] finalCodes;
+
+    /** Category code of every final hand */
+    private final int[] categories;
+
+    /** Pay table used by the next game, which may be replaced by another thread */
+    private volatile PayTable payTable;
+
+    /** Pay table the current game was started with, or null if no game is in progress */
+    private PayTable gameTable;
+
+    /** true once the hands of the current game have been drawn */
+    private boolean drawn;
+
+    /** The current number of points */
+    private int points;
+
+    /**
+     * Constructor for a game with the default pay table
+     * @param seed for the seed for testing, or VideoPoker.RANDOM_GAME for a random game
+     * @param hands for the number of hands played each game
+     * @throws IllegalArgumentException if hands is not from 1 to HUNDRED_PLAY
+     */
+    public MultiHandVideoPoker(int seed, int hands) {
+        this(seed, hands, PayTable.DEFAULT);
+    }
+
+    /**
+     * Constructor for a game
+     * @param seed for the seed for testing, or VideoPoker.RANDOM_GAME for a random game
+     * @param hands for the number of hands played each game
+     * @param payTable for the pay table
+     * @throws IllegalArgumentException if hands is not from 1 to HUNDRED_PLAY or payTable
+     * is null
+     */
+    public MultiHandVideoPoker(int seed, int hands, PayTable payTable) {
+        if (hands < 1 || hands > HUNDRED_PLAY) {
+            throw new IllegalArgumentException("Invalid hands");
+        }
+        setPayTable(payTable);
+        this.hands = hands;
+        if (seed != VideoPoker.RANDOM_GAME) {
+            this.random = ShuffleAlgorithm.DEFAULT.create(seed);
+        } else {
+            this.random = ShuffleAlgorithm.DEFAULT.create();
+        }
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = i;
+        }
+        this.finalCodes = new int[hands * VideoPoker.CARDS_IN_HAND];
+        this.categories = new int[hands];
+        this.points = VideoPoker.STARTING_POINTS;
+    }
+
+    /**
+     * Returns the number of hands played each game
+     * @return the number of hands
+     */
+    public int getHands() {
+        return hands;
+    }
+
+    /**
+     * Returns the current number of points
+     * @return the number of points
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns the pay table the next game will be played with
+     * @return the pay table
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+
+    /**
+     * Replaces the pay table. The game in progress is paid by the table it started with.
+     * @param payTable for the new pay table
+     * @throws IllegalArgumentException if payTable is null
+     */
+    public void setPayTable(PayTable payTable) {
+        if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        }
+        this.payTable = payTable;
+    }
+
+    /**
+     * Starts a game: takes the cost of every hand from the points and deals the hand the
+     * player holds from
+     */
+    public void newGame() {
+        gameTable = payTable;
+        points -= gameTable.getCost() * hands;
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            swap(i, i + random.nextInt(cards.length - i));
+        }
+        drawn = false;
+    }
+
+    /**
+     * Returns the code of a dealt card
+     * @param index for the position of the card in the dealt hand
+     * @return the code of the card
+     * @throws IllegalArgumentException if index is invalid
+     * @throws IllegalStateException if no game has been dealt
+     */
+    public int getDealtCode(int index) {
+        if (gameTable == null) {
+            throw new IllegalStateException("No game");
+        } else if (index < 0 || index >= VideoPoker.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        return cards[index];
+    }
+
+    /**
+     * Holds the given cards in every hand, draws the replacements of each hand and pays for
+     * every final hand
+     * @param holdMask for the held cards, with bit i set when card i is held
+     * @return the points paid for all of the hands
+     * @throws IllegalArgumentException if holdMask is invalid
+     * @throws IllegalStateException if no game has been dealt, or it has already been drawn
+     */
+    public int draw(int holdMask) {
+        if (gameTable == null || drawn) {
+            throw new IllegalStateException("No game");
+        } else if (holdMask < 0 || holdMask > HOLD_ALL) {
+            throw new IllegalArgumentException("Invalid hold mask");
+        }
+        for (int hand = 0, base = 0; hand < hands; hand++, base += VideoPoker.CARDS_IN_HAND) {
+            int next = VideoPoker.CARDS_IN_HAND;
+            for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+                if ((holdMask & (1 << i)) != 0) {
+                    finalCodes[base + i] = cards[i];
+                } else {
+                    swap(next, next + random.nextInt(cards.length - next));
+                    finalCodes[base + i] = cards[next++];
+                }
+            }
+        }
+        HandBatchEvaluator.categorize(finalCodes, categories);
+        int paid = 0;
+        for (int hand = 0; hand < hands; hand++) {
+            paid += gameTable.getPayout(categories[hand]);
+        }
+        points += paid;
+        drawn = true;
+        return paid;
+    }
+
+    /**
+     * Returns the code of a card in a final hand
+     * @param hand for the index of the hand
+     * @param index for the position of the card in the hand
+     * @return the code of the card
+     * @throws IllegalArgumentException if hand or index is invalid
+     * @throws IllegalStateException if the hands have not been drawn
+     */
+    public int getFinalCode(int hand, int index) {
+        checkDrawn(hand);
+        if (index < 0 || index >= VideoPoker.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        return finalCodes[hand * VideoPoker.CARDS_IN_HAND + index];
+    }
+
+    /**
+     * Returns the category of a final hand
+     * @param hand for the index of the hand
+     * @return the category of the hand
+     * @throws IllegalArgumentException if hand is invalid
+     * @throws IllegalStateException if the hands have not been drawn
+     */
+    public HandCategory getCategory(int hand) {
+        checkDrawn(hand);
+        return HandCategory.fromCode(categories[hand]);
+    }
+
+    /**
+     * Counts the final hands of each category
+     * @return the number of hands in each category, indexed by HandCategory ordinal
+     * @throws IllegalStateException if the hands have not been drawn
+     */
+    public int[] getCategoryCounts() {
+        if (!drawn) {
+            throw new IllegalStateException("Not drawn");
+        }
+        int[] counts = new int[HandEvaluator.CATEGORIES];
+        for (int hand = 0; hand < hands; hand++) {
+            counts[categories[hand]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Checks that the hands have been drawn and a hand index is valid
+     * @param hand for the index of the hand
+     * @throws IllegalArgumentException if hand is invalid
+     * @throws IllegalStateException if the hands have not been drawn
+     */
+    private void checkDrawn(int hand) {
+        if (!drawn) {
+            throw new IllegalStateException("Not drawn");
+        } else if (hand < 0 || hand >= hands) {
+            throw new IllegalArgumentException("Invalid hand");
+        }
+    }
+
+    /**
+     * Swaps two entries of the deck
+     * @param i for the first position
+     * @param j for the second position
+     */
+    private void swap(int i, int j) {
+        int temp = cards[i];
+        cards[i] = cards[j];
+        cards[j] = temp;
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * An immutable pay schedule: the points needed to play a game and the points awarded for
+ * each hand category, held in an array indexed by HandCategory ordinal. Tables are loaded
+ * from properties files such as those in the paytables directory, for example
+ *
+ * <pre>
+ * name=Default
+ * cost=10
+ * ROYAL_FLUSH=100
+ * ONE_PAIR=7
+ * </pre>
+ *
+ * where every category key is the name of a HandCategory. A file must list every category, so
+ * a file read while it is still being written is rejected rather than paying nothing for the
+ * categories not yet written. Properties built in code may leave categories out, and those
+ * pay nothing. As a table never changes once built, it can be shared by any number of games
+ * and threads, and a game switches schedules by replacing its reference to the table.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class PayTable {
+
+    /** Directory the bundled pay tables are kept in */
+    public static final String DIRECTORY = "paytables";
+
+    /** Property holding the name of the table */
+    public static final String NAME_KEY = "name";
+
+    /** Property holding the points needed to play a game */
+    public static final String COST_KEY = "cost";
+
+    /** Greatest tag of a table, the most a journal record's byte holds */
+    public static final int MAX_TAG = 255;
+
+    /** The pay table VideoPoker has always used */
+    public static final PayTable DEFAULT = new PayTable("Default",
+        VideoPoker.POINTS_FOR_NEW_GAME, new int[] {0, VideoPoker.ONE_PAIR,
+        VideoPoker.TWO_PAIRS, VideoPoker.THREE_OF_A_KIND, VideoPoker.STRAIGHT, VideoPoker.FLUSH,
+        VideoPoker.FULL_HOUSE, VideoPoker.FOUR_OF_A_KIND, VideoPoker.STRAIGHT_FLUSH,
+        VideoPoker.ROYAL_FLUSH});
+
+    /** Name of the table */
+    private final String name;
+
+    /** Points needed to play a game */
+    private final int cost;
+
+    /** Points awarded for each category, indexed by HandCategory ordinal */
+    private final int[] payouts;
+
+    /** Tag identifying the cost and payouts in a journal, from 1 to MAX_TAG */
+    private final int tag;
+
+    /**
+     * Constructor for a pay table
+     * @param name for the name of the table
+     * @param cost for the points needed to play a game
+     * @param payouts for the points awarded for each category, indexed by HandCategory
+     * ordinal
+     * @throws IllegalArgumentException if name or payouts is null, cost is not positive,
+     * payouts does not hold one value per category or any payout is negative
+     */
+    public PayTable(String name, int cost, int[] payouts) {
+        if (name == null) {
+            throw new IllegalArgumentException("Null name");
+        } else if (payouts == null) {
+            throw new IllegalArgumentException("Null payouts");
+        } else if (payouts.length != HandEvaluator.CATEGORIES) {
+            throw new IllegalArgumentException("Invalid payouts length");
+        } else if (cost <= 0) {
+            throw new IllegalArgumentException("Invalid cost");
+        }
+        for (int payout : payouts) {
+            if (payout < 0) {
+                throw new IllegalArgumentException("Invalid payout");
+            }
+        }
+        this.name = name;
+        this.cost = cost;
+        this.payouts = Arrays.copyOf(payouts, payouts.length);
+        ByteBuffer bytes = ByteBuffer.allocate((payouts.length + 1) * Integer.BYTES);
+        bytes.putInt(cost);
+        for (int payout : payouts) {
+            bytes.putInt(payout);
+        }
+        bytes.flip();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        this.tag = 1 + (int) (crc.getValue() % MAX_TAG);
+    }
+
+    /**
+     * Builds a pay table from properties
+     * @param properties for the name, cost and category payouts
+     * @return the pay table
+     * @throws IllegalArgumentException if properties is null, a key is not known, a number
+     * cannot be read, or the cost or a payout is invalid
+     */
+    public static PayTable fromProperties(Properties properties) {
+        return fromProperties(properties, false);
+    }
+
+    /**
+     * Builds a pay table from properties, optionally requiring every category to be listed
+     * @param properties for the name, cost and category payouts
+     * @param complete for true if every category must have a payout
+     * @return the pay table
+     * @throws IllegalArgumentException if properties is null, a key is not known, a number
+     * cannot be read, the cost or a payout is invalid, or a payout is missing when complete
+     */
+    private static PayTable fromProperties(Properties properties, boolean complete) {
+        if (properties == null) {
+            throw new IllegalArgumentException("Null properties");
+        }
+        int[] payouts = new int[HandEvaluator.CATEGORIES];
+        int listed = 0;
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.equals(NAME_KEY) && !key.equals(COST_KEY)) {
+                payouts[category(key).ordinal()] =
+                    parse(properties.getProperty(key), "Invalid payout");
+                listed++;
+            }
+        }
+        if (complete && listed != HandEvaluator.CATEGORIES) {
+            throw new IllegalArgumentException("Missing payout");
+        }
+        String cost = properties.getProperty(COST_KEY);
+        if (cost == null) {
+            throw new IllegalArgumentException("Missing cost");
+        }
+        return new PayTable(properties.getProperty(NAME_KEY, ""), parse(cost, "Invalid cost"),
+                            payouts);
+    }
+
+    /**
+     * Returns the category a property key names
+     * @param key for the key, the name of a HandCategory
+     * @return the category
+     * @throws IllegalArgumentException if key does not name a category
+     */
+    private static HandCategory category(String key) {
+        for (HandCategory category : HandCategory.values()) {
+            if (category.name().equals(key)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown key");
+    }
+
+    /**
+     * Reads a whole number from a property
+     * @param value for the property value
+     * @param message for the message of the exception thrown if it is not a number
+     * @return the number
+     * @throws IllegalArgumentException if value is not a number
+     */
+    private static int parse(String value, String message) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Loads a pay table from a properties file
+     * @param file for the file to be read
+     * @return the pay table
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file does not hold a valid table listing every
+     * category
+     */
+    public static PayTable load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        return fromProperties(properties, true);
+    }
+
+    /**
+     * Returns the name of the table
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the points needed to play a game
+     * @return the cost of a game
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns a one byte tag derived from the cost and payouts, which GameJournal records
+     * with each deal so a replay knows which table the game was played with. Tables that
+     * pay the same have the same tag, and different tables rarely share one.
+     * @return the tag, from 1 to MAX_TAG
+     */
+    public int getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns the points awarded for a category
+     * @param category for the category
+     * @return the points awarded
+     * @throws IllegalArgumentException if category is null
+     */
+    public int getPayout(HandCategory category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Null category");
+        }
+        return payouts[category.ordinal()];
+    }
+
+    /**
+     * Returns the points awarded for a category code
+     * @param category for the category, from HandEvaluator.NO_PAIR to
+     * HandEvaluator.ROYAL_FLUSH
+     * @return the points awarded
+     * @throws IllegalArgumentException if category is invalid
+     */
+    public int getPayout(int category) {
+        if (category < 0 || category >= payouts.length) {
+            throw new IllegalArgumentException("Invalid category");
+        }
+        return payouts[category];
+    }
+
+    /**
+     * Returns a copy of the payouts
+     * @return the points awarded for each category, indexed by HandCategory ordinal
+     */
+    public int[] getPayouts() {
+        return Arrays.copyOf(payouts, payouts.length);
+    }
+
+    /**
+     * Checks whether two tables have the same name, cost and payouts
+     * @param o the other object to be compared
+     * @return true if the tables are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PayTable)) {
+            return false;
+        }
+        PayTable other = (PayTable) o;
+        return name.equals(other.name) && cost == other.cost
+            && Arrays.equals(payouts, other.payouts);
+    }
+
+    /**
+     * Returns a hash code consistent with equals()
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, cost, Arrays.hashCode(payouts));
+    }
+
+    /**
+     * Returns the name and cost of the table
+     * @return the description of the table
+     */
+    @Override
+    public String toString() {
+        return name + " (cost " + cost + ")";
+    }
+}
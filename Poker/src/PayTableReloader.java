@@ -0,0 +1,155 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a pay table file and reloads it whenever it changes, so pay schedules can be
+ * edited while games are running. Each table that loads successfully is published through a
+ * volatile reference and passed to a listener, typically one that calls
+ * VideoPoker.setPayTable(). A file that cannot be read or does not hold a valid table is
+ * ignored, and the last good table stays in use.
+ *
+ * Change events fire while a file is still being written, so the file is only reloaded once
+ * SETTLE_MILLIS pass with no further change, and PayTable.load() rejects a file missing any
+ * category. Writing the new table to another file and renaming it over the old one is safest.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class PayTableReloader implements Closeable {
+
+    /** Time the file must go unchanged before it is reloaded */
+    public static final long SETTLE_MILLIS = 100;
+
+    /** File holding the pay table */
+    private final Path file;
+
+    /** Called with every table that is loaded */
+    private final Consumer<PayTable> listener;
+
+    /** Last table loaded successfully */
+    private volatile PayTable current;
+
+    /** Why the last attempt to reload failed, or null if it succeeded */
+    private volatile Exception lastError;
+
+    /** Service watching the file's directory, or null if not started */
+    private WatchService watcher;
+
+    /** Thread waiting for changes, or null if not started */
+    private Thread thread;
+
+    /**
+     * Constructor for the reloader, which loads the table and passes it to the listener
+     * @param file for the file holding the pay table
+     * @param listener for the listener called with every table that is loaded
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if file or listener is null, or the file does not
+     * hold a valid table
+     */
+    public PayTableReloader(Path file, Consumer<PayTable> listener) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Null file");
+        } else if (listener == null) {
+            throw new IllegalArgumentException("Null listener");
+        }
+        this.file = file.toAbsolutePath();
+        this.listener = listener;
+        this.current = PayTable.load(this.file);
+        listener.accept(current);
+    }
+
+    /**
+     * Starts watching the file on a daemon thread
+     * @throws IOException if the file's directory cannot be watched
+     * @throws IllegalStateException if the reloader has already been started
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            throw new IllegalStateException("Already started");
+        }
+        watcher = file.getFileSystem().newWatchService();
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                  StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "pay-table-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for changes to the file until the reloader is closed
+     */
+    private void watch() {
+        try {
+            boolean changed = false;
+            while (true) {
+                WatchKey key = changed ? watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)
+                    : watcher.take();
+                if (key == null) {
+                    // The file has stopped changing
+                    changed = false;
+                    reload();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context())
+                        || event.kind() == StandardWatchEventKinds.OVERFLOW;
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Loads the file now, publishing the table if it is valid and differs from the current
+     * one
+     * @return true if the file held a valid table
+     */
+    public synchronized boolean reload() {
+        PayTable table;
+        try {
+            table = PayTable.load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            lastError = e;
+            return false;
+        }
+        lastError = null;
+        if (!table.equals(current)) {
+            current = table;
+            listener.accept(table);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the last table loaded successfully
+     * @return the current table
+     */
+    public PayTable getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns why the last reload failed
+     * @return the exception, or null if the last reload succeeded
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Stops watching the file
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            thread.interrupt();
+        }
+    }
+}
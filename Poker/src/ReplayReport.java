@@ -0,0 +1,155 @@
+import java.util.*;
+
+/**
+ * Outcome of verifying a journal with GameReplayer: how many games replayed exactly, how
+ * many differed from their records, and descriptions of the first differences found. A
+ * report is filled in by a single worker thread and merged with the reports of other
+ * workers once they finish.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class ReplayReport {
+
+    /** Most differences described */
+    public static final int MAX_MESSAGES = 10;
+
+    /** Number of records checked */
+    private long records;
+
+    /** Number of games whose every record matched the replay */
+    private long verifiedGames;
+
+    /** Number of games with at least one record not matching the replay */
+    private long failedGames;
+
+    /** Number of games dealt but never scored */
+    private long unfinishedGames;
+
+    /** Number of records not matching the replay */
+    private long mismatches;
+
+    /** Descriptions of the first differences */
+    private List<String> messages = new ArrayList<String>();
+
+    /**
+     * Records that a record was checked
+     */
+    void recordChecked() {
+        records++;
+    }
+
+    /**
+     * Records a game that was scored
+     * @param failed for true if any of its records did not match
+     */
+    void recordGame(boolean failed) {
+        if (failed) {
+            failedGames++;
+        } else {
+            verifiedGames++;
+        }
+    }
+
+    /**
+     * Records a game that was dealt but never scored
+     */
+    void recordUnfinished() {
+        unfinishedGames++;
+    }
+
+    /**
+     * Records a record that did not match the replay
+     * @param session for the session of the record
+     * @param game for the game number of the record
+     * @param message for what differed
+     */
+    void recordMismatch(long session, int game, String message) {
+        mismatches++;
+        if (messages.size() < MAX_MESSAGES) {
+            messages.add("Session " + session + " game " + game + ": " + message);
+        }
+    }
+
+    /**
+     * Adds the tallies of another report to this one
+     * @param other for the report to be added
+     */
+    void merge(ReplayReport other) {
+        records += other.records;
+        verifiedGames += other.verifiedGames;
+        failedGames += other.failedGames;
+        unfinishedGames += other.unfinishedGames;
+        mismatches += other.mismatches;
+        for (String message : other.messages) {
+            if (messages.size() < MAX_MESSAGES) {
+                messages.add(message);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records checked
+     * @return the number of records
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the number of games whose every record matched the replay
+     * @return the number of games
+     */
+    public long getVerifiedGames() {
+        return verifiedGames;
+    }
+
+    /**
+     * Returns the number of games with at least one record not matching the replay
+     * @return the number of games
+     */
+    public long getFailedGames() {
+        return failedGames;
+    }
+
+    /**
+     * Returns the number of games dealt but never scored
+     * @return the number of games
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * Returns the number of records not matching the replay
+     * @return the number of records
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Returns descriptions of the first differences, at most MAX_MESSAGES
+     * @return an unmodifiable list of the descriptions
+     */
+    public List<String> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Returns whether every record matched the replay
+     * @return true if there were no mismatches
+     */
+    public boolean isVerified() {
+        return mismatches == 0;
+    }
+
+    /**
+     * Returns a summary of the report
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return records + " records, " + verifiedGames + " games verified, " + failedGames
+            + " failed, " + unfinishedGames + " unfinished, " + mismatches + " mismatches";
+    }
+}
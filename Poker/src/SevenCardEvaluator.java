@@ -0,0 +1,444 @@
+import java.util.*;
+
+/**
+ * Evaluates seven card Texas Hold'em holdings, two hole cards and five board cards, in a
+ * single pass without looking at the 21 five card hands they contain. The best five card
+ * hand is found from two precomputed tables:
+ *
+ * A flush is spotted by adding a four bit counter per suit for each card: a suit with five
+ * or more cards sets the top bit of its counter once three is added to every counter. With
+ * seven cards a flush rules out four of a kind and a full house, so it is scored with one
+ * lookup of the 13 bit mask of its suit's values.
+ *
+ * Anything else depends only on how many cards of each value are held. Every value is given
+ * a rank key chosen so that the sum of the keys of any seven values is unique, and that sum
+ * is looked up through a row displacement perfect hash: the high bits of the sum pick a row
+ * offset, and the offset plus the low bits index a small table holding a value for each of
+ * the RANK_COMBINATIONS combinations of seven values.
+ *
+ * Results are on the same scale as HandEvaluator, the category in the high bits and the
+ * values of the best five cards below it, so a greater result is a stronger holding and a
+ * seven card result can be compared with a five card one. Unlike video poker, Hold'em lets
+ * the ace play low in A-2-3-4-5, so that wheel is a five high straight, or straight flush,
+ * valued with the ace as one, below every other straight.
+ * @author William Morgan
+ * @version 1.0
+ */
+public final class SevenCardEvaluator {
+
+    /** Number of cards in a holding */
+    public static final int CARDS = 7;
+
+    /**
+     * Rank key for each card value, indexed by value minus the lowest value. The sums of
+     * the keys of every combination of up to seven values are distinct.
+     */
+    private static final int[] RANK_KEYS = {0, 1, 5, 22, 98, 453, 2031, 8698, 22854, 83661,
+                                            262349, 636345, 1479181};
+
+    /** Number of combinations of seven values with no value held more than four times */
+    public static final int RANK_COMBINATIONS = 49205;
+
+    /** Number of low bits of a key sum that index within a row of the perfect hash */
+    private static final int COLUMN_BITS = 9;
+
+    /** Mask of the low bits of a key sum that index within a row */
+    private static final int COLUMN_MASK = (1 << COLUMN_BITS) - 1;
+
+    /** Mask of the bits used by one suit within a card mask */
+    private static final int SUIT_MASK = (1 << Card.VALUES) - 1;
+
+    /** Three added to every four bit suit counter, so a count of five or more sets bit 3 */
+    private static final int FLUSH_ADD = 0x3333;
+
+    /** Top bit of every four bit suit counter */
+    private static final int FLUSH_BITS = 0x8888;
+
+    /** Card values of A-2-3-4-5 as HandEvaluator values them, the ace high */
+    private static final int ACE_HIGH_WHEEL = 0xE5432;
+
+    /** Card values of A-2-3-4-5 as a five high straight, the ace counted as one */
+    private static final int WHEEL = 0x54321;
+
+    /** Mask of the card values below the category of an evaluated value */
+    private static final int VALUES_MASK = (1 << HandEvaluator.CATEGORY_SHIFT) - 1;
+
+    /** Start of each row of the perfect hash within RANK_VALUES, indexed by key sum row */
+    private static final int[] ROW_OFFSETS;
+
+    /** Evaluated value of each holding that is not a flush, indexed through ROW_OFFSETS */
+    private static final int[] RANK_VALUES;
+
+    /** Evaluated value of the best five cards of each flush, indexed by its value mask */
+    private static final int[] FLUSH_VALUES = new int[1 << Card.VALUES];
+
+    /** Codes of the cards of a combination of values, reused while the tables are built */
+    private static final int[] CODES = new int[CARDS];
+
+    /**
+     * Rank key of each card code in the low 32 bits, and its suit counter increment, one in
+     * the four bits of its suit, in the high 32 bits. Neither half of a sum of seven can
+     * carry into the other, so one addition per card tallies both.
+     */
+    private static final long[] CODE_KEYS = new long[Card.CODES];
+
+    static {
+        for (int code = 0; code < Card.CODES; code++) {
+            CODE_KEYS[code] = (long) 1 << (4 * Card.codeSuitIndex(code)) << Integer.SIZE
+                | RANK_KEYS[Card.codeValue(code) - Card.LOWEST_VALUE];
+        }
+        int[] keys = new int[RANK_COMBINATIONS];
+        int[] values = new int[keys.length];
+        int found = buildRankValues(new int[Card.VALUES], 0, CARDS, keys, values, 0);
+        if (found != keys.length) {
+            throw new IllegalStateException("Invalid rank combinations");
+        }
+        ROW_OFFSETS = new int[(RANK_KEYS[Card.VALUES - 1] * 4 + RANK_KEYS[Card.VALUES - 2] * 3
+                               >>> COLUMN_BITS) + 1];
+        RANK_VALUES = buildPerfectHash(keys, values);
+        for (int mask = 0; mask < FLUSH_VALUES.length; mask++) {
+            if (Integer.bitCount(mask) >= Hand.CARDS_IN_HAND) {
+                FLUSH_VALUES[mask] = bestFlush(mask);
+            }
+        }
+    }
+
+    /**
+     * Private constructor as the class only holds static lookup tables
+     */
+    private SevenCardEvaluator() {
+    }
+
+    /**
+     * Evaluates the given seven cards
+     * @param cards for the cards to be evaluated
+     * @return the evaluated value of the best five of the cards
+     * @throws IllegalArgumentException if the array or any card is null, if the array does
+     * not hold seven cards, or if a card appears twice
+     */
+    public static int evaluate(Card[] cards) {
+        if (cards == null) {
+            throw new IllegalArgumentException("Null array");
+        } else if (cards.length != CARDS) {
+            throw new IllegalArgumentException("Invalid array length");
+        }
+        long mask = 0;
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] == null) {
+                throw new IllegalArgumentException("Null element");
+            }
+            mask |= 1L << cards[i].getCode();
+        }
+        if (Long.bitCount(mask) != CARDS) {
+            throw new IllegalArgumentException("Duplicate card");
+        }
+        return evaluate(cards[0].getCode(), cards[1].getCode(), cards[2].getCode(),
+                        cards[3].getCode(), cards[4].getCode(), cards[5].getCode(),
+                        cards[6].getCode());
+    }
+
+    /**
+     * Evaluates the seven different cards with the given codes. The codes are not checked,
+     * and no objects are created.
+     * @param c1 for the code of the first card
+     * @param c2 for the code of the second card
+     * @param c3 for the code of the third card
+     * @param c4 for the code of the fourth card
+     * @param c5 for the code of the fifth card
+     * @param c6 for the code of the sixth card
+     * @param c7 for the code of the seventh card
+     * @return the evaluated value of the best five of the cards
+     */
+    public static int evaluate(int c1, int c2, int c3, int c4, int c5, int c6, int c7) {
+        long sum = CODE_KEYS[c1] + CODE_KEYS[c2] + CODE_KEYS[c3] + CODE_KEYS[c4]
+            + CODE_KEYS[c5] + CODE_KEYS[c6] + CODE_KEYS[c7];
+        int flushSuits = (int) (sum >>> Integer.SIZE) + FLUSH_ADD & FLUSH_BITS;
+        if (flushSuits != 0) {
+            long mask = 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4 | 1L << c5 | 1L << c6
+                | 1L << c7;
+            return flushValue(mask, flushSuits);
+        }
+        int key = (int) sum;
+        return RANK_VALUES[ROW_OFFSETS[key >>> COLUMN_BITS] + (key & COLUMN_MASK)];
+    }
+
+    /**
+     * Evaluates the seven cards in a card mask. The mask is not checked.
+     * @param mask for the card mask, with bit n set when the card with code n is held
+     * @return the evaluated value of the best five of the cards
+     */
+    public static int evaluateMask(long mask) {
+        long sum = 0;
+        for (long cards = mask; cards != 0; cards &= cards - 1) {
+            sum += CODE_KEYS[Long.numberOfTrailingZeros(cards)];
+        }
+        return evaluateKeys(sum, mask);
+    }
+
+    /**
+     * Returns the key a card adds to a holding's key sum
+     * @param code for the code of the card
+     * @return the key of the card
+     * @throws IllegalArgumentException if code is invalid
+     */
+    public static long cardKey(int code) {
+        if (code < 0 || code >= Card.CODES) {
+            throw new IllegalArgumentException("Invalid code");
+        }
+        return CODE_KEYS[code];
+    }
+
+    /**
+     * Evaluates seven cards from the sum of their keys and their mask. Cards shared between
+     * holdings, like a board, can have their keys added once and reused for each holding.
+     * Neither argument is checked.
+     * @param keySum for the sum of cardKey() of the seven cards
+     * @param mask for the card mask of the seven cards
+     * @return the evaluated value of the best five of the cards
+     */
+    public static int evaluateKeys(long keySum, long mask) {
+        int flushSuits = (int) (keySum >>> Integer.SIZE) + FLUSH_ADD & FLUSH_BITS;
+        if (flushSuits != 0) {
+            return flushValue(mask, flushSuits);
+        }
+        int key = (int) keySum;
+        return RANK_VALUES[ROW_OFFSETS[key >>> COLUMN_BITS] + (key & COLUMN_MASK)];
+    }
+
+    /**
+     * Returns the category held in an evaluated value
+     * @param value for the evaluated value
+     * @return the category of the value, from HandEvaluator.NO_PAIR to
+     * HandEvaluator.ROYAL_FLUSH
+     */
+    public static int getCategory(int value) {
+        return HandEvaluator.getCategory(value);
+    }
+
+    /**
+     * Looks up the value of a flush
+     * @param mask for the card mask of the holding
+     * @param flushSuits for the suit counters with the top bit set for the flush suit
+     * @return the evaluated value of the best five cards of the flush suit
+     */
+    private static int flushValue(long mask, int flushSuits) {
+        int suit = Integer.numberOfTrailingZeros(flushSuits) >>> 2;
+        return FLUSH_VALUES[(int) (mask >>> (suit * Card.VALUES)) & SUIT_MASK];
+    }
+
+    /**
+     * Visits every combination of seven card values, recording its key sum and the value of
+     * its best five cards. This is only used while the tables are built.
+     * @param counts for the number of cards with each value chosen so far
+     * @param index for the first value that may still be chosen
+     * @param remaining for the number of cards still to be chosen
+     * @param keys for the key sums found, filled from found
+     * @param values for the value of each key sum found
+     * @param found for the number of combinations found so far
+     * @return the number of combinations found once this one is finished
+     */
+    private static int buildRankValues(int[] counts, int index, int remaining, int[] keys,
+                                       int[] values, int found) {
+        if (remaining == 0) {
+            int keySum = 0;
+            int[] codes = CODES;
+            int card = 0;
+            for (int i = 0; i < Card.VALUES; i++) {
+                keySum += counts[i] * RANK_KEYS[i];
+                for (int j = 0; j < counts[i]; j++, card++) {
+                    // Dealing suits in turn leaves no five cards of one suit
+                    codes[card] = card % Card.SUITS * Card.VALUES + i;
+                }
+            }
+            keys[found] = keySum;
+            values[found] = bestOfFive(codes);
+            return found + 1;
+        } else if (index == Card.VALUES) {
+            return found;
+        }
+        int most = Math.min(remaining, Card.SUITS);
+        for (int count = 0; count <= most; count++) {
+            counts[index] = count;
+            found = buildRankValues(counts, index + 1, remaining - count, keys, values, found);
+        }
+        counts[index] = 0;
+        return found;
+    }
+
+    /**
+     * Packs the key sums into a small table. Rows are placed fullest first, each at the
+     * lowest offset, no lower than the previous row's, where none of its key sums lands on a
+     * used slot. Searching on from the previous row rather than from the start leaves the
+     * table about half again as large as it could be, but builds it in a fraction of the
+     * time.
+     * @param keys for the key sums
+     * @param values for the value of each key sum
+     * @return the table of values, indexed through ROW_OFFSETS
+     * @throws IllegalStateException if two combinations share a key sum
+     */
+    private static int[] buildPerfectHash(int[] keys, int[] values) {
+        int rows = ROW_OFFSETS.length;
+        int[][] columns = new int[rows][];
+        int[] sizes = new int[rows];
+        for (int key : keys) {
+            sizes[key >>> COLUMN_BITS]++;
+        }
+        for (int row = 0; row < rows; row++) {
+            columns[row] = new int[sizes[row]];
+            sizes[row] = 0;
+        }
+        for (int key : keys) {
+            int row = key >>> COLUMN_BITS;
+            columns[row][sizes[row]++] = key & COLUMN_MASK;
+        }
+        Integer[] order = new Integer[rows];
+        for (int row = 0; row < rows; row++) {
+            order[row] = row;
+        }
+        Arrays.sort(order, (a, b) -> sizes[b] - sizes[a]);
+        // Slots are tested 64 at a time, the row's columns shifted against the used slots
+        long[] used = new long[RANK_COMBINATIONS >>> 5];
+        long[] pattern = new long[(1 << COLUMN_BITS) / Long.SIZE + 1];
+        int previous = 0;
+        int firstFree = 0;
+        int length = 0;
+        for (int row : order) {
+            if (sizes[row] == 0) {
+                break;
+            }
+            Arrays.fill(pattern, 0);
+            int lowest = COLUMN_MASK;
+            for (int column : columns[row]) {
+                pattern[column >>> 6] |= 1L << column;
+                lowest = Math.min(lowest, column);
+            }
+            // Every slot below the first free one is used, so the lowest column starts there
+            int offset = Math.max(firstFree - lowest, previous);
+            while (true) {
+                offset = nextClear(used, offset + lowest) - lowest;
+                if (offset + (1 << COLUMN_BITS) >= used.length * Long.SIZE - Long.SIZE) {
+                    used = Arrays.copyOf(used, used.length * 2);
+                }
+                if (!collides(used, pattern, offset)) {
+                    break;
+                }
+                offset++;
+            }
+            for (int column : columns[row]) {
+                int slot = offset + column;
+                used[slot >>> 6] |= 1L << slot;
+                length = Math.max(length, slot + 1);
+            }
+            ROW_OFFSETS[row] = offset;
+            previous = offset;
+            firstFree = nextClear(used, firstFree);
+        }
+        int[] table = new int[length];
+        for (int i = 0; i < keys.length; i++) {
+            int slot = ROW_OFFSETS[keys[i] >>> COLUMN_BITS] + (keys[i] & COLUMN_MASK);
+            if (table[slot] != 0) {
+                throw new IllegalStateException("Rank key collision");
+            }
+            table[slot] = values[i];
+        }
+        return table;
+    }
+
+    /**
+     * Returns the first clear bit at or after an index
+     * @param bits for the bits
+     * @param from for the index to start at
+     * @return the index of the first clear bit, which may be past the end of bits
+     */
+    private static int nextClear(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return from;
+        }
+        long free = ~bits[word] & -1L << from;
+        while (free == 0) {
+            if (++word == bits.length) {
+                return word * Long.SIZE;
+            }
+            free = ~bits[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(free);
+    }
+
+    /**
+     * Returns whether a row's columns placed at an offset land on any used slot
+     * @param used for the used slots, long enough to hold the row at the offset
+     * @param pattern for the row's columns
+     * @param offset for the offset of the row
+     * @return true if any column lands on a used slot
+     */
+    private static boolean collides(long[] used, long[] pattern, int offset) {
+        int word = offset >>> 6;
+        int shift = offset & 63;
+        for (int i = 0; i < pattern.length; i++) {
+            long bits = pattern[i];
+            if (bits == 0) {
+                continue;
+            }
+            long high = shift == 0 ? 0 : bits >>> (Long.SIZE - shift);
+            if ((used[word + i] & bits << shift | used[word + i + 1] & high) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the value of the best five card flush or straight flush in one suit
+     * @param mask for the value mask of the suit, holding five to seven values
+     * @return the evaluated value of the best five of the values
+     */
+    private static int bestFlush(int mask) {
+        int[] codes = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return bestOfFive(codes);
+    }
+
+    /**
+     * Finds the value of the best five cards among five to seven by trying every choice of
+     * five. This is only used while the tables are built so it favors clarity over speed.
+     * @param codes for the codes of the cards
+     * @return the evaluated value of the best five cards
+     */
+    private static int bestOfFive(int[] codes) {
+        int best = 0;
+        int n = codes.length;
+        int[] chosen = new int[Hand.CARDS_IN_HAND];
+        for (int skip = 0; skip < 1 << n; skip++) {
+            if (Integer.bitCount(skip) != n - Hand.CARDS_IN_HAND) {
+                continue;
+            }
+            for (int i = 0, j = 0; i < n; i++) {
+                if ((skip >>> i & 1) == 0) {
+                    chosen[j++] = codes[i];
+                }
+            }
+            best = Math.max(best, holdemValue(HandEvaluator.evaluate(chosen[0], chosen[1],
+                chosen[2], chosen[3], chosen[4])));
+        }
+        return best;
+    }
+
+    /**
+     * Rescores a five card value for Hold'em, where A-2-3-4-5 is a straight. HandEvaluator
+     * only counts the ace high, so it scores that hand as ace high, or an ace high flush.
+     * @param value for the five card value from HandEvaluator
+     * @return the value with a wheel scored as a five high straight or straight flush
+     */
+    private static int holdemValue(int value) {
+        if ((value & VALUES_MASK) != ACE_HIGH_WHEEL) {
+            return value;
+        }
+        int category = HandEvaluator.getCategory(value) == HandEvaluator.FLUSH
+            ? HandEvaluator.STRAIGHT_FLUSH : HandEvaluator.STRAIGHT;
+        return category << HandEvaluator.CATEGORY_SHIFT | WHEEL;
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Random number generator algorithms a Deck can be shuffled with. Each is created once per
+ * deck and then advanced by every shuffle, so a seeded deck deals a different but repeatable
+ * game each time it is shuffled.
+ * @author William Morgan
+ * @version 1.0
+ */
+public enum ShuffleAlgorithm {
+
+    /** SplitMix based generator, fast and splittable, and the default */
+    SPLITTABLE("SplittableRandom"),
+
+    /** Xoshiro256++, a small state generator with very good statistical quality */
+    XOSHIRO("Xoshiro256PlusPlus"),
+
+    /** LXM generator combining a 64 bit LCG with Xoroshiro128, with the strongest mixing */
+    L64X128("L64X128MixRandom"),
+
+    /** The synchronized LCG in java.util.Random, kept for comparison */
+    LEGACY("Random");
+
+    /** Algorithm used when none is given */
+    public static final ShuffleAlgorithm DEFAULT = SPLITTABLE;
+
+    /** Factory of the algorithm in the JDK random generator registry, looked up once */
+    private final RandomGeneratorFactory<RandomGenerator> factory;
+
+    /**
+     * Constructor for an algorithm
+     * @param algorithmName for the name of the algorithm in the JDK registry
+     */
+    ShuffleAlgorithm(String algorithmName) {
+        this.factory = RandomGeneratorFactory.of(algorithmName);
+    }
+
+    /**
+     * Creates a generator seeded with the given seed
+     * @param seed for the seed
+     * @return the generator
+     */
+    public RandomGenerator create(long seed) {
+        return factory.create(seed);
+    }
+
+    /**
+     * Creates a generator seeded from system entropy
+     * @return the generator
+     */
+    public RandomGenerator create() {
+        return factory.create();
+    }
+}
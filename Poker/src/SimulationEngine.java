@@ -0,0 +1,197 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays video poker rounds headlessly across several threads to measure how a pay table and
+ * hold policy perform. Each round follows VideoPoker: a new game is dealt, the policy picks
+ * the cards to hold, the rest are replaced and the hand is scored.
+ *
+ * Each worker owns its deck, its random number stream split from a single seeded root, and
+ * its own tallies, so workers share nothing while they run and never lock. Their tallies are
+ * merged once all have finished. A run with the same seed and number of workers always plays
+ * the same rounds.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class SimulationEngine {
+
+    /** Policy used to choose held cards */
+    private HoldPolicy policy;
+
+    /** Number of worker threads */
+    private int workers;
+
+    /** Pay table the rounds are played with */
+    private PayTable payTable;
+
+    /**
+     * Constructor for an engine with one worker per available processor
+     * @param policy for the policy used to choose held cards
+     * @throws IllegalArgumentException if policy is null
+     */
+    public SimulationEngine(HoldPolicy policy) {
+        this(policy, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the engine
+     * @param policy for the policy used to choose held cards
+     * @param workers for the number of worker threads
+     * @throws IllegalArgumentException if policy is null or workers is not positive
+     */
+    public SimulationEngine(HoldPolicy policy, int workers) {
+        this(policy, workers, PayTable.DEFAULT);
+    }
+
+    /**
+     * Constructor for an engine playing with the given pay table
+     * @param policy for the policy used to choose held cards
+     * @param workers for the number of worker threads
+     * @param payTable for the pay table
+     * @throws IllegalArgumentException if policy or payTable is null or workers is not
+     * positive
+     */
+    public SimulationEngine(HoldPolicy policy, int workers, PayTable payTable) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Null policy");
+        } else if (workers <= 0) {
+            throw new IllegalArgumentException("Invalid workers");
+        } else if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        }
+        this.policy = policy;
+        this.workers = workers;
+        this.payTable = payTable;
+    }
+
+    /**
+     * Plays the given number of rounds
+     * @param rounds for the number of rounds to play
+     * @param seed for the seed the workers' random number streams are split from
+     * @return the merged tallies of all workers
+     * @throws IllegalArgumentException if rounds is negative
+     * @throws IllegalStateException if a worker fails or the run is interrupted
+     */
+    public SimulationResult run(long rounds, long seed) {
+        if (rounds < 0) {
+            throw new IllegalArgumentException("Invalid rounds");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "simulation-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<Future<SimulationResult>>();
+            for (int i = 0; i < workers; i++) {
+                long share = rounds / workers + (i < rounds % workers ? 1 : 0);
+                futures.add(executor.submit(new Worker(policy, payTable, root.split(), share)));
+            }
+            SimulationResult result = new SimulationResult();
+            for (Future<SimulationResult> future : futures) {
+                result.merge(future.get());
+            }
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a share of the rounds with its own deck, random stream and tallies
+     */
+    private static class Worker implements Callable<SimulationResult> {
+
+        /** Policy used to choose held cards */
+        private final HoldPolicy policy;
+
+        /** Pay table the rounds are played with */
+        private final PayTable payTable;
+
+        /** Random number stream owned by this worker */
+        private final SplittableRandom random;
+
+        /** Number of rounds to play */
+        private final long rounds;
+
+        /**
+         * Constructor for the worker
+         * @param policy for the policy used to choose held cards
+         * @param payTable for the pay table the rounds are played with
+         * @param random for the worker's random number stream
+         * @param rounds for the number of rounds to play
+         */
+        Worker(HoldPolicy policy, PayTable payTable, SplittableRandom random, long rounds) {
+            this.policy = policy;
+            this.payTable = payTable;
+            this.random = random;
+            this.rounds = rounds;
+        }
+
+        /**
+         * Plays the rounds
+         * @return the tallies of the rounds played
+         */
+        @Override
+        public SimulationResult call() {
+            SimulationResult result = new SimulationResult();
+            Deck deck = new Deck(random, true);
+            int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+            for (long round = 0; round < rounds; round++) {
+                deck.shuffle();
+                for (int i = 0; i < codes.length; i++) {
+                    codes[i] = deck.nextCardCode();
+                }
+                int holdMask = policy.hold(codes);
+                for (int i = 0; i < codes.length; i++) {
+                    if ((holdMask & (1 << i)) == 0) {
+                        codes[i] = deck.nextCardCode();
+                    }
+                }
+                int category = HandEvaluator.getCategory(
+                    HandEvaluator.evaluate(codes[0], codes[1], codes[2], codes[3], codes[4]));
+                result.record(category, payTable.getCost(), payTable.getPayout(category));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Runs a simulation and prints its tallies
+     * @param args args[0] number of rounds, args[1] optional policy ("matches", "optimal"
+     * or "all"), args[2] optional seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java -cp bin SimulationEngine <rounds> "
+                               + "[matches|optimal|all] [seed]");
+            return;
+        }
+        long rounds = Long.parseLong(args[0]);
+        String policyName = args.length > 1 ? args[1] : "matches";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        HoldPolicy policy;
+        if (policyName.equals("optimal")) {
+            StrategySolver solver = StrategySolver.forVideoPoker();
+            solver.solve();
+            policy = HoldPolicy.optimal(solver);
+        } else if (policyName.equals("all")) {
+            policy = HoldPolicy.holdAll();
+        } else {
+            policy = HoldPolicy.holdMatches();
+        }
+        SimulationEngine engine = new SimulationEngine(policy);
+        long start = System.nanoTime();
+        SimulationResult result = engine.run(rounds, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(result);
+        System.out.printf(Locale.ROOT, "%.1f s, %.0f rounds/s on %d workers%n", seconds,
+                          rounds / seconds, engine.workers);
+    }
+}
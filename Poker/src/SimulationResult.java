@@ -0,0 +1,136 @@
+import java.util.*;
+
+/**
+ * Tallies of a video poker simulation: how often each hand category was scored and how many
+ * points were played and paid. A result is filled in by a single worker thread and merged
+ * with the results of other workers once they finish.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class SimulationResult {
+
+    /** Number of rounds played */
+    private long rounds;
+
+    /** Number of hands scored in each category */
+    private long[] categoryCounts = new long[HandEvaluator.CATEGORIES];
+
+    /** Points paid to play */
+    private long pointsWagered;
+
+    /** Points awarded for scored hands */
+    private long pointsPaid;
+
+    /**
+     * Records one round
+     * @param category for the category the final hand scored
+     * @param wagered for the points paid to play the round
+     * @param paid for the points awarded for the hand
+     */
+    void record(int category, int wagered, int paid) {
+        rounds++;
+        categoryCounts[category]++;
+        pointsWagered += wagered;
+        pointsPaid += paid;
+    }
+
+    /**
+     * Adds the tallies of another result to this one
+     * @param other for the result to be added
+     */
+    void merge(SimulationResult other) {
+        rounds += other.rounds;
+        for (int i = 0; i < categoryCounts.length; i++) {
+            categoryCounts[i] += other.categoryCounts[i];
+        }
+        pointsWagered += other.pointsWagered;
+        pointsPaid += other.pointsPaid;
+    }
+
+    /**
+     * Returns the number of rounds played
+     * @return the number of rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of hands scored in a category
+     * @param category for the category, from HandEvaluator.NO_PAIR to
+     * HandEvaluator.ROYAL_FLUSH
+     * @return the number of hands
+     * @throws IllegalArgumentException if category is invalid
+     */
+    public long getCount(int category) {
+        if (category < 0 || category >= categoryCounts.length) {
+            throw new IllegalArgumentException("Invalid category");
+        }
+        return categoryCounts[category];
+    }
+
+    /**
+     * Returns the number of hands scored in a category
+     * @param category for the category
+     * @return the number of hands
+     * @throws IllegalArgumentException if category is null
+     */
+    public long getCount(HandCategory category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Null category");
+        }
+        return categoryCounts[category.ordinal()];
+    }
+
+    /**
+     * Returns the share of rounds scored in a category
+     * @param category for the category, from HandEvaluator.NO_PAIR to
+     * HandEvaluator.ROYAL_FLUSH
+     * @return the share of rounds, from 0.0 to 1.0
+     * @throws IllegalArgumentException if category is invalid
+     */
+    public double getFrequency(int category) {
+        return rounds == 0 ? 0 : getCount(category) / (double) rounds;
+    }
+
+    /**
+     * Returns the points paid to play
+     * @return the points wagered
+     */
+    public long getPointsWagered() {
+        return pointsWagered;
+    }
+
+    /**
+     * Returns the points awarded for scored hands
+     * @return the points paid
+     */
+    public long getPointsPaid() {
+        return pointsPaid;
+    }
+
+    /**
+     * Returns the share of the points wagered that was paid back
+     * @return the return to player, where 1.0 means every point wagered was paid back
+     */
+    public double getReturnToPlayer() {
+        return pointsWagered == 0 ? 0 : pointsPaid / (double) pointsWagered;
+    }
+
+    /**
+     * Formats the tallies as a table of category frequencies followed by the point flow
+     * @return the report
+     */
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (int i = categoryCounts.length - 1; i >= 0; i--) {
+            report.append(String.format(Locale.ROOT, "%-16s %14d %10.6f%%%n",
+                                        HandCategory.fromCode(i), categoryCounts[i],
+                                        getFrequency(i) * 100));
+        }
+        report.append(String.format(Locale.ROOT, "Rounds %d, wagered %d, paid %d, "
+                                    + "return to player %.4f%%", rounds, pointsWagered,
+                                    pointsPaid, getReturnToPlayer() * 100));
+        return report.toString();
+    }
+}
@@ -0,0 +1,500 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes the expected payout of all 32 ways to hold cards for every starting hand of video
+ * poker, and from them the optimal strategy and the return to player of a pay table.
+ *
+ * Every draw outcome is counted exactly. Before solving, the category of all 2,598,960 hands
+ * is tallied into a histogram for each set of up to four cards, holding the categories of all
+ * hands that contain that set. The hands that can result from a hold are those containing the
+ * held cards but none of the discarded ones, and inclusion-exclusion over the discarded cards
+ * turns the histograms of the dealt cards' subsets into the outcome counts of all 32 holds at
+ * once.
+ *
+ * Deals that differ only by renaming suits have the same strategy, so only one canonical deal
+ * from each group is solved. A deal is canonical when its suits are ordered by their masks of
+ * values, largest first, which leaves 134,459 deals. They are solved in parallel with the
+ * fork/join common pool.
+ * @author William Morgan
+ * @version 1.0
+ */
+public class StrategySolver {
+
+    /** Number of distinct five card deals */
+    public static final int DEALS = 2598960;
+
+    /** Number of ways to hold the cards of a hand */
+    public static final int HOLDS = 1 << Hand.CARDS_IN_HAND;
+
+    /** Number of cards left in the deck after a hand is dealt */
+    public static final int CARDS_LEFT = Deck.CARDS_IN_DECK - Hand.CARDS_IN_HAND;
+
+    /** Number of canonical deals solved by a single fork/join task */
+    private static final int TASK_SIZE = 512;
+
+    /** Binomial coefficients, indexed by n and then k */
+    private static final int[][] BINOMIAL = new int[Deck.CARDS_IN_DECK + 1][HOLDS];
+
+    static {
+        for (int n = 0; n <= Deck.CARDS_IN_DECK; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, Hand.CARDS_IN_HAND); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    /** Points paid for each hand category */
+    private int[] payouts;
+
+    /** Points needed to play a game */
+    private int cost;
+
+    /** Card masks of the canonical deals, in increasing order */
+    private long[] deals;
+
+    /** Number of deals each canonical deal stands for */
+    private int[] weights;
+
+    /** Expected payout of each hold of each canonical deal */
+    private double[] expectedValues;
+
+    /** Best hold of each canonical deal, as a mask of positions in increasing code order */
+    private int[] bestHolds;
+
+    /**
+     * Constructor for the solver
+     * @param payouts for the points paid for each hand category, indexed from
+     * HandEvaluator.NO_PAIR to HandEvaluator.ROYAL_FLUSH
+     * @param cost for the points needed to play a game
+     * @throws IllegalArgumentException if payouts is null or the wrong length, or if cost is
+     * not positive
+     */
+    public StrategySolver(int[] payouts, int cost) {
+        if (payouts == null) {
+            throw new IllegalArgumentException("Null payouts");
+        } else if (payouts.length != HandEvaluator.CATEGORIES) {
+            throw new IllegalArgumentException("Invalid payouts length");
+        } else if (cost <= 0) {
+            throw new IllegalArgumentException("Invalid cost");
+        }
+        this.payouts = Arrays.copyOf(payouts, payouts.length);
+        this.cost = cost;
+    }
+
+    /**
+     * Creates a solver for the VideoPoker pay table
+     * @return the solver
+     */
+    public static StrategySolver forVideoPoker() {
+        return forPayTable(PayTable.DEFAULT);
+    }
+
+    /**
+     * Creates a solver for a pay table
+     * @param payTable for the pay table
+     * @return the solver
+     * @throws IllegalArgumentException if payTable is null
+     */
+    public static StrategySolver forPayTable(PayTable payTable) {
+        if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        }
+        return new StrategySolver(payTable.getPayouts(), payTable.getCost());
+    }
+
+    /**
+     * Solves every canonical deal. This takes several seconds and uses every core.
+     */
+    public void solve() {
+        findCanonicalDeals();
+        int[][] histograms = buildHistograms();
+        expectedValues = new double[deals.length * HOLDS];
+        bestHolds = new int[deals.length];
+        ForkJoinPool.commonPool().invoke(new SolveTask(histograms, 0, deals.length));
+    }
+
+    /**
+     * Returns the number of canonical deals
+     * @return the number of canonical deals
+     * @throws IllegalStateException if solve() has not been called
+     */
+    public int getCanonicalDeals() {
+        checkSolved();
+        return deals.length;
+    }
+
+    /**
+     * Returns the share of the points played that is paid back when every hand is played
+     * with its best hold
+     * @return the return to player, where 1.0 means every point played is paid back
+     * @throws IllegalStateException if solve() has not been called
+     */
+    public double getReturnToPlayer() {
+        checkSolved();
+        double total = 0;
+        for (int i = 0; i < deals.length; i++) {
+            total += weights[i] * expectedValues[i * HOLDS + bestHolds[i]];
+        }
+        return total / DEALS / cost;
+    }
+
+    /**
+     * Returns the expected payout of holding some of the given cards and drawing the rest
+     * @param codes for the codes of the five dealt cards
+     * @param holdMask for the held cards, with bit i set when codes[i] is held
+     * @return the expected number of points paid
+     * @throws IllegalArgumentException if the deal or hold mask is invalid
+     * @throws IllegalStateException if solve() has not been called
+     */
+    public double getExpectedValue(int[] codes, int holdMask) {
+        checkSolved();
+        if (holdMask < 0 || holdMask >= HOLDS) {
+            throw new IllegalArgumentException("Invalid hold mask");
+        }
+        int[] positions = new int[Hand.CARDS_IN_HAND];
+        int index = find(codes, positions);
+        int canonicalHold = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            if ((holdMask & (1 << i)) != 0) {
+                canonicalHold |= 1 << positions[i];
+            }
+        }
+        return expectedValues[index * HOLDS + canonicalHold];
+    }
+
+    /**
+     * Returns the hold with the greatest expected payout for the given cards
+     * @param codes for the codes of the five dealt cards
+     * @return the best hold, with bit i set when codes[i] should be held
+     * @throws IllegalArgumentException if the deal is invalid
+     * @throws IllegalStateException if solve() has not been called
+     */
+    public int getBestHold(int[] codes) {
+        checkSolved();
+        int[] positions = new int[Hand.CARDS_IN_HAND];
+        int canonicalHold = bestHolds[find(codes, positions)];
+        int holdMask = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            if ((canonicalHold & (1 << positions[i])) != 0) {
+                holdMask |= 1 << i;
+            }
+        }
+        return holdMask;
+    }
+
+    /**
+     * Writes the strategy as comma separated values: the canonical deal, the number of deals
+     * it stands for, the cards to hold and the expected payout of holding them
+     * @param file for the file to be written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if solve() has not been called
+     */
+    public void writeStrategy(Path file) throws IOException {
+        checkSolved();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("deal,weight,hold,expectedValue\n");
+            for (int i = 0; i < deals.length; i++) {
+                Hand hand = Hand.fromMask(deals[i]);
+                String held = "";
+                for (int p = 0; p < Hand.CARDS_IN_HAND; p++) {
+                    if ((bestHolds[i] & (1 << p)) != 0) {
+                        held += (held.isEmpty() ? "" : " ") + hand.getCard(p);
+                    }
+                }
+                out.write(hand.toString().replace(",", "") + "," + weights[i] + ",[" + held
+                          + "]," + String.format(Locale.ROOT, "%.6f",
+                                                 expectedValues[i * HOLDS + bestHolds[i]])
+                          + "\n");
+            }
+        }
+    }
+
+    /**
+     * Throws if the deals have not been solved
+     * @throws IllegalStateException if solve() has not been called
+     */
+    private void checkSolved() {
+        if (bestHolds == null) {
+            throw new IllegalStateException("Not solved");
+        }
+    }
+
+    /**
+     * Finds the canonical deal of the given cards and where each card lands in it
+     * @param codes for the codes of the five dealt cards
+     * @param positions for filling in the position of each card within the canonical deal
+     * @return the index of the canonical deal
+     * @throws IllegalArgumentException if the deal is invalid
+     */
+    private int find(int[] codes, int[] positions) {
+        if (codes == null || codes.length != Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid deal");
+        }
+        long mask = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] < 0 || codes[i] >= Card.CODES) {
+                throw new IllegalArgumentException("Invalid code");
+            }
+            mask |= 1L << codes[i];
+        }
+        if (Long.bitCount(mask) != Hand.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("Invalid deal");
+        }
+        int[] suitOrder = new int[Card.SUITS];
+        long canonical = canonicalize(mask, suitOrder);
+        for (int i = 0; i < codes.length; i++) {
+            int code = suitOrder[Card.codeSuitIndex(codes[i])] * Card.VALUES
+                + codes[i] % Card.VALUES;
+            positions[i] = Long.bitCount(canonical & ((1L << code) - 1));
+        }
+        return Arrays.binarySearch(deals, canonical);
+    }
+
+    /**
+     * Renames the suits of a card mask so that their value masks are in decreasing order
+     * @param mask for the card mask
+     * @param suitOrder for filling in the new index of each suit, or null
+     * @return the canonical card mask
+     */
+    static long canonicalize(long mask, int[] suitOrder) {
+        int[] suits = new int[Card.SUITS];
+        int[] values = new int[Card.SUITS];
+        for (int s = 0; s < Card.SUITS; s++) {
+            suits[s] = s;
+            values[s] = (int) (mask >>> (s * Card.VALUES)) & ((1 << Card.VALUES) - 1);
+        }
+        for (int i = 1; i < Card.SUITS; i++) {
+            for (int j = i; j > 0 && values[j] > values[j - 1]; j--) {
+                int temp = values[j];
+                values[j] = values[j - 1];
+                values[j - 1] = temp;
+                temp = suits[j];
+                suits[j] = suits[j - 1];
+                suits[j - 1] = temp;
+            }
+        }
+        long canonical = 0;
+        for (int s = 0; s < Card.SUITS; s++) {
+            canonical |= (long) values[s] << (s * Card.VALUES);
+            if (suitOrder != null) {
+                suitOrder[suits[s]] = s;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Finds every canonical deal and the number of deals that rename to it
+     */
+    private void findCanonicalDeals() {
+        long[] found = new long[DEALS];
+        int count = 0;
+        for (int a = 0; a < Card.CODES; a++) {
+            for (int b = a + 1; b < Card.CODES; b++) {
+                for (int c = b + 1; c < Card.CODES; c++) {
+                    for (int d = c + 1; d < Card.CODES; d++) {
+                        for (int e = d + 1; e < Card.CODES; e++) {
+                            long mask = (1L << a) | (1L << b) | (1L << c) | (1L << d)
+                                | (1L << e);
+                            if (canonicalize(mask, null) == mask) {
+                                found[count++] = mask;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        deals = Arrays.copyOf(found, count);
+        Arrays.sort(deals);
+        weights = new int[count];
+        for (int i = 0; i < count; i++) {
+            // A canonical deal stands for every distinct renaming of its suits, which is
+            // 4! divided by the ways to permute suits holding the same values
+            int same = 1;
+            int symmetries = 1;
+            for (int s = 1; s < Card.SUITS; s++) {
+                long previous = (deals[i] >>> ((s - 1) * Card.VALUES)) & ((1 << Card.VALUES) - 1);
+                long current = (deals[i] >>> (s * Card.VALUES)) & ((1 << Card.VALUES) - 1);
+                same = previous == current ? same + 1 : 1;
+                symmetries *= same;
+            }
+            weights[i] = 24 / symmetries;
+        }
+    }
+
+    /**
+     * Tallies the category of every hand into the histogram of each set of up to four of its
+     * cards
+     * @return the histograms for each set size, indexed by the set's combinatorial index
+     * times the number of categories plus the category
+     */
+    private static int[][] buildHistograms() {
+        int[][] histograms = new int[Hand.CARDS_IN_HAND][];
+        for (int k = 0; k < Hand.CARDS_IN_HAND; k++) {
+            histograms[k] = new int[BINOMIAL[Card.CODES][k] * HandEvaluator.CATEGORIES];
+        }
+        int[] cards = new int[Hand.CARDS_IN_HAND];
+        for (int a = 0; a < Card.CODES; a++) {
+            cards[0] = a;
+            for (int b = a + 1; b < Card.CODES; b++) {
+                cards[1] = b;
+                for (int c = b + 1; c < Card.CODES; c++) {
+                    cards[2] = c;
+                    for (int d = c + 1; d < Card.CODES; d++) {
+                        cards[3] = d;
+                        for (int e = d + 1; e < Card.CODES; e++) {
+                            cards[4] = e;
+                            int category = HandEvaluator.getCategory(
+                                HandEvaluator.evaluate(a, b, c, d, e));
+                            for (int subset = 0; subset < HOLDS - 1; subset++) {
+                                int size = Integer.bitCount(subset);
+                                histograms[size][index(cards, subset)
+                                    * HandEvaluator.CATEGORIES + category]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return histograms;
+    }
+
+    /**
+     * Returns the combinatorial index of a set of cards among all sets of the same size
+     * @param cards for the card codes of a hand, in increasing order
+     * @param subset for the mask of positions in the hand that form the set
+     * @return the combinatorial index of the set
+     */
+    private static int index(int[] cards, int subset) {
+        int index = 0;
+        int k = 1;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            if ((subset & (1 << i)) != 0) {
+                index += BINOMIAL[cards[i]][k++];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Solves a range of canonical deals, splitting it in half until it is small enough
+     */
+    private class SolveTask extends RecursiveAction {
+
+        /** Serial version, as fork/join tasks are serializable */
+        private static final long serialVersionUID = 1L;
+
+        /** Histograms of the categories of hands containing each set of cards */
+        private final int[][] histograms;
+
+        /** Index of the first deal in the range */
+        private final int from;
+
+        /** Index after the last deal in the range */
+        private final int to;
+
+        /**
+         * Constructor for the task
+         * @param histograms for the category histograms
+         * @param from for the first deal in the range
+         * @param to for the index after the last deal in the range
+         */
+        SolveTask(int[][] histograms, int from, int to) {
+            this.histograms = histograms;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Solves the range or splits it
+         */
+        @Override
+        protected void compute() {
+            if (to - from > TASK_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveTask(histograms, from, middle),
+                          new SolveTask(histograms, middle, to));
+                return;
+            }
+            int[] cards = new int[Hand.CARDS_IN_HAND];
+            long[] outcomes = new long[HOLDS * HandEvaluator.CATEGORIES];
+            for (int i = from; i < to; i++) {
+                solveDeal(i, cards, outcomes);
+            }
+        }
+
+        /**
+         * Solves a single canonical deal
+         * @param deal for the index of the deal
+         * @param cards for scratch space for the deal's card codes
+         * @param outcomes for scratch space for the outcome counts of each hold
+         */
+        private void solveDeal(int deal, int[] cards, long[] outcomes) {
+            long mask = deals[deal];
+            for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+                cards[i] = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+            // Start with the categories of all hands containing each subset of the deal
+            Arrays.fill(outcomes, 0);
+            for (int subset = 0; subset < HOLDS - 1; subset++) {
+                int base = index(cards, subset) * HandEvaluator.CATEGORIES;
+                int[] histogram = histograms[Integer.bitCount(subset)];
+                for (int c = 0; c < HandEvaluator.CATEGORIES; c++) {
+                    outcomes[subset * HandEvaluator.CATEGORIES + c] = histogram[base + c];
+                }
+            }
+            outcomes[(HOLDS - 1) * HandEvaluator.CATEGORIES + HandEvaluator.getCategory(
+                HandEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]))] = 1;
+            // Remove the hands containing discarded cards by inclusion-exclusion
+            for (int bit = 1; bit < HOLDS; bit <<= 1) {
+                for (int subset = 0; subset < HOLDS; subset++) {
+                    if ((subset & bit) == 0) {
+                        for (int c = 0; c < HandEvaluator.CATEGORIES; c++) {
+                            outcomes[subset * HandEvaluator.CATEGORIES + c] -=
+                                outcomes[(subset | bit) * HandEvaluator.CATEGORIES + c];
+                        }
+                    }
+                }
+            }
+            int best = 0;
+            for (int hold = 0; hold < HOLDS; hold++) {
+                long paid = 0;
+                for (int c = 0; c < HandEvaluator.CATEGORIES; c++) {
+                    paid += outcomes[hold * HandEvaluator.CATEGORIES + c] * payouts[c];
+                }
+                double value = paid / (double) BINOMIAL[CARDS_LEFT][
+                    Hand.CARDS_IN_HAND - Integer.bitCount(hold)];
+                expectedValues[deal * HOLDS + hold] = value;
+                if (value > expectedValues[deal * HOLDS + best]) {
+                    best = hold;
+                }
+            }
+            bestHolds[deal] = best;
+        }
+    }
+
+    /**
+     * Solves the VideoPoker pay table, prints the return to player and optionally writes the
+     * strategy
+     * @param args args[0] optional file the strategy is written to
+     * @throws IOException if the strategy cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        StrategySolver solver = forVideoPoker();
+        solver.solve();
+        System.out.printf("Solved %d canonical deals in %.1f s%n", solver.getCanonicalDeals(),
+                          (System.nanoTime() - start) / 1e9);
+        System.out.printf("Return to player: %.4f%%%n", solver.getReturnToPlayer() * 100);
+        if (args.length == 1) {
+            solver.writeStrategy(Paths.get(args[0]));
+            System.out.println("Wrote strategy to " + args[0]);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.random.RandomGenerator;
+
 
 
 
@@ -57,15 +59,145 @@ public class VideoPoker {
     /** The current number of points */
     private int points;
 
+    /** Pay table used by the next game, which may be replaced by another thread */
+    private volatile PayTable payTable;
+
+    /** Pay table the current game was started with */
+    private PayTable gameTable;
+
+    /** Generator of the seed of every game */
+    private RandomGenerator gameSeeds;
+
+    /** Seed the current game was dealt from */
+    private long gameSeed;
+
+    /** Number of games started */
+    private int games;
+
+    /** Journal every deal, replacement and score is appended to, or null */
+    private GameJournal journal;
+
+    /** Identifier of this game in the journal */
+    private long journalSession;
+
+    /** Metrics every deal, replacement and score is recorded in, or null */
+    private GameMetrics metrics;
+
     /**
      * Constructor for the VideoPoker class
      * @param seed for the deck seed for testing
      */
     public VideoPoker(int seed) {
-        this.deck = new Deck(seed);
+        this(seed, PayTable.DEFAULT);
+    }
+
+    /**
+     * Constructor for a game played with the given pay table
+     * @param seed for the deck seed for testing
+     * @param payTable for the pay table
+     * @throws IllegalArgumentException if payTable is null
+     */
+    public VideoPoker(int seed, PayTable payTable) {
+        setPayTable(payTable);
+        this.deck = new Deck(seed, ShuffleAlgorithm.DEFAULT, true);
+        if (seed != RANDOM_GAME) {
+            this.gameSeeds = ShuffleAlgorithm.DEFAULT.create(seed);
+        } else {
+            this.gameSeeds = ShuffleAlgorithm.DEFAULT.create();
+        }
         this.points = STARTING_POINTS;
     }
 
+    /**
+     * Returns the number of points awarded for a hand category
+     * @param category for the category, from HandEvaluator.NO_PAIR to
+     * HandEvaluator.ROYAL_FLUSH
+     * @return the number of points awarded
+     * @throws IllegalArgumentException if category is invalid
+     */
+    public static int getPayout(int category) {
+        return PayTable.DEFAULT.getPayout(category);
+    }
+
+    /**
+     * Returns the number of points awarded for a hand category
+     * @param category for the category
+     * @return the number of points awarded
+     * @throws IllegalArgumentException if category is null
+     */
+    public static int getPayout(HandCategory category) {
+        return PayTable.DEFAULT.getPayout(category);
+    }
+
+    /**
+     * Finds the category of a hand without changing any points
+     * @param hand for the hand to be evaluated
+     * @return the category of the hand
+     * @throws IllegalArgumentException if hand is null
+     */
+    public static HandCategory evaluate(Hand hand) {
+        return HandCategory.ofValue(HandEvaluator.evaluate(hand));
+    }
+
+    /**
+     * Returns the pay table the next game will be played with
+     * @return the pay table
+     */
+    public PayTable getPayTable() {
+        return payTable;
+    }
+
+    /**
+     * Replaces the pay table. This may be called from any thread while games are played: the
+     * game in progress is paid by the table it started with, and the next game uses the new
+     * table.
+     * @param payTable for the new pay table
+     * @throws IllegalArgumentException if payTable is null
+     */
+    public void setPayTable(PayTable payTable) {
+        if (payTable == null) {
+            throw new IllegalArgumentException("Null pay table");
+        }
+        this.payTable = payTable;
+    }
+
+    /**
+     * Returns the seed the current game was dealt from. GameReplayer deals the game again
+     * from this seed alone.
+     * @return the seed of the game
+     */
+    public long getGameSeed() {
+        return gameSeed;
+    }
+
+    /**
+     * Records every deal, replacement and score from now on in a journal. Appending only
+     * copies a record into the journal's ring buffer, so the game does not wait for the disk.
+     * @param journal for the journal, or null to stop recording
+     * @param session for the identifier of this game in the journal
+     */
+    public void setJournal(GameJournal journal, long session) {
+        this.journal = journal;
+        this.journalSession = session;
+    }
+
+    /**
+     * Records the counts and latencies of every deal, replacement and score from now on.
+     * Metrics may be shared by games on any number of threads.
+     * @param metrics for the metrics, or null to stop recording
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics the game records to
+     * @return the metrics, or null if none are recorded
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Returns the current number of points
      * @return the number of points
@@ -96,19 +228,34 @@ public class VideoPoker {
     }
 
     /**
-     * This method starts the game and subtracts the points from the total and creates
-     * the hand for the current play.
+     * This method starts the game and subtracts the points from the total and deals
+     * the hand for the current play. The hand is created for the first game and reused
+     * by every game after it. The game is paid by the pay table set when it starts. Each game
+     * is dealt from its own seed, drawn from the game's seeded generator, so it can be
+     * replayed without the games before it.
      */
     public void newGame() {
-        this.points -= POINTS_FOR_NEW_GAME;
-        deck.shuffle();
-        Card[] cards = new Card[CARDS_IN_HAND];
-        Card addCard;
-        for (int i = 0; i < CARDS_IN_HAND; i++) {
-            addCard = deck.nextCard();
-            cards[i] = addCard;
+        long start = metrics != null ? System.nanoTime() : 0;
+        this.gameTable = payTable;
+        this.points -= gameTable.getCost();
+        this.gameSeed = gameSeeds.nextLong();
+        deck.shuffle(gameSeed);
+        if (hand == null) {
+            int[] codes = new int[CARDS_IN_HAND];
+            for (int i = 0; i < CARDS_IN_HAND; i++) {
+                codes[i] = deck.nextCardCode();
+            }
+            hand = Hand.fromCodes(codes);
+        } else {
+            for (int i = 0; i < CARDS_IN_HAND; i++) {
+                hand.replaceCode(i, deck.nextCardCode());
+            }
+        }
+        games++;
+        record(GameJournal.DEAL, 0, -1, -gameTable.getCost(), gameTable.getTag());
+        if (metrics != null) {
+            metrics.recordNewGame(gameTable.getCost(), System.nanoTime() - start);
         }
-        hand = new Hand(cards);
     }
 
     /**
@@ -116,7 +263,22 @@ public class VideoPoker {
      * @param index for the card to be replaced
      */
     public void replaceCard(int index) {
-        hand.replace(index, deck.nextCard());
+        long start = metrics != null ? System.nanoTime() : 0;
+        hand.replaceCode(index, deck.nextCardCode());
+        record(GameJournal.REPLACE, index, -1, 0, 0);
+        if (metrics != null) {
+            metrics.recordReplaceCard(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the category the hand would score as it stands, without scoring it, so a hint
+     * can be shown after every replacement. The hand keeps its value and suit tallies up to
+     * date as cards are replaced, so this does not look at the cards again.
+     * @return the category of the current hand
+     */
+    public HandCategory getCategory() {
+        return hand.getCategory();
     }
 
     /**
@@ -124,35 +286,32 @@ public class VideoPoker {
      * @return the string which tells which winning hand the player had
      */
     public String scoreHand() {
-        if (hand.isRoyalFlush()) {
-            this.points += ROYAL_FLUSH;
-            return "Royal Flush";
-        } else if (hand.isStraightFlush()) {
-            this.points += STRAIGHT_FLUSH;
-            return "Straight Flush";
-        } else if (hand.hasFourOfAKind()) {
-            this.points += FOUR_OF_A_KIND;
-            return "Four of a Kind";
-        } else if (hand.isFullHouse()) {
-            this.points += FULL_HOUSE;
-            return "Full House";
-        } else if (hand.isFlush()) {
-            this.points += FLUSH;
-            return "Flush";
-        } else if (hand.isStraight()) {
-            this.points += STRAIGHT;
-            return "Straight";
-        } else if (hand.hasThreeOfAKind()) {
-            this.points += THREE_OF_A_KIND;
-            return "Three of a Kind";
-        } else if (hand.hasTwoPairs()) {
-            this.points += TWO_PAIRS;
-            return "Two Pairs";
-        } else if (hand.hasOnePair()) {
-            this.points += ONE_PAIR;
-            return "One Pair";
-        } else {
-            return "No Pair";
+        long start = metrics != null ? System.nanoTime() : 0;
+        HandCategory category = hand.getCategory();
+        int payout = gameTable.getPayout(category);
+        this.points += payout;
+        record(GameJournal.SCORE, 0, category.getCode(), payout, 0);
+        if (metrics != null) {
+            metrics.recordScoreHand(category.getCode(), payout, System.nanoTime() - start);
+        }
+        return category.getDisplayName();
+    }
+
+    /**
+     * Appends an event to the journal, if there is one
+     * @param type for the type of the event
+     * @param argument for the card index of a replacement, or 0
+     * @param category for the category code of a score, or -1
+     * @param delta for the change to the points
+     * @param table for the tag of the pay table of a deal, or 0
+     */
+    private void record(int type, int argument, int category, int delta, int table) {
+        if (journal != null) {
+            journal.append(journalSession, gameSeed, games, type, argument,
+                           GameJournal.packHand(hand.getCardCode(0), hand.getCardCode(1),
+                                                hand.getCardCode(2), hand.getCardCode(3),
+                                                hand.getCardCode(4)), category, delta,
+                           table);
         }
     }
 }
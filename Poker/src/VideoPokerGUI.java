@@ -1,6 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Video Poker Game Graphical User Interface
@@ -34,11 +35,8 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
     /** Displays type of hand */
     private JTextField txtScore;
 
-    /** Cards to be displayed */
-    private JLabel[] cards;
-
-    /** Icons (images) for cards */
-    private ImageIcon[] icons;
+    /** Table the cards are displayed on */
+    private CardTablePanel table;
 
     /** Replace buttons for cards */
     private JButton[] btnCards;
@@ -57,11 +55,13 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
 
     /**
      * Creates instance of PokerGUI class
-     * @param seed if -1, a random game is played, otherwise the same game is played, in that
-     * the deck will be shuffled the same way, whenever the seed is the same.
+     * @param seed if -1, a random game is played, otherwise the same games are played, in that
+     * the deck will be shuffled the same sequence of ways, whenever the seed is the same.
      */
     public VideoPokerGUI(int seed) {
 
+        // Decode the card images while the window is built
+        CompletableFuture<CardImages> loading = CardImages.preload(CardImages.DEFAULT_DIRECTORY);
         pm = new VideoPoker(seed);
 
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -79,36 +79,29 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
         txtScore.setHorizontalAlignment(JTextField.CENTER);
         txtScore.setEditable(false);
         txtScore.setBackground(Color.WHITE);
-        txtScore.setText("Press New Game to Start!");
+        txtScore.setText("Loading cards...");
         pnlScore.add(lblPoints);
         pnlScore.add(txtScore);
 
 
         JPanel pnlCards = new JPanel();
-        pnlCards.setLayout(new GridLayout(2,VideoPoker.CARDS_IN_HAND));
-        cards = new JLabel[VideoPoker.CARDS_IN_HAND];
-        icons = new ImageIcon[VideoPoker.CARDS_IN_HAND];
+        pnlCards.setLayout(new BorderLayout());
+        table = new CardTablePanel(VideoPoker.CARDS_IN_HAND);
+        JPanel pnlReplace = new JPanel();
+        pnlReplace.setLayout(new GridLayout(1,VideoPoker.CARDS_IN_HAND));
         btnCards = new JButton[VideoPoker.CARDS_IN_HAND];
 
-        for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
-
-            icons[i] = new ImageIcon("cards/h" + (i + 10) + ".gif");
-            cards[i] = new JLabel();
-            cards[i].setIcon(icons[i]);
-            JPanel panel = new JPanel();
-            panel.add(cards[i]);
-            pnlCards.add(panel);
-        }
-
         for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
 
             btnCards[i] = new JButton("Replace");
             btnCards[i].setBackground(Color.RED);
             btnCards[i].addActionListener (this);
             btnCards[i].setEnabled(false);
-            pnlCards.add(btnCards[i]);
+            pnlReplace.add(btnCards[i]);
 
         }
+        pnlCards.add(table,BorderLayout.CENTER);
+        pnlCards.add(pnlReplace,BorderLayout.SOUTH);
 
         JPanel pnlButtons = new JPanel();
         pnlButtons.setLayout(new GridLayout(1,3));
@@ -119,6 +112,7 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
         btnNewGame = new JButton("New Game");
         btnNewGame.setFont(new Font("SansSerif",Font.BOLD,FONT_SIZE));
         btnNewGame.addActionListener(this);
+        btnNewGame.setEnabled(false);
         btnQuit = new JButton("Quit");
         btnQuit.setFont(new Font("SansSerif",Font.BOLD,FONT_SIZE));
         btnQuit.addActionListener (this);
@@ -131,6 +125,41 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
         c.add(pnlButtons,BorderLayout.SOUTH);
 
         setVisible(true);
+
+        loading.whenComplete((loaded, error) ->
+            SwingUtilities.invokeLater(() -> imagesLoaded(loaded, error)));
+    }
+
+    /**
+     * Shows a royal flush and starts the game once the card images are loaded
+     * @param loaded for the card images, or null if they could not be loaded
+     * @param error for the reason they could not be loaded, or null if they were
+     */
+    private void imagesLoaded(CardImages loaded, Throwable error) {
+        if (error != null) {
+            txtScore.setText("Card images not found");
+            return;
+        }
+        table.setImages(loaded);
+        int[] royalFlush = new int[VideoPoker.CARDS_IN_HAND];
+        for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            royalFlush[i] = Card.code(i + 10, Card.HEARTS);
+        }
+        table.deal(royalFlush);
+        txtScore.setText("Press New Game to Start!");
+        btnNewGame.setEnabled(true);
+    }
+
+    /**
+     * Returns the codes of the cards of the current hand
+     * @return the card codes
+     */
+    private int[] cardCodes() {
+        int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+        for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            codes[i] = pm.getCard(i).getCode();
+        }
+        return codes;
     }
 
     /**
@@ -147,9 +176,8 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
 
             btnScoreHand.setEnabled(true);
 
+            table.deal(cardCodes());
             for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
-                icons[i] = new ImageIcon(pm.getCardFileName(i));
-                cards[i].setIcon(icons[i]);
                 btnCards[i].setEnabled(true);
             }
 
@@ -163,9 +191,10 @@ public class VideoPokerGUI extends JFrame implements ActionListener {
 
             btnScoreHand.setEnabled(false);
 
+            // Only the replaced cards flip over
+            int[] codes = cardCodes();
             for(int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
-                icons[i] = new ImageIcon(pm.getCardFileName(i));
-                cards[i].setIcon(icons[i]);
+                table.setCard(i, codes[i]);
             }
             txtScore.setText(pm.scoreHand());
             lblPoints.setText("Points: " + pm.getPoints());
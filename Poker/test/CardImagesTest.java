@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import javax.swing.ImageIcon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests CardImages class
+ * @author William Morgan
+ */
+public class CardImagesTest {
+
+    /** Directory for copies of the card images */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests loading every image on the calling thread
+     * @throws IOException if the images cannot be read
+     */
+    @Test
+    public void testLoad() throws IOException {
+        CardImages images = CardImages.load(CardImages.DEFAULT_DIRECTORY);
+        ImageIcon ace = images.getIcon(Card.code(14, Card.HEARTS));
+        assertTrue(ace.getIconWidth() > 0 && ace.getIconHeight() > 0, "ace size");
+        for (int code = 0; code < Card.CODES; code++) {
+            ImageIcon icon = images.getIcon(code);
+            assertSame(icon, images.getIcon(Card.fromCode(code)), "card " + code);
+            assertEquals(ace.getIconWidth(), icon.getIconWidth(), "width " + code);
+            assertEquals(ace.getIconHeight(), icon.getIconHeight(), "height " + code);
+        }
+        assertSame(ace, images.getIcon(new Card(14, Card.HEARTS)), "same icon every time");
+        assertEquals(ace.getIconWidth(), images.getBlank().getIconWidth(), "blank width");
+        assertNotSame(ace, images.getBlank(), "blank is its own icon");
+    }
+
+    /**
+     * Tests loading every image in the background
+     * @throws Exception if the images cannot be loaded in time
+     */
+    @Test
+    public void testPreload() throws Exception {
+        CardImages images = CardImages.preload(CardImages.DEFAULT_DIRECTORY)
+            .get(10, TimeUnit.SECONDS);
+        assertTrue(images.getIcon(0).getIconWidth() > 0, "two of clubs");
+
+        CompletableFuture<CardImages> missing = CardImages.preload(Paths.get("no-such-cards"));
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> missing.get(10, TimeUnit.SECONDS), "missing directory");
+        assertTrue(exception.getCause() instanceof UncheckedIOException, "missing cause");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if the images cannot be read
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> CardImages.load(null), "null directory");
+        assertEquals("Null directory", exception.getMessage(), "null directory message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> CardImages.preload(null), "null preload directory");
+        assertEquals("Null directory", exception.getMessage(), "null preload message");
+        assertThrows(IOException.class, () -> CardImages.load(Paths.get("no-such-cards")),
+                     "missing directory");
+        for (Path file : Files.newDirectoryStream(CardImages.DEFAULT_DIRECTORY)) {
+            Files.copy(file, directory.resolve(file.getFileName().toString()));
+        }
+        Path ace = directory.resolve("s14.gif");
+        Files.write(ace, new byte[] {1, 2, 3});
+        exception = assertThrows(IOException.class, () -> CardImages.load(directory),
+                                 "unreadable image");
+        assertEquals("Unreadable image " + ace, exception.getMessage(),
+                     "unreadable image message");
+
+        CardImages images = CardImages.load(CardImages.DEFAULT_DIRECTORY);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> images.getIcon(CardImages.BLANK), "blank code");
+        assertEquals("Invalid code", exception.getMessage(), "blank code message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> images.getIcon(-1), "negative code");
+        assertEquals("Invalid code", exception.getMessage(), "negative code message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> images.getIcon(null), "null card");
+        assertEquals("Null card", exception.getMessage(), "null card message");
+    }
+}
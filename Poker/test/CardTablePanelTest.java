@@ -0,0 +1,256 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests CardTablePanel class, rendering offscreen so it runs headlessly
+ * @author William Morgan
+ */
+public class CardTablePanelTest {
+
+    /** Ace of hearts */
+    private static final int ACE = Card.code(14, Card.HEARTS);
+
+    /** Two of clubs */
+    private static final int TWO = Card.code(2, Card.CLUBS);
+
+    /** Current time of the table's clock */
+    private long now;
+
+    /** Card images */
+    private CardImages images;
+
+    /** Table timed by the test's clock */
+    private CardTablePanel table;
+
+    /**
+     * Creates a table of five slots at time 0
+     * @throws IOException if the card images cannot be read
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        now = 0;
+        images = CardImages.load(CardImages.DEFAULT_DIRECTORY);
+        table = new CardTablePanel(VideoPoker.CARDS_IN_HAND, () -> now);
+        table.setImages(images);
+        table.setSize(table.getPreferredSize());
+    }
+
+    /**
+     * Paints the table into a new image, as Swing would
+     * @return the image
+     */
+    private BufferedImage paint() {
+        BufferedImage image = new BufferedImage(table.getWidth(), table.getHeight(),
+                                                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        table.paint(g);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Checks that a slot shows a card's whole face
+     * @param image for the painted table
+     * @param slot for the index of the slot
+     * @param code for the card code
+     * @param message for the message of a failure
+     */
+    private void assertFace(BufferedImage image, int slot, int code, String message) {
+        BufferedImage face = new BufferedImage(CardTablePanel.CARD_WIDTH,
+                                               CardTablePanel.CARD_HEIGHT,
+                                               BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = face.createGraphics();
+        g.drawImage(images.getIcon(code).getImage(), 0, 0, null);
+        g.dispose();
+        Rectangle bounds = table.getSlotBounds(slot);
+        for (int y = 0; y < bounds.height; y++) {
+            for (int x = 0; x < bounds.width; x++) {
+                if (face.getRGB(x, y) != image.getRGB(bounds.x + x, bounds.y + y)) {
+                    fail(message + " differs at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the colour of the centre of a slot
+     * @param image for the painted table
+     * @param slot for the index of the slot
+     * @return the colour as RGB
+     */
+    private int slotCentre(BufferedImage image, int slot) {
+        Rectangle bounds = table.getSlotBounds(slot);
+        return image.getRGB(bounds.x + bounds.width / 2, bounds.y + bounds.height / 2);
+    }
+
+    /**
+     * Tests a flip from start to finish
+     */
+    @Test
+    public void testFlip() {
+        int table = CardTablePanel.TABLE_COLOR.getRGB();
+        BufferedImage image = paint();
+        Rectangle bounds = this.table.getSlotBounds(0);
+        assertEquals(table, image.getRGB(bounds.x + 2, bounds.y + 2), "empty slot");
+        assertFalse(this.table.isAnimating(), "not animating");
+
+        this.table.setCard(0, ACE);
+        assertTrue(this.table.isAnimating(), "animating");
+        assertEquals(ACE, this.table.getCard(0), "card");
+        now = CardTablePanel.FLIP_NANOS * 3 / 4;
+        this.table.tick(now);
+        image = paint();
+        // Three quarters through, the new face is about 50 of 71 pixels wide
+        assertEquals(table, image.getRGB(bounds.x + 5, bounds.y + 2), "narrow face");
+        assertNotEquals(table, slotCentre(image, 0), "new face");
+
+        now = CardTablePanel.FLIP_NANOS;
+        this.table.tick(now);
+        assertFalse(this.table.isAnimating(), "flip finished");
+        image = paint();
+        assertFace(image, 0, ACE, "full face");
+    }
+
+    /**
+     * Tests that only slots that changed are drawn again
+     */
+    @Test
+    public void testDirtySlots() {
+        paint();
+        for (int slot = 0; slot < table.getSlots(); slot++) {
+            assertFalse(table.isDirty(slot), "clean after paint " + slot);
+        }
+        table.setCard(2, TWO);
+        assertFalse(table.isDirty(2), "nothing drawn before a tick");
+        now = CardTablePanel.FLIP_NANOS / 4;
+        table.tick(now);
+        for (int slot = 0; slot < table.getSlots(); slot++) {
+            assertEquals(slot == 2, table.isDirty(slot), "dirty while flipping " + slot);
+        }
+        BufferedImage image = paint();
+        assertFalse(table.isDirty(2), "clean after flip frame");
+        assertEquals(CardTablePanel.TABLE_COLOR.getRGB(),
+                     slotCentre(image, 1), "untouched slot");
+
+        table.setCard(2, TWO);
+        now = CardTablePanel.FLIP_NANOS * 2;
+        table.tick(now);
+        paint();
+        table.tick(now + 1);
+        assertFalse(table.isDirty(2), "idle slot stays clean");
+        table.setCard(2, TWO);
+        assertFalse(table.isAnimating(), "same card does not flip");
+    }
+
+    /**
+     * Tests that cards set again before the edge of a flip give a single flip
+     */
+    @Test
+    public void testCoalesce() {
+        table.setCard(0, TWO);
+        now = CardTablePanel.FLIP_NANOS / 4;
+        table.setCard(0, ACE);
+        assertEquals(ACE, table.getCard(0), "latest card");
+        now = CardTablePanel.FLIP_NANOS;
+        table.tick(now);
+        assertFalse(table.isAnimating(), "one flip");
+        assertFace(paint(), 0, ACE, "latest face");
+
+        table.setCard(1, TWO);
+        now += CardTablePanel.FLIP_NANOS * 3 / 4;
+        table.setCard(1, ACE);
+        now += CardTablePanel.FLIP_NANOS / 2;
+        table.tick(now);
+        assertTrue(table.isAnimating(), "second flip after the edge");
+        now += CardTablePanel.FLIP_NANOS / 2;
+        table.tick(now);
+        assertFalse(table.isAnimating(), "second flip finished");
+        assertFace(paint(), 1, ACE, "second face");
+    }
+
+    /**
+     * Tests that a deal flips the slots one after another
+     */
+    @Test
+    public void testDeal() {
+        int[] codes = {ACE, TWO, ACE, TWO, CardImages.BLANK};
+        table.deal(codes);
+        paint();
+        now = 2 * CardTablePanel.DEAL_STAGGER_NANOS;
+        table.tick(now);
+        for (int slot = 0; slot < codes.length; slot++) {
+            assertEquals(slot <= 2, table.isDirty(slot), "started " + slot);
+            assertEquals(codes[slot], table.getCard(slot), "card " + slot);
+        }
+        now = 4 * CardTablePanel.DEAL_STAGGER_NANOS + CardTablePanel.FLIP_NANOS;
+        table.tick(now);
+        assertFalse(table.isAnimating(), "dealt");
+
+        table.deal(codes);
+        assertTrue(table.isAnimating(), "same cards dealt again");
+    }
+
+    /**
+     * Tests rendering a whole frame at a given time
+     */
+    @Test
+    public void testRender() {
+        table.setCard(4, TWO);
+        BufferedImage image = new BufferedImage(table.getWidth(), table.getHeight(),
+                                                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        table.render(g, CardTablePanel.FLIP_NANOS);
+        g.dispose();
+        assertFace(image, 4, TWO, "rendered face");
+        assertTrue(table.isAnimating(), "render leaves flips alone");
+        assertEquals(table.getPreferredSize().width,
+                     table.getSlotBounds(4).x + CardTablePanel.CARD_WIDTH + CardTablePanel.GAP,
+                     "slots fill the width");
+        table.setSize(table.getPreferredSize().width + 40, table.getHeight());
+        assertEquals(CardTablePanel.GAP + 20, table.getSlotBounds(0).x, "slots centred");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new CardTablePanel(0), "no slots");
+        assertEquals("Invalid slots", exception.getMessage(), "no slots message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new CardTablePanel(1, null), "null clock");
+        assertEquals("Null clock", exception.getMessage(), "null clock message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.setImages(null), "null images");
+        assertEquals("Null images", exception.getMessage(), "null images message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.setCard(5, ACE), "invalid slot");
+        assertEquals("Invalid slot", exception.getMessage(), "invalid slot message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.getCard(-1), "negative slot");
+        assertEquals("Invalid slot", exception.getMessage(), "negative slot message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.setCard(0, CardImages.BLANK + 1), "invalid code");
+        assertEquals("Invalid code", exception.getMessage(), "invalid code message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.deal(null), "null codes");
+        assertEquals("Null codes", exception.getMessage(), "null codes message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.deal(new int[] {ACE}), "short codes");
+        assertEquals("Invalid codes length", exception.getMessage(), "short codes message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.deal(new int[] {ACE, ACE, ACE, ACE, -2}), "invalid dealt code");
+        assertEquals("Invalid code", exception.getMessage(), "invalid dealt code message");
+        assertFalse(table.isAnimating(), "nothing dealt");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> table.render(null, 0), "null graphics");
+        assertEquals("Null graphics", exception.getMessage(), "null graphics message");
+    }
+}
@@ -133,6 +133,26 @@ public class CardTest {
         assertEquals(-4, fiveOfDiamonds.compareTo(fiveOfHearts), "compare Diamonds 5 to Hearts 5");
     }
 
+    /**
+     * Tests card codes and the shared instances looked up by code
+     */
+    @Test
+    public void testCodes() {
+        assertEquals(0, new Card(2, 'c').getCode(), "Clubs 2 code");
+        assertEquals(13, new Card(2, 'd').getCode(), "Diamonds 2 code");
+        assertEquals(38, new Card(14, 'h').getCode(), "Hearts 14 code");
+        assertEquals(51, new Card(14, 's').getCode(), "Spades 14 code");
+        assertEquals(twoOfHearts, Card.fromCode(twoOfHearts.getCode()), "twoOfHearts from code");
+        assertEquals(aceOfClubs, Card.fromCode(Card.code(14, 'c')), "aceOfClubs from code");
+        assertSame(Card.fromCode(7), Card.fromCode(7), "same instance for a code");
+        for (int code = 0; code < Card.CODES; code++) {
+            Card card = Card.fromCode(code);
+            assertEquals(code, card.getCode(), "code round trip " + code);
+            assertEquals(card.getValue(), Card.codeValue(code), "value of code " + code);
+            assertEquals(card.getSuit(), Card.codeSuit(code), "suit of code " + code);
+        }
+    }
+
     /**
      * Tests exceptions
      */
@@ -167,5 +187,18 @@ public class CardTest {
             () -> new Card(5, 'D'), "Constructor suit D");
         assertEquals("Invalid suit", exception.getMessage(),
                 "Testing suit D message");
+
+        // Testing fromCode() with invalid codes
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.fromCode(-1), "fromCode() code -1");
+        assertEquals("Invalid code", exception.getMessage(), "fromCode() code -1 message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.fromCode(52), "fromCode() code 52");
+        assertEquals("Invalid code", exception.getMessage(), "fromCode() code 52 message");
+
+        // Testing code() with invalid suit
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Card.code(5, 'x'), "code() suit x");
+        assertEquals("Invalid suit", exception.getMessage(), "code() suit x message");
     }
 }
@@ -1,5 +1,7 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.SplittableRandom;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -64,6 +66,21 @@ public class DeckTest {
         assertEquals(new Card(3, 'c'), deck.nextCard(), "second card");
     }
 
+    /**
+     * Tests that card codes are dealt in the same order as cards
+     */
+    @Test
+    public void testNextCardCode() {
+        Deck other = new Deck(1);
+        assertEquals(0, deck.nextCardCode(), "first code after constructed");
+        assertEquals(1, deck.nextCardCode(), "second code");
+        deck.shuffle();
+        other.shuffle();
+        for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+            assertEquals(other.nextCard(), Card.fromCode(deck.nextCardCode()), "card " + i);
+        }
+    }
+
     /**
      * Tests that the deck is different after it is shuffled
      */
@@ -73,6 +90,150 @@ public class DeckTest {
         assertNotSame(deckString, deck.toString(), "deck should change when shuffled");
     }
 
+    /**
+     * Tests shuffling with a given random number generator
+     */
+    @Test
+    public void testRandomGenerator() {
+        Deck first = new Deck(new SplittableRandom(3));
+        Deck second = new Deck(new SplittableRandom(3));
+        first.shuffle();
+        second.shuffle();
+        assertNotEquals(deckString, first.toString(), "deck should change when shuffled");
+        assertEquals(first.toString(), second.toString(), "same stream, same order");
+    }
+
+    /**
+     * Tests that a seeded deck deals a new game on every shuffle and that decks with the same
+     * seed deal the same games
+     */
+    @Test
+    public void testSeededShuffles() {
+        Deck sameSeed = new Deck(1);
+        deck.shuffle();
+        sameSeed.shuffle();
+        String firstGame = deck.toString();
+        assertEquals(firstGame, sameSeed.toString(), "same seed, same first game");
+        deck.shuffle();
+        sameSeed.shuffle();
+        assertNotEquals(firstGame, deck.toString(), "second game differs from the first");
+        assertEquals(deck.toString(), sameSeed.toString(), "same seed, same second game");
+    }
+
+    /**
+     * Tests that every algorithm places each card at the top of the deck equally often,
+     * using a chi-square test at the 0.1% significance level
+     */
+    @Test
+    public void testShuffleUniformity() {
+        final int shuffles = 52000;
+        final double criticalValue = 86.66;
+        for (ShuffleAlgorithm algorithm : ShuffleAlgorithm.values()) {
+            Deck seeded = new Deck(11, algorithm);
+            long[] counts = new long[Deck.CARDS_IN_DECK];
+            for (int i = 0; i < shuffles; i++) {
+                seeded.shuffle();
+                counts[seeded.nextCardCode()]++;
+            }
+            double expected = shuffles / (double) Deck.CARDS_IN_DECK;
+            double chiSquare = 0;
+            for (long count : counts) {
+                chiSquare += (count - expected) * (count - expected) / expected;
+            }
+            assertTrue(chiSquare < criticalValue, algorithm + " chi-square " + chiSquare);
+        }
+    }
+
+    /**
+     * Tests that a lazy deck deals every card once, repeats its games for the same seed and
+     * deals a new game after each shuffle
+     */
+    @Test
+    public void testLazyDeal() {
+        Deck lazy = new Deck(1, ShuffleAlgorithm.DEFAULT, true);
+        Deck sameSeed = new Deck(1, ShuffleAlgorithm.DEFAULT, true);
+        assertTrue(lazy.isLazy(), "lazy deck");
+        assertFalse(deck.isLazy(), "full shuffle deck");
+        long dealt = 0;
+        long firstGame = 0;
+        for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+            int code = lazy.nextCardCode();
+            assertEquals(code, sameSeed.nextCardCode(), "same seed, same card " + i);
+            dealt |= 1L << code;
+            if (i < Hand.CARDS_IN_HAND) {
+                firstGame |= 1L << code;
+            }
+        }
+        assertEquals(Deck.CARDS_IN_DECK, Long.bitCount(dealt), "every card dealt once");
+        lazy.shuffle();
+        long secondGame = 0;
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            secondGame |= 1L << lazy.nextCardCode();
+        }
+        assertNotEquals(firstGame, secondGame, "new game after shuffle");
+    }
+
+    /**
+     * Tests that a lazy deck deals the first ten cards, the most a game uses, with the same
+     * distribution as a fully shuffled deck. Each card must be equally likely at each
+     * position, and the counts of both decks must agree, by chi-square tests at the 0.1%
+     * significance level.
+     */
+    @Test
+    public void testLazyMatchesFullShuffle() {
+        final int shuffles = 52000;
+        final int positions = 10;
+        final double uniformCriticalValue = 614.4;
+        final double agreementCriticalValue = 624.5;
+        Deck lazy = new Deck(7, ShuffleAlgorithm.DEFAULT, true);
+        Deck full = new Deck(8, ShuffleAlgorithm.DEFAULT, false);
+        long[] lazyCounts = new long[positions * Deck.CARDS_IN_DECK];
+        long[] fullCounts = new long[positions * Deck.CARDS_IN_DECK];
+        for (int i = 0; i < shuffles; i++) {
+            lazy.shuffle();
+            full.shuffle();
+            for (int position = 0; position < positions; position++) {
+                lazyCounts[position * Deck.CARDS_IN_DECK + lazy.nextCardCode()]++;
+                fullCounts[position * Deck.CARDS_IN_DECK + full.nextCardCode()]++;
+            }
+        }
+        double expected = shuffles / (double) Deck.CARDS_IN_DECK;
+        double uniform = 0;
+        double agreement = 0;
+        for (int i = 0; i < lazyCounts.length; i++) {
+            uniform += (lazyCounts[i] - expected) * (lazyCounts[i] - expected) / expected;
+            long difference = lazyCounts[i] - fullCounts[i];
+            agreement += difference * difference / (double) (lazyCounts[i] + fullCounts[i]);
+        }
+        assertTrue(uniform < uniformCriticalValue, "lazy uniformity chi-square " + uniform);
+        assertTrue(agreement < agreementCriticalValue, "lazy against full chi-square "
+                   + agreement);
+    }
+
+    /**
+     * Tests that a game shuffled from a seed deals the same cards whatever was dealt before,
+     * for full and lazy decks
+     */
+    @Test
+    public void testGameSeed() {
+        for (boolean lazy : new boolean[] {false, true}) {
+            Deck fresh = new Deck(7, ShuffleAlgorithm.DEFAULT, lazy);
+            Deck used = new Deck(8, ShuffleAlgorithm.DEFAULT, lazy);
+            for (int i = 0; i < 20; i++) {
+                used.nextCardCode();
+            }
+            fresh.shuffle(99);
+            used.shuffle(99);
+            for (int i = 0; i < Deck.CARDS_IN_DECK; i++) {
+                assertEquals(fresh.nextCardCode(), used.nextCardCode(), "card " + i);
+            }
+            used.shuffle(100);
+            fresh.shuffle(99);
+            assertNotEquals(fresh.nextCardCode() + " " + fresh.nextCardCode(),
+                            used.nextCardCode() + " " + used.nextCardCode(), "other seed");
+        }
+    }
+
     /**
      * Tests the deck equals() method for different scenarios
      */
@@ -102,5 +263,27 @@ public class DeckTest {
             () -> deck.nextCard(), "nextCard() no more cards");
         assertEquals("No more cards", exception.getMessage(),
                 "nextCard() no more cards message");
+
+        // Testing constructor with null random number generator
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new Deck(null), "Constructor null random");
+        assertEquals("Null random", exception.getMessage(), "Constructor null random message");
+
+        // Testing lazy constructor with null random
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new Deck(null, true), "Lazy constructor null random");
+        assertEquals("Null random", exception.getMessage(), "Lazy constructor null random message");
+
+        // Testing constructor with null algorithm
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new Deck(1, null), "Constructor null algorithm");
+        assertEquals("Null algorithm", exception.getMessage(),
+                "Constructor null algorithm message");
+
+        // Testing shuffle(seed) without an algorithm
+        Deck given = new Deck(new SplittableRandom(3));
+        exception = assertThrows(IllegalStateException.class,
+            () -> given.shuffle(1), "shuffle(seed) no algorithm");
+        assertEquals("No algorithm", exception.getMessage(), "shuffle(seed) no algorithm message");
     }
 }
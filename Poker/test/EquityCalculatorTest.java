@@ -0,0 +1,310 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests EquityCalculator and EquityResult classes
+ * @author William Morgan
+ */
+public class EquityCalculatorTest {
+
+    /** Calculator that deals every board of the tests unless they say otherwise */
+    private final EquityCalculator calculator = new EquityCalculator(20000000, 200000, 7);
+
+    /**
+     * Finds the number of river boards each player wins outright by evaluating every board
+     * card by card
+     * @param holes for the card mask of each player's hole cards
+     * @param board for the card mask of a board of four cards
+     * @return the number of boards each player wins outright
+     */
+    private static long[] riverWins(long[] holes, long board) {
+        long[] wins = new long[holes.length];
+        long used = board;
+        for (long hole : holes) {
+            used |= hole;
+        }
+        for (int code = 0; code < Card.CODES; code++) {
+            if ((used >>> code & 1) != 0) {
+                continue;
+            }
+            int best = 0;
+            int winner = -1;
+            for (int p = 0; p < holes.length; p++) {
+                int value = SevenCardEvaluator.evaluateMask(holes[p] | board | 1L << code);
+                if (value > best) {
+                    best = value;
+                    winner = p;
+                } else if (value == best) {
+                    winner = -1;
+                }
+            }
+            if (winner >= 0) {
+                wins[winner]++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Tests parsing cards and ranges
+     */
+    @Test
+    public void testParsing() {
+        assertEquals(1L << Card.code(14, 's') | 1L << Card.code(13, 'd'),
+                     EquityCalculator.cards("AsKd"), "hole cards");
+        assertEquals(EquityCalculator.cards("2c3c4c"), EquityCalculator.cards("2c 3C 4c"),
+                     "spaces and case");
+        assertEquals(0, EquityCalculator.cards(""), "no cards");
+        long[] range = EquityCalculator.range("AsAh,AsAd,AhAd");
+        assertEquals(3, range.length, "range length");
+        assertEquals(EquityCalculator.cards("AsAd"), range[1], "second holding");
+    }
+
+    /**
+     * Tests river and turn boards against evaluating every board directly
+     */
+    @Test
+    public void testMatchesBruteForce() {
+        long[] holes = {EquityCalculator.cards("AhKh"), EquityCalculator.cards("QsQd")};
+        long board = EquityCalculator.cards("2h7h9cJd");
+        EquityResult result = calculator.calculate(holes, board, 0);
+        long[] wins = riverWins(holes, board);
+        assertTrue(result.isExhaustive(), "exhaustive");
+        assertEquals(44, result.getOutcomes(), "river boards");
+        assertEquals(wins[0], result.getWins(0), "first player wins");
+        assertEquals(wins[1], result.getWins(1), "second player wins");
+        assertEquals(result.getOutcomes(), result.getWins(0) + result.getTies(0)
+                     + result.getLosses(0), "outcomes add up");
+
+        long flop = EquityCalculator.cards("2h7h9c");
+        result = calculator.calculate(holes, flop, 0);
+        assertEquals(990, result.getOutcomes(), "turn and river boards");
+        long expected = 0;
+        for (int code = 0; code < Card.CODES; code++) {
+            long turn = 1L << code;
+            if ((turn & (flop | holes[0] | holes[1])) == 0) {
+                expected += riverWins(holes, flop | turn)[0];
+            }
+        }
+        // Each board is reached through either of its two cards
+        assertEquals(expected / 2, result.getWins(0), "first player wins from the flop");
+
+        result = calculator.calculate(holes, board | EquityCalculator.cards("3s"), 0);
+        assertEquals(1, result.getOutcomes(), "complete board");
+        assertEquals(1, result.getWins(1), "set wins");
+        assertEquals(100, result.getEquity(1), 1e-9, "set equity");
+    }
+
+    /**
+     * Tests that equities add up and that identical holdings split
+     */
+    @Test
+    public void testEquity() {
+        long[] holes = {EquityCalculator.cards("AsKs"), EquityCalculator.cards("AdKd")};
+        EquityResult result = calculator.calculate(holes, EquityCalculator.cards("2c7h9c"), 0);
+        assertEquals(50, result.getEquity(0), 1e-9, "first player splits");
+        assertEquals(100, result.getEquity(0) + result.getEquity(1), 1e-9, "equities add up");
+        assertTrue(result.getTiePercentage(0) > 90, "mostly ties");
+        assertEquals(result.getTies(0), result.getTies(1), "ties are shared");
+
+        holes = new long[] {EquityCalculator.cards("AsAh"), EquityCalculator.cards("KsKd"),
+                            EquityCalculator.cards("7c2d")};
+        result = calculator.calculate(holes, EquityCalculator.cards("Kh8c3s"), 0);
+        double total = 0;
+        for (int p = 0; p < result.getPlayers(); p++) {
+            total += result.getEquity(p);
+        }
+        assertEquals(100, total, 1e-9, "three equities add up");
+        assertTrue(result.getEquity(1) > 85, "set is far ahead");
+    }
+
+    /**
+     * Tests that sampling agrees with dealing every board
+     */
+    @Test
+    public void testSampling() {
+        long[] holes = {EquityCalculator.cards("AsAh"), EquityCalculator.cards("KsKd")};
+        EquityResult exact = calculator.calculate(holes, 0, 0);
+        assertTrue(exact.isExhaustive(), "preflop dealt exhaustively");
+        assertEquals(1712304, exact.getOutcomes(), "preflop boards");
+        assertEquals(81.9, exact.getEquity(0), 0.1, "aces against kings");
+
+        EquityCalculator sampler = new EquityCalculator(0, 200000, 7);
+        EquityResult sampled = sampler.calculate(holes, 0, 0);
+        assertFalse(sampled.isExhaustive(), "sampled");
+        assertEquals(200000, sampled.getOutcomes(), "samples");
+        assertEquals(exact.getEquity(0), sampled.getEquity(0), 1, "sampled equity");
+        assertEquals(sampled.getWins(0), sampler.calculate(holes, 0, 0).getWins(0),
+                     "same seed, same result");
+    }
+
+    /**
+     * Tests a wheel made with the board, which must count as a straight whether boards are
+     * dealt or sampled
+     */
+    @Test
+    public void testWheel() {
+        long[] holes = {EquityCalculator.cards("As5d"), EquityCalculator.cards("KsKh")};
+        EquityResult result = calculator.calculate(holes, EquityCalculator.cards("2c3h4dQsJc"),
+                                                   0);
+        assertEquals(1, result.getWins(0), "wheel beats kings");
+
+        long flop = EquityCalculator.cards("2c3h4d");
+        result = calculator.calculate(holes, flop, 0);
+        assertEquals(990, result.getOutcomes(), "turn and river boards");
+        // Kings only win with a king and a board pair, both kings, or trips on the board
+        assertEquals(2 * 9 + 1 + 3 * 3, result.getWins(1), "kings fill up");
+        // Both play a straight on a 5-6 or A-5 board
+        assertEquals(4 * 3 + 3 * 3, result.getTies(0), "board straights split");
+        assertEquals(990 - 28 - 21, result.getWins(0), "wheel holds");
+
+        EquityResult sampled = new EquityCalculator(0, 200000, 7).calculate(holes, flop, 0);
+        assertEquals(result.getEquity(0), sampled.getEquity(0), 1, "sampled wheel");
+    }
+
+    /**
+     * Tests ranges, dropping holdings that share cards with the board, the dead cards or
+     * the other player
+     */
+    @Test
+    public void testRanges() {
+        long[][] ranges = {EquityCalculator.range("AsAh,AsAd,AhAd"),
+                           EquityCalculator.range("AsKs,KhKd")};
+        long board = EquityCalculator.cards("2c7h9d4s");
+        EquityResult result = calculator.calculate(ranges, board, 0);
+        // AsKs meets AhAd only, and KhKd meets all three pairs of aces
+        assertEquals(4 * 44, result.getOutcomes(), "matchups without shared cards");
+
+        result = calculator.calculate(ranges, board, EquityCalculator.cards("Ad"));
+        // Only AsAh is left, against KhKd
+        assertEquals(43, result.getOutcomes(), "dead card drops holdings");
+        // Kings only win on one of the two kings left
+        assertEquals(41, result.getWins(0), "remaining matchup");
+
+        EquityCalculator sampler = new EquityCalculator(0, 100000, 3);
+        result = sampler.calculate(ranges, board, 0);
+        EquityResult exact = calculator.calculate(ranges, board, 0);
+        assertEquals(exact.getEquity(0), result.getEquity(0), 1, "sampled ranges");
+    }
+
+    /**
+     * Tests that dead cards change the boards dealt
+     */
+    @Test
+    public void testDeadCards() {
+        long[] holes = {EquityCalculator.cards("AhKh"), EquityCalculator.cards("QsQd")};
+        long flop = EquityCalculator.cards("2h7h9c");
+        long dead = EquityCalculator.cards("3h4h5h6h8h");
+        EquityResult live = calculator.calculate(holes, flop, 0);
+        EquityResult result = calculator.calculate(holes, flop, dead);
+        assertEquals(780, result.getOutcomes(), "boards without dead cards");
+        assertTrue(result.getEquity(0) < live.getEquity(0), "fewer flush draws");
+    }
+
+    /**
+     * Tests the summary
+     */
+    @Test
+    public void testToString() {
+        long[] holes = {EquityCalculator.cards("AhKh"), EquityCalculator.cards("QsQd")};
+        String text = calculator.calculate(holes, EquityCalculator.cards("2h7h9cJd3s"), 0)
+                      .toString();
+        assertTrue(text.startsWith("1 boards dealt"), "outcomes");
+        assertTrue(text.contains("Player 1: equity 100.000%"), "winner");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        long aces = EquityCalculator.cards("AsAh");
+        long kings = EquityCalculator.cards("KsKh");
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new EquityCalculator(-1, 1, 0), "negative limit");
+        assertEquals("Invalid exhaustive limit", exception.getMessage(), "limit message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new EquityCalculator(0, 0, 0), "no samples");
+        assertEquals("Invalid samples", exception.getMessage(), "samples message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.cards(null), "null cards");
+        assertEquals("Null cards", exception.getMessage(), "null cards message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.cards("AsK"), "odd cards");
+        assertEquals("Invalid cards", exception.getMessage(), "odd cards message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.cards("XsKd"), "bad value");
+        assertEquals("Invalid cards", exception.getMessage(), "bad value message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.cards("AxKd"), "bad suit");
+        assertEquals("Invalid suit", exception.getMessage(), "bad suit message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.cards("AsAs"), "repeated card");
+        assertEquals("Invalid cards", exception.getMessage(), "repeated card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.range(null), "null range");
+        assertEquals("Null range", exception.getMessage(), "null range message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> EquityCalculator.range("AsAh,Kd"), "short holding");
+        assertEquals("Invalid hole cards", exception.getMessage(), "short holding message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate((long[]) null, 0, 0), "null holes");
+        assertEquals("Null holes", exception.getMessage(), "null holes message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, aces}, 0, 0), "shared hole cards");
+        assertEquals("Duplicate card", exception.getMessage(), "shared hole cards message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, aces, 0), "held board card");
+        assertEquals("Duplicate card", exception.getMessage(), "held board card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate((long[][]) null, 0, 0), "null ranges");
+        assertEquals("Null ranges", exception.getMessage(), "null ranges message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces}, 0, 0), "one player");
+        assertEquals("Invalid players", exception.getMessage(), "one player message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, EquityCalculator.cards("2c"),
+                                       0), "one board card");
+        assertEquals("Invalid board", exception.getMessage(), "one board card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, 1L << 60, 0), "bad board");
+        assertEquals("Invalid board", exception.getMessage(), "bad board message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, 0, 1L << 60), "bad dead");
+        assertEquals("Invalid dead cards", exception.getMessage(), "bad dead message");
+        long flop = EquityCalculator.cards("2c3c4c");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, flop, flop), "dead board");
+        assertEquals("Duplicate card", exception.getMessage(), "dead board message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[][] {{aces}, null}, 0, 0), "null range");
+        assertEquals("Null range", exception.getMessage(), "null range in ranges message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[][] {{aces}, {1L}}, 0, 0), "one hole card");
+        assertEquals("Invalid hole cards", exception.getMessage(), "one hole card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[][] {{aces}, {kings}}, 0, kings), "dead range");
+        assertEquals("Empty range", exception.getMessage(), "dead range message");
+        for (EquityCalculator each : new EquityCalculator[] {calculator,
+                                                             new EquityCalculator(0, 10, 0)}) {
+            exception = assertThrows(IllegalArgumentException.class,
+                () -> each.calculate(new long[][] {{aces}, {aces}}, 0, 0), "no matchups");
+            assertEquals("No matchups", exception.getMessage(), "no matchups message");
+        }
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> calculator.calculate(new long[] {aces, kings}, 0, ~0L >>> 12 & ~(aces | kings)),
+            "too few cards");
+        assertEquals("No matchups", exception.getMessage(), "too few cards message");
+
+        EquityResult result = calculator.calculate(new long[] {aces, kings},
+                                                   EquityCalculator.cards("2c3c4c5d6d"), 0);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> result.getEquity(2), "bad player");
+        assertEquals("Invalid player", exception.getMessage(), "bad player message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> result.getWins(-1), "negative player");
+        assertEquals("Invalid player", exception.getMessage(), "negative player message");
+    }
+}
@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameHttpServer class
+ * @author William Morgan
+ */
+public class GameHttpServerTest {
+
+    /** Manager of the sessions */
+    private GameSessionManager manager;
+
+    /** Server used for testing */
+    private GameHttpServer server;
+
+    /** Client sending requests */
+    private HttpClient client;
+
+    /**
+     * Starts a server on a free port
+     * @throws Exception if the server cannot start
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        manager = new GameSessionManager(2, 1);
+        server = new GameHttpServer(manager, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    /**
+     * Stops the server and the manager
+     */
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        manager.close();
+    }
+
+    /**
+     * Sends a request
+     * @param method for the method
+     * @param path for the path and query
+     * @return the reply
+     * @throws Exception if the request fails
+     */
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getPort() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Tests playing a round: new game, replacing a card and scoring
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testRound() throws Exception {
+        HttpResponse<String> response = send("POST", "/sessions");
+        assertEquals(201, response.statusCode(), "created");
+        assertEquals("{\"id\":1,\"points\":100,\"inGame\":false}", response.body(), "new session");
+        assertEquals("application/json",
+                     response.headers().firstValue("Content-Type").orElse(null), "JSON");
+
+        response = send("POST", "/sessions/1/new-game");
+        assertEquals(200, response.statusCode(), "dealt");
+        int[] dealt = manager.submit(1, GameSession::getCardCodes).join();
+        StringBuilder codes = new StringBuilder();
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < dealt.length; i++) {
+            codes.append(i == 0 ? "" : ",").append(dealt[i]);
+            names.append(i == 0 ? "\"" : ",\"").append(Card.fromCode(dealt[i])).append('"');
+        }
+        assertEquals("{\"id\":1,\"points\":" + (100 - VideoPoker.POINTS_FOR_NEW_GAME)
+                     + ",\"inGame\":true,\"codes\":[" + codes + "],\"cards\":[" + names + "]}",
+                     response.body(), "dealt hand");
+
+        response = send("POST", "/sessions/1/replace?card=2");
+        assertEquals(200, response.statusCode(), "replaced");
+        int[] replaced = manager.submit(1, GameSession::getCardCodes).join();
+        assertNotEquals(dealt[2], replaced[2], "card 2 replaced");
+        assertEquals(dealt[0], replaced[0], "card 0 kept");
+
+        response = send("POST", "/sessions/1/score");
+        assertEquals(200, response.statusCode(), "scored");
+        HandCategory category = VideoPoker.evaluate(Hand.fromCodes(replaced));
+        assertTrue(response.body().contains("\"inGame\":false"), "game over");
+        assertTrue(response.body().endsWith("\"category\":\"" + category.getDisplayName()
+                   + "\",\"paid\":" + VideoPoker.getPayout(category) + "}"), "category and paid");
+
+        assertEquals(200, send("POST", "/sessions/1/new-game").statusCode(), "dealt again");
+        response = send("POST", "/sessions/1/draw?hold=31");
+        assertEquals(200, response.statusCode(), "drawn");
+        assertEquals(response.body(), send("GET", "/sessions/1").body(), "state");
+
+        response = send("GET", "/metrics");
+        assertEquals(200, response.statusCode(), "metrics");
+        assertTrue(response.body().contains("poker_games_total 2\n"), response.body());
+        assertEquals(405, send("POST", "/metrics").statusCode(), "POST metrics");
+
+        assertEquals(204, send("DELETE", "/sessions/1").statusCode(), "removed");
+        assertEquals(0, manager.getSessionCount(), "no sessions");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testExceptions() throws Exception {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameHttpServer(null, 0), "null manager");
+        assertEquals("Null manager", exception.getMessage(), "null manager message");
+
+        send("POST", "/sessions");
+        HttpResponse<String> response = send("POST", "/sessions/1/score");
+        assertEquals(409, response.statusCode(), "no game");
+        assertEquals("{\"error\":\"No game\"}", response.body(), "no game message");
+
+        send("POST", "/sessions/1/new-game");
+        response = send("POST", "/sessions/1/new-game");
+        assertEquals(409, response.statusCode(), "game in progress");
+        assertEquals("{\"error\":\"Game in progress\"}", response.body(), "in progress message");
+
+        response = send("POST", "/sessions/1/replace?card=5");
+        assertEquals(400, response.statusCode(), "invalid index");
+        assertEquals("{\"error\":\"Invalid index\"}", response.body(), "invalid index message");
+        assertEquals(400, send("POST", "/sessions/1/replace").statusCode(), "missing index");
+        response = send("POST", "/sessions/1/draw?hold=32");
+        assertEquals("{\"error\":\"Invalid hold mask\"}", response.body(), "hold mask message");
+
+        response = send("GET", "/sessions/2");
+        assertEquals(404, response.statusCode(), "unknown session");
+        assertEquals("{\"error\":\"Unknown session\"}", response.body(), "unknown message");
+        assertEquals(404, send("GET", "/sessions/x").statusCode(), "invalid identifier");
+        assertEquals(404, send("POST", "/sessions/1/fold").statusCode(), "unknown action");
+        assertEquals(404, send("GET", "/sessionsx").statusCode(), "unknown path");
+        assertEquals(405, send("GET", "/sessions").statusCode(), "list not allowed");
+        assertEquals(405, send("GET", "/sessions/1/score").statusCode(), "GET action");
+        assertEquals(405, send("PUT", "/sessions/1").statusCode(), "PUT session");
+    }
+}
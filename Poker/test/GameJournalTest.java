@@ -0,0 +1,271 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests GameJournal class
+ * @author William Morgan
+ */
+public class GameJournalTest {
+
+    /** Directory holding the segments */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that records are written and read back field by field
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testAppend() throws IOException {
+        int hand = GameJournal.packHand(51, 0, 12, 13, 38);
+        try (GameJournal journal = new GameJournal(directory, 8, 4)) {
+            journal.append(7L << 40, -1, 1, GameJournal.DEAL, 0, hand, -1, -10,
+                           PayTable.MAX_TAG);
+            journal.append(Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE,
+                           GameJournal.SCORE, 4, hand, HandCategory.ROYAL_FLUSH.getCode(), 800, 0);
+            journal.flush();
+            assertEquals(2, journal.getWritten(), "written");
+        }
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertTrue(reader.next(), "first record");
+            assertEquals(7L << 40, reader.getSession(), "session");
+            assertEquals(-1, reader.getSeed(), "seed");
+            assertEquals(1, reader.getGame(), "game");
+            assertEquals(GameJournal.DEAL, reader.getType(), "deal");
+            assertEquals(hand, reader.getHand(), "hand");
+            assertEquals(51, reader.getCardCode(0), "card 0");
+            assertEquals(38, reader.getCardCode(4), "card 4");
+            assertEquals(-1, reader.getCategory(), "no category");
+            assertEquals(-10, reader.getDelta(), "cost");
+            assertEquals(PayTable.MAX_TAG, reader.getTable(), "largest pay table tag");
+
+            assertTrue(reader.next(), "second record");
+            assertEquals(Long.MAX_VALUE, reader.getSession(), "largest session");
+            assertEquals(Long.MIN_VALUE, reader.getSeed(), "smallest seed");
+            assertEquals(Integer.MAX_VALUE, reader.getGame(), "largest game");
+            assertEquals(GameJournal.SCORE, reader.getType(), "score");
+            assertEquals(4, reader.getArgument(), "argument");
+            assertEquals(HandCategory.ROYAL_FLUSH.getCode(), reader.getCategory(), "category");
+            assertEquals(800, reader.getDelta(), "payout");
+            assertEquals(0, reader.getTable(), "no pay table");
+            assertFalse(reader.next(), "end");
+        }
+    }
+
+    /**
+     * Tests that records roll over into new segments, in order, with several threads
+     * appending through a ring far smaller than the number of records
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testSegmentsAndThreads() throws Exception {
+        int threads = 4;
+        int perThread = 5000;
+        try (GameJournal journal = new GameJournal(directory, 1000, 64)) {
+            Thread[] appenders = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long session = t;
+                appenders[t] = new Thread(() -> {
+                    for (int game = 0; game < perThread; game++) {
+                        journal.append(session, 0, game, GameJournal.DEAL, 0, 0, -1, -1, 0);
+                    }
+                });
+                appenders[t].start();
+            }
+            for (Thread appender : appenders) {
+                appender.join();
+            }
+            assertEquals(threads * perThread, journal.getAppended(), "appended");
+        }
+        assertEquals(threads * perThread / 1000, JournalReader.segments(directory).length,
+                     "full segments");
+
+        int[] nextGame = new int[threads];
+        int records = 0;
+        try (JournalReader reader = new JournalReader(directory)) {
+            while (reader.next()) {
+                int session = (int) reader.getSession();
+                assertEquals(nextGame[session]++, reader.getGame(), "games in order");
+                records++;
+            }
+        }
+        assertEquals(threads * perThread, records, "every record read");
+    }
+
+    /**
+     * Tests that a journal reopened on a directory starts a new segment after the old ones
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testReopen() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 8, 4)) {
+            journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+        }
+        try (GameJournal journal = new GameJournal(directory, 8, 4)) {
+            journal.append(2, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+        }
+        Path[] segments = JournalReader.segments(directory);
+        assertEquals(2, segments.length, "two segments");
+        assertEquals(GameJournal.segmentName(1), segments[1].getFileName().toString(),
+                     "second segment");
+        List<Long> sessions = new ArrayList<Long>();
+        try (JournalReader reader = new JournalReader(directory)) {
+            while (reader.next()) {
+                sessions.add(reader.getSession());
+            }
+        }
+        assertEquals(List.of(1L, 2L), sessions, "both records in order");
+    }
+
+    /**
+     * Tests that VideoPoker records every deal, replacement and score
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testVideoPoker() throws IOException {
+        VideoPoker game = new VideoPoker(3);
+        int[] codes = new int[Hand.CARDS_IN_HAND];
+        String result;
+        long gameSeed;
+        try (GameJournal journal = new GameJournal(directory)) {
+            game.setJournal(journal, 42);
+            game.newGame();
+            gameSeed = game.getGameSeed();
+            game.replaceCard(1);
+            game.replaceCard(3);
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = game.getCard(i).getCode();
+            }
+            result = game.scoreHand();
+            game.setJournal(null, 0);
+            game.newGame();
+        }
+        int points = VideoPoker.STARTING_POINTS;
+        int[] types = {GameJournal.DEAL, GameJournal.REPLACE, GameJournal.REPLACE,
+                       GameJournal.SCORE};
+        int[] arguments = {0, 1, 3, 0};
+        try (JournalReader reader = new JournalReader(directory)) {
+            for (int r = 0; r < types.length; r++) {
+                assertTrue(reader.next(), "record");
+                assertEquals(types[r], reader.getType(), "type");
+                assertEquals(arguments[r], reader.getArgument(), "argument");
+                assertEquals(42, reader.getSession(), "session");
+                assertEquals(gameSeed, reader.getSeed(), "seed");
+                assertEquals(1, reader.getGame(), "first game");
+                points += reader.getDelta();
+            }
+            for (int i = 0; i < codes.length; i++) {
+                assertEquals(codes[i], reader.getCardCode(i), "scored hand");
+            }
+            assertEquals(result, HandCategory.fromCode(reader.getCategory()).getDisplayName(),
+                         "category");
+            assertFalse(reader.next(), "stopped recording");
+        }
+        assertEquals(game.getPoints() + VideoPoker.POINTS_FOR_NEW_GAME, points,
+                     "points replayed");
+    }
+
+    /**
+     * Tests that a writer killed by a fault in its mapped segment is reported by appending,
+     * flushing and closing rather than hanging or losing records silently
+     * @throws IOException if the journal cannot be created
+     */
+    @Test
+    public void testWriterFailure() throws IOException {
+        GameJournal journal = new GameJournal(directory, 1000, 16);
+        journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+        journal.flush();
+        // Writing to a mapped page past the end of its file faults, as when the disk is full
+        try (FileChannel channel = FileChannel.open(directory.resolve(
+                GameJournal.segmentName(0)), StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+        }
+        Exception exception = assertTimeoutPreemptively(Duration.ofSeconds(30),
+            () -> assertThrows(IllegalStateException.class, () -> {
+                while (true) {
+                    journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+                }
+            }, "append after failure"));
+        assertEquals("Journal failed", exception.getMessage(), "append message");
+        assertThrows(IOException.class, journal::flush, "flush after failure");
+        exception = assertThrows(IOException.class, journal::close, "close after failure");
+        if (exception.getCause() != null) {
+            assertTrue(exception.getCause() instanceof InternalError, "fault kept");
+        }
+    }
+
+    /**
+     * Tests that every append that returns while the journal is being closed is written
+     * @throws Exception if the journal cannot be written or read
+     */
+    @Test
+    public void testCloseWhileAppending() throws Exception {
+        int threads = 4;
+        AtomicLong accepted = new AtomicLong();
+        GameJournal journal = new GameJournal(directory, 1 << 16, 64);
+        CountDownLatch started = new CountDownLatch(threads);
+        Thread[] appenders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            appenders[t] = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    assertEquals("Closed", e.getMessage(), "refused after close");
+                }
+            });
+            appenders[t].start();
+        }
+        started.await();
+        Thread.sleep(20);
+        journal.close();
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+        long records = 0;
+        try (JournalReader reader = new JournalReader(directory)) {
+            while (reader.next()) {
+                records++;
+            }
+        }
+        assertEquals(accepted.get(), records, "every accepted record written");
+        assertEquals(records, journal.getAppended(), "appended");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameJournal(null), "null directory");
+        assertEquals("Null directory", exception.getMessage(), "null directory message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameJournal(directory, 0, 4), "no segment records");
+        assertEquals("Invalid segment records", exception.getMessage(),
+                     "segment records message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameJournal(directory, 8, 6), "ring not a power of two");
+        assertEquals("Invalid ring records", exception.getMessage(), "ring records message");
+
+        GameJournal journal = new GameJournal(directory, 8, 4);
+        journal.close();
+        exception = assertThrows(IllegalStateException.class,
+            () -> journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0), "closed");
+        assertEquals("Closed", exception.getMessage(), "closed message");
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameMetrics class
+ * @author William Morgan
+ */
+public class GameMetricsTest {
+
+    /**
+     * Tests the counters, return to player and hit rates
+     */
+    @Test
+    public void testCounters() {
+        GameMetrics metrics = new GameMetrics();
+        assertEquals(0, metrics.getReturnToPlayer(), "nothing wagered");
+        metrics.recordNewGame(10, 100);
+        metrics.recordReplaceCard(20);
+        metrics.recordReplaceCard(30);
+        metrics.recordScoreHand(HandCategory.ONE_PAIR.getCode(), 7, 30);
+        metrics.recordNewGame(10, 200);
+        metrics.recordScoreHand(HandCategory.NO_PAIR.getCode(), 0, 50);
+        assertEquals(2, metrics.getGames(), "games");
+        assertEquals(2, metrics.getReplacements(), "replacements");
+        assertEquals(2, metrics.getHandsScored(), "hands");
+        assertEquals(20, metrics.getPointsWagered(), "wagered");
+        assertEquals(7, metrics.getPointsPaid(), "paid");
+        assertEquals(0.35, metrics.getReturnToPlayer(), 1e-9, "return to player");
+        assertEquals(1, metrics.getCategoryCounts()[HandCategory.ONE_PAIR.getCode()], "pairs");
+        assertEquals(0.5, metrics.getHitRates()[HandCategory.NO_PAIR.getCode()], 1e-9,
+                     "no pair rate");
+        assertEquals(200, metrics.getNewGameP99(), "deal latency");
+        assertEquals(2, metrics.getReplaceCardLatency().getCount(), "replace latencies");
+        assertEquals(30, metrics.getScoreHandP50(), "score latency");
+    }
+
+    /**
+     * Tests that VideoPoker and GameSession record their actions
+     */
+    @Test
+    public void testGames() {
+        GameMetrics metrics = new GameMetrics();
+        VideoPoker game = new VideoPoker(1);
+        game.setMetrics(metrics);
+        assertSame(metrics, game.getMetrics(), "metrics set");
+        game.newGame();
+        game.replaceCard(2);
+        game.scoreHand();
+        GameSession session = new GameSession(1, 1, metrics);
+        session.deal(PayTable.DEFAULT);
+        session.draw(0b00011);
+        assertEquals(2, metrics.getGames(), "games");
+        assertEquals(4, metrics.getReplacements(), "replacements");
+        assertEquals(2, metrics.getHandsScored(), "hands");
+        assertEquals(2 * VideoPoker.STARTING_POINTS - game.getPoints() - session.getPoints(),
+                     metrics.getPointsWagered() - metrics.getPointsPaid(), "net points");
+        game.setMetrics(null);
+        game.newGame();
+        assertEquals(2, metrics.getGames(), "stopped recording");
+    }
+
+    /**
+     * Tests the text dump
+     */
+    @Test
+    public void testDump() {
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordNewGame(10, 150);
+        metrics.recordScoreHand(HandCategory.FLUSH.getCode(), 30, 60);
+        String dump = metrics.dump();
+        assertTrue(dump.contains("poker_games_total 1\n"), dump);
+        assertTrue(dump.contains("poker_return_to_player 3.000000\n"), dump);
+        assertTrue(dump.contains("poker_hands_total{category=\"FLUSH\"} 1\n"), dump);
+        assertTrue(dump.contains("poker_hit_rate{category=\"FLUSH\"} 1.000000\n"), dump);
+        assertTrue(dump.contains("poker_latency_nanos{operation=\"newGame\",quantile=\"0.99\"} "
+                                 + "150\n"), dump);
+        assertTrue(dump.contains("poker_latency_nanos_count{operation=\"scoreHand\"} 1\n"), dump);
+    }
+
+    /**
+     * Tests reading the metrics through JMX
+     * @throws JMException if the MBean cannot be registered or read
+     */
+    @Test
+    public void testMBean() throws JMException {
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordNewGame(10, 100);
+        ObjectName name = metrics.register("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "Games"), "games attribute");
+            assertEquals(10L, server.getAttribute(name, "PointsWagered"), "wagered attribute");
+            assertEquals(metrics.dump(), server.invoke(name, "dump", null, null), "dump");
+            assertThrows(InstanceAlreadyExistsException.class,
+                () -> new GameMetrics().register("test"), "name taken");
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
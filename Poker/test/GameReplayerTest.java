@@ -0,0 +1,270 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests GameReplayer class
+ * @author William Morgan
+ */
+public class GameReplayerTest {
+
+    /** Directory holding the segments */
+    @TempDir
+    Path directory;
+
+    /**
+     * Plays games in several interleaved sessions, recording them in a journal with small
+     * segments. Each session replaces its first card in every game, and the second too in
+     * odd games, and the last game of session 0 is left unscored.
+     * @param sessions for the number of sessions
+     * @param games for the number of games each session plays
+     * @throws IOException if the journal cannot be written
+     */
+    private void play(int sessions, int games) throws IOException {
+        VideoPoker[] players = new VideoPoker[sessions];
+        try (GameJournal journal = new GameJournal(directory, 16, 8)) {
+            for (int s = 0; s < sessions; s++) {
+                players[s] = new VideoPoker(s);
+                players[s].setJournal(journal, s);
+            }
+            for (int g = 0; g < games; g++) {
+                for (VideoPoker player : players) {
+                    player.newGame();
+                    player.replaceCard(0);
+                    if (g % 2 == 1) {
+                        player.replaceCard(1);
+                    }
+                }
+                for (int s = 0; s < sessions; s++) {
+                    if (s != 0 || g != games - 1) {
+                        players[s].scoreHand();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests rebuilding a game from its seed and replacements
+     */
+    @Test
+    public void testReplay() {
+        VideoPoker game = new VideoPoker(5);
+        game.newGame();
+        game.newGame();
+        long seed = game.getGameSeed();
+        game.replaceCard(0);
+        game.replaceCard(3);
+        Hand replayed = GameReplayer.replay(seed, new int[] {0, 3});
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            assertEquals(game.getCard(i), replayed.getCard(i), "card " + i);
+        }
+        assertEquals(game.scoreHand(), VideoPoker.evaluate(replayed).getDisplayName(),
+                     "category");
+    }
+
+    /**
+     * Tests that an untouched journal verifies with any number of workers
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testVerify() throws IOException {
+        play(3, 40);
+        assertTrue(JournalReader.segments(directory).length > 10, "many segments");
+        for (int workers : new int[] {1, 4}) {
+            ReplayReport report = new GameReplayer(PayTable.DEFAULT, workers).verify(directory);
+            assertTrue(report.isVerified(), report.getMessages().toString());
+            assertEquals(3 * 40 - 1, report.getVerifiedGames(), "games verified");
+            assertEquals(0, report.getFailedGames(), "no games failed");
+            assertEquals(1, report.getUnfinishedGames(), "unscored game");
+            assertEquals(3 * 40 * 3 + 3 * 20 - 1, report.getRecords(), "every record");
+        }
+    }
+
+    /**
+     * Tests that changed records are found
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testTampering() throws IOException {
+        play(2, 10);
+        Path file = JournalReader.segments(directory)[1];
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        // Pay the third record of the segment twice
+        int delta = GameJournal.HEADER_BYTES + 2 * GameJournal.RECORD_BYTES + 24;
+        bytes.putInt(delta, 2 * bytes.getInt(delta) - 1);
+        Files.write(file, bytes.array());
+
+        ReplayReport report = new GameReplayer(PayTable.DEFAULT, 2).verify(directory);
+        assertFalse(report.isVerified(), "tampering found");
+        assertEquals(1, report.getMismatches(), "one mismatch");
+        assertEquals(1, report.getFailedGames(), "one game failed");
+        assertEquals(2 * 10 - 2, report.getVerifiedGames(), "other games verified");
+        assertEquals(1, report.getMessages().size(), "one message");
+
+        report = new GameReplayer(PayTable.fromProperties(costlyTable()), 1).verify(directory);
+        assertTrue(report.getFailedGames() > 1, "wrong pay table found");
+    }
+
+    /**
+     * Plays games of one session, each dealt, replaced once and scored, so a journal with
+     * segments of three records holds one game per segment
+     * @param journal for the journal
+     * @param games for the number of games
+     */
+    private static void playOneSession(GameJournal journal, int games) {
+        VideoPoker player = new VideoPoker(7);
+        player.setJournal(journal, 7);
+        for (int g = 0; g < games; g++) {
+            player.newGame();
+            player.replaceCard(g % VideoPoker.CARDS_IN_HAND);
+            player.scoreHand();
+        }
+    }
+
+    /**
+     * Tests that records with no game dealt in their session are found, at the head of a
+     * worker's range as well as inside it
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testOrphans() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 3, 8)) {
+            playOneSession(journal, 3);
+            // A forged score and an orphan replacement start the fourth segment
+            journal.append(42, 0, 1, GameJournal.SCORE, 0, 0, HandEvaluator.ROYAL_FLUSH,
+                           100000, 0);
+            journal.append(43, 0, 1, GameJournal.REPLACE, 0, 0, -1, 0, 0);
+            journal.append(7, 0, 3, GameJournal.SCORE, 0, 0, HandEvaluator.ROYAL_FLUSH,
+                           100000, 0);
+        }
+        assertEquals(4, JournalReader.segments(directory).length, "segments");
+        for (int workers : new int[] {1, 2, 4}) {
+            ReplayReport report = new GameReplayer(PayTable.DEFAULT, workers)
+                .verify(directory);
+            assertFalse(report.isVerified(), workers + " workers found orphans");
+            assertEquals(3, report.getMismatches(), workers + " workers mismatches");
+            assertEquals(3, report.getVerifiedGames(), workers + " workers games");
+            assertEquals(3 * 3 + 3, report.getRecords(), workers + " workers records");
+            assertTrue(report.getMessages().get(0).contains("without a deal"),
+                       report.getMessages().get(0));
+        }
+    }
+
+    /**
+     * Tests that a game number out of sequence is found, inside a worker's range and at
+     * the head of one
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testGameNumbers() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 3, 8)) {
+            playOneSession(journal, 8);
+        }
+        Path[] files = JournalReader.segments(directory);
+        assertEquals(8, files.length, "one game per segment");
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(files[4]));
+        // Number the fifth game as the sixth, leaving a gap before it and a repeat after
+        int game = GameJournal.HEADER_BYTES + 16;
+        bytes.putInt(game, bytes.getInt(game) + 1);
+        Files.write(files[4], bytes.array());
+
+        for (int workers : new int[] {1, 4}) {
+            ReplayReport report = new GameReplayer(PayTable.DEFAULT, workers)
+                .verify(directory);
+            assertFalse(report.isVerified(), workers + " workers found the gap");
+            assertEquals(2, report.getMismatches(), workers + " workers mismatches");
+            for (String message : report.getMessages()) {
+                assertTrue(message.endsWith("game number differs"), message);
+            }
+        }
+    }
+
+    /**
+     * Tests a journal spanning a pay table swap, which verifies against both tables and
+     * fails every game after the swap against the first alone
+     * @throws IOException if the journal or pay table cannot be written or read
+     */
+    @Test
+    public void testPayTableSwap() throws IOException {
+        PayTable bonus = PayTable.load(Paths.get(PayTable.DIRECTORY, "bonus.properties"));
+        try (GameJournal journal = new GameJournal(directory, 16, 8)) {
+            VideoPoker[] players = {new VideoPoker(1), new VideoPoker(2)};
+            for (int g = 0; g < 20; g++) {
+                for (int s = 0; s < players.length; s++) {
+                    if (g == 0) {
+                        players[s].setJournal(journal, s);
+                    } else if (g == 10) {
+                        players[s].setPayTable(bonus);
+                    }
+                    players[s].newGame();
+                    players[s].replaceCard(g % VideoPoker.CARDS_IN_HAND);
+                    players[s].scoreHand();
+                }
+            }
+        }
+
+        for (PayTable[] payTables : new PayTable[][] {{PayTable.DEFAULT, bonus},
+                                                      {bonus, PayTable.DEFAULT}}) {
+            ReplayReport report = new GameReplayer(payTables, 3).verify(directory);
+            assertTrue(report.isVerified(), report.getMessages().toString());
+            assertEquals(2 * 20, report.getVerifiedGames(), "games verified");
+        }
+
+        ReplayReport report = new GameReplayer(PayTable.DEFAULT, 3).verify(directory);
+        assertEquals(2 * 10, report.getVerifiedGames(), "games before the swap");
+        assertEquals(2 * 10, report.getFailedGames(), "games after the swap");
+        assertTrue(report.getMessages().get(0).contains("pay table"),
+                   report.getMessages().get(0));
+    }
+
+    /**
+     * Returns the properties of a pay table costing more than the default
+     * @return the properties
+     */
+    private static Properties costlyTable() {
+        Properties properties = new Properties();
+        properties.setProperty(PayTable.NAME_KEY, "Costly");
+        properties.setProperty(PayTable.COST_KEY, "20");
+        return properties;
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer((PayTable) null, 1), "null pay table");
+        assertEquals("Null pay table", exception.getMessage(), "null pay table message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer((PayTable[]) null, 1), "null pay tables");
+        assertEquals("Null pay tables", exception.getMessage(), "null pay tables message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer(new PayTable[0], 1), "no pay tables");
+        assertEquals("Invalid pay tables", exception.getMessage(), "no pay tables message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer(new PayTable[] {PayTable.DEFAULT, null}, 1),
+            "null table among pay tables");
+        assertEquals("Null pay table", exception.getMessage(),
+                     "null table among pay tables message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer(PayTable.DEFAULT, 0), "no workers");
+        assertEquals("Invalid workers", exception.getMessage(), "no workers message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new GameReplayer().verify(null), "null directory");
+        assertEquals("Null directory", exception.getMessage(), "null directory message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> GameReplayer.replay(1, null), "null replacements");
+        assertEquals("Null replacements", exception.getMessage(), "null replacements message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> GameReplayer.replay(1, new int[] {5}), "invalid index");
+        assertEquals("Invalid index", exception.getMessage(), "invalid index message");
+    }
+}
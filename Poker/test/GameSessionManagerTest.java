@@ -0,0 +1,137 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameSessionManager class
+ * @author William Morgan
+ */
+public class GameSessionManagerTest {
+
+    /** Manager used for testing */
+    private GameSessionManager manager;
+
+    /**
+     * Creates a manager with several lanes
+     */
+    @BeforeEach
+    public void setUp() {
+        manager = new GameSessionManager(3, 1);
+    }
+
+    /**
+     * Stops the manager's lanes
+     */
+    @AfterEach
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Tests playing a round through the manager
+     */
+    @Test
+    public void testRound() {
+        long id = manager.createSession();
+        assertEquals(1, manager.getSessionCount(), "one session");
+        int[] codes = manager.deal(id).join();
+        assertEquals(VideoPoker.CARDS_IN_HAND, codes.length, "five cards dealt");
+        HandCategory category = manager.draw(id, 0b11111).join();
+        assertEquals(VideoPoker.evaluate(Hand.fromCodes(codes)), category, "held hand scored");
+        int points = manager.submit(id, GameSession::getPoints).join();
+        assertEquals(VideoPoker.STARTING_POINTS - VideoPoker.POINTS_FOR_NEW_GAME
+                     + VideoPoker.getPayout(category), points, "points after round");
+        assertTrue(manager.removeSession(id), "removed");
+        assertFalse(manager.removeSession(id), "already removed");
+    }
+
+    /**
+     * Tests that each session is only ever run on one thread while many are played at once
+     * from several client threads
+     * @throws Exception if a client fails
+     */
+    @Test
+    public void testConfinement() throws Exception {
+        int sessions = 300;
+        long[] ids = new long[sessions];
+        Map<Long, Set<String>> threads = new ConcurrentHashMap<Long, Set<String>>();
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = manager.createSession();
+            threads.put(ids[i], ConcurrentHashMap.newKeySet());
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int c = 0; c < 4; c++) {
+                int client = c;
+                futures.add(clients.submit(() -> {
+                    for (int i = client; i < sessions; i += 4) {
+                        for (int round = 0; round < 5; round++) {
+                            manager.deal(ids[i]).join();
+                            manager.draw(ids[i], 0).join();
+                            manager.submit(ids[i], session -> threads.get(session.getId())
+                                .add(Thread.currentThread().getName())).join();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        Set<String> lanes = new HashSet<String>();
+        for (Set<String> names : threads.values()) {
+            assertEquals(1, names.size(), "one thread per session");
+            lanes.addAll(names);
+        }
+        assertEquals(3, lanes.size(), "sessions spread over every lane");
+    }
+
+    /**
+     * Tests that a new pay table applies to games dealt after it is set
+     */
+    @Test
+    public void testPayTable() {
+        int[] payouts = new int[HandEvaluator.CATEGORIES];
+        PayTable cheap = new PayTable("Cheap", 1, payouts);
+        long id = manager.createSession();
+        manager.setPayTable(cheap);
+        assertSame(cheap, manager.getPayTable(), "pay table");
+        manager.deal(id).join();
+        manager.draw(id, 0).join();
+        assertEquals(VideoPoker.STARTING_POINTS - 1,
+                     (int) manager.submit(id, GameSession::getPoints).join(), "cheap game");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        CompletionException exception = assertThrows(CompletionException.class,
+            () -> manager.deal(99).join(), "unknown session");
+        assertEquals("Unknown session", exception.getCause().getMessage(),
+                "unknown session message");
+
+        long id = manager.createSession();
+        exception = assertThrows(CompletionException.class,
+            () -> manager.draw(id, 0).join(), "draw() before deal");
+        assertEquals("No game", exception.getCause().getMessage(), "draw() before deal message");
+
+        Exception argument = assertThrows(IllegalArgumentException.class,
+            () -> new GameSessionManager(0, 1), "no lanes");
+        assertEquals("Invalid lanes", argument.getMessage(), "no lanes message");
+
+        argument = assertThrows(IllegalArgumentException.class,
+            () -> manager.setPayTable(null), "null pay table");
+        assertEquals("Null pay table", argument.getMessage(), "null pay table message");
+    }
+}
@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests GameSession class
+ * @author William Morgan
+ */
+public class GameSessionTest {
+
+    /** Session used for testing */
+    private GameSession session;
+
+    /**
+     * Creates a seeded session
+     */
+    @BeforeEach
+    public void setUp() {
+        session = new GameSession(7, 1);
+    }
+
+    /**
+     * Tests dealing five different cards and paying for the cost of the game
+     */
+    @Test
+    public void testDeal() {
+        assertEquals(7, session.getId(), "id");
+        assertEquals(VideoPoker.STARTING_POINTS, session.getPoints(), "starting points");
+        assertFalse(session.isInGame(), "no game before deal");
+        session.deal(PayTable.DEFAULT);
+        assertTrue(session.isInGame(), "game after deal");
+        assertEquals(VideoPoker.STARTING_POINTS - VideoPoker.POINTS_FOR_NEW_GAME,
+                     session.getPoints(), "points after deal");
+        long mask = 0;
+        for (int code : session.getCardCodes()) {
+            mask |= 1L << code;
+        }
+        assertEquals(VideoPoker.CARDS_IN_HAND, Long.bitCount(mask), "five different cards");
+    }
+
+    /**
+     * Tests that a draw keeps the held cards, replaces the others with cards not yet dealt,
+     * and pays for the final hand
+     */
+    @Test
+    public void testDraw() {
+        session.deal(PayTable.DEFAULT);
+        int[] dealt = session.getCardCodes();
+        long dealtMask = 0;
+        for (int code : dealt) {
+            dealtMask |= 1L << code;
+        }
+        int holdMask = 0b10001;
+        HandCategory category = session.draw(holdMask);
+        assertFalse(session.isInGame(), "no game after draw");
+        int[] drawn = session.getCardCodes();
+        for (int i = 0; i < drawn.length; i++) {
+            if ((holdMask & (1 << i)) != 0) {
+                assertEquals(dealt[i], drawn[i], "held card " + i);
+            } else {
+                assertEquals(0, dealtMask & (1L << drawn[i]), "new card " + i);
+            }
+        }
+        assertEquals(VideoPoker.evaluate(Hand.fromCodes(drawn)), category, "category");
+        assertEquals(category, session.getLastCategory(), "last category");
+        assertEquals(VideoPoker.getPayout(category), session.getLastPaid(), "last paid");
+        assertEquals(VideoPoker.STARTING_POINTS - VideoPoker.POINTS_FOR_NEW_GAME
+                     + session.getLastPaid(), session.getPoints(), "points after draw");
+    }
+
+    /**
+     * Tests replacing single cards and scoring as VideoPoker does
+     */
+    @Test
+    public void testReplaceAndScore() {
+        session.deal(PayTable.DEFAULT);
+        int[] dealt = session.getCardCodes();
+        session.replaceCard(2);
+        int[] replaced = session.getCardCodes();
+        for (int i = 0; i < dealt.length; i++) {
+            if (i == 2) {
+                assertNotEquals(dealt[i], replaced[i], "replaced card");
+            } else {
+                assertEquals(dealt[i], replaced[i], "kept card " + i);
+            }
+        }
+        HandCategory category = session.scoreHand();
+        assertEquals(VideoPoker.evaluate(Hand.fromCodes(replaced)), category, "category");
+        assertFalse(session.isInGame(), "no game after score");
+    }
+
+    /**
+     * Tests that sessions with the same seed deal the same games
+     */
+    @Test
+    public void testSeed() {
+        GameSession sameSeed = new GameSession(8, 1);
+        for (int game = 0; game < 3; game++) {
+            session.deal(PayTable.DEFAULT);
+            sameSeed.deal(PayTable.DEFAULT);
+            assertArrayEquals(session.getCardCodes(), sameSeed.getCardCodes(), "deal " + game);
+            assertEquals(session.draw(0b00110), sameSeed.draw(0b00110), "draw " + game);
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> session.draw(0),
+                                           "draw() before deal");
+        assertEquals("No game", exception.getMessage(), "draw() before deal message");
+
+        exception = assertThrows(IllegalStateException.class, () -> session.replaceCard(0),
+                                 "replaceCard() before deal");
+        assertEquals("No game", exception.getMessage(), "replaceCard() before deal message");
+
+        exception = assertThrows(IllegalStateException.class, () -> session.scoreHand(),
+                                 "scoreHand() before deal");
+        assertEquals("No game", exception.getMessage(), "scoreHand() before deal message");
+
+        exception = assertThrows(IllegalStateException.class, () -> session.getCardCode(0),
+                                 "getCardCode() before deal");
+        assertEquals("No hand", exception.getMessage(), "getCardCode() before deal message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> session.deal(null),
+                                 "deal() null pay table");
+        assertEquals("Null pay table", exception.getMessage(), "deal() null pay table message");
+
+        session.deal(PayTable.DEFAULT);
+        exception = assertThrows(IllegalStateException.class,
+            () -> session.deal(PayTable.DEFAULT), "deal() twice");
+        assertEquals("Game in progress", exception.getMessage(), "deal() twice message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> session.draw(-1),
+                                 "draw() invalid hold mask");
+        assertEquals("Invalid hold mask", exception.getMessage(),
+                "draw() invalid hold mask message");
+
+        for (int i = VideoPoker.CARDS_IN_HAND; i < Card.CODES; i++) {
+            session.replaceCard(0);
+        }
+        exception = assertThrows(IllegalStateException.class, () -> session.replaceCard(0),
+                                 "replaceCard() with every card dealt");
+        assertEquals("No more cards", exception.getMessage(),
+                "replaceCard() with every card dealt message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> session.replaceCard(5),
+                                 "replaceCard() invalid index");
+        assertEquals("Invalid index", exception.getMessage(),
+                "replaceCard() invalid index message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> session.getCardCode(5),
+                                 "getCardCode() invalid index");
+        assertEquals("Invalid index", exception.getMessage(),
+                "getCardCode() invalid index message");
+    }
+}
@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HandBatchEvaluator class
+ * @author William Morgan
+ */
+public class HandBatchEvaluatorTest {
+
+    /** Number of hands in the sample batch */
+    private static final int HANDS = 10000;
+
+    /**
+     * Deals a batch of hands from a seeded deck
+     * @return the codes of the hands, five per hand
+     */
+    private static int[] deal() {
+        Deck deck = new Deck(4);
+        int[] codes = new int[HANDS * Hand.CARDS_IN_HAND];
+        for (int i = 0; i < codes.length; i += Hand.CARDS_IN_HAND) {
+            deck.shuffle();
+            for (int j = 0; j < Hand.CARDS_IN_HAND; j++) {
+                codes[i + j] = deck.nextCardCode();
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Tests that packed codes evaluate as they do one hand at a time
+     */
+    @Test
+    public void testCodes() {
+        int[] codes = deal();
+        int[] values = new int[HANDS];
+        int[] categories = new int[HANDS];
+        HandBatchEvaluator.evaluate(codes, values);
+        HandBatchEvaluator.categorize(codes, categories);
+        long[] counts = new long[HandEvaluator.CATEGORIES];
+        for (int i = 0; i < HANDS; i++) {
+            int c = i * Hand.CARDS_IN_HAND;
+            int value = HandEvaluator.evaluate(codes[c], codes[c + 1], codes[c + 2],
+                                               codes[c + 3], codes[c + 4]);
+            assertEquals(value, values[i], "value of hand " + i);
+            assertEquals(HandEvaluator.getCategory(value), categories[i], "category " + i);
+            counts[categories[i]]++;
+        }
+        assertArrayEquals(counts, HandBatchEvaluator.tally(codes), "tally");
+    }
+
+    /**
+     * Tests that every five card hand is given the category HandEvaluator gives it
+     */
+    @Test
+    public void testEveryCategory() {
+        int[] codes = new int[HandRankTable.HANDS * Hand.CARDS_IN_HAND];
+        int next = 0;
+        for (int e = 4; e < Card.CODES; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            codes[next++] = d;
+                            codes[next++] = a;
+                            codes[next++] = e;
+                            codes[next++] = c;
+                            codes[next++] = b;
+                        }
+                    }
+                }
+            }
+        }
+        int[] values = new int[HandRankTable.HANDS];
+        int[] categories = new int[HandRankTable.HANDS];
+        HandBatchEvaluator.evaluate(codes, values);
+        HandBatchEvaluator.categorize(codes, categories);
+        for (int i = 0; i < values.length; i++) {
+            if (HandEvaluator.getCategory(values[i]) != categories[i]) {
+                fail("Category mismatch for hand " + i);
+            }
+        }
+        long[] counts = HandBatchEvaluator.tally(codes);
+        assertEquals(4, counts[HandEvaluator.ROYAL_FLUSH], "royal flushes");
+        // Aces are only high, so the 1020 five high straights count as no pair
+        assertEquals(1303560, counts[HandEvaluator.NO_PAIR], "no pair hands");
+    }
+
+    /**
+     * Tests that card masks evaluate as the packed codes do
+     */
+    @Test
+    public void testMasks() {
+        int[] codes = deal();
+        long[] masks = new long[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            int[] hand = new int[Hand.CARDS_IN_HAND];
+            System.arraycopy(codes, i * Hand.CARDS_IN_HAND, hand, 0, hand.length);
+            masks[i] = Hand.fromCodes(hand).getMask();
+        }
+        int[] expected = new int[HANDS];
+        int[] actual = new int[HANDS];
+        HandBatchEvaluator.evaluate(codes, expected);
+        HandBatchEvaluator.evaluateMasks(masks, actual);
+        assertArrayEquals(expected, actual, "mask values");
+        HandBatchEvaluator.categorize(codes, expected);
+        HandBatchEvaluator.categorizeMasks(masks, actual);
+        assertArrayEquals(expected, actual, "mask categories");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.categorize(null, new int[1]), "categorize() null codes");
+        assertEquals("Null array", exception.getMessage(), "categorize() null codes message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.evaluate(new int[5], null), "evaluate() null values");
+        assertEquals("Null array", exception.getMessage(), "evaluate() null values message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.categorize(new int[7], new int[2]), "partial hand");
+        assertEquals("Invalid array length", exception.getMessage(), "partial hand message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.categorize(new int[10], new int[1]), "short output");
+        assertEquals("Invalid array length", exception.getMessage(), "short output message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.categorizeMasks(new long[2], new int[1]), "short masks");
+        assertEquals("Invalid array length", exception.getMessage(), "short masks message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.tally(null), "tally() null");
+        assertEquals("Null array", exception.getMessage(), "tally() null message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandBatchEvaluator.tally(new int[7]), "tally() partial hand");
+        assertEquals("Invalid array length", exception.getMessage(),
+                     "tally() partial hand message");
+    }
+}
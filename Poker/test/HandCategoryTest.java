@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HandCategory class
+ * @author William Morgan
+ */
+public class HandCategoryTest {
+
+    /**
+     * Tests that every category has the code HandEvaluator uses
+     */
+    @Test
+    public void testCodes() {
+        assertEquals(HandEvaluator.CATEGORIES, HandCategory.values().length, "categories");
+        assertEquals(HandEvaluator.NO_PAIR, HandCategory.NO_PAIR.getCode(), "no pair");
+        assertEquals(HandEvaluator.ONE_PAIR, HandCategory.ONE_PAIR.getCode(), "one pair");
+        assertEquals(HandEvaluator.TWO_PAIRS, HandCategory.TWO_PAIRS.getCode(), "two pairs");
+        assertEquals(HandEvaluator.THREE_OF_A_KIND, HandCategory.THREE_OF_A_KIND.getCode(),
+                     "three of a kind");
+        assertEquals(HandEvaluator.STRAIGHT, HandCategory.STRAIGHT.getCode(), "straight");
+        assertEquals(HandEvaluator.FLUSH, HandCategory.FLUSH.getCode(), "flush");
+        assertEquals(HandEvaluator.FULL_HOUSE, HandCategory.FULL_HOUSE.getCode(), "full house");
+        assertEquals(HandEvaluator.FOUR_OF_A_KIND, HandCategory.FOUR_OF_A_KIND.getCode(),
+                     "four of a kind");
+        assertEquals(HandEvaluator.STRAIGHT_FLUSH, HandCategory.STRAIGHT_FLUSH.getCode(),
+                     "straight flush");
+        assertEquals(HandEvaluator.ROYAL_FLUSH, HandCategory.ROYAL_FLUSH.getCode(),
+                     "royal flush");
+        for (HandCategory category : HandCategory.values()) {
+            assertSame(category, HandCategory.fromCode(category.getCode()), "fromCode");
+        }
+    }
+
+    /**
+     * Tests the names shown to the player
+     */
+    @Test
+    public void testDisplayNames() {
+        assertEquals("No Pair", HandCategory.NO_PAIR.toString(), "no pair");
+        assertEquals("Three of a Kind", HandCategory.THREE_OF_A_KIND.getDisplayName(),
+                     "three of a kind");
+        assertEquals("Royal Flush", HandCategory.ROYAL_FLUSH.toString(), "royal flush");
+    }
+
+    /**
+     * Tests the category of evaluated values
+     */
+    @Test
+    public void testOfValue() {
+        Hand fullHouse = Hand.fromCodes(new int[] {Card.code(6, 'h'), Card.code(3, 'd'),
+                                                   Card.code(3, 'c'), Card.code(3, 's'),
+                                                   Card.code(6, 'c')});
+        assertEquals(HandCategory.FULL_HOUSE,
+                     HandCategory.ofValue(HandEvaluator.evaluate(fullHouse)), "full house");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> HandCategory.fromCode(-1), "fromCode() negative");
+        assertEquals("Invalid category", exception.getMessage(), "fromCode() negative message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandCategory.fromCode(HandEvaluator.CATEGORIES), "fromCode() too high");
+        assertEquals("Invalid category", exception.getMessage(), "fromCode() too high message");
+    }
+}
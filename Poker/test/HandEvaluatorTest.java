@@ -0,0 +1,157 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests HandEvaluator class
+ * @author William Morgan
+ */
+public class HandEvaluatorTest {
+
+    /**
+     * Builds a hand from value and suit pairs
+     * @param values for the card values
+     * @param suits for the card suits
+     * @return the cards
+     */
+    private static Card[] cards(int[] values, String suits) {
+        Card[] cards = new Card[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cards[i] = new Card(values[i], suits.charAt(i));
+        }
+        return cards;
+    }
+
+    /**
+     * Scores a hand with the Hand predicates in the order VideoPoker has always used
+     * @param hand for the hand to be scored
+     * @return the category of the hand
+     */
+    private static int predicateCategory(Hand hand) {
+        if (hand.isRoyalFlush()) {
+            return HandEvaluator.ROYAL_FLUSH;
+        } else if (hand.isStraightFlush()) {
+            return HandEvaluator.STRAIGHT_FLUSH;
+        } else if (hand.hasFourOfAKind()) {
+            return HandEvaluator.FOUR_OF_A_KIND;
+        } else if (hand.isFullHouse()) {
+            return HandEvaluator.FULL_HOUSE;
+        } else if (hand.isFlush()) {
+            return HandEvaluator.FLUSH;
+        } else if (hand.isStraight()) {
+            return HandEvaluator.STRAIGHT;
+        } else if (hand.hasThreeOfAKind()) {
+            return HandEvaluator.THREE_OF_A_KIND;
+        } else if (hand.hasTwoPairs()) {
+            return HandEvaluator.TWO_PAIRS;
+        } else if (hand.hasOnePair()) {
+            return HandEvaluator.ONE_PAIR;
+        } else {
+            return HandEvaluator.NO_PAIR;
+        }
+    }
+
+    /**
+     * Tests each category with a sample hand
+     */
+    @Test
+    public void testCategories() {
+        assertEquals(HandEvaluator.ROYAL_FLUSH, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {12, 10, 14, 11, 13}, "ccccc"))), "royal flush");
+        assertEquals(HandEvaluator.STRAIGHT_FLUSH, HandEvaluator.getCategory(
+            HandEvaluator.evaluate(cards(new int[] {2, 3, 4, 5, 6}, "hhhhh"))), "straight flush");
+        assertEquals(HandEvaluator.FOUR_OF_A_KIND, HandEvaluator.getCategory(
+            HandEvaluator.evaluate(cards(new int[] {2, 2, 2, 2, 6}, "cshdc"))), "four of a kind");
+        assertEquals(HandEvaluator.FULL_HOUSE, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {6, 3, 3, 3, 6}, "hdcsc"))), "full house");
+        assertEquals(HandEvaluator.FLUSH, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {2, 3, 10, 12, 6}, "ccccc"))), "flush");
+        assertEquals(HandEvaluator.STRAIGHT, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {2, 3, 4, 5, 6}, "cdshc"))), "straight");
+        assertEquals(HandEvaluator.THREE_OF_A_KIND, HandEvaluator.getCategory(
+            HandEvaluator.evaluate(cards(new int[] {3, 3, 3, 5, 6}, "cshdc"))), "three of a kind");
+        assertEquals(HandEvaluator.TWO_PAIRS, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {5, 4, 4, 5, 6}, "cshdc"))), "two pairs");
+        assertEquals(HandEvaluator.ONE_PAIR, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {6, 3, 4, 5, 6}, "hdssc"))), "one pair");
+        assertEquals(HandEvaluator.NO_PAIR, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {2, 3, 10, 12, 6}, "cdccc"))), "no pair");
+        assertEquals(HandEvaluator.ONE_PAIR, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {5, 5, 6, 7, 8}, "cdshc"))), "pair below four in a row");
+    }
+
+    /**
+     * Tests that better hands within a category evaluate higher
+     */
+    @Test
+    public void testOrdering() {
+        int kingsFull = HandEvaluator.evaluate(cards(new int[] {13, 13, 13, 2, 2}, "cdhsc"));
+        int queensFull = HandEvaluator.evaluate(cards(new int[] {12, 12, 12, 14, 14}, "cdhsc"));
+        assertTrue(kingsFull > queensFull, "kings full beats queens full");
+        int acesHighKicker = HandEvaluator.evaluate(cards(new int[] {14, 14, 9, 5, 3}, "cdhsc"));
+        int acesLowKicker = HandEvaluator.evaluate(cards(new int[] {14, 14, 8, 7, 6}, "cdhsc"));
+        assertTrue(acesHighKicker > acesLowKicker, "pair of aces with nine kicker wins");
+        int lowStraight = HandEvaluator.evaluate(cards(new int[] {2, 3, 4, 5, 6}, "cdhsc"));
+        int highCard = HandEvaluator.evaluate(cards(new int[] {14, 13, 12, 11, 9}, "cdhsc"));
+        assertTrue(lowStraight > highCard, "straight beats high card");
+    }
+
+    /**
+     * Tests that every five card hand evaluates to the category the Hand predicates give
+     */
+    @Test
+    public void testMatchesHandPredicates() {
+        Deck deck = new Deck(1);
+        Card[] all = new Card[Deck.CARDS_IN_DECK];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = deck.nextCard();
+        }
+        int hands = 0;
+        for (int a = 0; a < all.length; a++) {
+            for (int b = a + 1; b < all.length; b++) {
+                for (int c = b + 1; c < all.length; c++) {
+                    for (int d = c + 1; d < all.length; d++) {
+                        for (int e = d + 1; e < all.length; e++) {
+                            Card[] cards = {all[e], all[c], all[a], all[d], all[b]};
+                            int category = HandEvaluator.getCategory(
+                                HandEvaluator.evaluate(cards));
+                            Hand hand = new Hand(cards);
+                            if (category != predicateCategory(hand)) {
+                                fail("Category mismatch for " + hand);
+                            }
+                            if (HandEvaluator.evaluateMask(hand.getMask())
+                                    != HandEvaluator.evaluate(cards)) {
+                                fail("Mask evaluation mismatch for " + hand);
+                            }
+                            hands++;
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(2598960, hands, "number of hands");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate((Card[]) null), "evaluate() null array");
+        assertEquals("Null array", exception.getMessage(), "evaluate() null array message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate(new Card[4]), "evaluate() invalid array length");
+        assertEquals("Invalid array length", exception.getMessage(),
+                "evaluate() invalid array length message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate(new Card[5]), "evaluate() null element");
+        assertEquals("Null element", exception.getMessage(), "evaluate() null element message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> HandEvaluator.evaluate((Hand) null), "evaluate() null hand");
+        assertEquals("Null hand", exception.getMessage(), "evaluate() null hand message");
+    }
+}
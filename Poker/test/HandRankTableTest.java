@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests HandRankTable class
+ * @author William Morgan
+ */
+public class HandRankTableTest {
+
+    /** Directory holding the generated table */
+    @TempDir
+    static Path directory;
+
+    /** Generated table file */
+    private static Path file;
+
+    /** Table loaded from the generated file */
+    private static HandRankTable table;
+
+    /**
+     * Generates and loads the table once for all tests
+     * @throws IOException if the table cannot be written or read
+     */
+    @BeforeAll
+    public static void setUp() throws IOException {
+        file = directory.resolve(HandRankTable.DEFAULT_FILE);
+        HandRankTable.generate(file);
+        table = HandRankTable.load(file);
+    }
+
+    /**
+     * Writes a copy of the table file with one int changed
+     * @param name for the name of the copy
+     * @param position for the position of the int to change
+     * @param value for the new value of the int
+     * @return the path of the copy
+     * @throws IOException if the copy cannot be written
+     */
+    private static Path copyWithInt(String name, int position, int value) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.putInt(position, value);
+        return Files.write(directory.resolve(name), bytes.array());
+    }
+
+    /**
+     * Tests that the ranks number the hands from 0 to HANDS - 1 in order
+     */
+    @Test
+    public void testRank() {
+        assertEquals(0, HandRankTable.rank(0b11111L), "lowest five codes");
+        assertEquals(HandRankTable.HANDS - 1, HandRankTable.rank(0b11111L << 47),
+                     "highest five codes");
+        assertEquals(1, HandRankTable.rank(0b101111L), "second hand");
+        assertEquals(5, HandRankTable.rank(0b111110L), "sixth hand");
+    }
+
+    /**
+     * Tests that every hand looks up to the value HandEvaluator gives
+     */
+    @Test
+    public void testMatchesEvaluator() {
+        assertEquals(7462, table.getStrengths(), "distinct strengths");
+        for (int e = 4; e < Card.CODES; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            if (table.evaluate(e, c, a, d, b)
+                                    != HandEvaluator.evaluate(a, b, c, d, e)) {
+                                fail("Lookup mismatch for " + a + " " + b + " " + c + " " + d
+                                     + " " + e);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the lookup path of Hand
+     */
+    @Test
+    public void testHandEvaluate() {
+        Card[] cards = {new Card(10, 's'), new Card(14, 's'), new Card(12, 's'),
+                        new Card(11, 's'), new Card(13, 's')};
+        Hand hand = new Hand(cards);
+        assertEquals(HandEvaluator.evaluate(hand), hand.evaluate(table), "royal flush");
+        assertEquals(table.getStrengths() - 1, table.getStrength(hand.getMask()),
+                     "royal flush is strongest");
+        hand.replace(0, new Card(2, 'c'));
+        assertEquals(HandEvaluator.evaluate(hand), hand.evaluate(table), "no pair");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if a test file cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Path badMagic = copyWithInt("magic.dat", 0, 0);
+        Exception exception = assertThrows(IOException.class,
+            () -> HandRankTable.load(badMagic), "load() invalid header");
+        assertEquals("Invalid table header", exception.getMessage(),
+                "load() invalid header message");
+
+        Path badVersion = copyWithInt("version.dat", 4, HandRankTable.VERSION + 1);
+        exception = assertThrows(IOException.class,
+            () -> HandRankTable.load(badVersion), "load() unsupported version");
+        assertEquals("Unsupported table version", exception.getMessage(),
+                "load() unsupported version message");
+
+        Path badCount = copyWithInt("count.dat", 12, 7000);
+        exception = assertThrows(IOException.class,
+            () -> HandRankTable.load(badCount), "load() invalid size");
+        assertEquals("Invalid table size", exception.getMessage(), "load() invalid size message");
+
+        Path corrupt = copyWithInt("corrupt.dat", HandRankTable.HEADER_BYTES + 40000, -1);
+        exception = assertThrows(IOException.class,
+            () -> HandRankTable.load(corrupt), "load() checksum mismatch");
+        assertEquals("Table checksum mismatch", exception.getMessage(),
+                "load() checksum mismatch message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.fromCodes(new int[] {0, 1, 2, 3, 4}).evaluate(null), "evaluate() null");
+        assertEquals("Null table", exception.getMessage(), "evaluate() null message");
+    }
+}
@@ -1,5 +1,10 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -53,6 +58,84 @@ public class HandTest {
         assertEquals(new Card(8,'h'), hand.getCard(2), "Card 8 h");
     }
 
+    /**
+     * Tests that the counts and category follow replaced cards, and match the evaluator for
+     * hands reached by random replacements
+     */
+    @Test
+    public void testCategoryAfterReplace() {
+        int[] counts = hand.getCounts();
+        assertEquals(1, counts[6], "one six");
+        counts[6] = 3;
+        assertEquals(1, hand.getCounts()[6], "counts copied");
+        assertEquals(HandCategory.STRAIGHT, hand.getCategory(), "straight");
+        hand.replace(4, new Card(2, 'd'));
+        assertEquals(2, hand.getCounts()[2], "two twos");
+        assertEquals(0, hand.getCounts()[6], "no six");
+        assertEquals(HandCategory.ONE_PAIR, hand.getCategory(), "pair");
+        hand.replace(1, new Card(2, 'h'));
+        assertEquals(HandCategory.THREE_OF_A_KIND, hand.getCategory(), "three");
+        hand.replace(2, new Card(5, 'c'));
+        assertEquals(HandCategory.FULL_HOUSE, hand.getCategory(), "full house");
+        assertTrue(hand.isFullHouse() && hand.hasOnePair(), "full house predicates");
+
+        Random random = new Random(19);
+        Hand changing = Hand.fromCodes(new int[] {0, 1, 2, 3, 4});
+        for (int i = 0; i < 100000; i++) {
+            long mask = changing.getMask();
+            int code = random.nextInt(Card.CODES);
+            if ((mask >>> code & 1) == 0) {
+                changing.replaceCode(random.nextInt(Hand.CARDS_IN_HAND), code);
+            }
+            assertEquals(VideoPoker.evaluate(changing), changing.getCategory(),
+                         changing.toString());
+        }
+    }
+
+    /**
+     * Tests creating a hand from card codes and replacing cards by code
+     */
+    @Test
+    public void testFromCodes() {
+        int[] codes = {0, 14, 41, 29, 4};
+        Hand fromCodes = Hand.fromCodes(codes);
+        assertTrue(hand.equals(fromCodes), "hand from codes");
+        codes[0] = 51;
+        assertEquals(new Card(2, 'c'), fromCodes.getCard(0), "codes are copied");
+        fromCodes.replaceCode(2, Card.code(8, 'h'));
+        assertEquals(new Card(8, 'h'), fromCodes.getCard(2), "Card 8 h");
+        assertEquals(Card.code(8, 'h'), fromCodes.getCardCode(2), "Card 8 h code");
+    }
+
+    /**
+     * Tests converting hands to and from card masks
+     */
+    @Test
+    public void testMask() {
+        long mask = (1L << 0) | (1L << 14) | (1L << 41) | (1L << 29) | (1L << 4);
+        assertEquals(mask, hand.getMask(), "mask of hand");
+        Hand fromMask = Hand.fromMask(mask);
+        assertTrue(hand.equals(fromMask), "hand from mask");
+        assertEquals(0, fromMask.getCardCode(0), "cards ordered by code");
+        assertEquals(41, fromMask.getCardCode(4), "cards ordered by code");
+        assertTrue(fromMask.isStraight(), "straight from mask");
+    }
+
+    /**
+     * Tests that the predicates do not depend on the order they are called in
+     */
+    @Test
+    public void testPredicatesIndependentOfOrder() {
+        Card[] cards = {new Card(6,'h'), new Card(3,'d'), new Card(3,'c'), new Card(3,'s'),
+                        new Card(6,'c')};
+        Hand fullHouse = new Hand(cards);
+        assertTrue(fullHouse.isFullHouse(), "full house before other predicates");
+        assertTrue(fullHouse.hasOnePair(), "pair within full house");
+        assertFalse(fullHouse.hasTwoPairs(), "full house is not two pairs");
+        assertTrue(fullHouse.hasThreeOfAKind(), "three within full house");
+        assertTrue(fullHouse.isFullHouse(), "full house after other predicates");
+    }
+
     /**
      * Tests the toString() method
      */
@@ -79,6 +162,34 @@ public class HandTest {
         assertFalse(hand.equals("Hand"), "hand compared to String");
     }
 
+    /**
+     * Tests that hands with the same cards in any order are equal with equal hash codes, and
+     * can be used as hash map keys
+     */
+    @Test
+    public void testHashCode() {
+        Hand reordered = Hand.fromCodes(new int[] {hand.getCardCode(4), hand.getCardCode(2),
+            hand.getCardCode(0), hand.getCardCode(3), hand.getCardCode(1)});
+        assertEquals(hand, reordered, "reordered");
+        assertEquals(hand.hashCode(), reordered.hashCode(), "reordered hash code");
+        Map<Hand, String> cache = new HashMap<Hand, String>();
+        cache.put(hand, "straight");
+        assertEquals("straight", cache.get(reordered), "map lookup");
+
+        reordered.replace(0, new Card(14, 'h'));
+        assertNotEquals(hand, reordered, "replaced card");
+        reordered.replace(0, new Card(6, 'c'));
+        assertEquals(hand, reordered, "card put back");
+        assertEquals(hand.hashCode(), reordered.hashCode(), "card put back hash code");
+
+        // Hands holding a card twice have the same mask but are still told apart
+        Hand twice = Hand.fromCodes(new int[] {0, 0, 1, 2, 3});
+        Hand other = Hand.fromCodes(new int[] {0, 1, 1, 2, 3});
+        assertEquals(twice.getMask(), other.getMask(), "same mask");
+        assertNotEquals(twice, other, "different cards");
+        assertEquals(twice, Hand.fromCodes(new int[] {3, 0, 2, 0, 1}), "same cards twice");
+    }
+
     /**
      * Tests the isFlush() method
      */
@@ -187,6 +298,77 @@ public class HandTest {
         assertFalse(hand.isFullHouse(), "not full house hand");
     }
 
+    /**
+     * Builds a hand from value and suit pairs
+     * @param values for the card values
+     * @param suits for the card suits
+     * @return the hand
+     */
+    private static Hand hand(int[] values, String suits) {
+        Card[] cards = new Card[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cards[i] = new Card(values[i], suits.charAt(i));
+        }
+        return new Hand(cards);
+    }
+
+    /**
+     * Tests that hands of one category are ordered by their kickers
+     */
+    @Test
+    public void testCompareTo() {
+        Hand tensFull = hand(new int[] {10, 10, 10, 2, 2}, "cdhcd");
+        Hand ninesFull = hand(new int[] {9, 9, 9, 14, 14}, "cdhcd");
+        assertTrue(tensFull.compareTo(ninesFull) > 0, "higher three of a kind wins");
+        assertTrue(ninesFull.compareTo(tensFull) < 0, "lower three of a kind loses");
+        Hand aceFlush = hand(new int[] {14, 9, 7, 4, 2}, "hhhhh");
+        Hand kingFlush = hand(new int[] {13, 12, 11, 9, 8}, "sssss");
+        assertTrue(aceFlush.compareTo(kingFlush) > 0, "highest card of flush wins");
+        Hand pair = hand(new int[] {8, 8, 13, 5, 3}, "cdhsc");
+        Hand samePair = hand(new int[] {8, 8, 13, 5, 3}, "hsdcd");
+        assertEquals(0, pair.compareTo(samePair), "same values tie");
+        assertNotEquals(pair, samePair, "tied hands differ");
+        assertTrue(pair.compareTo(hand(new int[] {8, 8, 13, 5, 2}, "hsdcd")) > 0, "kicker");
+
+        assertEquals(HandEvaluator.evaluate(pair), pair.getStrength(), "strength");
+        pair.replace(4, new Card(8, 'h'));
+        assertEquals(HandEvaluator.evaluate(pair), pair.getStrength(), "strength replaced");
+        assertEquals(HandEvaluator.THREE_OF_A_KIND,
+                     HandEvaluator.getCategory(pair.getStrength()), "three of a kind");
+    }
+
+    /**
+     * Tests finding the winners of showdowns and sorting hands by strength
+     */
+    @Test
+    public void testShowdown() {
+        Hand straight = hand(new int[] {5, 6, 7, 8, 9}, "cdhsc");
+        Hand otherStraight = hand(new int[] {9, 8, 7, 6, 5}, "hhhhd");
+        Hand twoPairs = hand(new int[] {4, 4, 12, 12, 3}, "cdhsc");
+        Hand flush = hand(new int[] {2, 4, 6, 8, 10}, "ddddd");
+        assertArrayEquals(new int[] {3}, Hand.winners(new Hand[] {straight, twoPairs,
+            otherStraight, flush}), "flush wins");
+        assertArrayEquals(new int[] {0, 2}, Hand.winners(new Hand[] {straight, twoPairs,
+            otherStraight}), "split pot");
+
+        Random random = new Random(22);
+        Hand[] hands = new Hand[1000];
+        for (int i = 0; i < hands.length; i++) {
+            long mask = 0;
+            while (Long.bitCount(mask) < Hand.CARDS_IN_HAND) {
+                mask |= 1L << random.nextInt(Card.CODES);
+            }
+            hands[i] = Hand.fromMask(mask);
+        }
+        Hand[] sorted = hands.clone();
+        Hand.sortByStrength(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1].compareTo(sorted[i]) <= 0, "sorted " + i);
+        }
+        Arrays.sort(hands);
+        assertArrayEquals(hands, sorted, "same order as a stable comparator sort");
+    }
+
     /**
      * Tests exceptions
      */
@@ -252,5 +434,37 @@ public class HandTest {
         assertEquals("Null card", exception.getMessage(),
                 "replace() null card message");
 
+        // Testing fromMask() with too few cards and with bits past the last card
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.fromMask(0xFL), "fromMask() four cards");
+        assertEquals("Invalid mask", exception.getMessage(), "fromMask() four cards message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.fromMask(0xFL | (1L << 52)), "fromMask() invalid card");
+        assertEquals("Invalid mask", exception.getMessage(), "fromMask() invalid card message");
+
+        // Testing fromCodes() with an invalid code
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.fromCodes(new int[] {0, 1, 2, 3, 52}), "fromCodes() invalid code");
+        assertEquals("Invalid code", exception.getMessage(),
+                "fromCodes() invalid code message");
+
+        // Testing replaceCode() with an invalid code
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> hand.replaceCode(0, -1), "replaceCode() invalid code");
+        assertEquals("Invalid code", exception.getMessage(),
+                "replaceCode() invalid code message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.winners(null), "null showdown");
+        assertEquals("Null array", exception.getMessage(), "null showdown message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.winners(new Hand[0]), "empty showdown");
+        assertEquals("Invalid array length", exception.getMessage(), "empty showdown message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.sortByStrength(new Hand[] {hand, null}), "null hand");
+        assertEquals("Null element", exception.getMessage(), "null hand message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> Hand.sortByStrength(null), "null sort");
+        assertEquals("Null array", exception.getMessage(), "null sort message");
     }
 }
@@ -0,0 +1,165 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests JournalReader class
+ * @author William Morgan
+ */
+public class JournalReaderTest {
+
+    /** Directory holding the segments */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a journal of one record
+     * @return the segment file
+     * @throws IOException if the journal cannot be written
+     */
+    private Path writeOne() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 4, 4)) {
+            journal.append(1, 0, 1, GameJournal.DEAL, 0, 0, -1, -10, 0);
+        }
+        return directory.resolve(GameJournal.segmentName(0));
+    }
+
+    /**
+     * Overwrites one int of a segment
+     * @param file for the segment
+     * @param position for the position of the int
+     * @param value for the new value
+     * @throws IOException if the segment cannot be written
+     */
+    private static void putInt(Path file, int position, int value) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.putInt(position, value);
+        Files.write(file, bytes.array());
+    }
+
+    /**
+     * Tests reading an empty directory and a journal with no records
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testEmpty() throws IOException {
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertFalse(reader.next(), "no segments");
+        }
+        new GameJournal(directory, 4, 4).close();
+        Files.createFile(directory.resolve("notes.txt"));
+        assertEquals(1, JournalReader.segments(directory).length, "only segments listed");
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertFalse(reader.next(), "no records");
+        }
+    }
+
+    /**
+     * Tests that a segment is mapped at its full size with the header in place
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testSegmentFormat() throws IOException {
+        Path file = writeOne();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(GameJournal.HEADER_BYTES + 4 * GameJournal.RECORD_BYTES, bytes.capacity(),
+                     "segment size");
+        assertEquals(GameJournal.MAGIC, bytes.getInt(0), "magic");
+        assertEquals(GameJournal.VERSION, bytes.getInt(4), "version");
+        assertEquals(GameJournal.RECORD_BYTES, bytes.getInt(8), "record size");
+        assertEquals(4, bytes.getInt(12), "records per segment");
+        assertEquals(1, bytes.getLong(GameJournal.HEADER_BYTES), "first record");
+    }
+
+    /**
+     * Tests that a zeroed record in the middle of a segment is reported rather than ending
+     * the segment, and that only the type byte being lost is reported too
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void testZeroedRecord() throws IOException {
+        try (GameJournal journal = new GameJournal(directory, 8, 4)) {
+            for (int game = 1; game <= 5; game++) {
+                journal.append(1, 0, game, GameJournal.DEAL, 0, 0, -1, -10, 0);
+            }
+        }
+        Path file = directory.resolve(GameJournal.segmentName(0));
+        int third = GameJournal.HEADER_BYTES + 2 * GameJournal.RECORD_BYTES;
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[third + 28] = 0;
+        Files.write(file, bytes);
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertTrue(reader.next() && reader.next(), "records before the torn one");
+            Exception exception = assertThrows(IOException.class, reader::next, "torn");
+            assertEquals("Invalid journal record", exception.getMessage(), "torn message");
+        }
+
+        Arrays.fill(bytes, third, third + GameJournal.RECORD_BYTES, (byte) 0);
+        Files.write(file, bytes);
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertTrue(reader.next() && reader.next(), "records before the zeroed one");
+            assertEquals(1, reader.getRecord(), "second record");
+            Exception exception = assertThrows(IOException.class, reader::next, "zeroed");
+            assertEquals("Invalid journal record", exception.getMessage(), "zeroed message");
+        }
+
+        int fifth = GameJournal.HEADER_BYTES + 4 * GameJournal.RECORD_BYTES;
+        Arrays.fill(bytes, third, fifth + GameJournal.RECORD_BYTES, (byte) 0);
+        Files.write(file, bytes);
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertTrue(reader.next() && reader.next(), "records before the zeroed tail");
+            assertFalse(reader.next(), "zeroed tail ends the segment");
+        }
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if the journal cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new JournalReader((Path) null), "null directory");
+        assertEquals("Null directory", exception.getMessage(), "null directory message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new JournalReader(new Path[] {null}), "null file");
+        assertEquals("Null files", exception.getMessage(), "null file message");
+
+        Path file = writeOne();
+        try (JournalReader reader = new JournalReader(directory)) {
+            exception = assertThrows(IllegalStateException.class, reader::getSession,
+                                     "before first");
+            assertEquals("No record", exception.getMessage(), "before first message");
+            reader.next();
+            exception = assertThrows(IllegalArgumentException.class,
+                () -> reader.getCardCode(5), "invalid index");
+            assertEquals("Invalid index", exception.getMessage(), "invalid index message");
+        }
+
+        putInt(file, GameJournal.HEADER_BYTES + 28, 0x7F000000);
+        exception = assertThrows(IOException.class,
+            () -> new JournalReader(directory).next(), "invalid type");
+        assertEquals("Invalid journal record", exception.getMessage(), "type message");
+
+        putInt(file, 12, 5);
+        exception = assertThrows(IOException.class,
+            () -> new JournalReader(directory).next(), "wrong size");
+        assertEquals("Invalid journal size", exception.getMessage(), "size message");
+
+        putInt(file, 4, GameJournal.VERSION + 1);
+        exception = assertThrows(IOException.class,
+            () -> new JournalReader(directory).next(), "wrong version");
+        assertEquals("Unsupported journal version", exception.getMessage(), "version message");
+
+        putInt(file, 0, 0);
+        exception = assertThrows(IOException.class,
+            () -> new JournalReader(directory).next(), "wrong magic");
+        assertEquals("Invalid journal header", exception.getMessage(), "header message");
+    }
+}
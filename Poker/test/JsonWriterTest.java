@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests JsonWriter class
+ * @author William Morgan
+ */
+public class JsonWriterTest {
+
+    /**
+     * Tests writing nested objects and arrays with commas between members and elements
+     */
+    @Test
+    public void testStructure() {
+        JsonWriter json = new JsonWriter(4);
+        json.beginObject()
+            .name("id").value(12)
+            .name("inGame").value(true)
+            .name("codes").beginArray().value(0).value(-7).value(Long.MAX_VALUE).endArray()
+            .name("empty").beginObject().endObject()
+            .name("category").value((String) null)
+            .endObject();
+        assertEquals("{\"id\":12,\"inGame\":true,\"codes\":[0,-7,9223372036854775807],"
+                     + "\"empty\":{},\"category\":null}", json.toString(), "document");
+        assertEquals(json.toString().length(), json.size(), "size");
+
+        json.reset().beginArray().value(Long.MIN_VALUE).value(false).endArray();
+        assertEquals("[-9223372036854775808,false]", json.toString(), "reused");
+    }
+
+    /**
+     * Tests escaping strings
+     */
+    @Test
+    public void testEscape() {
+        JsonWriter json = new JsonWriter();
+        json.value("a\"b\\c\n\u00e9\u20ac\ud83c\udca1");
+        assertEquals("\"a\\\"b\\\\c\\u000a\u00e9\u20ac\ud83c\udca1\"", json.toString(),
+                     "escaped and encoded");
+        assertEquals(15 + 2 + 3 + 4, json.size(), "UTF-8 length");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new JsonWriter(0), "zero capacity");
+        assertEquals("Invalid capacity", exception.getMessage(), "zero capacity message");
+
+        exception = assertThrows(IllegalStateException.class,
+            () -> new JsonWriter().endObject(), "nothing open");
+        assertEquals("Nothing open", exception.getMessage(), "nothing open message");
+
+        JsonWriter json = new JsonWriter();
+        for (int i = 0; i < JsonWriter.MAX_DEPTH; i++) {
+            json.beginArray();
+        }
+        exception = assertThrows(IllegalStateException.class, json::beginArray, "too deep");
+        assertEquals("Too deep", exception.getMessage(), "too deep message");
+    }
+}
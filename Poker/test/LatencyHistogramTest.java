@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests LatencyHistogram class
+ * @author William Morgan
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests that every value falls in a bucket whose range holds it and that the buckets are
+     * no wider than the stated precision
+     */
+    @Test
+    public void testBuckets() {
+        assertEquals(960, LatencyHistogram.BUCKETS, "buckets");
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 65, 1000, 999999, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.highestValue(bucket), "within " + value);
+            assertTrue(bucket == 0 || value > LatencyHistogram.highestValue(bucket - 1),
+                       "above previous " + value);
+            long width = LatencyHistogram.highestValue(bucket)
+                - (bucket == 0 ? -1 : LatencyHistogram.highestValue(bucket - 1));
+            assertTrue(width == 1 || width <= value / 16.0 + 1, "precision " + value);
+        }
+        for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.highestValue(bucket)),
+                         "bucket " + bucket);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.BUCKETS - 1),
+                     "last bucket");
+    }
+
+    /**
+     * Tests count, mean, maximum and percentiles
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99), "empty");
+        assertEquals(0, histogram.getMean(), "empty mean");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 100);
+        }
+        histogram.record(-5);
+        assertEquals(1001, histogram.getCount(), "count");
+        assertEquals(100000, histogram.getMax(), "max");
+        assertEquals(500.5 * 100 * 1000 / 1001, histogram.getMean(), 1e-9, "mean");
+        assertEquals(0, histogram.getPercentile(0), "minimum");
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 50000 && median <= 50000 * 1.07, "median " + median);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 99000 && p99 <= 100000, "p99 " + p99);
+        assertEquals(100000, histogram.getPercentile(100), "maximum");
+    }
+
+    /**
+     * Tests recording from several threads at once
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount(), "count");
+        assertEquals(9999, histogram.getMax(), "max");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> histogram.getPercentile(101), "above 100");
+        assertEquals("Invalid percentile", exception.getMessage(), "above 100 message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> histogram.getPercentile(Double.NaN), "not a number");
+        assertEquals("Invalid percentile", exception.getMessage(), "not a number message");
+    }
+}
@@ -0,0 +1,165 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests MultiHandVideoPoker class
+ * @author William Morgan
+ */
+public class MultiHandVideoPokerTest {
+
+    /**
+     * Tests that every hand keeps the held cards and draws the others from the cards that
+     * were not dealt, without repeats
+     */
+    @Test
+    public void testDraw() {
+        MultiHandVideoPoker game = new MultiHandVideoPoker(1, MultiHandVideoPoker.HUNDRED_PLAY);
+        game.newGame();
+        long dealt = 0;
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            dealt |= 1L << game.getDealtCode(i);
+        }
+        assertEquals(VideoPoker.CARDS_IN_HAND, Long.bitCount(dealt), "five cards dealt");
+        int holdMask = 0b01010;
+        game.draw(holdMask);
+        long firstHand = 0;
+        boolean handsDiffer = false;
+        for (int hand = 0; hand < game.getHands(); hand++) {
+            long cards = 0;
+            for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+                int code = game.getFinalCode(hand, i);
+                if ((holdMask & (1 << i)) != 0) {
+                    assertEquals(game.getDealtCode(i), code, "held card " + i);
+                } else {
+                    assertEquals(0, dealt & (1L << code), "drawn card not dealt");
+                }
+                cards |= 1L << code;
+            }
+            assertEquals(VideoPoker.CARDS_IN_HAND, Long.bitCount(cards), "no repeats");
+            if (hand == 0) {
+                firstHand = cards;
+            } else {
+                handsDiffer |= cards != firstHand;
+            }
+        }
+        assertTrue(handsDiffer, "hands draw independently");
+    }
+
+    /**
+     * Tests that every hand is scored and paid
+     */
+    @Test
+    public void testPoints() {
+        MultiHandVideoPoker game = new MultiHandVideoPoker(2, MultiHandVideoPoker.FIVE_PLAY);
+        game.newGame();
+        assertEquals(VideoPoker.STARTING_POINTS - 5 * VideoPoker.POINTS_FOR_NEW_GAME,
+                     game.getPoints(), "cost of five hands");
+        int paid = game.draw(0);
+        int expected = 0;
+        int counted = 0;
+        int[] counts = game.getCategoryCounts();
+        for (int hand = 0; hand < game.getHands(); hand++) {
+            int[] codes = new int[VideoPoker.CARDS_IN_HAND];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = game.getFinalCode(hand, i);
+            }
+            HandCategory category = VideoPoker.evaluate(Hand.fromCodes(codes));
+            assertEquals(category, game.getCategory(hand), "category of hand " + hand);
+            expected += VideoPoker.getPayout(category);
+        }
+        for (int count : counts) {
+            counted += count;
+        }
+        assertEquals(expected, paid, "points paid");
+        assertEquals(5, counted, "every hand counted");
+        assertEquals(VideoPoker.STARTING_POINTS - 5 * VideoPoker.POINTS_FOR_NEW_GAME + paid,
+                     game.getPoints(), "points after draw");
+    }
+
+    /**
+     * Tests that holding every card gives every hand the dealt cards, and that games with
+     * the same seed deal the same cards
+     */
+    @Test
+    public void testHoldAll() {
+        MultiHandVideoPoker game = new MultiHandVideoPoker(3, MultiHandVideoPoker.TRIPLE_PLAY);
+        MultiHandVideoPoker sameSeed = new MultiHandVideoPoker(3, 1);
+        game.newGame();
+        sameSeed.newGame();
+        game.draw(MultiHandVideoPoker.HOLD_ALL);
+        for (int i = 0; i < VideoPoker.CARDS_IN_HAND; i++) {
+            assertEquals(game.getDealtCode(i), sameSeed.getDealtCode(i), "same seed " + i);
+            for (int hand = 0; hand < game.getHands(); hand++) {
+                assertEquals(game.getDealtCode(i), game.getFinalCode(hand, i), "held " + i);
+            }
+        }
+    }
+
+    /**
+     * Tests that a hand drawing five cards makes each hand category about as often as one
+     * draw from a shuffled deck does
+     */
+    @Test
+    public void testDrawDistribution() {
+        MultiHandVideoPoker game = new MultiHandVideoPoker(4, MultiHandVideoPoker.HUNDRED_PLAY);
+        long[] counts = new long[HandEvaluator.CATEGORIES];
+        int games = 2000;
+        for (int i = 0; i < games; i++) {
+            game.newGame();
+            game.draw(0);
+            int[] gameCounts = game.getCategoryCounts();
+            for (int category = 0; category < counts.length; category++) {
+                counts[category] += gameCounts[category];
+            }
+        }
+        double hands = games * (double) MultiHandVideoPoker.HUNDRED_PLAY;
+        assertEquals(0.422569, counts[HandEvaluator.ONE_PAIR] / hands, 0.005, "one pair");
+        assertEquals(0.047539, counts[HandEvaluator.TWO_PAIRS] / hands, 0.002, "two pairs");
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new MultiHandVideoPoker(1, 0), "no hands");
+        assertEquals("Invalid hands", exception.getMessage(), "no hands message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new MultiHandVideoPoker(1, MultiHandVideoPoker.HUNDRED_PLAY + 1),
+            "too many hands");
+        assertEquals("Invalid hands", exception.getMessage(), "too many hands message");
+
+        MultiHandVideoPoker game = new MultiHandVideoPoker(1, MultiHandVideoPoker.TRIPLE_PLAY);
+        exception = assertThrows(IllegalStateException.class, () -> game.draw(0),
+                                 "draw() before deal");
+        assertEquals("No game", exception.getMessage(), "draw() before deal message");
+
+        game.newGame();
+        exception = assertThrows(IllegalStateException.class, () -> game.getCategory(0),
+                                 "getCategory() before draw");
+        assertEquals("Not drawn", exception.getMessage(), "getCategory() before draw message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> game.draw(32),
+                                 "draw() invalid hold mask");
+        assertEquals("Invalid hold mask", exception.getMessage(),
+                "draw() invalid hold mask message");
+
+        game.draw(0);
+        exception = assertThrows(IllegalStateException.class, () -> game.draw(0),
+                                 "draw() twice");
+        assertEquals("No game", exception.getMessage(), "draw() twice message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> game.getFinalCode(3, 0),
+                                 "getFinalCode() invalid hand");
+        assertEquals("Invalid hand", exception.getMessage(),
+                "getFinalCode() invalid hand message");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> game.getDealtCode(5),
+                                 "getDealtCode() invalid index");
+        assertEquals("Invalid index", exception.getMessage(),
+                "getDealtCode() invalid index message");
+    }
+}
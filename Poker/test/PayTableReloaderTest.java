@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests PayTableReloader class
+ * @author William Morgan
+ */
+public class PayTableReloaderTest {
+
+    /** Directory holding the pay table file */
+    @TempDir
+    Path directory;
+
+    /**
+     * Returns the text of a pay table file paying the default payouts but for royal flushes
+     * @param royalFlush for the royal flush payout, or any text
+     * @return the text, ending with the royal flush
+     */
+    private static String table(String royalFlush) {
+        StringBuilder text = new StringBuilder("name=Test\ncost=10\n");
+        for (HandCategory category : HandCategory.values()) {
+            if (category != HandCategory.ROYAL_FLUSH) {
+                text.append(category.name()).append('=')
+                    .append(PayTable.DEFAULT.getPayout(category)).append('\n');
+            }
+        }
+        return text.append("ROYAL_FLUSH=").append(royalFlush).append('\n').toString();
+    }
+
+    /**
+     * Writes a pay table file
+     * @param file for the file to be written
+     * @param royalFlush for the royal flush payout, or any text
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(Path file, String royalFlush) throws IOException {
+        Files.write(file, table(royalFlush).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests reloading on demand, keeping the last good table when the file is invalid
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testReload() throws IOException {
+        Path file = directory.resolve("table.properties");
+        write(file, "100");
+        VideoPoker game = new VideoPoker(1);
+        try (PayTableReloader reloader = new PayTableReloader(file, game::setPayTable)) {
+            assertEquals(100, game.getPayTable().getPayout(HandCategory.ROYAL_FLUSH), "loaded");
+            write(file, "500");
+            assertTrue(reloader.reload(), "valid file");
+            assertEquals(500, game.getPayTable().getPayout(HandCategory.ROYAL_FLUSH), "reloaded");
+            write(file, "lots");
+            assertFalse(reloader.reload(), "invalid file");
+            assertEquals("Invalid payout", reloader.getLastError().getMessage(), "last error");
+            assertSame(reloader.getCurrent(), game.getPayTable(), "last good table kept");
+            assertEquals(500, reloader.getCurrent().getPayout(HandCategory.ROYAL_FLUSH),
+                         "last good table");
+        }
+    }
+
+    /**
+     * Tests that changes to the file are picked up by the watching thread
+     * @throws Exception if the file cannot be written or the wait is interrupted
+     */
+    @Test
+    public void testWatch() throws Exception {
+        Path file = directory.resolve("table.properties");
+        write(file, "100");
+        AtomicReference<PayTable> published = new AtomicReference<PayTable>();
+        try (PayTableReloader reloader = new PayTableReloader(file, published::set)) {
+            reloader.start();
+            write(file, "700");
+            long deadline = System.nanoTime() + 30000000000L;
+            while (published.get().getPayout(HandCategory.ROYAL_FLUSH) != 700
+                   && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(700, published.get().getPayout(HandCategory.ROYAL_FLUSH), "watched");
+        }
+    }
+
+    /**
+     * Tests that a file cut off before its last category, as when it is read half written,
+     * is rejected on demand and never published by the watching thread
+     * @throws Exception if the file cannot be written or the wait is interrupted
+     */
+    @Test
+    public void testTruncated() throws Exception {
+        Path file = directory.resolve("table.properties");
+        write(file, "100");
+        String truncated = table("800");
+        truncated = truncated.substring(0, truncated.indexOf("ROYAL_FLUSH"));
+        AtomicReference<PayTable> published = new AtomicReference<PayTable>();
+        try (PayTableReloader reloader = new PayTableReloader(file, published::set)) {
+            Files.write(file, truncated.getBytes(StandardCharsets.UTF_8));
+            assertFalse(reloader.reload(), "truncated file");
+            assertEquals("Missing payout", reloader.getLastError().getMessage(), "last error");
+            assertEquals(100, published.get().getPayout(HandCategory.ROYAL_FLUSH), "kept");
+
+            reloader.start();
+            Files.write(file, truncated.getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(4 * PayTableReloader.SETTLE_MILLIS);
+            assertEquals(100, published.get().getPayout(HandCategory.ROYAL_FLUSH),
+                         "truncated file not published");
+            write(file, "800");
+            long deadline = System.nanoTime() + 30000000000L;
+            while (published.get().getPayout(HandCategory.ROYAL_FLUSH) != 800
+                   && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(800, published.get().getPayout(HandCategory.ROYAL_FLUSH),
+                         "finished file");
+        }
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Path file = directory.resolve("table.properties");
+        write(file, "100");
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new PayTableReloader(file, null), "null listener");
+        assertEquals("Null listener", exception.getMessage(), "null listener message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new PayTableReloader(null, table -> { }), "null file");
+        assertEquals("Null file", exception.getMessage(), "null file message");
+
+        try (PayTableReloader reloader = new PayTableReloader(file, table -> { })) {
+            reloader.start();
+            exception = assertThrows(IllegalStateException.class, () -> reloader.start(),
+                                     "started twice");
+            assertEquals("Already started", exception.getMessage(), "started twice message");
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests PayTable class
+ * @author William Morgan
+ */
+public class PayTableTest {
+
+    /** Directory for pay table files written by the tests */
+    @TempDir
+    Path tempDirectory;
+
+    /**
+     * Builds properties for a table paying only royal flushes
+     * @param cost for the cost property
+     * @param royalFlush for the royal flush property
+     * @return the properties
+     */
+    private static Properties royalOnly(String cost, String royalFlush) {
+        Properties properties = new Properties();
+        properties.setProperty(PayTable.NAME_KEY, "Royal only");
+        properties.setProperty(PayTable.COST_KEY, cost);
+        properties.setProperty("ROYAL_FLUSH", royalFlush);
+        return properties;
+    }
+
+    /**
+     * Tests that the default table holds the VideoPoker payouts
+     */
+    @Test
+    public void testDefault() {
+        assertEquals(VideoPoker.POINTS_FOR_NEW_GAME, PayTable.DEFAULT.getCost(), "cost");
+        assertEquals(VideoPoker.ROYAL_FLUSH, PayTable.DEFAULT.getPayout(HandCategory.ROYAL_FLUSH),
+                     "royal flush");
+        assertEquals(VideoPoker.ONE_PAIR, PayTable.DEFAULT.getPayout(HandEvaluator.ONE_PAIR),
+                     "one pair");
+        assertEquals(0, PayTable.DEFAULT.getPayout(HandCategory.NO_PAIR), "no pair");
+    }
+
+    /**
+     * Tests that the bundled default file holds the default table and the other bundled
+     * files load
+     * @throws IOException if a file cannot be read
+     */
+    @Test
+    public void testBundledTables() throws IOException {
+        Path directory = Paths.get(PayTable.DIRECTORY);
+        assertEquals(PayTable.DEFAULT, PayTable.load(directory.resolve("default.properties")),
+                     "default file");
+        assertEquals("Bonus", PayTable.load(directory.resolve("bonus.properties")).getName(),
+                     "bonus file");
+        assertEquals("Double Bonus",
+                     PayTable.load(directory.resolve("double-bonus.properties")).getName(),
+                     "double bonus file");
+    }
+
+    /**
+     * Tests that tags follow the cost and payouts, not the name, and fit in a byte
+     * @throws IOException if a file cannot be read
+     */
+    @Test
+    public void testTag() throws IOException {
+        PayTable renamed = new PayTable("Renamed", PayTable.DEFAULT.getCost(),
+                                        PayTable.DEFAULT.getPayouts());
+        assertEquals(PayTable.DEFAULT.getTag(), renamed.getTag(), "same payouts");
+        Path directory = Paths.get(PayTable.DIRECTORY);
+        PayTable bonus = PayTable.load(directory.resolve("bonus.properties"));
+        PayTable doubleBonus = PayTable.load(directory.resolve("double-bonus.properties"));
+        assertNotEquals(PayTable.DEFAULT.getTag(), bonus.getTag(), "bonus");
+        assertNotEquals(bonus.getTag(), doubleBonus.getTag(), "double bonus");
+        for (PayTable table : new PayTable[] {PayTable.DEFAULT, bonus, doubleBonus}) {
+            assertTrue(table.getTag() >= 1 && table.getTag() <= PayTable.MAX_TAG,
+                       table.getName() + " tag in range");
+        }
+    }
+
+    /**
+     * Tests building a table from properties, with unlisted categories paying nothing
+     */
+    @Test
+    public void testFromProperties() {
+        PayTable table = PayTable.fromProperties(royalOnly(" 5 ", "800"));
+        assertEquals("Royal only", table.getName(), "name");
+        assertEquals(5, table.getCost(), "cost");
+        assertEquals(800, table.getPayout(HandCategory.ROYAL_FLUSH), "royal flush");
+        assertEquals(0, table.getPayout(HandCategory.FULL_HOUSE), "full house");
+        int[] payouts = table.getPayouts();
+        payouts[HandCategory.FULL_HOUSE.ordinal()] = 9;
+        assertEquals(0, table.getPayout(HandCategory.FULL_HOUSE), "payouts copied");
+    }
+
+    /**
+     * Tests that games pay with the table they started with
+     */
+    @Test
+    public void testVideoPokerPayTable() {
+        PayTable royalOnly = PayTable.fromProperties(royalOnly("3", "800"));
+        VideoPoker game = new VideoPoker(1, royalOnly);
+        assertSame(royalOnly, game.getPayTable(), "pay table");
+        game.newGame();
+        game.setPayTable(PayTable.DEFAULT);
+        String score = game.scoreHand();
+        int expected = VideoPoker.STARTING_POINTS - 3;
+        if (score.equals(HandCategory.ROYAL_FLUSH.getDisplayName())) {
+            expected += 800;
+        }
+        assertEquals(expected, game.getPoints(), "paid by the starting table");
+        game.newGame();
+        assertEquals(expected - VideoPoker.POINTS_FOR_NEW_GAME, game.getPoints(),
+                     "next game costs the new table's cost");
+    }
+
+    /**
+     * Tests exceptions
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void testExceptions() throws IOException {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new PayTable("Short", 10, new int[3]), "short payouts");
+        assertEquals("Invalid payouts length", exception.getMessage(), "short payouts message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new PayTable("Free", 0, new int[HandEvaluator.CATEGORIES]), "zero cost");
+        assertEquals("Invalid cost", exception.getMessage(), "zero cost message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.fromProperties(royalOnly("10", "-1")), "negative payout");
+        assertEquals("Invalid payout", exception.getMessage(), "negative payout message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.fromProperties(royalOnly("10", "lots")), "unreadable payout");
+        assertEquals("Invalid payout", exception.getMessage(), "unreadable payout message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.fromProperties(royalOnly("ten", "100")), "unreadable cost");
+        assertEquals("Invalid cost", exception.getMessage(), "unreadable cost message");
+
+        Properties unknown = royalOnly("10", "100");
+        unknown.setProperty("FIVE_OF_A_KIND", "1000");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.fromProperties(unknown), "unknown key");
+        assertEquals("Unknown key", exception.getMessage(), "unknown key message");
+
+        Properties noCost = royalOnly("10", "100");
+        noCost.remove(PayTable.COST_KEY);
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.fromProperties(noCost), "missing cost");
+        assertEquals("Missing cost", exception.getMessage(), "missing cost message");
+
+        Path partial = tempDirectory.resolve("partial.properties");
+        Files.write(partial, "name=Partial\ncost=10\nROYAL_FLUSH=100\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> PayTable.load(partial), "file missing categories");
+        assertEquals("Missing payout", exception.getMessage(), "file missing categories message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new VideoPoker(1, null), "null pay table");
+        assertEquals("Null pay table", exception.getMessage(), "null pay table message");
+    }
+}
@@ -0,0 +1,173 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests SevenCardEvaluator class
+ * @author William Morgan
+ */
+public class SevenCardEvaluatorTest {
+
+    /**
+     * Builds seven cards from value and suit pairs
+     * @param values for the card values
+     * @param suits for the card suits
+     * @return the cards
+     */
+    private static Card[] cards(int[] values, String suits) {
+        Card[] cards = new Card[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cards[i] = new Card(values[i], suits.charAt(i));
+        }
+        return cards;
+    }
+
+    /**
+     * Finds the value of the best five of seven cards by evaluating all 21 hands, with
+     * A-2-3-4-5 scored as a five high straight or straight flush as in Hold'em
+     * @param codes for the codes of the cards
+     * @return the value of the best hand
+     */
+    private static int bestOfTwentyOne(int[] codes) {
+        int best = 0;
+        int[] chosen = new int[Hand.CARDS_IN_HAND];
+        for (int i = 0; i < codes.length; i++) {
+            for (int j = i + 1; j < codes.length; j++) {
+                for (int k = 0, n = 0; k < codes.length; k++) {
+                    if (k != i && k != j) {
+                        chosen[n++] = codes[k];
+                    }
+                }
+                int value = HandEvaluator.evaluate(chosen[0], chosen[1], chosen[2], chosen[3],
+                                                   chosen[4]);
+                int values = 0;
+                for (int code : chosen) {
+                    values |= 1 << Card.codeValue(code);
+                }
+                if (values == (1 << 14 | 1 << 2 | 1 << 3 | 1 << 4 | 1 << 5)) {
+                    int category = HandEvaluator.getCategory(value) == HandEvaluator.FLUSH
+                        ? HandEvaluator.STRAIGHT_FLUSH : HandEvaluator.STRAIGHT;
+                    value = category << HandEvaluator.CATEGORY_SHIFT | 0x54321;
+                }
+                best = Math.max(best, value);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Tests the categories of holdings where the best five cards are not the obvious ones
+     */
+    @Test
+    public void testCategories() {
+        assertEquals(HandEvaluator.FLUSH, SevenCardEvaluator.getCategory(
+            SevenCardEvaluator.evaluate(cards(new int[] {2, 5, 6, 7, 8, 9, 13}, "hhhhdhc"))),
+            "flush over straight");
+        assertEquals(HandEvaluator.STRAIGHT_FLUSH, SevenCardEvaluator.getCategory(
+            SevenCardEvaluator.evaluate(cards(new int[] {4, 5, 6, 7, 8, 9, 14}, "ssssssh"))),
+            "six card straight flush");
+        assertEquals(HandEvaluator.ROYAL_FLUSH, SevenCardEvaluator.getCategory(
+            SevenCardEvaluator.evaluate(cards(new int[] {9, 10, 11, 12, 13, 14, 2}, "ccccccd"))),
+            "royal flush");
+        assertEquals(HandEvaluator.FULL_HOUSE, SevenCardEvaluator.getCategory(
+            SevenCardEvaluator.evaluate(cards(new int[] {3, 3, 3, 9, 9, 9, 14}, "cdhcdhs"))),
+            "two threes of a kind");
+        assertEquals(HandEvaluator.FOUR_OF_A_KIND, SevenCardEvaluator.getCategory(
+            SevenCardEvaluator.evaluate(cards(new int[] {6, 6, 6, 6, 13, 13, 13}, "cdhscdh"))),
+            "four of a kind over full house");
+        int threePairs = SevenCardEvaluator.evaluate(cards(new int[] {4, 4, 8, 8, 11, 11, 2},
+                                                           "cdcdcdh"));
+        int twoPairs = HandEvaluator.evaluate(cards(new int[] {8, 8, 11, 11, 4}, "cdcdc"));
+        assertEquals(twoPairs, threePairs, "best two of three pairs with the best kicker");
+    }
+
+    /**
+     * Tests that the ace plays low in a wheel, below every other straight, while video poker
+     * still counts it high
+     */
+    @Test
+    public void testWheel() {
+        int wheel = SevenCardEvaluator.evaluate(cards(new int[] {14, 2, 3, 4, 5, 13, 9},
+                                                      "sdchsdc"));
+        assertEquals(HandEvaluator.STRAIGHT, SevenCardEvaluator.getCategory(wheel), "wheel");
+        int sixHigh = SevenCardEvaluator.evaluate(cards(new int[] {14, 2, 3, 4, 5, 6, 9},
+                                                        "sdchsdc"));
+        assertEquals(HandEvaluator.STRAIGHT, SevenCardEvaluator.getCategory(sixHigh),
+                     "six high straight");
+        assertTrue(sixHigh > wheel, "six high straight beats the wheel");
+        int trips = SevenCardEvaluator.evaluate(cards(new int[] {14, 14, 14, 4, 5, 13, 9},
+                                                      "sdchsdc"));
+        assertTrue(wheel > trips, "wheel beats three of a kind");
+
+        int steelWheel = SevenCardEvaluator.evaluate(cards(new int[] {14, 2, 3, 4, 5, 13, 9},
+                                                           "sssssdc"));
+        assertEquals(HandEvaluator.STRAIGHT_FLUSH, SevenCardEvaluator.getCategory(steelWheel),
+                     "steel wheel");
+        int sevenCardFlush = SevenCardEvaluator.evaluate(cards(new int[] {14, 2, 3, 4, 5, 13,
+                                                                          9}, "sssssss"));
+        assertEquals(steelWheel, sevenCardFlush, "steel wheel over king high flush");
+        int sixHighFlush = SevenCardEvaluator.evaluate(cards(new int[] {14, 2, 3, 4, 5, 6, 9},
+                                                             "sssssss"));
+        assertTrue(sixHighFlush > steelWheel, "six high straight flush beats the steel wheel");
+
+        assertEquals(HandEvaluator.NO_PAIR, HandEvaluator.getCategory(HandEvaluator.evaluate(
+            cards(new int[] {14, 2, 3, 4, 5}, "sdchs"))), "video poker ace high");
+    }
+
+    /**
+     * Tests random holdings against the best of their 21 five card hands, by codes, by cards,
+     * by mask and by key sum
+     */
+    @Test
+    public void testMatchesBestOfTwentyOne() {
+        SplittableRandom random = new SplittableRandom(21);
+        int[] codes = new int[SevenCardEvaluator.CARDS];
+        Card[] cards = new Card[SevenCardEvaluator.CARDS];
+        for (int h = 0; h < 100000; h++) {
+            long mask = 0;
+            for (int i = 0; i < codes.length; ) {
+                int code = random.nextInt(Card.CODES);
+                if ((mask >>> code & 1) == 0) {
+                    mask |= 1L << code;
+                    codes[i] = code;
+                    cards[i++] = Card.fromCode(code);
+                }
+            }
+            int expected = bestOfTwentyOne(codes);
+            assertEquals(expected, SevenCardEvaluator.evaluate(codes[0], codes[1], codes[2],
+                codes[3], codes[4], codes[5], codes[6]), "codes " + mask);
+            assertEquals(expected, SevenCardEvaluator.evaluate(cards), "cards " + mask);
+            assertEquals(expected, SevenCardEvaluator.evaluateMask(mask), "mask " + mask);
+            long keys = 0;
+            for (int code : codes) {
+                keys += SevenCardEvaluator.cardKey(code);
+            }
+            assertEquals(expected, SevenCardEvaluator.evaluateKeys(keys, mask), "keys " + mask);
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> SevenCardEvaluator.evaluate(null), "null array");
+        assertEquals("Null array", exception.getMessage(), "null array message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> SevenCardEvaluator.evaluate(new Card[Hand.CARDS_IN_HAND]), "five cards");
+        assertEquals("Invalid array length", exception.getMessage(), "five cards message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> SevenCardEvaluator.evaluate(new Card[SevenCardEvaluator.CARDS]), "null card");
+        assertEquals("Null element", exception.getMessage(), "null card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> SevenCardEvaluator.evaluate(cards(new int[] {2, 2, 3, 4, 5, 6, 7}, "ccddddd")),
+            "duplicate card");
+        assertEquals("Duplicate card", exception.getMessage(), "duplicate card message");
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> SevenCardEvaluator.cardKey(Card.CODES), "invalid code");
+        assertEquals("Invalid code", exception.getMessage(), "invalid code message");
+    }
+}
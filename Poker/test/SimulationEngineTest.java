@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests SimulationEngine class
+ * @author William Morgan
+ */
+public class SimulationEngineTest {
+
+    /**
+     * Tests that hands that are never drawn to occur as often as dealt hands should
+     */
+    @Test
+    public void testDealtFrequencies() {
+        SimulationResult result = new SimulationEngine(HoldPolicy.holdAll(), 2).run(500000, 7);
+        assertEquals(500000, result.getRounds(), "rounds");
+        assertEquals(0.501177, result.getFrequency(HandEvaluator.NO_PAIR), 0.005, "no pair");
+        assertEquals(0.422569, result.getFrequency(HandEvaluator.ONE_PAIR), 0.005, "one pair");
+        assertEquals(0.047539, result.getFrequency(HandEvaluator.TWO_PAIRS), 0.002, "two pairs");
+        long counted = 0;
+        for (int category = 0; category < HandEvaluator.CATEGORIES; category++) {
+            counted += result.getCount(category);
+        }
+        assertEquals(500000, counted, "every round counted once");
+        assertEquals(result.getCount(HandEvaluator.FLUSH), result.getCount(HandCategory.FLUSH),
+                     "count by category");
+    }
+
+    /**
+     * Tests the point flow of a run
+     */
+    @Test
+    public void testPoints() {
+        SimulationResult result = new SimulationEngine(HoldPolicy.holdMatches(), 3).run(10000, 1);
+        assertEquals(10000L * VideoPoker.POINTS_FOR_NEW_GAME, result.getPointsWagered(),
+                     "points wagered");
+        long paid = 0;
+        for (int category = 0; category < HandEvaluator.CATEGORIES; category++) {
+            paid += result.getCount(category) * VideoPoker.getPayout(category);
+        }
+        assertEquals(paid, result.getPointsPaid(), "points paid");
+        assertEquals(paid / (double) result.getPointsWagered(), result.getReturnToPlayer(),
+                     1e-12, "return to player");
+    }
+
+    /**
+     * Tests that runs with the same seed and workers play the same rounds
+     */
+    @Test
+    public void testReproducible() {
+        SimulationEngine engine = new SimulationEngine(HoldPolicy.holdMatches(), 4);
+        SimulationResult first = engine.run(20001, 99);
+        SimulationResult second = engine.run(20001, 99);
+        for (int category = 0; category < HandEvaluator.CATEGORIES; category++) {
+            assertEquals(first.getCount(category), second.getCount(category),
+                         "category " + category);
+        }
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> new SimulationEngine(null), "null policy");
+        assertEquals("Null policy", exception.getMessage(), "null policy message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new SimulationEngine(HoldPolicy.holdAll(), 0), "no workers");
+        assertEquals("Invalid workers", exception.getMessage(), "no workers message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new SimulationEngine(HoldPolicy.holdAll()).run(-1, 0), "negative rounds");
+        assertEquals("Invalid rounds", exception.getMessage(), "negative rounds message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new SimulationResult().getCount(10), "invalid category");
+        assertEquals("Invalid category", exception.getMessage(), "invalid category message");
+    }
+}
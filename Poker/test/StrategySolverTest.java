@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests StrategySolver class
+ * @author William Morgan
+ */
+public class StrategySolverTest {
+
+    /** Solver for the VideoPoker pay table, solved once for all tests */
+    private static StrategySolver solver;
+
+    /**
+     * Solves the VideoPoker pay table
+     */
+    @BeforeAll
+    public static void setUp() {
+        solver = StrategySolver.forVideoPoker();
+        solver.solve();
+    }
+
+    /**
+     * Counts the expected payout of a hold by drawing every possible replacement
+     * @param codes for the codes of the dealt cards
+     * @param holdMask for the held cards
+     * @return the expected payout
+     */
+    private static double drawEveryReplacement(int[] codes, int holdMask) {
+        long dealt = 0;
+        for (int code : codes) {
+            dealt |= 1L << code;
+        }
+        int[] hand = codes.clone();
+        long[] totals = new long[2];
+        draw(hand, 0, holdMask, dealt, 0, totals);
+        return totals[0] / (double) totals[1];
+    }
+
+    /**
+     * Replaces the discarded cards from the given position on with every remaining card
+     * @param hand for the hand being drawn to
+     * @param position for the next position to fill
+     * @param holdMask for the held cards
+     * @param dealt for the mask of cards that cannot be drawn
+     * @param lowest for the lowest code the next drawn card may have
+     * @param totals for the total payout and number of outcomes
+     */
+    private static void draw(int[] hand, int position, int holdMask, long dealt, int lowest,
+                             long[] totals) {
+        if (position == hand.length) {
+            int category = HandEvaluator.getCategory(
+                HandEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]));
+            totals[0] += VideoPoker.getPayout(category);
+            totals[1]++;
+        } else if ((holdMask & (1 << position)) != 0) {
+            draw(hand, position + 1, holdMask, dealt, lowest, totals);
+        } else {
+            for (int code = lowest; code < Card.CODES; code++) {
+                if ((dealt & (1L << code)) == 0) {
+                    hand[position] = code;
+                    draw(hand, position + 1, holdMask, dealt, code + 1, totals);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that suit renaming leaves the expected number of canonical deals
+     */
+    @Test
+    public void testCanonicalDeals() {
+        assertEquals(134459, solver.getCanonicalDeals(), "canonical deals");
+    }
+
+    /**
+     * Tests holds of a royal flush
+     */
+    @Test
+    public void testRoyalFlush() {
+        int[] royal = {Card.code(13, 'h'), Card.code(10, 'h'), Card.code(14, 'h'),
+                       Card.code(12, 'h'), Card.code(11, 'h')};
+        assertEquals(StrategySolver.HOLDS - 1, solver.getBestHold(royal), "hold every card");
+        assertEquals(VideoPoker.ROYAL_FLUSH, solver.getExpectedValue(royal, 31), 1e-9,
+                     "royal flush payout");
+    }
+
+    /**
+     * Tests expected values against drawing every replacement, for deals whose suits are
+     * renamed before lookup
+     */
+    @Test
+    public void testExpectedValues() {
+        int[] deal = {Card.code(14, 's'), Card.code(13, 's'), Card.code(12, 'd'),
+                      Card.code(2, 'c'), Card.code(12, 'h')};
+        int[] holds = {0b00011, 0b10100, 0b00111, 0b11000};
+        for (int hold : holds) {
+            assertEquals(drawEveryReplacement(deal, hold), solver.getExpectedValue(deal, hold),
+                         1e-9, "hold " + hold);
+        }
+    }
+
+    /**
+     * Tests that the best hold has the greatest expected value and that a pair is held
+     */
+    @Test
+    public void testBestHold() {
+        int[] deal = {Card.code(9, 'c'), Card.code(4, 'd'), Card.code(9, 'h'),
+                      Card.code(7, 's'), Card.code(2, 'c')};
+        int best = solver.getBestHold(deal);
+        for (int hold = 0; hold < StrategySolver.HOLDS; hold++) {
+            assertTrue(solver.getExpectedValue(deal, best)
+                       >= solver.getExpectedValue(deal, hold), "best beats hold " + hold);
+        }
+        assertEquals(0b00101, best & 0b00101, "pair of nines held");
+    }
+
+    /**
+     * Tests that the return to player matches the weighted best holds
+     */
+    @Test
+    public void testReturnToPlayer() {
+        double rtp = solver.getReturnToPlayer();
+        assertTrue(rtp > 0.5 && rtp < 1.0, "return to player " + rtp);
+    }
+
+    /**
+     * Tests exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalStateException.class,
+            () -> StrategySolver.forVideoPoker().getReturnToPlayer(), "not solved");
+        assertEquals("Not solved", exception.getMessage(), "not solved message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> new StrategySolver(new int[3], 10), "short payouts");
+        assertEquals("Invalid payouts length", exception.getMessage(), "short payouts message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> solver.getBestHold(new int[] {1, 1, 2, 3, 4}), "repeated card");
+        assertEquals("Invalid deal", exception.getMessage(), "repeated card message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> solver.getExpectedValue(new int[] {0, 1, 2, 3, 4}, 32), "hold mask 32");
+        assertEquals("Invalid hold mask", exception.getMessage(), "hold mask 32 message");
+    }
+}
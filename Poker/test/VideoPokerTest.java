@@ -60,4 +60,66 @@ public class VideoPokerTest {
         assertEquals(90, vp.getPoints(), "Initial game");
     }
 
+    /**
+     * Test that evaluating a hand gives its category without changing points
+     */
+    @Test
+    public void testEvaluate() {
+        Hand straight = Hand.fromCodes(new int[] {Card.code(9, 'h'), Card.code(10, 'd'),
+                                                  Card.code(11, 'c'), Card.code(12, 's'),
+                                                  Card.code(13, 'c')});
+        assertEquals(HandCategory.STRAIGHT, VideoPoker.evaluate(straight), "straight");
+        assertEquals(100, vp.getPoints(), "points unchanged");
+        assertEquals(VideoPoker.STRAIGHT, VideoPoker.getPayout(HandCategory.STRAIGHT),
+                     "straight payout");
+        assertEquals(0, VideoPoker.getPayout(HandCategory.NO_PAIR), "no pair payout");
+    }
+
+    /**
+     * Test that scoring a hand adds the payout of its category
+     */
+    @Test
+    public void testScoreHand() {
+        vp.newGame();
+        String score = vp.scoreHand();
+        HandCategory category = null;
+        for (HandCategory each : HandCategory.values()) {
+            if (each.getDisplayName().equals(score)) {
+                category = each;
+            }
+        }
+        assertNotNull(category, "score is a category name");
+        assertEquals(90 + VideoPoker.getPayout(category), vp.getPoints(), "points after score");
+    }
+
+    /**
+     * Tests that the category of the current hand follows replaced cards
+     */
+    @Test
+    public void testGetCategory() {
+        vp.newGame();
+        for (int i = 0; i < Hand.CARDS_IN_HAND; i++) {
+            vp.replaceCard(i);
+            Card[] cards = new Card[Hand.CARDS_IN_HAND];
+            for (int j = 0; j < cards.length; j++) {
+                cards[j] = vp.getCard(j);
+            }
+            assertEquals(VideoPoker.evaluate(new Hand(cards)), vp.getCategory(), "card " + i);
+        }
+        assertEquals(vp.getCategory().getDisplayName(), vp.scoreHand(), "scored category");
+    }
+
+    /**
+     * Test exceptions
+     */
+    @Test
+    public void testExceptions() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+            () -> VideoPoker.getPayout(null), "getPayout() null");
+        assertEquals("Null category", exception.getMessage(), "getPayout() null message");
+
+        exception = assertThrows(IllegalArgumentException.class,
+            () -> VideoPoker.evaluate(null), "evaluate() null");
+        assertEquals("Null hand", exception.getMessage(), "evaluate() null message");
+    }
 }